@@ -3,33 +3,49 @@ package interfaccia.grafica;
 import javax.swing.JComponent;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
-import javax.swing.JPanel;
 import javax.swing.JTextField;
 import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
 import modello.Bacheca;
+import modello.RapportoImportazione;
 import modello.Utente;
+import modello.persistenza.CommitDiGruppo;
 import interfaccia.grafica.vista.BachecaPanel;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.text.Normalizer;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 public class InterfacciaGrafica extends JFrame {
 
     private Bacheca model;
     private Utente utente;
+    private transient CommitDiGruppo persistenza;
 
     public InterfacciaGrafica() {
         this.model = new Bacheca();
+        // metriche via JMX e su file, solo se avviato con -Dbacheca.metriche=true
+        this.model.getMetriche().pubblica("gui");
 
         // Creazione dell'utente (con sanitizzazione input dalla GUI)
         LogIn();
 
-        // Caricamento degli annunci da file
-        caricaBacheca();
+        // i salvataggi dopo ogni modifica passano da un unico scrittore in background
+        this.persistenza = new CommitDiGruppo(() -> model.salvaAnnunciSuFile("annunci.txt"));
 
         // Configurazione del JFrame
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                persistenza.close(); // attende gli ultimi salvataggi
+                model.getMetriche().fermaPubblicazione();
+            }
+        });
         setTitle("Bacheca Annunci");
 
-        JPanel bachecaPanel = new BachecaPanel(model, utente);
+        BachecaPanel bachecaPanel = new BachecaPanel(model, utente, persistenza);
         setContentPane(bachecaPanel);
 
         pack();
@@ -38,16 +54,53 @@ public class InterfacciaGrafica extends JFrame {
         setVisible(true);
 
         System.out.println("[DEBUG] La GUI è stata caricata e resa visibile.");
+
+        // Caricamento degli annunci da file, in background: la bacheca si riempie
+        // man mano (il pannello si aggiorna da solo ogni 2 secondi)
+        caricaBacheca(bachecaPanel);
     }
 
-    private void caricaBacheca() {
-        try {
-            this.model.caricaAnnunciDaFile("src/annunci.txt");
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Errore nel caricamento degli annunci: " + e.getMessage(), "Errore",
-                    JOptionPane.ERROR_MESSAGE);
-            System.exit(0);
-        }
+    /**
+     * Carica gli annunci in un thread di background, mostrando l'avanzamento.
+     * Le righe malformate vengono saltate e riassunte alla fine; se il file non
+     * si può leggere la finestra viene chiusa senza salvare nulla.
+     */
+    private void caricaBacheca(BachecaPanel bachecaPanel) {
+        bachecaPanel.mostraAvanzamento(0, 0);
+        new SwingWorker<RapportoImportazione, long[]>() {
+            @Override
+            protected RapportoImportazione doInBackground() throws Exception {
+                return model.caricaAnnunciDaFile("annunci.txt",
+                        (letti, totali, annunci) -> publish(new long[] { totali == 0 ? 100 : letti * 100 / totali,
+                                annunci }));
+            }
+
+            @Override
+            protected void process(List<long[]> aggiornamenti) {
+                long[] ultimo = aggiornamenti.get(aggiornamenti.size() - 1);
+                bachecaPanel.mostraAvanzamento((int) ultimo[0], ultimo[1]);
+            }
+
+            @Override
+            protected void done() {
+                RapportoImportazione rapporto;
+                try {
+                    rapporto = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable causa = e instanceof ExecutionException ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(InterfacciaGrafica.this,
+                            "Errore nel caricamento degli annunci: " + causa.getMessage(), "Errore",
+                            JOptionPane.ERROR_MESSAGE);
+                    dispose();
+                    return;
+                }
+                bachecaPanel.caricamentoTerminato();
+                if (rapporto.getNumeroErrori() > 0) {
+                    JOptionPane.showMessageDialog(InterfacciaGrafica.this, rapporto.riepilogo(10),
+                            "Righe non caricate", JOptionPane.WARNING_MESSAGE);
+                }
+            }
+        }.execute();
     }
 
     private void LogIn() {
@@ -10,28 +10,56 @@ import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 
 import interfaccia.grafica.vista.ContentPanel;
 import modello.Annuncio;
 import modello.Bacheca;
 import modello.Utente;
+import modello.persistenza.CommitDiGruppo;
 
 public class ControlloBacheca implements ActionListener {
 	private Bacheca model;
 	private ContentPanel view;
 	private Utente utente;
+	private CommitDiGruppo persistenza;
+	private volatile boolean caricamentoInCorso;
 
 	/**
 	 * Inizializza il controller per svolgere le operazioni
 	 * 
-	 * @param view   La vista per poterla aggiornare dopo ogni operazione
-	 * @param model  La bacheca caricata
-	 * @param utente L'utente che ha effettuato l'eccesso
+	 * @param view        La vista per poterla aggiornare dopo ogni operazione
+	 * @param model       La bacheca caricata
+	 * @param utente      L'utente che ha effettuato l'eccesso
+	 * @param persistenza Il salvataggio in background usato dopo ogni modifica
 	 */
-	public ControlloBacheca(ContentPanel view, Bacheca model, Utente utente) {
+	public ControlloBacheca(ContentPanel view, Bacheca model, Utente utente, CommitDiGruppo persistenza) {
 		this.model = model;
 		this.view = view;
 		this.utente = utente;
+		this.persistenza = persistenza;
+	}
+
+	/**
+	 * Chiede il salvataggio su file senza bloccare l'interfaccia; se non riesce,
+	 * l'errore viene mostrato appena il salvataggio fallisce.
+	 */
+	private void salva() {
+		persistenza.richiedi().exceptionally(e -> {
+			SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null,
+					"Errore nel salvataggio degli annunci: " + e.getMessage(), "Errore", JOptionPane.ERROR_MESSAGE));
+			return null;
+		});
+	}
+
+	/**
+	 * Finché il caricamento da file è in corso si può solo cercare: un
+	 * salvataggio scriverebbe sul file una bacheca ancora incompleta.
+	 *
+	 * @param caricamentoInCorso true durante il caricamento
+	 */
+	public void setCaricamentoInCorso(boolean caricamentoInCorso) {
+		this.caricamentoInCorso = caricamentoInCorso;
 	}
 
 	@Override
@@ -39,6 +67,13 @@ public class ControlloBacheca implements ActionListener {
 		JButton source = (JButton) e.getSource();
 		String scelta = source.getText();
 
+		if (caricamentoInCorso && !scelta.equals("Cerca Annunci")) {
+			JOptionPane.showMessageDialog(null,
+					"Caricamento degli annunci in corso: attendi la fine per modificare la bacheca.",
+					"Caricamento in corso", JOptionPane.INFORMATION_MESSAGE);
+			return;
+		}
+
 		switch (scelta) {
 			case "Aggiungi Annuncio":
 				aggiungi();
@@ -98,7 +133,7 @@ public class ControlloBacheca implements ActionListener {
 
 				Annuncio annuncio = new Annuncio(utente, titolo, prezzo, tipologia, paroleChiave, dataScadenza);
 				model.aggiungiAnnuncio(annuncio);
-				model.salvaAnnunciSuFile("src/annunci.txt");
+				salva();
 
 				JOptionPane.showMessageDialog(null, "Annuncio aggiunto con successo!");
 
@@ -135,7 +170,7 @@ public class ControlloBacheca implements ActionListener {
 
 				int id = Integer.parseInt(idField.getText());
 				model.rimuoviAnnuncio(id, utente);
-				model.salvaAnnunciSuFile("src/annunci.txt");
+				salva();
 
 				JOptionPane.showMessageDialog(null, "Annuncio rimosso con successo!");
 			} catch (Exception ex) {
@@ -252,7 +287,7 @@ public class ControlloBacheca implements ActionListener {
 	private void pulisci() {
 		try {
 			if (model.pulisciBacheca()) {
-				model.salvaAnnunciSuFile("src/annunci.txt");
+				salva();
 				JOptionPane.showMessageDialog(null, "Annunci scaduti rimossi con successo!");
 			} else {
 				JOptionPane.showMessageDialog(null, "Nessun annuncio scaduto trovato!");
@@ -279,7 +314,7 @@ public class ControlloBacheca implements ActionListener {
 				String nuovaParola = paroleField.getText();
 
 				model.aggiungiNuovaParolaChiave(id, utente, nuovaParola);
-				model.salvaAnnunciSuFile("src/annunci.txt");
+				salva();
 
 				JOptionPane.showMessageDialog(null, "Annuncio modificato con successo!");
 			} catch (Exception ex) {
@@ -6,19 +6,24 @@ import javax.swing.border.EmptyBorder;
 
 import interfaccia.grafica.controllo.ControlloBacheca;
 import modello.*;
+import modello.persistenza.CommitDiGruppo;
 
 @SuppressWarnings("serial")
 public class BachecaPanel extends JPanel {
 
+	private final ControlloBacheca controllo;
+	private final JProgressBar avanzamento;
+
 	/**
 	 * Inizializza il pannello con il titolo in alto, sotto le operazioni e sotto il
 	 * contenuto della bacheca (all'interno di uno JScrollPane). Il pannello utente
 	 * viene posizionato in fondo.
 	 *
-	 * @param model  La bacheca caricata da file
-	 * @param utente L'utente che ha fatto l'accesso
+	 * @param model       La bacheca caricata da file
+	 * @param utente      L'utente che ha fatto l'accesso
+	 * @param persistenza Il salvataggio in background della bacheca
 	 */
-	public BachecaPanel(Bacheca model, Utente utente) {
+	public BachecaPanel(Bacheca model, Utente utente, CommitDiGruppo persistenza) {
 		// Layout principale
 		setLayout(new BorderLayout(10, 10));
 		setBorder(new EmptyBorder(10, 10, 10, 10));
@@ -32,11 +37,17 @@ public class BachecaPanel extends JPanel {
 		titlePanel.setOpaque(false);
 		titlePanel.add(titleLabel, BorderLayout.CENTER);
 
+		// Barra di avanzamento del caricamento, visibile solo mentre carica
+		avanzamento = new JProgressBar(0, 100);
+		avanzamento.setStringPainted(true);
+		avanzamento.setVisible(false);
+		titlePanel.add(avanzamento, BorderLayout.SOUTH);
+
 		// Componenti della bacheca
 		ContentPanel contenutoBacheca = new ContentPanel(model);
 		contenutoBacheca.setOpaque(false);
 
-		ControlloBacheca controllo = new ControlloBacheca(contenutoBacheca, model, utente);
+		controllo = new ControlloBacheca(contenutoBacheca, model, utente, persistenza);
 
 		OpsPanel operazioniBacheca = new OpsPanel(controllo);
 		operazioniBacheca.setOpaque(false);
@@ -64,4 +75,26 @@ public class BachecaPanel extends JPanel {
 		add(centerPanel, BorderLayout.CENTER);
 		add(utenteBacheca, BorderLayout.SOUTH);
 	}
+
+	/**
+	 * Mostra l'avanzamento del caricamento da file; fino a
+	 * {@link #caricamentoTerminato()} sono permesse solo le ricerche.
+	 *
+	 * @param percentuale byte del file letti, in percentuale
+	 * @param annunci     annunci già caricati
+	 */
+	public void mostraAvanzamento(int percentuale, long annunci) {
+		controllo.setCaricamentoInCorso(true);
+		avanzamento.setValue(percentuale);
+		avanzamento.setString("Caricamento annunci: " + percentuale + "% (" + annunci + " annunci)");
+		avanzamento.setVisible(true);
+	}
+
+	/**
+	 * Nasconde la barra di avanzamento e riabilita le modifiche.
+	 */
+	public void caricamentoTerminato() {
+		avanzamento.setVisible(false);
+		controllo.setCaricamentoInCorso(false);
+	}
 }
@@ -0,0 +1,478 @@
+package interfaccia.http;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import modello.Annuncio;
+import modello.Bacheca;
+import modello.OperazioniBacheca;
+import modello.RapportoImportazione;
+import modello.Utente;
+import modello.exception.AnnuncioException;
+import modello.exception.AutoreNonAutorizzatoException;
+import modello.exception.BachecaException;
+import modello.exception.UtenteException;
+import modello.json.CodificaAnnuncio;
+import modello.json.Json;
+import modello.persistenza.CommitDiGruppo;
+
+/**
+ * Interfaccia HTTP/JSON della bacheca, basata sul server HTTP del JDK
+ * ({@code com.sun.net.httpserver}) con un thread virtuale per richiesta. Tutte
+ * le richieste lavorano sulla stessa bacheca ({@link Bacheca} o
+ * {@link modello.BachecaPartizionata}), che è thread-safe.
+ *
+ * <p>
+ * Endpoint (corpi e risposte in JSON; chi modifica un annuncio si identifica
+ * con {@code email} e {@code nome} nel corpo). Gli annunci hanno sempre la
+ * forma di {@link CodificaAnnuncio}, in lettura come in scrittura:
+ * </p>
+ * <ul>
+ * <li>{@code GET /annunci} - tutti gli annunci</li>
+ * <li>{@code POST /annunci} - aggiunge un annuncio ({@code id} facoltativo,
+ * {@code email}, {@code nome}, {@code articolo}, {@code prezzo},
+ * {@code tipologia}, {@code paroleChiave}, {@code dataScadenza}); per un
+ * acquisto restituisce anche le vendite compatibili</li>
+ * <li>{@code GET /annunci/{id}} - un annuncio</li>
+ * <li>{@code DELETE /annunci/{id}} - rimuove un annuncio (solo l'autore)</li>
+ * <li>{@code POST /annunci/{id}/parole} - aggiunge la parola chiave
+ * {@code parola} (solo l'autore)</li>
+ * <li>{@code GET /ricerca?parole=a,b[&distanza=k]} - ricerca per parole chiave,
+ * approssimata se {@code distanza > 0}</li>
+ * <li>{@code GET /ricerca?prefisso=p} - ricerca per prefisso</li>
+ * <li>le ricerche accettano {@code limite} (default {@value #LIMITE_PREDEFINITO},
+ * al più {@value #LIMITE_MASSIMO}) e {@code offset} per la paginazione; la
+ * risposta riporta anche il {@code totale} degli annunci trovati</li>
+ * <li>{@code GET /suggerimenti?prefisso=p[&massimo=n]} - autocompletamento</li>
+ * <li>{@code POST /pulizia} - rimuove gli annunci scaduti</li>
+ * <li>{@code GET /salute} - controllo di vita per il bilanciatore</li>
+ * <li>{@code GET /esportazione} - tutti gli annunci in NDJSON, inviati man mano
+ * che vengono scritti</li>
+ * <li>{@code POST /importazione} - aggiunge gli annunci di un corpo NDJSON
+ * (letto in streaming, senza il limite di dimensione degli altri corpi) e
+ * restituisce il rapporto con gli errori per riga</li>
+ * </ul>
+ */
+public class InterfacciaHttp {
+
+    /** Porta usata se non ne viene indicata un'altra. */
+    public static final int PORTA_PREDEFINITA = 8080;
+
+    /** Numero di annunci restituiti da una ricerca se non indicato. */
+    public static final int LIMITE_PREDEFINITO = 50;
+
+    /** Numero massimo di annunci restituiti da una ricerca. */
+    public static final int LIMITE_MASSIMO = 1000;
+
+    /** Dimensione massima accettata per il corpo di una richiesta. */
+    private static final int CORPO_MASSIMO = 64 * 1024;
+
+    private final OperazioniBacheca bacheca;
+    private final CommitDiGruppo persistenza;
+    private final HttpServer server;
+    private final ExecutorService esecutore;
+
+    /**
+     * Crea il server sulla porta indicata (0 per una porta libera qualsiasi),
+     * senza avviarlo.
+     *
+     * @param bacheca bacheca condivisa da tutte le richieste
+     * @param porta   porta TCP
+     * @throws IOException se la porta non è disponibile
+     */
+    public InterfacciaHttp(OperazioniBacheca bacheca, int porta) throws IOException {
+        this(bacheca, porta, null);
+    }
+
+    /**
+     * Come {@link #InterfacciaHttp(OperazioniBacheca, int)}, ma ogni richiesta che
+     * modifica la bacheca riceve la risposta solo quando la modifica è su disco.
+     * Le richieste concorrenti condividono lo stesso salvataggio grazie al
+     * commit di gruppo.
+     *
+     * @param bacheca     bacheca condivisa da tutte le richieste
+     * @param porta       porta TCP
+     * @param persistenza salvataggio di gruppo della bacheca (null per non
+     *                    salvare)
+     * @throws IOException se la porta non è disponibile
+     */
+    public InterfacciaHttp(OperazioniBacheca bacheca, int porta, CommitDiGruppo persistenza) throws IOException {
+        this.bacheca = bacheca;
+        this.persistenza = persistenza;
+        this.server = HttpServer.create(new InetSocketAddress(porta), 0);
+        this.esecutore = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(esecutore);
+        server.createContext("/annunci", scambio -> gestisci(scambio, this::annunci));
+        server.createContext("/ricerca", scambio -> gestisci(scambio, this::ricerca));
+        server.createContext("/suggerimenti", scambio -> gestisci(scambio, this::suggerimenti));
+        server.createContext("/pulizia", scambio -> gestisci(scambio, this::pulizia));
+        server.createContext("/salute", scambio -> gestisci(scambio, this::salute));
+        server.createContext("/esportazione", this::esportazione);
+        server.createContext("/importazione", scambio -> gestisci(scambio, this::importazione));
+    }
+
+    /** Avvia il server. */
+    public void avvia() {
+        server.start();
+    }
+
+    /**
+     * Ferma il server, lasciando al più un secondo alle richieste in corso.
+     */
+    public void ferma() {
+        server.stop(1);
+        esecutore.close();
+    }
+
+    /** Porta su cui il server è in ascolto. */
+    public int getPorta() {
+        return server.getAddress().getPort();
+    }
+
+    // ------------------------------------------------------------------
+    // Endpoint
+    // ------------------------------------------------------------------
+
+    private Risposta annunci(HttpExchange scambio) throws Exception {
+        String metodo = scambio.getRequestMethod();
+        String[] parti = percorso(scambio, "/annunci");
+
+        if (parti.length == 0) {
+            if ("GET".equals(metodo)) {
+                return Risposta.ok(Map.of("annunci", json(bacheca.getAnnunci())));
+            }
+            if ("POST".equals(metodo)) {
+                return aggiungi(Json.leggiOggetto(corpo(scambio)));
+            }
+            return Risposta.metodoNonAmmesso("GET, POST");
+        }
+
+        int id = intero(parti[0], "id");
+        if (parti.length == 1) {
+            if ("GET".equals(metodo)) {
+                Annuncio annuncio = bacheca.cercaPerId(id);
+                return annuncio == null ? Risposta.errore(404, "Annuncio non trovato") : Risposta.ok(CodificaAnnuncio.inMappa(annuncio));
+            }
+            if ("DELETE".equals(metodo)) {
+                Map<String, Object> richiesta = Json.leggiOggetto(corpo(scambio));
+                try {
+                    bacheca.rimuoviAnnuncio(id, utente(richiesta));
+                } catch (BachecaException e) {
+                    return Risposta.errore(404, e.getMessage());
+                }
+                rendiDurevole();
+                return Risposta.ok(Map.of("rimosso", true));
+            }
+            return Risposta.metodoNonAmmesso("GET, DELETE");
+        }
+
+        if (parti.length == 2 && "parole".equals(parti[1])) {
+            if (!"POST".equals(metodo)) {
+                return Risposta.metodoNonAmmesso("POST");
+            }
+            Map<String, Object> richiesta = Json.leggiOggetto(corpo(scambio));
+            Utente utente = utente(richiesta);
+            if (bacheca.cercaPerId(id) == null) {
+                return Risposta.errore(404, "Annuncio non trovato");
+            }
+            bacheca.aggiungiNuovaParolaChiave(id, utente, testo(richiesta, "parola"));
+            rendiDurevole();
+            return Risposta.ok(CodificaAnnuncio.inMappa(bacheca.cercaPerId(id)));
+        }
+        return Risposta.errore(404, "Risorsa non trovata");
+    }
+
+    private Risposta aggiungi(Map<String, Object> richiesta) throws Exception {
+        Annuncio annuncio = CodificaAnnuncio.daMappa(richiesta);
+        List<Annuncio> corrispondenze;
+        try {
+            corrispondenze = bacheca.aggiungiAnnuncio(annuncio);
+        } catch (BachecaException e) {
+            return Risposta.errore(409, e.getMessage());
+        }
+        rendiDurevole();
+        Map<String, Object> risposta = new LinkedHashMap<>();
+        risposta.put("annuncio", CodificaAnnuncio.inMappa(annuncio));
+        risposta.put("corrispondenze", json(corrispondenze));
+        return new Risposta(201, risposta);
+    }
+
+    private Risposta ricerca(HttpExchange scambio) {
+        if (!"GET".equals(scambio.getRequestMethod())) {
+            return Risposta.metodoNonAmmesso("GET");
+        }
+        Map<String, String> parametri = parametri(scambio);
+        List<Annuncio> risultati;
+        if (parametri.containsKey("prefisso")) {
+            risultati = bacheca.cercaPerPrefisso(parametri.get("prefisso"));
+        } else if (parametri.containsKey("parole")) {
+            int distanza = parametri.containsKey("distanza") ? intero(parametri.get("distanza"), "distanza") : 0;
+            risultati = distanza > 0
+                    ? bacheca.cercaPerParolaChiaveFuzzy(parametri.get("parole"), distanza)
+                    : bacheca.cercaPerParolaChiave(parametri.get("parole"));
+        } else {
+            return Risposta.errore(400, "Indicare il parametro 'parole' oppure 'prefisso'");
+        }
+        int limite = parametri.containsKey("limite") ? intero(parametri.get("limite"), "limite") : LIMITE_PREDEFINITO;
+        int offset = parametri.containsKey("offset") ? intero(parametri.get("offset"), "offset") : 0;
+        limite = Math.max(0, Math.min(limite, LIMITE_MASSIMO));
+        offset = Math.max(0, Math.min(offset, risultati.size()));
+
+        Map<String, Object> risposta = new LinkedHashMap<>();
+        risposta.put("totale", risultati.size());
+        risposta.put("annunci", json(risultati.subList(offset, Math.min(risultati.size(), offset + limite))));
+        return Risposta.ok(risposta);
+    }
+
+    private Risposta suggerimenti(HttpExchange scambio) {
+        if (!"GET".equals(scambio.getRequestMethod())) {
+            return Risposta.metodoNonAmmesso("GET");
+        }
+        Map<String, String> parametri = parametri(scambio);
+        int massimo = parametri.containsKey("massimo") ? intero(parametri.get("massimo"), "massimo") : 10;
+        return Risposta.ok(Map.of("suggerimenti",
+                bacheca.suggerisciParole(parametri.getOrDefault("prefisso", ""), massimo)));
+    }
+
+    private Risposta pulizia(HttpExchange scambio) throws IOException {
+        if (!"POST".equals(scambio.getRequestMethod())) {
+            return Risposta.metodoNonAmmesso("POST");
+        }
+        boolean rimosso = bacheca.pulisciBacheca();
+        if (rimosso) {
+            rendiDurevole();
+        }
+        return Risposta.ok(Map.of("rimosso", rimosso));
+    }
+
+    private Risposta salute(HttpExchange scambio) {
+        return Risposta.ok(Map.of("stato", "ok", "annunci", bacheca.getNumeroAnnunci()));
+    }
+
+    /**
+     * Risposta a lunghezza non nota (chunked): gli annunci arrivano al client
+     * mentre vengono serializzati, senza costruire l'intero corpo in memoria.
+     */
+    private void esportazione(HttpExchange scambio) throws IOException {
+        if (!"GET".equals(scambio.getRequestMethod())) {
+            gestisci(scambio, s -> Risposta.metodoNonAmmesso("GET"));
+            return;
+        }
+        scambio.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+        scambio.sendResponseHeaders(200, 0);
+        try (Writer out = new BufferedWriter(
+                new OutputStreamWriter(scambio.getResponseBody(), StandardCharsets.UTF_8))) {
+            bacheca.esportaNdjson(out);
+        }
+    }
+
+    private Risposta importazione(HttpExchange scambio) throws Exception {
+        if (!"POST".equals(scambio.getRequestMethod())) {
+            return Risposta.metodoNonAmmesso("POST");
+        }
+        RapportoImportazione rapporto;
+        try (Reader in = new InputStreamReader(scambio.getRequestBody(), StandardCharsets.UTF_8)) {
+            rapporto = bacheca.importaNdjson(in);
+        }
+        if (rapporto.getAnnunciImportati() > 0) {
+            rendiDurevole();
+        }
+        List<Object> errori = new ArrayList<>();
+        for (RapportoImportazione.ErroreRiga e : rapporto.getErrori()) {
+            errori.add(Map.of("riga", e.riga(), "messaggio", String.valueOf(e.messaggio())));
+        }
+        Map<String, Object> risposta = new LinkedHashMap<>();
+        risposta.put("righeLette", rapporto.getRigheLette());
+        risposta.put("importati", rapporto.getAnnunciImportati());
+        risposta.put("numeroErrori", rapporto.getNumeroErrori());
+        risposta.put("errori", errori);
+        return Risposta.ok(risposta);
+    }
+
+    // ------------------------------------------------------------------
+    // Gestione delle richieste
+    // ------------------------------------------------------------------
+
+    /**
+     * Se è configurato il salvataggio, attende che la modifica appena fatta sia
+     * su disco; il thread virtuale della richiesta resta sospeso senza occupare
+     * un thread di piattaforma.
+     */
+    private void rendiDurevole() throws IOException {
+        if (persistenza == null) {
+            return;
+        }
+        try {
+            persistenza.richiedi().get();
+        } catch (ExecutionException e) {
+            throw new IOException("Salvataggio non riuscito: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Salvataggio interrotto", e);
+        }
+    }
+
+    /** Elaborazione di una richiesta: restituisce la risposta da inviare. */
+    @FunctionalInterface
+    private interface Gestore {
+        Risposta esegui(HttpExchange scambio) throws Exception;
+    }
+
+    /** Stato HTTP e corpo (già in forma di Map/List) di una risposta. */
+    private record Risposta(int stato, Object corpo, String metodiAmmessi) {
+
+        Risposta(int stato, Object corpo) {
+            this(stato, corpo, null);
+        }
+
+        static Risposta ok(Object corpo) {
+            return new Risposta(200, corpo);
+        }
+
+        static Risposta errore(int stato, String messaggio) {
+            return new Risposta(stato, Map.of("errore", messaggio == null ? "" : messaggio));
+        }
+
+        static Risposta metodoNonAmmesso(String ammessi) {
+            return new Risposta(405, Map.of("errore", "Metodo non ammesso"), ammessi);
+        }
+    }
+
+    /** Errore nei dati della richiesta, trasformato in una risposta 400 o 413. */
+    private static final class RichiestaNonValida extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int stato;
+
+        RichiestaNonValida(int stato, String messaggio) {
+            super(messaggio);
+            this.stato = stato;
+        }
+    }
+
+    /**
+     * Esegue il gestore e invia la risposta, traducendo le eccezioni del
+     * modello in codici HTTP.
+     */
+    private void gestisci(HttpExchange scambio, Gestore gestore) throws IOException {
+        Risposta risposta;
+        try {
+            risposta = gestore.esegui(scambio);
+        } catch (RichiestaNonValida e) {
+            risposta = Risposta.errore(e.stato, e.getMessage());
+        } catch (IllegalArgumentException | AnnuncioException | UtenteException e) {
+            risposta = Risposta.errore(400, e.getMessage());
+        } catch (AutoreNonAutorizzatoException e) {
+            risposta = Risposta.errore(403, e.getMessage());
+        } catch (BachecaException e) {
+            risposta = Risposta.errore(409, e.getMessage());
+        } catch (Exception e) {
+            risposta = Risposta.errore(500, "Errore interno: " + e.getMessage());
+        }
+
+        byte[] corpo = Json.scrivi(risposta.corpo()).getBytes(StandardCharsets.UTF_8);
+        scambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (risposta.metodiAmmessi() != null) {
+            scambio.getResponseHeaders().set("Allow", risposta.metodiAmmessi());
+        }
+        scambio.sendResponseHeaders(risposta.stato(), corpo.length);
+        try (OutputStream out = scambio.getResponseBody()) {
+            out.write(corpo);
+        }
+    }
+
+    /**
+     * Segmenti del percorso dopo il prefisso del contesto (es. "/annunci/5/parole"
+     * → ["5", "parole"]).
+     */
+    private static String[] percorso(HttpExchange scambio, String contesto) {
+        String resto = scambio.getRequestURI().getPath().substring(contesto.length());
+        List<String> parti = new ArrayList<>();
+        for (String parte : resto.split("/")) {
+            if (!parte.isEmpty()) {
+                parti.add(parte);
+            }
+        }
+        return parti.toArray(new String[0]);
+    }
+
+    private static String corpo(HttpExchange scambio) throws IOException {
+        try (InputStream in = scambio.getRequestBody()) {
+            byte[] dati = in.readNBytes(CORPO_MASSIMO + 1);
+            if (dati.length > CORPO_MASSIMO) {
+                throw new RichiestaNonValida(413, "Corpo della richiesta troppo grande");
+            }
+            if (dati.length == 0) {
+                throw new RichiestaNonValida(400, "Corpo della richiesta mancante");
+            }
+            return new String(dati, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parametri(HttpExchange scambio) {
+        Map<String, String> parametri = new HashMap<>();
+        String query = scambio.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parametri;
+        }
+        for (String coppia : query.split("&")) {
+            int uguale = coppia.indexOf('=');
+            String nome = uguale < 0 ? coppia : coppia.substring(0, uguale);
+            String valore = uguale < 0 ? "" : coppia.substring(uguale + 1);
+            parametri.put(URLDecoder.decode(nome, StandardCharsets.UTF_8),
+                    URLDecoder.decode(valore, StandardCharsets.UTF_8));
+        }
+        return parametri;
+    }
+
+    private static Utente utente(Map<String, Object> richiesta) throws UtenteException {
+        return new Utente(testo(richiesta, "email"), testo(richiesta, "nome"));
+    }
+
+    private static String testo(Map<String, Object> richiesta, String campo) {
+        Object valore = richiesta.get(campo);
+        if (!(valore instanceof String s)) {
+            throw new RichiestaNonValida(400, "Campo '" + campo + "' mancante o non testuale");
+        }
+        return s;
+    }
+
+    private static int intero(String testo, String nome) {
+        try {
+            return Integer.parseInt(testo.trim());
+        } catch (NumberFormatException e) {
+            throw new RichiestaNonValida(400, "Valore non valido per '" + nome + "': " + testo);
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Conversione in JSON
+    // ------------------------------------------------------------------
+
+    private static List<Object> json(List<Annuncio> annunci) {
+        List<Object> lista = new ArrayList<>(annunci.size());
+        for (Annuncio a : annunci) {
+            lista.add(CodificaAnnuncio.inMappa(a));
+        }
+        return lista;
+    }
+}
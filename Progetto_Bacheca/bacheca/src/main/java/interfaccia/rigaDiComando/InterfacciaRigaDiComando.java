@@ -1,15 +1,19 @@
 package interfaccia.rigaDiComando;
 
 import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.Scanner;
 import modello.Bacheca;
 import modello.Annuncio;
+import modello.RapportoImportazione;
+import modello.Tipologia;
 import modello.Utente;
 import modello.exception.AnnuncioException;
 import modello.exception.AutoreNonAutorizzatoException;
 import modello.exception.BachecaException;
 import modello.exception.UtenteException;
+import modello.persistenza.CommitDiGruppo;
 
 /**
  * Interfaccia a riga di comando per gestire la Bacheca.
@@ -21,36 +25,65 @@ public class InterfacciaRigaDiComando {
     private static final String FILE_NAME = "annunci.txt"; // file nella working directory
 
     private final Bacheca bacheca;
+    private final CommitDiGruppo persistenza;
     private Utente utente;
     private final Scanner scanner;
 
     public InterfacciaRigaDiComando(Scanner scanner) throws BachecaException {
         this.scanner = scanner;
         this.bacheca = new Bacheca();
+        // metriche via JMX e su file, solo se avviato con -Dbacheca.metriche=true
+        this.bacheca.getMetriche().pubblica("cli");
+        // i salvataggi dopo ogni modifica passano da un unico scrittore in background
+        this.persistenza = new CommitDiGruppo(() -> bacheca.salvaAnnunciSuFile(FILE_NAME));
+
+        // Prima il caricamento (senza file si parte vuoti; se il file non si
+        // legge ci si ferma, per non sovrascriverlo con una bacheca incompleta)
+        if (caricaBacheca()) {
+            // Poi login (permette operazioni dell'utente)
+            logIn();
+
+            // Avvia ciclo principale
+            run();
+        }
+        persistenza.close(); // attende gli ultimi salvataggi
+        bacheca.getMetriche().fermaPubblicazione();
+    }
 
-        // Prima il caricamento (se non riesce, si continua con bacheca vuota)
-        caricaBacheca();
-
-        // Poi login (permette operazioni dell'utente)
-        logIn();
-
-        // Avvia ciclo principale
-        run();
+    /**
+     * Chiede il salvataggio su file senza attendere il disco; se non riesce,
+     * stampa il messaggio con l'errore.
+     */
+    private void salva(String messaggioErrore) {
+        persistenza.richiedi().exceptionally(e -> {
+            System.out.println(messaggioErrore + e.getMessage());
+            return null;
+        });
     }
 
     /**
-     * Carica gli annunci da file. Se fallisce, continua con la bacheca vuota
-     * e mostra un messaggio informativo (non termina il programma).
-     * @throws BachecaException 
+     * Carica gli annunci da file: le righe malformate vengono saltate ed
+     * elencate. Se il file non esiste la bacheca parte vuota; se esiste ma non si
+     * riesce a leggerlo restituisce false, perché i salvataggi lo
+     * sovrascriverebbero con una bacheca incompleta.
+     *
+     * @return true se si può proseguire
      */
-    private void caricaBacheca() throws BachecaException {
+    private boolean caricaBacheca() {
         try {
-            this.bacheca.caricaAnnunciDaFile(FILE_NAME);
+            RapportoImportazione rapporto = this.bacheca.caricaAnnunciDaFile(FILE_NAME, null);
             System.out.println("Bacheca caricata da file: " + FILE_NAME);
-        } catch (IOException | AnnuncioException | UtenteException e) {
-            System.out.println("Attenzione: non è stato possibile caricare gli annunci da '" + FILE_NAME + "'.");
-            System.out.println("La bacheca partirà vuota. Errore: " + e.getMessage());
-            // non facciamo System.exit(0) per non terminare l'app
+            if (rapporto.getNumeroErrori() > 0) {
+                System.out.println("Attenzione, righe non caricate. " + rapporto.riepilogo(10));
+            }
+            return true;
+        } catch (NoSuchFileException e) {
+            System.out.println("Nessun file '" + FILE_NAME + "': la bacheca parte vuota.");
+            return true;
+        } catch (IOException e) {
+            System.out.println("Errore: non è stato possibile leggere '" + FILE_NAME + "': " + e.getMessage());
+            System.out.println("L'interfaccia viene chiusa per non sovrascrivere il file.");
+            return false;
         }
     }
 
@@ -167,19 +200,15 @@ public class InterfacciaRigaDiComando {
 
                 ArrayList<Annuncio> risultato = bacheca.aggiungiAnnuncio(annuncio);
 
-                try {
-                    bacheca.salvaAnnunciSuFile(FILE_NAME);
-                } catch (IOException ioe) {
-                    System.out.println("Attenzione: annuncio aggiunto ma non è stato possibile salvare su file: " + ioe.getMessage());
-                }
+                salva("Attenzione: annuncio aggiunto ma non è stato possibile salvare su file: ");
 
                 System.out.println("Annuncio aggiunto con successo! (ID: " + annuncio.getId() + ")");
 
                 // se è acquisto, mostriamo i match in vendita
-                if ("acquisto".equalsIgnoreCase(tipologia) && risultato != null && !risultato.isEmpty()) {
+                if (annuncio.getTipo() == Tipologia.ACQUISTO && risultato != null && !risultato.isEmpty()) {
                     System.out.println("\nAnnunci che potrebbero interessarti:");
                     for (Annuncio ann : risultato) {
-                        if ("vendita".equalsIgnoreCase(ann.getTipologia())) {
+                        if (ann.getTipo() == Tipologia.VENDITA) {
                             System.out.println(ann);
                         }
                     }
@@ -210,11 +239,7 @@ public class InterfacciaRigaDiComando {
                 if (id == 0) return;
 
                 bacheca.rimuoviAnnuncio(id, utente);
-                try {
-                    bacheca.salvaAnnunciSuFile(FILE_NAME);
-                } catch (IOException ioe) {
-                    System.out.println("Attenzione: annuncio rimosso ma non è stato possibile salvare su file: " + ioe.getMessage());
-                }
+                salva("Attenzione: annuncio rimosso ma non è stato possibile salvare su file: ");
                 System.out.println("Annuncio rimosso con successo!");
                 return;
             } catch (NumberFormatException e) {
@@ -252,11 +277,7 @@ public class InterfacciaRigaDiComando {
     private void pulisciBacheca() {
         boolean rimosso = bacheca.pulisciBacheca();
         if (rimosso) {
-            try {
-                bacheca.salvaAnnunciSuFile(FILE_NAME);
-            } catch (IOException ioe) {
-                System.out.println("Annunci rimossi ma errore nel salvataggio: " + ioe.getMessage());
-            }
+            salva("Annunci rimossi ma errore nel salvataggio: ");
             System.out.println("Annunci scaduti rimossi.");
         } else {
             System.out.println("Nessun annuncio scaduto.");
@@ -312,11 +333,7 @@ public class InterfacciaRigaDiComando {
                 }
 
                 if (anyAdded) {
-                    try {
-                        bacheca.salvaAnnunciSuFile(FILE_NAME);
-                    } catch (IOException ioe) {
-                        System.out.println("Parole aggiunte ma errore nel salvataggio: " + ioe.getMessage());
-                    }
+                    salva("Parole aggiunte ma errore nel salvataggio: ");
                     System.out.println("Operazione completata.");
                 } else {
                     System.out.println("Nessuna parola aggiunta.");
@@ -0,0 +1,235 @@
+package main;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.Scanner;
+import javax.swing.SwingUtilities;
+
+import interfaccia.grafica.InterfacciaGrafica;
+import interfaccia.http.InterfacciaHttp;
+import interfaccia.rigaDiComando.InterfacciaRigaDiComando;
+import modello.Bacheca;
+import modello.RapportoImportazione;
+import modello.persistenza.CommitDiGruppo;
+
+/**
+ * Classe Main: punto d'ingresso dell'applicazione.
+ * Permette di scegliere tra interfaccia grafica, interfaccia da riga di
+ * comando e server HTTP. Con l'argomento {@code --http[=porta]} avvia
+ * direttamente il server HTTP senza menu (per l'uso come servizio).
+ *
+ * Nota:
+ * - L'interfaccia grafica viene avviata sulla Event Dispatch Thread (Swing).
+ * - Lo Scanner viene chiuso in modo sicuro alla terminazione del programma.
+ */
+public class Main {
+
+    /** File degli annunci, condiviso con le altre interfacce. */
+    private static final String FILE_NAME = "annunci.txt";
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].startsWith("--http")) {
+            avviaServizioHttp(args[0]);
+            return;
+        }
+
+        Scanner scanner = new Scanner(System.in);
+
+        try {
+            while (true) {
+                stampaMenu();
+
+                String input = scanner.nextLine();
+                if (input == null) {
+                    System.out.println("Input nullo, esco.");
+                    break;
+                }
+                input = input.trim();
+
+                // Permetto anche 'q' per uscire rapidamente
+                if (input.equalsIgnoreCase("q") || input.equals("4")) {
+                    System.out.println("Uscita dal programma...");
+                    break;
+                }
+
+                int scelta;
+                try {
+                    scelta = Integer.parseInt(input);
+                } catch (NumberFormatException e) {
+                    System.out.println(
+                            "Errore: formato scelta non valido. Riprova con un numero tra 1 e 4 (o 'q' per uscire).");
+                    continue;
+                }
+
+                switch (scelta) {
+                    case 1:
+                        System.out.println("Avvio dell'interfaccia grafica...");
+                        // Avvia la GUI nel EDT (buona pratica per Swing)
+                        SwingUtilities.invokeLater(() -> {
+                            try {
+                                new InterfacciaGrafica();
+                            } catch (Exception e) {
+                                // Se l'interfaccia lancia eccezioni, le logghiamo
+                                System.err.println("Errore nell'avvio dell'interfaccia grafica:");
+                                e.printStackTrace();
+                            }
+                        });
+                        // Dopo l'avvio della GUI, torniamo al menu in attesa di altre scelte
+                        break;
+
+                    case 2:
+                        System.out.println("Avvio dell'interfaccia da riga di comando...");
+                        try {
+                            // Si passa lo stesso scanner all'interfaccia CLI per evitare di aprirne uno
+                            // nuovo.
+                            // Si presume che la CLI gestisca internamente il proprio ciclo e ritorni quando
+                            // l'utente esce.
+                            new InterfacciaRigaDiComando(scanner);
+                        } catch (Exception e) {
+                            System.err.println("Errore nell'avvio dell'interfaccia da riga di comando:");
+                            e.printStackTrace();
+                        }
+                        // dopo il ritorno dall'InterfacciaRigaDiComando si mostra di nuovo il menu
+                        break;
+
+                    case 3:
+                        avviaServerHttp(scanner);
+                        break;
+
+                    default:
+                        System.out.println("Scelta non valida. Scegli un'opzione tra 1 e 4 (o 'q' per uscire).");
+                        break;
+                }
+            } // fine loop
+        } finally {
+            // Chiudo lo scanner alla fine del programma (evita leak di risorse).
+            // Attenzione: se l'interfaccia CLI memorizza lo scanner e lo usa dopo il
+            // ritorno,
+            // assicurati che la CLI abbia terminato quando arrivi qui.
+            try {
+                scanner.close();
+            } catch (Exception e) {
+                // non dovrebbe succedere, ma logghiamo in caso
+                System.err.println("Attenzione: errore nella chiusura dello Scanner:");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /** Stampa il menu principale. */
+    private static void stampaMenu() {
+        System.out.println();
+        System.out.println("Benvenuto! Scegli l'interfaccia che vuoi utilizzare:");
+        System.out.println("1. Interfaccia Grafica");
+        System.out.println("2. Interfaccia da Riga di Comando");
+        System.out.println("3. Server HTTP");
+        System.out.println("4. Esci (o premi 'q')");
+        System.out.print("Scelta: ");
+    }
+
+    /**
+     * Avvia il server HTTP dal menu: resta attivo finché l'utente non preme
+     * invio, poi salva la bacheca. Le modifiche ricevute vengono salvate con un
+     * commit di gruppo prima di rispondere.
+     */
+    private static void avviaServerHttp(Scanner scanner) {
+        System.out.print("Porta (invio per " + InterfacciaHttp.PORTA_PREDEFINITA + "): ");
+        String testo = scanner.nextLine().trim();
+        int porta;
+        try {
+            porta = testo.isEmpty() ? InterfacciaHttp.PORTA_PREDEFINITA : Integer.parseInt(testo);
+        } catch (NumberFormatException e) {
+            System.out.println("Porta non valida.");
+            return;
+        }
+
+        Bacheca bacheca = caricaBacheca();
+        if (bacheca == null) {
+            return;
+        }
+        CommitDiGruppo persistenza = new CommitDiGruppo(() -> bacheca.salvaAnnunciSuFile(FILE_NAME));
+        try {
+            InterfacciaHttp server = new InterfacciaHttp(bacheca, porta, persistenza);
+            server.avvia();
+            System.out.println("Server HTTP in ascolto su http://localhost:" + server.getPorta()
+                    + " - premi invio per fermarlo.");
+            scanner.nextLine();
+            server.ferma();
+        } catch (Exception e) {
+            System.err.println("Errore nell'avvio del server HTTP:");
+            e.printStackTrace();
+        }
+        persistenza.close();
+        salvaBacheca(bacheca);
+        bacheca.getMetriche().fermaPubblicazione();
+    }
+
+    /**
+     * Avvia il server HTTP senza menu; si ferma (salvando la bacheca) alla
+     * chiusura della JVM, ad esempio con SIGTERM.
+     *
+     * @param argomento "--http" oppure "--http=porta"
+     */
+    private static void avviaServizioHttp(String argomento) {
+        int uguale = argomento.indexOf('=');
+        int porta = uguale < 0 ? InterfacciaHttp.PORTA_PREDEFINITA
+                : Integer.parseInt(argomento.substring(uguale + 1).trim());
+
+        Bacheca bacheca = caricaBacheca();
+        if (bacheca == null) {
+            System.exit(1);
+        }
+        CommitDiGruppo persistenza = new CommitDiGruppo(() -> bacheca.salvaAnnunciSuFile(FILE_NAME));
+        try {
+            InterfacciaHttp server = new InterfacciaHttp(bacheca, porta, persistenza);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.ferma();
+                persistenza.close();
+                salvaBacheca(bacheca);
+            }, "chiusura-http"));
+            server.avvia();
+            System.out.println("Server HTTP in ascolto su http://localhost:" + server.getPorta());
+        } catch (Exception e) {
+            System.err.println("Errore nell'avvio del server HTTP:");
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Crea la bacheca del server e, se esiste, carica il file degli annunci: le
+     * righe malformate vengono saltate ed elencate.
+     *
+     * @return la bacheca, oppure null se il file esiste ma non si riesce a
+     *         leggerlo (il server non parte, per non sovrascriverlo con una
+     *         bacheca incompleta)
+     */
+    private static Bacheca caricaBacheca() {
+        Bacheca bacheca = new Bacheca();
+        try {
+            RapportoImportazione rapporto = bacheca.caricaAnnunciDaFile(FILE_NAME, null);
+            System.out.println("Bacheca caricata da file: " + FILE_NAME);
+            if (rapporto.getNumeroErrori() > 0) {
+                System.out.println("Attenzione, righe non caricate. " + rapporto.riepilogo(10));
+            }
+        } catch (NoSuchFileException e) {
+            System.out.println("Nessun file '" + FILE_NAME + "': la bacheca parte vuota.");
+        } catch (IOException e) {
+            System.err.println("Impossibile leggere '" + FILE_NAME + "', il server non viene avviato per non "
+                    + "sovrascriverlo. Errore: " + e.getMessage());
+            return null;
+        }
+        // metriche via JMX e su file, solo se avviato con -Dbacheca.metriche=true
+        bacheca.getMetriche().pubblica("http");
+        return bacheca;
+    }
+
+    private static void salvaBacheca(Bacheca bacheca) {
+        try {
+            bacheca.salvaAnnunciSuFile(FILE_NAME);
+            System.out.println("Bacheca salvata su file: " + FILE_NAME);
+        } catch (Exception e) {
+            System.err.println("Errore nel salvataggio della bacheca: " + e.getMessage());
+        }
+    }
+}
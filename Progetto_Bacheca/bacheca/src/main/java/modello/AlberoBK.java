@@ -0,0 +1,138 @@
+package modello;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * BK-tree (Burkhard-Keller) sui termini del dizionario, con distanza di
+ * Levenshtein. Permette di trovare tutti i termini entro una distanza massima
+ * da una parola senza confrontarla con l'intero dizionario: per la
+ * disuguaglianza triangolare si visitano solo i figli a distanza compresa in
+ * [d - k, d + k] dal nodo corrente.
+ *
+ * <p>
+ * L'albero non supporta la rimozione: i termini non più usati restano nel
+ * dizionario ed è compito del chiamante scartarli (ad esempio se nessun
+ * annuncio li contiene più).
+ * </p>
+ */
+public class AlberoBK {
+
+    /** Nodo dell'albero: un termine e i figli indicizzati per distanza. */
+    private static final class Nodo {
+        private final String termine;
+        private Nodo[] figli = new Nodo[0];
+
+        private Nodo(String termine) {
+            this.termine = termine;
+        }
+    }
+
+    private Nodo radice;
+    private int dimensione;
+
+    /**
+     * Aggiunge un termine all'albero (se non già presente).
+     *
+     * @param termine termine da aggiungere (in forma canonica)
+     * @return true se il termine è stato aggiunto
+     */
+    public boolean aggiungi(String termine) {
+        if (termine == null || termine.isEmpty()) {
+            return false;
+        }
+        if (radice == null) {
+            radice = new Nodo(termine);
+            dimensione++;
+            return true;
+        }
+        Nodo corrente = radice;
+        while (true) {
+            int d = distanza(corrente.termine, termine);
+            if (d == 0) {
+                return false; // già presente
+            }
+            if (d >= corrente.figli.length) {
+                corrente.figli = Arrays.copyOf(corrente.figli, d + 1);
+            }
+            Nodo figlio = corrente.figli[d];
+            if (figlio == null) {
+                corrente.figli[d] = new Nodo(termine);
+                dimensione++;
+                return true;
+            }
+            corrente = figlio;
+        }
+    }
+
+    /**
+     * Restituisce i termini a distanza di Levenshtein al più {@code distanzaMassima}
+     * dalla parola data.
+     *
+     * @param parola          parola cercata (in forma canonica)
+     * @param distanzaMassima distanza massima ammessa (>= 0)
+     * @return termini trovati, in ordine di visita
+     */
+    public List<String> cerca(String parola, int distanzaMassima) {
+        List<String> risultati = new ArrayList<>();
+        if (radice == null || parola == null || parola.isEmpty() || distanzaMassima < 0) {
+            return risultati;
+        }
+        Deque<Nodo> daVisitare = new ArrayDeque<>();
+        daVisitare.push(radice);
+        while (!daVisitare.isEmpty()) {
+            Nodo nodo = daVisitare.pop();
+            int d = distanza(nodo.termine, parola);
+            if (d <= distanzaMassima) {
+                risultati.add(nodo.termine);
+            }
+            int da = Math.max(1, d - distanzaMassima);
+            int a = Math.min(nodo.figli.length - 1, d + distanzaMassima);
+            for (int i = da; i <= a; i++) {
+                if (nodo.figli[i] != null) {
+                    daVisitare.push(nodo.figli[i]);
+                }
+            }
+        }
+        return risultati;
+    }
+
+    /**
+     * Restituisce il numero di termini nell'albero.
+     */
+    public int getDimensione() {
+        return dimensione;
+    }
+
+    /**
+     * Distanza di Levenshtein (inserimenti, cancellazioni, sostituzioni), calcolata
+     * su due sole righe della matrice.
+     */
+    static int distanza(String a, String b) {
+        int n = a.length();
+        int m = b.length();
+        if (n == 0) return m;
+        if (m == 0) return n;
+
+        int[] precedente = new int[m + 1];
+        int[] corrente = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            precedente[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            corrente[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                int costo = (ca == b.charAt(j - 1)) ? 0 : 1;
+                corrente[j] = Math.min(Math.min(corrente[j - 1] + 1, precedente[j] + 1), precedente[j - 1] + costo);
+            }
+            int[] tmp = precedente;
+            precedente = corrente;
+            corrente = tmp;
+        }
+        return precedente[m];
+    }
+}
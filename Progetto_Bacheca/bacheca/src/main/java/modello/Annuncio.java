@@ -0,0 +1,525 @@
+package modello;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+import modello.exception.AnnuncioException;
+
+/**
+ * Rappresenta un annuncio pubblicato sulla bacheca.
+ * 
+ * Implementazione robusta e compatibile con la Bacheca e Utente fornite.
+ * Le parole chiave sono memorizzate internamente come id del {@link DizionarioParole}
+ * (ordine d'inserimento, senza duplicati), ma getParoleChiave() restituisce una
+ * stringa separata da virgole per compatibilità con il formato di salvataggio/caricamento.
+ * Per ogni parola viene calcolata una sola volta anche la forma canonica (vedi
+ * {@link #formaCanonica(String)}), i cui id sono tenuti ordinati per permettere
+ * intersezioni per fusione (merge) durante la ricerca.
+ */
+public class Annuncio {
+
+    /** Regex per validare l'intera lista di parole chiave (es. "auto, bici, ricambio") */
+    private static final String PAROLE_CHIAVE_REGEX = "^([\\p{L}0-9 ]+)(,\\s*[\\p{L}0-9 ]+)*$";
+
+    /** Regex per validare una singola parola chiave (lettere/numeri e spazi) */
+    private static final String PAROLA_SINGOLA_REGEX = "^[\\p{L}0-9 ]+$";
+
+    /** Regex per data nel formato yyyy-MM-dd */
+    private static final String DATA_REGEX = "^\\d{4}-\\d{2}-\\d{2}$";
+
+    /** Segni diacritici separati dalla decomposizione NFKD (accenti, dieresi...). */
+    private static final Pattern SEGNI_DIACRITICI = Pattern.compile("\\p{M}+");
+
+    /** Dizionario condiviso in cui sono internate le parole chiave. */
+    private static final DizionarioParole DIZIONARIO = DizionarioParole.globale();
+
+    private final int id;
+    private final Utente autore;
+    private final String articolo;
+    private final long prezzo; // in centesimi (vedi Prezzo)
+    private final Tipologia tipologia;
+    private volatile int[] paroleChiave; // id delle parole come inserite: senza duplicati, in ordine
+    private volatile int[] paroleCanoniche; // id delle forme canoniche: senza duplicati, ordinati
+
+    // Viste calcolate al primo utilizzo e invalidate solo da aggiungiParola
+    private volatile String paroleChiaveTesto; // "auto, bici, ricambio"
+    private volatile List<String> vistaParole; // parole come inserite
+    private volatile Set<String> vistaCanoniche; // forme canoniche
+    private final LocalDate dataScadenza; // null per acquisto
+
+    private static final Random RAND = new Random();
+
+    /**
+     * Costruttore con id esplicito (usato per il caricamento da file).
+     *
+     * @param id identificativo univoco
+     * @param autore autore (non null)
+     * @param articolo nome articolo (non null/non blank)
+     * @param prezzo prezzo in euro > 0 (arrotondato al centesimo)
+     * @param tipologia "acquisto" o "vendita"
+     * @param paroleChiave stringa parole separate da virgola (può essere null/empty)
+     * @param dataScadenza stringa data (yyyy-MM-dd) o null
+     * @throws AnnuncioException se le validazioni falliscono
+     */
+    public Annuncio(int id, Utente autore, String articolo, float prezzo, String tipologia, String paroleChiave, String dataScadenza)
+            throws AnnuncioException {
+        this(id, autore, articolo, Prezzo.centesimi(prezzo), tipologia, paroleChiave, dataScadenza);
+    }
+
+    /**
+     * Costruttore con il prezzo già in centesimi, usato dal caricamento da file
+     * e da {@link #conPrezzoInCentesimi}. Valgono le stesse validazioni del
+     * costruttore pubblico con id.
+     */
+    Annuncio(int id, Utente autore, String articolo, long prezzo, String tipologia, String paroleChiave,
+            String dataScadenza) throws AnnuncioException {
+
+        if (autore == null) {
+            throw new AnnuncioException("Autore non può essere null");
+        }
+        this.autore = autore;
+
+        if (articolo == null || articolo.trim().isEmpty()) {
+            throw new AnnuncioException("Nome articolo non può essere vuoto");
+        }
+        this.articolo = articolo.trim();
+
+        if (prezzo <= 0) {
+            throw new AnnuncioException("Il prezzo deve essere maggiore di zero");
+        }
+        this.prezzo = prezzo;
+
+        if (tipologia == null) {
+            throw new AnnuncioException("Tipologia non può essere null");
+        }
+        Tipologia t = Tipologia.daTesto(tipologia);
+        if (t == null) {
+            throw new AnnuncioException("Tipologia non valida, deve essere 'acquisto' o 'vendita'");
+        }
+        this.tipologia = t;
+
+        // Parole chiave: se null/empty -> set vuoto, altrimenti valida la lista
+        this.paroleChiave = new int[0];
+        this.paroleCanoniche = new int[0];
+        if (paroleChiave != null && !paroleChiave.trim().isEmpty()) {
+            String s = paroleChiave.trim();
+            if (!s.matches(PAROLE_CHIAVE_REGEX)) {
+                throw new AnnuncioException("Formato parole chiave errato, usare parole separate da virgola");
+            }
+            // split e normalizzazione (trim)
+            String[] parts = s.split(",");
+            for (String p : parts) {
+                String pTrim = p.trim();
+                if (!pTrim.isEmpty()) {
+                    memorizzaParola(pTrim);
+                }
+            }
+        }
+
+        // Data scadenza: richiesta per "vendita", nulla per "acquisto"
+        if (this.tipologia == Tipologia.VENDITA) {
+            if (dataScadenza == null || dataScadenza.trim().isEmpty() || !dataScadenza.matches(DATA_REGEX)) {
+                throw new AnnuncioException("Data di scadenza non valida; usare il formato: yyyy-MM-dd");
+            }
+            try {
+                this.dataScadenza = LocalDate.parse(dataScadenza.trim());
+            } catch (DateTimeParseException e) {
+                throw new AnnuncioException("Formato della data non valido. Usare il formato yyyy-MM-dd.");
+            }
+        } else {
+            this.dataScadenza = null;
+        }
+
+        // assegna id (unicità gestita esternamente dalla Bacheca)
+        this.id = id;
+    }
+
+    /**
+     * Costruttore senza validazioni per gli annunci già validati e memorizzati
+     * in forma compatta (vedi {@link BachecaColonnare}). Gli array non vengono
+     * copiati e non devono più essere modificati.
+     *
+     * @param paroleChiave    id delle parole come inserite
+     * @param paroleCanoniche id delle forme canoniche, ordinati
+     */
+    Annuncio(int id, Utente autore, String articolo, long prezzo, Tipologia tipologia, int[] paroleChiave,
+            int[] paroleCanoniche, LocalDate dataScadenza) {
+        this.id = id;
+        this.autore = autore;
+        this.articolo = articolo;
+        this.prezzo = prezzo;
+        this.tipologia = tipologia;
+        this.paroleChiave = paroleChiave;
+        this.paroleCanoniche = paroleCanoniche;
+        this.dataScadenza = dataScadenza;
+    }
+
+    /**
+     * Costruttore che genera automaticamente un id (usabile per creazione runtime).
+     */
+    public Annuncio(Utente autore, String articolo, float prezzo, String tipologia, String paroleChiave, String dataScadenza)
+            throws AnnuncioException {
+        this(generaId(), autore, articolo, prezzo, tipologia, paroleChiave, dataScadenza);
+    }
+
+    /**
+     * Crea un annuncio con il prezzo già in centesimi, senza passare per un
+     * float: oltre i 167.772,16 euro un float non distingue più tutti i
+     * centesimi. Usato dall'importazione JSON.
+     *
+     * @param prezzoCentesimi prezzo in centesimi di euro, > 0
+     * @throws AnnuncioException se le validazioni falliscono
+     */
+    public static Annuncio conPrezzoInCentesimi(int id, Utente autore, String articolo, long prezzoCentesimi,
+            String tipologia, String paroleChiave, String dataScadenza) throws AnnuncioException {
+        return new Annuncio(id, autore, articolo, prezzoCentesimi, tipologia, paroleChiave, dataScadenza);
+    }
+
+    /**
+     * Come {@link #conPrezzoInCentesimi(int, Utente, String, long, String, String, String)},
+     * generando l'id come il costruttore senza id.
+     */
+    public static Annuncio conPrezzoInCentesimi(Utente autore, String articolo, long prezzoCentesimi,
+            String tipologia, String paroleChiave, String dataScadenza) throws AnnuncioException {
+        return new Annuncio(generaId(), autore, articolo, prezzoCentesimi, tipologia, paroleChiave, dataScadenza);
+    }
+
+    /**
+     * Genera un id pseudo-casuale positivo. La garanzia di unicità deve essere fatta
+     * dalla Bacheca (pool di id).
+     */
+    private static int generaId() {
+        // range ampio per ridurre collisioni; la Bacheca controlla comunque i duplicati
+        return Math.abs(RAND.nextInt(Integer.MAX_VALUE - 1)) + 1;
+    }
+
+    /* ------------------ METODI DI UTILITÀ ------------------ */
+
+    /**
+     * Restituisce true se l'annuncio (vendita) è scaduto rispetto a oggi.
+     * Per gli annunci di tipo acquisto ritorna false.
+     */
+    public boolean isScaduto() {
+        return dataScadenza != null && dataScadenza.isBefore(LocalDate.now());
+    }
+
+    /**
+     * Aggiunge una singola parola chiave (valida) all'annuncio.
+     *
+     * @param nuovaParola parola da aggiungere (non null/empty)
+     * @throws AnnuncioException se la parola non rispetta il formato
+     */
+    public void aggiungiParola(String nuovaParola) throws AnnuncioException {
+        if (nuovaParola == null || nuovaParola.trim().isEmpty()) {
+            throw new AnnuncioException("Parola chiave vuota");
+        }
+        String p = nuovaParola.trim();
+        if (!p.matches(PAROLA_SINGOLA_REGEX)) {
+            throw new AnnuncioException("Parola chiave non valida (solo lettere, numeri e spazi ammessi)");
+        }
+        memorizzaParola(p);
+    }
+
+    /**
+     * Interna la parola (già validata e trimmed) e la sua forma canonica nel
+     * dizionario e ne aggiunge gli id all'annuncio. Gli array vengono sostituiti,
+     * non modificati, così chi li sta leggendo (anche da altri thread) non vede
+     * stati intermedi.
+     */
+    private synchronized void memorizzaParola(String parola) {
+        int idParola = DIZIONARIO.id(parola);
+        for (int k : paroleChiave) {
+            if (k == idParola) {
+                return; // già presente
+            }
+        }
+        int[] nuove = Arrays.copyOf(paroleChiave, paroleChiave.length + 1);
+        nuove[paroleChiave.length] = idParola;
+        paroleChiave = nuove;
+
+        int idCanonica = DIZIONARIO.id(formaCanonica(parola));
+        int pos = Arrays.binarySearch(paroleCanoniche, idCanonica);
+        if (pos < 0) {
+            pos = -pos - 1;
+            int[] canoniche = new int[paroleCanoniche.length + 1];
+            System.arraycopy(paroleCanoniche, 0, canoniche, 0, pos);
+            canoniche[pos] = idCanonica;
+            System.arraycopy(paroleCanoniche, pos, canoniche, pos + 1, paroleCanoniche.length - pos);
+            paroleCanoniche = canoniche;
+        }
+
+        // le viste memorizzate non sono più valide
+        paroleChiaveTesto = null;
+        vistaParole = null;
+        vistaCanoniche = null;
+    }
+
+    /**
+     * Verifica se l'annuncio contiene la parola chiave data, confrontando le forme
+     * canoniche (ignora maiuscole e accenti).
+     *
+     * @param parola parola da cercare
+     * @return true se presente tra le parole chiave
+     */
+    public boolean haParolaChiave(String parola) {
+        if (parola == null) {
+            return false;
+        }
+        int idCanonica = DIZIONARIO.cerca(formaCanonica(parola));
+        return idCanonica >= 0 && contieneParolaCanonica(idCanonica);
+    }
+
+    /**
+     * Verifica se l'annuncio contiene la forma canonica con l'id dato (ricerca
+     * binaria, nessuna allocazione).
+     *
+     * @param idCanonica id nel {@link DizionarioParole} di una forma canonica
+     * @return true se presente
+     */
+    public boolean contieneParolaCanonica(int idCanonica) {
+        return Arrays.binarySearch(paroleCanoniche, idCanonica) >= 0;
+    }
+
+    /**
+     * Verifica se l'annuncio contiene almeno una delle forme canoniche date.
+     * Entrambi gli array sono ordinati, quindi basta una fusione lineare.
+     *
+     * @param idOrdinati id di forme canoniche, in ordine crescente
+     * @return true se l'intersezione non è vuota
+     */
+    public boolean contieneAlmenoUna(int[] idOrdinati) {
+        return contieneAlmenoUna(idOrdinati, idOrdinati.length);
+    }
+
+    /**
+     * Come {@link #contieneAlmenoUna(int[])}, considerando solo i primi
+     * {@code quanti} id dell'array (che può essere un buffer riusato).
+     */
+    boolean contieneAlmenoUna(int[] idOrdinati, int quanti) {
+        int[] proprie = paroleCanoniche;
+        int i = 0;
+        int j = 0;
+        while (i < proprie.length && j < quanti) {
+            if (proprie[i] == idOrdinati[j]) {
+                return true;
+            } else if (proprie[i] < idOrdinati[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Id delle parole come inserite, in ordine. Restituisce l'array interno, che
+     * non deve essere modificato.
+     */
+    int[] idParole() {
+        return paroleChiave;
+    }
+
+    /**
+     * Id ordinati delle forme canoniche. Restituisce l'array interno, che non
+     * deve essere modificato.
+     */
+    int[] idParoleCanoniche() {
+        return paroleCanoniche;
+    }
+
+    /**
+     * Calcola la forma canonica di una parola: trim, decomposizione Unicode NFKD,
+     * rimozione dei segni diacritici e conversione in minuscolo. In questo modo
+     * "Città", "CITTA" e "citta" hanno la stessa forma canonica "citta".
+     *
+     * @param parola parola da normalizzare (può essere null)
+     * @return forma canonica (stringa vuota se null)
+     */
+    public static String formaCanonica(String parola) {
+        if (parola == null) {
+            return "";
+        }
+        String s = parola.trim();
+        // scorciatoia per il caso comune: solo ASCII, basta il lowercase
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0x7F) {
+                s = Normalizer.normalize(s, Normalizer.Form.NFKD);
+                s = SEGNI_DIACRITICI.matcher(s).replaceAll("");
+                break;
+            }
+        }
+        return s.toLowerCase(Locale.ROOT);
+    }
+
+    /* ------------------ GETTERS ------------------ */
+
+    public int getId() {
+        return id;
+    }
+
+    public Utente getAutore() {
+        return autore;
+    }
+
+    public String getArticolo() {
+        return articolo;
+    }
+
+    /**
+     * Prezzo in euro come float, per compatibilità con le interfacce. Per
+     * confronti e somme esatti usare {@link #getPrezzoCentesimi()}.
+     */
+    public float getPrezzo() {
+        return prezzo / 100f;
+    }
+
+    /**
+     * Prezzo in centesimi di euro (vedi {@link Prezzo}).
+     */
+    public long getPrezzoCentesimi() {
+        return prezzo;
+    }
+
+    /**
+     * Restituisce la tipologia in lowercase ("acquisto" o "vendita").
+     */
+    public String getTipologia() {
+        return tipologia.getTesto();
+    }
+
+    /**
+     * Restituisce la tipologia come {@link Tipologia}, per confronti senza
+     * stringhe.
+     */
+    public Tipologia getTipo() {
+        return tipologia;
+    }
+
+    /**
+     * Restituisce le parole chiave come stringa separata da virgole (es. "auto,bici,ricambio").
+     * È compatibile con split(",") usato dalla Bacheca (che spesso fa anche trim()).
+     * La stringa viene costruita una sola volta e riusata fino alla prossima
+     * {@link #aggiungiParola(String)}.
+     */
+    public String getParoleChiave() {
+        String testo = paroleChiaveTesto;
+        if (testo == null) {
+            // restituisce le parole separate da virgola + spazio per essere compatibile
+            // con le aspettative dei test (es. "elettronica, TV")
+            int[] sorgente = paroleChiave;
+            StringBuilder sb = new StringBuilder();
+            for (int k : sorgente) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(DIZIONARIO.parola(k));
+            }
+            testo = sb.toString();
+            synchronized (this) {
+                // non memorizzo se nel frattempo è stata aggiunta una parola
+                if (paroleChiave == sorgente) {
+                    paroleChiaveTesto = testo;
+                }
+            }
+        }
+        return testo;
+    }
+
+    /**
+     * Restituisce le parole chiave, come inserite, in una lista non modificabile
+     * (in ordine d'inserimento). La lista è memorizzata: chiamate successive non
+     * allocano nulla finché non viene aggiunta una parola.
+     */
+    public List<String> getListaParoleChiave() {
+        List<String> vista = vistaParole;
+        if (vista == null) {
+            int[] sorgente = paroleChiave;
+            String[] parole = new String[sorgente.length];
+            for (int i = 0; i < parole.length; i++) {
+                parole[i] = DIZIONARIO.parola(sorgente[i]);
+            }
+            vista = List.of(parole);
+            synchronized (this) {
+                if (paroleChiave == sorgente) {
+                    vistaParole = vista;
+                }
+            }
+        }
+        return vista;
+    }
+
+    /**
+     * Restituisce le forme canoniche delle parole chiave (insieme non modificabile,
+     * ordinato per id nel dizionario). Come {@link #getListaParoleChiave()}, è
+     * memorizzato fino alla prossima aggiunta di una parola.
+     */
+    public Set<String> getParoleChiaveCanoniche() {
+        Set<String> vista = vistaCanoniche;
+        if (vista == null) {
+            int[] sorgente = paroleCanoniche;
+            Set<String> canoniche = new LinkedHashSet<>();
+            for (int k : sorgente) {
+                canoniche.add(DIZIONARIO.parola(k));
+            }
+            vista = Collections.unmodifiableSet(canoniche);
+            synchronized (this) {
+                if (paroleCanoniche == sorgente) {
+                    vistaCanoniche = vista;
+                }
+            }
+        }
+        return vista;
+    }
+
+    /**
+     * Restituisce la data di scadenza (null per acquisto).
+     */
+    public LocalDate getDataScadenza() {
+        return dataScadenza;
+    }
+
+    /* ------------------ toString / equals / hashCode ------------------ */
+
+    /**
+     * Formato testuale consigliato (compatibile con parsing usato in Bacheca):
+     * id;autoreToString;articolo;prezzo;tipologia;paroleChiave;dataScadenza
+     */
+    @Override
+    public String toString() {
+        String data = (dataScadenza != null) ? dataScadenza.toString() : "null";
+        return String.format("%d;%s;%s;%s;%s;%s;%s",
+                id,
+                autore.toString(),
+                articolo,
+                Prezzo.formatta(prezzo),
+                tipologia,
+                getParoleChiave(),
+                data);
+    }
+
+    /**
+     * Due annunci sono identificati univocamente dall'id. Questo semplifica l'uso
+     * in collezioni e la gestione della pool di id nella Bacheca.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        Annuncio other = (Annuncio) obj;
+        return id == other.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
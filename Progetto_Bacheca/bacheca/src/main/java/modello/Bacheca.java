@@ -0,0 +1,1614 @@
+package modello;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.*;
+import java.util.stream.Collectors;
+import modello.eventi.*;
+import modello.exception.*;
+import modello.json.CodificaAnnuncio;
+import modello.json.Json;
+import modello.metriche.MetricheBacheca;
+import modello.metriche.MetricheBacheca.Operazione;
+import modello.persistenza.ScritturaAtomica;
+
+/**
+ * Classe che rappresenta la bacheca di annunci.
+ * Implementa {@link OperazioniBacheca}, quindi Iterable<Annuncio> per
+ * permettere la lettura degli annunci (ma non la loro rimozione tramite
+ * l'iterator restituito).
+ *
+ * <p>
+ * La bacheca è thread-safe: le ricerche e le letture condividono un lock di
+ * lettura, le modifiche (aggiunta, rimozione, pulizia, caricamento) prendono
+ * quello di scrittura. Così una sola istanza può servire più utenti insieme
+ * (vedi l'interfaccia HTTP).
+ * </p>
+ */
+public class Bacheca implements OperazioniBacheca {
+
+    /** Lista degli annunci presenti in bacheca (ordine di inserimento). */
+    private final List<Annuncio> annunci;
+
+    /** Pool di id presenti; uso Set per evitare duplicati e avere contains O(1). */
+    private final Set<Integer> poolId;
+
+    /**
+     * Annunci di ciascuna tipologia, in ordine di inserimento: le operazioni che
+     * riguardano una sola tipologia (vendite compatibili, pulizia) scorrono solo
+     * quelli.
+     */
+    private final Map<Tipologia, Set<Annuncio>> perTipologia;
+
+    /** Ordine per prezzo crescente e, a parità di prezzo, per id. */
+    private static final Comparator<Annuncio> PER_PREZZO = Comparator
+            .comparingLong(Annuncio::getPrezzoCentesimi)
+            .thenComparingInt(Annuncio::getId);
+
+    /**
+     * Annunci ordinati per prezzo ({@link #PER_PREZZO}): intervalli di prezzo e
+     * annunci più economici senza scorrere tutta la bacheca.
+     */
+    private final NavigableSet<Annuncio> perPrezzo;
+
+    /** Annunci ordinati per id: ricerca per id e contenuto dei segmenti su disco. */
+    private final NavigableMap<Integer, Annuncio> annunciPerId;
+
+    /** Indice ordinato di parole chiave e titoli, per ricerca per prefisso. */
+    private final IndiceParole indice;
+
+    /** Dizionario delle parole chiave per la ricerca approssimata. */
+    private final AlberoBK dizionario;
+
+    /** Parole chiave presenti, per scartare subito le ricerche senza risultati. */
+    private final FiltroParole filtroParole;
+
+    /** Risultati recenti di {@link #cercaPerParolaChiave(String)}. */
+    private final CacheRicerche cacheRicerche;
+
+    /** Distanza di modifica massima ammessa dalla ricerca approssimata. */
+    public static final int DISTANZA_MASSIMA_FUZZY = 2;
+
+    /**
+     * Annunci inseriti con una sola acquisizione del lock durante
+     * un'importazione NDJSON.
+     */
+    public static final int DIMENSIONE_LOTTO_IMPORTAZIONE = 1000;
+
+    /** Avanzamento di {@link Bacheca#caricaAnnunciDaFile(String, Avanzamento)}. */
+    @FunctionalInterface
+    public interface Avanzamento {
+        /**
+         * Chiamato dopo ogni lotto inserito, dal thread che carica e senza lock.
+         *
+         * @param byteLetti  byte del file letti finora
+         * @param byteTotali dimensione del file
+         * @param annunci    annunci inseriti finora, già visibili alle ricerche
+         */
+        void aggiorna(long byteLetti, long byteTotali, long annunci);
+    }
+
+    /** Contatori e latenze delle operazioni (disattivati per default). */
+    private final MetricheBacheca metriche;
+
+    /** Lock condiviso per le letture, esclusivo per le modifiche. */
+    private final ReentrantReadWriteLock lock;
+
+    /** Se true il salvataggio sostituisce il file in modo atomico (default). */
+    private volatile boolean salvataggioAtomico = true;
+
+    /**
+     * Numero di annunci da cui la ricerca per parole chiave divide la scansione
+     * tra i thread del {@link java.util.concurrent.ForkJoinPool} comune: sotto
+     * questa soglia il costo di distribuire il lavoro supera il guadagno.
+     */
+    public static final int SOGLIA_SCANSIONE_PARALLELA_PREDEFINITA = 1 << 16;
+
+    /** Soglia della scansione parallela (vedi {@link #setSogliaScansioneParallela}). */
+    private volatile int sogliaScansioneParallela = SOGLIA_SCANSIONE_PARALLELA_PREDEFINITA;
+
+    /** Numero di id consecutivi salvati nello stesso file segmento. */
+    public static final int DIMENSIONE_SEGMENTO = 1024;
+
+    private static final Pattern NOME_SEGMENTO = Pattern.compile("segmento-(-?\\d+)\\.txt");
+
+    /**
+     * Segmenti modificati dopo l'ultimo {@link #salvaSegmenti(String)} (protetti
+     * dal lock di scrittura).
+     */
+    private final Set<Integer> segmentiModificati = new HashSet<>();
+
+    /**
+     * Cartella che contiene la copia su disco aggiornata, a parte i segmenti
+     * modificati; null se non ce n'è una (protetta dal lock di scrittura).
+     */
+    private Path cartellaSegmenti;
+
+    /** Serializza i salvataggi a segmenti, che scrivono fuori dal lock. */
+    private final Object lockSalvataggioSegmenti = new Object();
+
+    /**
+     * Costruttore della bacheca: inizializza le strutture dati.
+     */
+    public Bacheca() {
+        this.annunci = new ArrayList<>();
+        this.poolId = new HashSet<>();
+        this.annunciPerId = new TreeMap<>();
+        this.perTipologia = new EnumMap<>(Tipologia.class);
+        for (Tipologia t : Tipologia.values()) {
+            perTipologia.put(t, new LinkedHashSet<>());
+        }
+        this.perPrezzo = new TreeSet<>(PER_PREZZO);
+        this.indice = new IndiceParole();
+        this.dizionario = new AlberoBK();
+        this.filtroParole = new FiltroParole();
+        this.cacheRicerche = new CacheRicerche(CacheRicerche.VOCI_PREDEFINITE, CacheRicerche.ANNUNCI_PREDEFINITI);
+        this.metriche = new MetricheBacheca();
+        this.lock = new ReentrantReadWriteLock();
+        this.metriche.collegaDimensioni(annunci::size, indice::getNumeroTermini, dizionario::getDimensione);
+    }
+
+    /**
+     * Restituisce le metriche della bacheca (contatori, latenze, dimensioni).
+     */
+    public MetricheBacheca getMetriche() {
+        return metriche;
+    }
+
+    /**
+     * Sceglie come {@link #salvaAnnunciSuFile(String)} scrive il file: in modo
+     * atomico con {@link ScritturaAtomica} (default) oppure riscrivendolo sul
+     * posto, più veloce ma senza protezione da interruzioni a metà scrittura.
+     */
+    public void setSalvataggioAtomico(boolean salvataggioAtomico) {
+        this.salvataggioAtomico = salvataggioAtomico;
+    }
+
+    public boolean isSalvataggioAtomico() {
+        return salvataggioAtomico;
+    }
+
+    /**
+     * Imposta il numero di annunci da cui la ricerca per parole chiave scorre la
+     * bacheca in parallelo ({@link Integer#MAX_VALUE} per restare sempre
+     * sequenziale). I risultati sono comunque nell'ordine di inserimento.
+     */
+    public void setSogliaScansioneParallela(int soglia) {
+        if (soglia < 1) {
+            throw new IllegalArgumentException("Soglia non valida: " + soglia);
+        }
+        this.sogliaScansioneParallela = soglia;
+    }
+
+    public int getSogliaScansioneParallela() {
+        return sogliaScansioneParallela;
+    }
+
+    /**
+     * Imposta i limiti della cache dei risultati di
+     * {@link #cercaPerParolaChiave(String)}: numero di ricerche memorizzate e
+     * numero totale di annunci nei loro risultati (default
+     * {@value CacheRicerche#VOCI_PREDEFINITE} e
+     * {@value CacheRicerche#ANNUNCI_PREDEFINITI}). Con 0 la cache è disattivata.
+     * Se i limiti si riducono vengono tolte subito le ricerche usate meno di
+     * recente.
+     *
+     * @throws IllegalArgumentException se uno dei limiti è negativo
+     */
+    public void setDimensioneCacheRicerche(int ricerche, int annunci) {
+        cacheRicerche.imposta(ricerche, annunci);
+    }
+
+    /** Numero massimo di ricerche nella cache dei risultati. */
+    public int getDimensioneCacheRicerche() {
+        return cacheRicerche.getMassimoVoci();
+    }
+
+    /** Numero di ricerche attualmente nella cache dei risultati. */
+    public int getRicercheInCache() {
+        return cacheRicerche.getNumeroVoci();
+    }
+
+    /**
+     * Restituisce un iteratore sugli annunci. L'iteratore non permette la rimozione
+     * perché è basato su una lista non modificabile; scorre una copia presa
+     * all'inizio, quindi non risente di modifiche concorrenti.
+     */
+    @Override
+    public Iterator<Annuncio> iterator() {
+        lock.readLock().lock();
+        try {
+            return List.copyOf(annunci).iterator();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aggiunge un nuovo annuncio alla bacheca se l'ID non è già presente.
+     * Se l'annuncio è di tipo "acquisto" ritorna la lista degli annunci in vendita
+     * che condividono parole chiave (intersezione non vuota).
+     *
+     * @param annuncio annuncio da aggiungere
+     * @return lista di annunci trovati (per acquisto) oppure lista vuota
+     * @throws BachecaException se annuncio nullo o ID già presente
+     */
+    public ArrayList<Annuncio> aggiungiAnnuncio(Annuncio annuncio) throws BachecaException {
+        EventoModifica evento = new EventoModifica();
+        evento.begin();
+        long inizio = metriche.inizio();
+        boolean riuscita = false;
+        lock.writeLock().lock();
+        try {
+            if (annunci.contains(annuncio)) {
+                throw new BachecaException("Annuncio già presente");
+            }
+            controlloIdPresente(annuncio.getId());
+            // se nessun annuncio ha le sue parole non serve cercare vendite compatibili
+            boolean compatibiliPossibili = filtroParole.almenoUna(annuncio.idParoleCanoniche());
+            registra(annuncio);
+            riuscita = true;
+
+            // Se è acquisto → ritorna SOLO annunci di vendita compatibili
+            if (annuncio.getTipo() == Tipologia.ACQUISTO && compatibiliPossibili) {
+                return venditeCompatibili(annuncio);
+            }
+            return new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+            metriche.registra(Operazione.AGGIUNTA, inizio, riuscita);
+            emettiModifica(evento, EventoModifica.AGGIUNTA, annuncio.getId(), riuscita);
+        }
+    }
+
+    /**
+     * Rimuove un annuncio (specificato dall'id) solo se l'utente è l'autore.
+     *
+     * @param id     id dell'annuncio da rimuovere
+     * @param utente utente che richiede la rimozione
+     * @return true se rimosso con successo
+     * @throws AutoreNonAutorizzatoException se l'utente non è l'autore
+     * @throws BachecaException              se annuncio non trovato
+     */
+    public boolean rimuoviAnnuncio(int id, Utente utente)
+            throws AutoreNonAutorizzatoException, BachecaException {
+
+        EventoModifica evento = new EventoModifica();
+        evento.begin();
+        long inizio = metriche.inizio();
+        boolean riuscita = false;
+        lock.writeLock().lock();
+        try {
+            Iterator<Annuncio> it = annunci.iterator();
+            while (it.hasNext()) {
+                Annuncio a = it.next();
+                if (a.getId() == id) {
+                    if (!a.getAutore().equals(utente)) {
+                        throw new AutoreNonAutorizzatoException("Non sei autorizzato a rimuovere questo annuncio.");
+                    }
+                    it.remove(); // rimuovo dalla lista
+                    deregistra(a); // e da pool degli id e indici
+                    riuscita = true;
+                    return true;
+                }
+            }
+
+            throw new BachecaException("Annuncio non trovato.");
+        } finally {
+            lock.writeLock().unlock();
+            metriche.registra(Operazione.RIMOZIONE, inizio, riuscita);
+            emettiModifica(evento, EventoModifica.RIMOZIONE, id, riuscita);
+        }
+    }
+
+    /**
+     * Cerca gli annunci che condividono almeno una parola chiave con la stringa
+     * `paroleChiave` (attesa come lista separata da virgole). Il confronto avviene
+     * sulle forme canoniche (vedi {@link Annuncio#formaCanonica(String)}), quindi
+     * ignora maiuscole e accenti.
+     *
+     * <p>
+     * I risultati delle ricerche recenti restano in una cache LRU, indicizzata
+     * dall'insieme delle forme canoniche cercate (vedi
+     * {@link #setDimensioneCacheRicerche(int, int)}): una ricerca ripetuta non
+     * scorre la bacheca finché nessun annuncio con una di quelle parole viene
+     * aggiunto, rimosso o modificato. Le ricerche di sole parole che nessun
+     * annuncio contiene sono riconosciute da un filtro di Bloom e restituiscono
+     * subito una lista vuota, senza dividere il testo né consultare la cache.
+     * </p>
+     *
+     * @param paroleChiave stringa con parole chiave separate da virgola
+     * @return lista di annunci che hanno intersezione con le parole cercate
+     */
+    public ArrayList<Annuncio> cercaPerParolaChiave(String paroleChiave) {
+        EventoRicerca evento = new EventoRicerca();
+        evento.begin();
+        long inizio = metriche.inizio();
+        ArrayList<Annuncio> risultati = new ArrayList<>();
+        if (paroleChiave != null && !paroleChiave.isBlank()) {
+            lock.readLock().lock();
+            try {
+                ParoleCercate cercate = paroleCercate(paroleChiave);
+                if (!cercate.isVuota()) {
+                    risultati = cacheRicerche.cerca(cercate.ids(), cercate.numero());
+                    metriche.registraCacheRicerca(risultati != null);
+                    if (risultati == null) {
+                        risultati = cercaPerIdCanonici(cercate.ids(), cercate.numero());
+                        cacheRicerche.memorizza(cercate.ids(), cercate.numero(), risultati);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        metriche.registraRicerca(Operazione.RICERCA, inizio, risultati.size());
+        emettiRicerca(evento, EventoRicerca.PAROLA_CHIAVE, paroleChiave, risultati.size());
+        return risultati;
+    }
+
+    /**
+     * Come {@link #cercaPerParolaChiave(String)}, limitata agli annunci della
+     * tipologia data: scorre solo quelli.
+     *
+     * @param paroleChiave stringa con parole chiave separate da virgola
+     * @param tipologia    tipologia degli annunci cercati
+     * @return annunci della tipologia con almeno una delle parole cercate
+     */
+    public ArrayList<Annuncio> cercaPerParolaChiave(String paroleChiave, Tipologia tipologia) {
+        EventoRicerca evento = new EventoRicerca();
+        evento.begin();
+        long inizio = metriche.inizio();
+        ArrayList<Annuncio> risultati = new ArrayList<>();
+        if (paroleChiave != null && !paroleChiave.isBlank()) {
+            lock.readLock().lock();
+            try {
+                ParoleCercate cercate = paroleCercate(paroleChiave);
+                risultati = scandisci(perTipologia.get(tipologia), cercate.ids(), cercate.numero());
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        metriche.registraRicerca(Operazione.RICERCA, inizio, risultati.size());
+        emettiRicerca(evento, EventoRicerca.PAROLA_CHIAVE, paroleChiave, risultati.size());
+        return risultati;
+    }
+
+    /**
+     * Annunci di vendita che condividono almeno una parola chiave con
+     * l'acquisto dato. Va chiamato con il lock (di lettura o scrittura) già
+     * preso.
+     */
+    private ArrayList<Annuncio> venditeCompatibili(Annuncio acquisto) {
+        int[] ids = acquisto.idParoleCanoniche();
+        return scandisci(perTipologia.get(Tipologia.VENDITA), ids, ids.length);
+    }
+
+    /**
+     * Come {@link #venditeCompatibili(Annuncio)}, prendendo il lock di lettura:
+     * usato da {@link BachecaPartizionata} per cercare le vendite nelle altre
+     * partizioni.
+     */
+    ArrayList<Annuncio> cercaVenditeCompatibili(Annuncio acquisto) {
+        lock.readLock().lock();
+        try {
+            return venditeCompatibili(acquisto);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Numero di annunci che contengono il termine (in forma canonica), per
+     * unire i suggerimenti delle partizioni di {@link BachecaPartizionata}.
+     */
+    int frequenza(String termine) {
+        lock.readLock().lock();
+        try {
+            return indice.frequenza(termine);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Id canonici delle parole cercate (separate da virgola), nel buffer del
+     * thread corrente: le parole mai viste dal dizionario o, secondo il filtro,
+     * assenti da tutti gli annunci non possono dare risultati e vengono
+     * scartate subito. Va chiamato con il lock (di lettura o scrittura) già
+     * preso; il risultato è valido fino alla prossima chiamata nello stesso
+     * thread.
+     */
+    private ParoleCercate paroleCercate(String paroleChiave) {
+        ParoleCercate cercate = ParoleCercate.delThread();
+        return filtroParole.nessunaPresente(paroleChiave) ? cercate.svuota() : cercate.leggi(paroleChiave);
+    }
+
+    /**
+     * Scansione degli annunci con almeno una forma canonica tra quelle date. Sia
+     * la richiesta sia gli annunci tengono gli id ordinati, quindi il confronto è
+     * una fusione di due array di interi, senza stringhe né normalizzazioni.
+     *
+     * <p>
+     * Da {@link #getSogliaScansioneParallela()} annunci in su la lista viene
+     * divisa in intervalli scanditi dal pool comune; lo stream parallelo
+     * mantiene l'ordine d'incontro, quindi i risultati restano nell'ordine di
+     * inserimento. I thread del pool leggono mentre il chiamante tiene il lock.
+     * </p>
+     *
+     * @param idOrdinati id canonici cercati, in ordine crescente
+     * @param quanti     quanti id dell'array considerare
+     */
+    private ArrayList<Annuncio> cercaPerIdCanonici(int[] idOrdinati, int quanti) {
+        if (quanti > 0 && annunci.size() >= sogliaScansioneParallela) {
+            return annunci.parallelStream()
+                    .filter(a -> a.contieneAlmenoUna(idOrdinati, quanti))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+        return scandisci(annunci, idOrdinati, quanti);
+    }
+
+    /**
+     * Scansione sequenziale degli annunci dati, nel loro ordine.
+     *
+     * @param idOrdinati id canonici cercati, in ordine crescente
+     * @param quanti     quanti id dell'array considerare
+     */
+    private static ArrayList<Annuncio> scandisci(Collection<Annuncio> annunci, int[] idOrdinati, int quanti) {
+        ArrayList<Annuncio> risultati = new ArrayList<>();
+        if (quanti == 0) {
+            return risultati;
+        }
+        for (Annuncio a : annunci) {
+            if (a.contieneAlmenoUna(idOrdinati, quanti)) {
+                risultati.add(a);
+            }
+        }
+        return risultati;
+    }
+
+    /**
+     * Ricerca approssimata (tollerante agli errori di battitura): trova gli annunci
+     * con almeno una parola chiave a distanza di Levenshtein al più
+     * {@code distanzaMassima} da una delle parole cercate. Le parole candidate
+     * vengono estratte dal dizionario tramite un {@link AlberoBK}, senza scorrere
+     * tutti gli annunci.
+     *
+     * @param paroleChiave    parole separate da virgola
+     * @param distanzaMassima distanza massima (limitata a
+     *                        {@link #DISTANZA_MASSIMA_FUZZY})
+     * @return lista di annunci trovati (senza duplicati)
+     */
+    public ArrayList<Annuncio> cercaPerParolaChiaveFuzzy(String paroleChiave, int distanzaMassima) {
+        EventoRicerca evento = new EventoRicerca();
+        evento.begin();
+        long inizio = metriche.inizio();
+        if (paroleChiave == null || paroleChiave.isBlank()) {
+            metriche.registraRicerca(Operazione.RICERCA_FUZZY, inizio, 0);
+            emettiRicerca(evento, EventoRicerca.FUZZY, paroleChiave, 0);
+            return new ArrayList<>();
+        }
+        int k = Math.max(0, Math.min(distanzaMassima, DISTANZA_MASSIMA_FUZZY));
+
+        Set<Annuncio> risultati = new LinkedHashSet<>();
+        lock.readLock().lock();
+        try {
+            for (String parola : paroleChiave.split(",")) {
+                String p = Annuncio.formaCanonica(parola);
+                if (p.isEmpty())
+                    continue;
+                for (String termine : dizionario.cerca(p, k)) {
+                    // l'indice contiene anche le parole dei titoli: tengo solo le parole chiave
+                    int idTermine = DizionarioParole.globale().cerca(termine);
+                    for (Annuncio a : indice.annunciCon(termine)) {
+                        if (a.contieneParolaCanonica(idTermine)) {
+                            risultati.add(a);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        metriche.registraRicerca(Operazione.RICERCA_FUZZY, inizio, risultati.size());
+        emettiRicerca(evento, EventoRicerca.FUZZY, paroleChiave, risultati.size());
+        return new ArrayList<>(risultati);
+    }
+
+    /**
+     * Cerca gli annunci con almeno una parola chiave, o una parola del titolo, che
+     * inizia con il prefisso dato (case-insensitive). Pensato per la ricerca
+     * mentre l'utente sta ancora digitando.
+     *
+     * @param prefisso prefisso da cercare
+     * @return lista di annunci trovati (senza duplicati)
+     */
+    public ArrayList<Annuncio> cercaPerPrefisso(String prefisso) {
+        EventoRicerca evento = new EventoRicerca();
+        evento.begin();
+        long inizio = metriche.inizio();
+        ArrayList<Annuncio> risultati = new ArrayList<>();
+        if (prefisso != null && !prefisso.isBlank()) {
+            lock.readLock().lock();
+            try {
+                risultati.addAll(indice.cercaPerPrefisso(prefisso));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        metriche.registraRicerca(Operazione.RICERCA_PREFISSO, inizio, risultati.size());
+        emettiRicerca(evento, EventoRicerca.PREFISSO, prefisso, risultati.size());
+        return risultati;
+    }
+
+    /**
+     * Cerca gli annunci con prezzo compreso tra i due estremi (inclusi), dal più
+     * economico. L'indice per prezzo porta direttamente al primo annuncio
+     * dell'intervallo: O(log n + k) per k risultati.
+     *
+     * @param minimoCentesimi  prezzo minimo in centesimi
+     * @param massimoCentesimi prezzo massimo in centesimi
+     * @return annunci nell'intervallo, ordinati per prezzo (lista vuota se
+     *         minimo > massimo)
+     */
+    public ArrayList<Annuncio> cercaPerPrezzo(long minimoCentesimi, long massimoCentesimi) {
+        EventoRicerca evento = new EventoRicerca();
+        evento.begin();
+        long inizio = metriche.inizio();
+        ArrayList<Annuncio> risultati = new ArrayList<>();
+        if (minimoCentesimi <= massimoCentesimi) {
+            lock.readLock().lock();
+            try {
+                risultati.addAll(perPrezzo.subSet(limite(minimoCentesimi, Integer.MIN_VALUE), true,
+                        limite(massimoCentesimi, Integer.MAX_VALUE), true));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        metriche.registraRicerca(Operazione.RICERCA_PREZZO, inizio, risultati.size());
+        emettiRicerca(evento, EventoRicerca.PREZZO,
+                Prezzo.formatta(minimoCentesimi) + "-" + Prezzo.formatta(massimoCentesimi), risultati.size());
+        return risultati;
+    }
+
+    /**
+     * Restituisce i {@code quanti} annunci più economici con almeno una delle
+     * parole chiave cercate (confrontate come in
+     * {@link #cercaPerParolaChiave(String)}), dal più economico. Con parole
+     * chiave null o vuote considera tutti gli annunci.
+     *
+     * <p>
+     * Scorre l'indice per prezzo dal basso e si ferma al {@code quanti}-esimo
+     * risultato. Senza parole chiave il costo è O(log n + k) per k risultati;
+     * con un filtro dipende da quanti annunci più economici non corrispondono,
+     * fino a una scansione completa dell'indice (O(n)) se le parole sono rare o
+     * presenti solo negli annunci più cari.
+     * </p>
+     *
+     * @param paroleChiave stringa con parole chiave separate da virgola
+     * @param quanti       numero massimo di risultati
+     * @return al più {@code quanti} annunci, ordinati per prezzo
+     * @throws IllegalArgumentException se quanti è negativo
+     */
+    public ArrayList<Annuncio> cercaPiuEconomici(String paroleChiave, int quanti) {
+        if (quanti < 0) {
+            throw new IllegalArgumentException("Numero di risultati non valido: " + quanti);
+        }
+        EventoRicerca evento = new EventoRicerca();
+        evento.begin();
+        long inizio = metriche.inizio();
+        boolean tutti = paroleChiave == null || paroleChiave.isBlank();
+        ArrayList<Annuncio> risultati = new ArrayList<>();
+        if (quanti > 0) {
+            lock.readLock().lock();
+            try {
+                ParoleCercate cercate = tutti ? null : paroleCercate(paroleChiave);
+                if (tutti || !cercate.isVuota()) {
+                    for (Annuncio a : perPrezzo) {
+                        if (tutti || a.contieneAlmenoUna(cercate.ids(), cercate.numero())) {
+                            risultati.add(a);
+                            if (risultati.size() == quanti) {
+                                break;
+                            }
+                        }
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        metriche.registraRicerca(Operazione.RICERCA_PREZZO, inizio, risultati.size());
+        emettiRicerca(evento, EventoRicerca.PREZZO, paroleChiave, risultati.size());
+        return risultati;
+    }
+
+    /**
+     * Annuncio fittizio usato solo come estremo di un intervallo dell'indice per
+     * prezzo: il comparatore guarda solo prezzo e id.
+     */
+    private static Annuncio limite(long prezzoCentesimi, int id) {
+        return new Annuncio(id, null, null, prezzoCentesimi, null, null, null, null);
+    }
+
+    /**
+     * Suggerimenti di autocompletamento: termini presenti in bacheca che iniziano
+     * con il prefisso, ordinati per numero di annunci che li contengono.
+     *
+     * @param prefisso prefisso digitato
+     * @param massimo  numero massimo di suggerimenti
+     * @return lista dei termini suggeriti
+     */
+    public List<String> suggerisciParole(String prefisso, int massimo) {
+        lock.readLock().lock();
+        try {
+            return indice.suggerisci(prefisso, massimo);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pulisce la bacheca rimuovendo gli annunci scaduti.
+     *
+     * @return true se è stata rimossa almeno un'entrata, false altrimenti
+     */
+    public boolean pulisciBacheca() {
+        EventoPulizia evento = new EventoPulizia();
+        evento.begin();
+        long inizio = metriche.inizio();
+        int esaminati;
+        int rimossi = 0;
+        lock.writeLock().lock();
+        try {
+            // solo le vendite hanno una scadenza
+            Set<Annuncio> vendite = perTipologia.get(Tipologia.VENDITA);
+            esaminati = vendite.size();
+            Set<Annuncio> scaduti = new HashSet<>();
+            for (Annuncio a : vendite) {
+                if (a.isScaduto()) {
+                    scaduti.add(a);
+                }
+            }
+            if (!scaduti.isEmpty()) {
+                annunci.removeIf(scaduti::contains);
+                for (Annuncio a : scaduti) {
+                    deregistra(a);
+                }
+                rimossi = scaduti.size();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        metriche.registraPulizia(inizio, rimossi);
+        if (evento.shouldCommit()) {
+            evento.annunciEsaminati = esaminati;
+            evento.annunciRimossi = rimossi;
+            evento.commit();
+        }
+        return rimossi > 0;
+    }
+
+    /**
+     * Aggiunge una nuova parola chiave a un annuncio se chi la richiede è l'autore.
+     *
+     * @param id          id annuncio
+     * @param utente      utente che richiede l'aggiunta
+     * @param nuovaParola parola da aggiungere
+     * @return true se aggiunta con successo
+     * @throws AutoreNonAutorizzatoException se l'utente non è autore
+     * @throws AnnuncioException             se annuncio non trovato o parola non
+     *                                       valida
+     */
+    public boolean aggiungiNuovaParolaChiave(int id, Utente utente, String nuovaParola)
+            throws AutoreNonAutorizzatoException, AnnuncioException {
+
+        EventoModifica evento = new EventoModifica();
+        evento.begin();
+        boolean riuscita = false;
+        lock.writeLock().lock();
+        try {
+            if (nuovaParola == null || nuovaParola.trim().isEmpty()) {
+                throw new AnnuncioException("Parola chiave non valida");
+            }
+
+            for (Annuncio a : annunci) {
+                if (a.getId() == id) {
+                    if (!a.getAutore().equals(utente)) {
+                        throw new AutoreNonAutorizzatoException("Non sei autorizzato a rimuovere questo annuncio.");
+                    }
+                    int[] prima = a.idParoleCanoniche();
+                    a.aggiungiParola(nuovaParola.trim());
+                    filtroParole.rimuovi(prima);
+                    filtroParole.aggiungi(a.idParoleCanoniche());
+                    indice.aggiungiParola(a, nuovaParola.trim());
+                    // cambiano solo le ricerche che contengono la nuova parola
+                    cacheRicerche.invalida(new int[] {
+                            DizionarioParole.globale().id(Annuncio.formaCanonica(nuovaParola)) });
+                    dizionario.aggiungi(Annuncio.formaCanonica(nuovaParola));
+                    segnaModificato(id);
+                    riuscita = true;
+                    return true;
+                }
+            }
+            throw new AnnuncioException("Annuncio non trovato");
+        } finally {
+            lock.writeLock().unlock();
+            emettiModifica(evento, EventoModifica.NUOVA_PAROLA, id, riuscita);
+        }
+    }
+
+    /**
+     * Restituisce la lista degli annunci (modificabile, come nei test JUnit).
+     */
+    public ArrayList<Annuncio> getAnnunci() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(annunci);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Restituisce gli annunci della tipologia data, in ordine di inserimento.
+     */
+    public ArrayList<Annuncio> getAnnunci(Tipologia tipologia) {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(perTipologia.get(tipologia));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Restituisce l'annuncio con l'id dato.
+     *
+     * @param id id dell'annuncio
+     * @return l'annuncio, oppure null se non è in bacheca
+     */
+    public Annuncio cercaPerId(int id) {
+        lock.readLock().lock();
+        try {
+            return annunciPerId.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Restituisce il numero di annunci in bacheca.
+     */
+    public int getNumeroAnnunci() {
+        lock.readLock().lock();
+        try {
+            return annunci.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Restituisce il poolId (modificabile, come nei test JUnit). Il set non è
+     * protetto dal lock della bacheca: non va usato mentre altri thread la
+     * modificano.
+     */
+    public Set<Integer> getPoolId() {
+        return poolId;
+    }
+
+    /**
+     * Salva gli annunci su file. Formato di riga:
+     * id;autoreToString;articolo;prezzo;tipologia;paroleChiave;dataScadenza
+     * (il prezzo con due decimali e il punto, vedi {@link Prezzo}).
+     *
+     * Il lock è tenuto solo per copiare la lista degli annunci: formattazione e
+     * scrittura avvengono fuori, senza bloccare ricerche e modifiche.
+     *
+     * Con il salvataggio atomico (default, vedi {@link ScritturaAtomica}) il file
+     * viene sostituito solo a scrittura completata e forzata su disco, e la
+     * versione precedente resta in {@code fileName.bak}; un'interruzione a metà
+     * lascia il file di prima intatto.
+     *
+     * @param fileName percorso file dove salvare
+     * @throws IOException in caso di errore I/O
+     */
+    public void salvaAnnunciSuFile(String fileName) throws IOException {
+        EventoPersistenza evento = new EventoPersistenza();
+        evento.begin();
+        long inizio = metriche.inizio();
+        boolean riuscito = false;
+        List<Annuncio> copia = getAnnunci();
+        try {
+            if (salvataggioAtomico) {
+                ScritturaAtomica.scrivi(Path.of(fileName), output -> scriviAnnunci(new PrintWriter(output), copia));
+            } else {
+                try (PrintWriter output = new PrintWriter(new FileWriter(fileName))) {
+                    scriviAnnunci(output, copia);
+                }
+            }
+            riuscito = true;
+        } catch (IOException e) {
+            throw new IOException("Errore nel salvataggio della bacheca su file", e);
+        } finally {
+            if (!riuscito) {
+                metriche.registra(Operazione.SALVATAGGIO, inizio, false);
+            }
+            emettiPersistenza(evento, EventoPersistenza.SALVATAGGIO, fileName, copia.size(), 0, riuscito);
+        }
+        metriche.registraPersistenza(Operazione.SALVATAGGIO, inizio, Path.of(fileName));
+    }
+
+    /**
+     * Scrive gli annunci nel formato di {@link #salvaAnnunciSuFile(String)}. Il
+     * PrintWriter viene svuotato ma non chiuso.
+     */
+    static void scriviAnnunci(PrintWriter output, Iterable<Annuncio> annunci) throws IOException {
+        // campi scritti uno per uno: printf rianalizzerebbe il formato a ogni riga
+        char[] prezzo = new char[Prezzo.LUNGHEZZA_MASSIMA];
+        for (Annuncio a : annunci) {
+            // formato: id;email;nome;articolo;prezzo;tipologia;paroleChiave;dataScadenza
+            output.print(a.getId());
+            output.print(';');
+            output.print(a.getAutore().getEmail());
+            output.print(';');
+            output.print(a.getAutore().getNome());
+            output.print(';');
+            output.print(a.getArticolo());
+            output.print(';');
+            output.write(prezzo, 0, Prezzo.scrivi(a.getPrezzoCentesimi(), prezzo, 0));
+            output.print(';');
+            output.print(a.getTipologia());
+            output.print(';');
+            output.print(a.getParoleChiave());
+            output.print(';');
+            output.print(a.getDataScadenza() != null ? a.getDataScadenza().toString() : "null");
+            output.println();
+        }
+        output.flush();
+        // PrintWriter non lancia eccezioni: l'errore va controllato a mano
+        if (output.checkError()) {
+            throw new IOException("Errore di scrittura");
+        }
+    }
+
+    /**
+     * Carica gli annunci da file. Svuota la bacheca prima di caricare e resettare
+     * poolId.
+     *
+     * @param fileName percorso file
+     * @throws IOException       in caso di I/O
+     * @throws AnnuncioException se errore nella creazione annuncio
+     * @throws UtenteException   se errore nella creazione utente
+     * @throws BachecaException
+     */
+    public void caricaAnnunciDaFile(String fileName)
+            throws IOException, AnnuncioException, UtenteException, BachecaException {
+
+        EventoPersistenza evento = new EventoPersistenza();
+        evento.begin();
+        long inizio = metriche.inizio();
+        boolean riuscito = false;
+        int righe = 0;
+        int scartate = 0;
+        lock.writeLock().lock();
+        try (BufferedReader input = new BufferedReader(new FileReader(fileName))) {
+            svuota();
+
+            String linea;
+            while ((linea = input.readLine()) != null) {
+                righe++;
+                Annuncio annuncio = leggiRiga(linea);
+                if (annuncio == null) {
+                    // riga malformata: la ignoro
+                    scartate++;
+                    continue;
+                }
+                controlloIdPresente(annuncio.getId());
+                registra(annuncio);
+            }
+            riuscito = true;
+        } catch (IOException e) {
+            throw new IOException("Errore nel caricamento della bacheca", e);
+        } finally {
+            lock.writeLock().unlock();
+            if (!riuscito) {
+                metriche.registra(Operazione.CARICAMENTO, inizio, false);
+            }
+            emettiPersistenza(evento, EventoPersistenza.CARICAMENTO, fileName, righe, scartate, riuscito);
+        }
+        metriche.registraPersistenza(Operazione.CARICAMENTO, inizio, Path.of(fileName));
+    }
+
+    /**
+     * Carica gli annunci da file come {@link #caricaAnnunciDaFile(String)}, ma a
+     * lotti di {@value #DIMENSIONE_LOTTO_IMPORTAZIONE}: la bacheca viene svuotata
+     * subito e ogni lotto è inserito con una sola acquisizione del lock di
+     * scrittura, quindi ricerche e modifiche di altri thread vedono gli annunci
+     * già caricati senza attendere la fine del file. Dopo ogni lotto viene
+     * chiamato {@code avanzamento}.
+     *
+     * <p>
+     * Le righe malformate (byte non UTF-8, numero di campi, prezzo, data, utente
+     * o annuncio non validi) e gli id ripetuti non interrompono il caricamento:
+     * vengono saltate e riportate nel rapporto con il loro numero di riga.
+     * </p>
+     *
+     * @param fileName    percorso file
+     * @param avanzamento riceve byte letti e annunci inseriti dopo ogni lotto
+     *                    (null se l'avanzamento non interessa)
+     * @return rapporto con conteggi ed errori per riga
+     * @throws IOException in caso di errore I/O (gli annunci già inseriti restano
+     *                     in bacheca)
+     */
+    public RapportoImportazione caricaAnnunciDaFile(String fileName, Avanzamento avanzamento) throws IOException {
+        Avanzamento notifica = avanzamento != null ? avanzamento : (letti, totali, annunci) -> {
+        };
+        EventoPersistenza evento = new EventoPersistenza();
+        evento.begin();
+        long inizio = metriche.inizio();
+        RapportoImportazione rapporto = new RapportoImportazione();
+        boolean riuscito = false;
+        try (FileChannel canale = FileChannel.open(Path.of(fileName), StandardOpenOption.READ);
+                BufferedReader input = new BufferedReader(Channels.newReader(canale, decodificatoreTollerante(), -1))) {
+            long totali = canale.size();
+            lock.writeLock().lock();
+            try {
+                svuota();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Annuncio[] lotto = new Annuncio[DIMENSIONE_LOTTO_IMPORTAZIONE];
+            long[] righe = new long[DIMENSIONE_LOTTO_IMPORTAZIONE];
+            int n = 0;
+            long numeroRiga = 0;
+            String linea;
+            while ((linea = input.readLine()) != null) {
+                numeroRiga++;
+                if (linea.isBlank()) {
+                    continue;
+                }
+                rapporto.rigaLetta();
+                if (linea.indexOf(CARATTERE_NON_VALIDO) >= 0) {
+                    rapporto.errore(numeroRiga, "Caratteri non validi in UTF-8");
+                    continue;
+                }
+                try {
+                    lotto[n] = leggiRiga(linea);
+                } catch (IllegalArgumentException | DateTimeException | AnnuncioException | UtenteException e) {
+                    rapporto.errore(numeroRiga, e.getMessage());
+                    continue;
+                }
+                if (lotto[n] == null) {
+                    rapporto.errore(numeroRiga, "Numero di campi non valido");
+                    continue;
+                }
+                righe[n++] = numeroRiga;
+                if (n == lotto.length) {
+                    inserisciLotto(lotto, righe, n, rapporto);
+                    n = 0;
+                    // il lettore è avanti al più di un buffer rispetto alle righe inserite
+                    notifica.aggiorna(canale.position(), totali, rapporto.getAnnunciImportati());
+                }
+            }
+            inserisciLotto(lotto, righe, n, rapporto);
+            notifica.aggiorna(totali, totali, rapporto.getAnnunciImportati());
+            riuscito = true;
+        } finally {
+            if (!riuscito) {
+                metriche.registra(Operazione.CARICAMENTO, inizio, false);
+            }
+            emettiPersistenza(evento, EventoPersistenza.CARICAMENTO, fileName,
+                    (int) Math.min(Integer.MAX_VALUE, rapporto.getRigheLette()),
+                    (int) Math.min(Integer.MAX_VALUE, rapporto.getNumeroErrori()), riuscito);
+        }
+        metriche.registraPersistenza(Operazione.CARICAMENTO, inizio, Path.of(fileName));
+        return rapporto;
+    }
+
+    /** Carattere con cui il decodificatore sostituisce i byte non UTF-8. */
+    private static final char CARATTERE_NON_VALIDO = '\uFFFD';
+
+    /**
+     * Decodificatore UTF-8 che sostituisce i byte non validi (ad esempio una "à"
+     * in Cp1252 di un vecchio file) con {@link #CARATTERE_NON_VALIDO} invece di
+     * interrompere la lettura: la riga viene poi scartata e riportata.
+     */
+    private static CharsetDecoder decodificatoreTollerante() {
+        return StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Interpreta una riga nel formato di {@link #salvaAnnunciSuFile(String)} (o
+     * nel vecchio formato a 7 campi).
+     *
+     * @return l'annuncio, oppure null se la riga non ha il numero di campi atteso
+     */
+    static Annuncio leggiRiga(String linea) throws AnnuncioException, UtenteException {
+        // split con -1 per preservare campi vuoti
+        String[] dati = linea.split(";", -1);
+
+        if (dati.length == 8) {
+            // nuovo formato: id;email;nome;articolo;prezzo;tipologia;parole;data
+            int id = Integer.parseInt(dati[0].trim());
+            String email = dati[1].trim();
+            String nome = dati[2].trim();
+            Utente utente = new Utente(email, nome);
+
+            String articolo = dati[3].trim();
+            long prezzo = Prezzo.leggi(dati[4]);
+            String tipologia = dati[5].trim();
+            String paroleChiave = dati[6].trim();
+            LocalDate scadenza = ("null".equalsIgnoreCase(dati[7].trim()) || dati[7].trim().isEmpty())
+                    ? null
+                    : LocalDate.parse(dati[7].trim());
+
+            return new Annuncio(
+                    id,
+                    utente,
+                    articolo,
+                    prezzo,
+                    tipologia,
+                    paroleChiave,
+                    scadenza != null ? scadenza.toString() : null);
+
+        } else if (dati.length == 7) {
+            // vecchio formato (compatibilità):
+            // id;autoreToString;articolo;prezzo;tipologia;parole;data
+            int id = Integer.parseInt(dati[0].trim());
+
+            Utente utente = generaAutore(dati[1].trim()); // fallback sul parsing precedente
+
+            String articolo = dati[2].trim();
+            long prezzo = Prezzo.leggi(dati[3]);
+            String tipologia = dati[4].trim();
+            String paroleChiave = dati[5].trim();
+            LocalDate scadenza = ("null".equalsIgnoreCase(dati[6].trim()) || dati[6].trim().isEmpty())
+                    ? null
+                    : LocalDate.parse(dati[6].trim());
+
+            return new Annuncio(
+                    id,
+                    utente,
+                    articolo,
+                    prezzo,
+                    tipologia,
+                    paroleChiave,
+                    scadenza != null ? scadenza.toString() : null);
+        }
+        return null;
+    }
+
+    /**
+     * Svuota lista, pool degli id e indici (con il lock di scrittura). La
+     * cartella dei segmenti non è più aggiornata: il prossimo salvataggio a
+     * segmenti sarà completo.
+     */
+    private void svuota() {
+        annunci.clear();
+        perTipologia.values().forEach(Set::clear);
+        perPrezzo.clear();
+        poolId.clear();
+        annunciPerId.clear();
+        indice.svuota();
+        filtroParole.svuota();
+        cacheRicerche.svuota();
+        cartellaSegmenti = null;
+        segmentiModificati.clear();
+    }
+
+    /**
+     * Salva la bacheca in una cartella, divisa in file segmento da
+     * {@value #DIMENSIONE_SEGMENTO} id consecutivi ({@code segmento-<n>.txt},
+     * stesso formato di riga di {@link #salvaAnnunciSuFile(String)}).
+     *
+     * <p>
+     * La bacheca tiene traccia dei segmenti toccati da aggiunte, rimozioni,
+     * pulizie e nuove parole chiave: se la cartella è la stessa dell'ultimo
+     * salvataggio (o caricamento) a segmenti vengono riscritti solo quelli, quindi
+     * il costo è proporzionale alle modifiche e non alla dimensione della
+     * bacheca. Altrimenti vengono scritti tutti i segmenti e tolti quelli
+     * rimasti da salvataggi precedenti.
+     * </p>
+     *
+     * <p>
+     * Ogni segmento è sostituito in modo atomico ({@link ScritturaAtomica}, senza
+     * copia {@code .bak}): un'interruzione a metà lascia ogni annuncio nella
+     * versione vecchia o in quella nuova, mai a metà. Se il salvataggio fallisce i
+     * segmenti restano segnati come modificati e verranno riscritti al prossimo.
+     * </p>
+     *
+     * @param cartella cartella dei segmenti (creata se non esiste)
+     * @return numero di segmenti riscritti o cancellati
+     * @throws IOException in caso di errore I/O
+     */
+    public int salvaSegmenti(String cartella) throws IOException {
+        EventoPersistenza evento = new EventoPersistenza();
+        evento.begin();
+        long inizio = metriche.inizio();
+        Path destinazione = Path.of(cartella).toAbsolutePath().normalize();
+        Files.createDirectories(destinazione);
+
+        synchronized (lockSalvataggioSegmenti) {
+            boolean completo;
+            Map<Integer, List<Annuncio>> daScrivere = new TreeMap<>();
+            lock.writeLock().lock();
+            try {
+                completo = !destinazione.equals(cartellaSegmenti);
+                Set<Integer> indici = completo ? new TreeSet<>() : segmentiModificati;
+                if (completo) {
+                    for (int id : annunciPerId.keySet()) {
+                        indici.add(segmento(id));
+                    }
+                }
+                for (int n : indici) {
+                    long primo = (long) n * DIMENSIONE_SEGMENTO;
+                    daScrivere.put(n, List.copyOf(annunciPerId
+                            .subMap((int) primo, true, (int) (primo + DIMENSIONE_SEGMENTO - 1), true).values()));
+                }
+                // da qui in poi le modifiche finiscono nel prossimo salvataggio
+                segmentiModificati.clear();
+                cartellaSegmenti = destinazione;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            boolean riuscito = false;
+            int righe = 0;
+            try {
+                for (Map.Entry<Integer, List<Annuncio>> segmento : daScrivere.entrySet()) {
+                    Path file = fileSegmento(destinazione, segmento.getKey());
+                    List<Annuncio> contenuto = segmento.getValue();
+                    if (contenuto.isEmpty()) {
+                        Files.deleteIfExists(file);
+                    } else {
+                        ScritturaAtomica.scrivi(file, output -> scriviAnnunci(new PrintWriter(output), contenuto),
+                                false);
+                    }
+                    righe += contenuto.size();
+                }
+                if (completo) {
+                    try (DirectoryStream<Path> file = Files.newDirectoryStream(destinazione)) {
+                        for (Path f : file) {
+                            Matcher m = NOME_SEGMENTO.matcher(f.getFileName().toString());
+                            if (m.matches() && !daScrivere.containsKey(Integer.parseInt(m.group(1)))) {
+                                Files.delete(f);
+                            }
+                        }
+                    }
+                }
+                riuscito = true;
+            } finally {
+                if (!riuscito) {
+                    ripristinaModificati(destinazione, completo, daScrivere.keySet());
+                }
+                metriche.registra(Operazione.SALVATAGGIO, inizio, riuscito);
+                emettiPersistenza(evento, EventoPersistenza.SALVATAGGIO, cartella, righe, 0, riuscito);
+            }
+            return daScrivere.size();
+        }
+    }
+
+    /**
+     * Dopo un salvataggio a segmenti fallito: i segmenti non scritti tornano
+     * modificati (o, se era un salvataggio completo, la cartella non è più
+     * considerata aggiornata).
+     */
+    private void ripristinaModificati(Path destinazione, boolean completo, Set<Integer> segmenti) {
+        lock.writeLock().lock();
+        try {
+            if (!destinazione.equals(cartellaSegmenti)) {
+                return; // nel frattempo la bacheca è stata ricaricata
+            }
+            if (completo) {
+                cartellaSegmenti = null;
+                segmentiModificati.clear();
+            } else {
+                segmentiModificati.addAll(segmenti);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Numero di segmenti da riscrivere al prossimo {@link #salvaSegmenti(String)}
+     * nella stessa cartella.
+     */
+    public int getNumeroSegmentiModificati() {
+        lock.readLock().lock();
+        try {
+            return segmentiModificati.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Carica la bacheca da una cartella scritta da {@link #salvaSegmenti(String)},
+     * sostituendo gli annunci presenti. Dopo il caricamento la cartella è
+     * considerata aggiornata: il salvataggio successivo riscrive solo i segmenti
+     * modificati.
+     *
+     * @param cartella cartella dei segmenti
+     * @throws IOException       in caso di errore I/O
+     * @throws AnnuncioException se una riga contiene un annuncio non valido
+     * @throws UtenteException   se una riga contiene un autore non valido
+     * @throws BachecaException  se lo stesso id compare due volte
+     */
+    public void caricaSegmenti(String cartella)
+            throws IOException, AnnuncioException, UtenteException, BachecaException {
+        EventoPersistenza evento = new EventoPersistenza();
+        evento.begin();
+        long inizio = metriche.inizio();
+        Path origine = Path.of(cartella).toAbsolutePath().normalize();
+        List<Path> segmenti = new ArrayList<>();
+        try (DirectoryStream<Path> file = Files.newDirectoryStream(origine)) {
+            for (Path f : file) {
+                if (NOME_SEGMENTO.matcher(f.getFileName().toString()).matches()) {
+                    segmenti.add(f);
+                }
+            }
+        }
+        segmenti.sort(null);
+
+        boolean riuscito = false;
+        int righe = 0;
+        int scartate = 0;
+        lock.writeLock().lock();
+        try {
+            svuota();
+            for (Path f : segmenti) {
+                try (BufferedReader input = Files.newBufferedReader(f)) {
+                    String linea;
+                    while ((linea = input.readLine()) != null) {
+                        righe++;
+                        Annuncio annuncio = leggiRiga(linea);
+                        if (annuncio == null) {
+                            scartate++;
+                            continue;
+                        }
+                        controlloIdPresente(annuncio.getId());
+                        registra(annuncio);
+                    }
+                }
+            }
+            segmentiModificati.clear();
+            cartellaSegmenti = origine;
+            riuscito = true;
+        } finally {
+            lock.writeLock().unlock();
+            metriche.registra(Operazione.CARICAMENTO, inizio, riuscito);
+            emettiPersistenza(evento, EventoPersistenza.CARICAMENTO, cartella, righe, scartate, riuscito);
+        }
+    }
+
+    /**
+     * Esporta gli annunci in formato NDJSON: un oggetto JSON per riga, nella
+     * forma di {@link CodificaAnnuncio}. Le righe vengono scritte man mano,
+     * quindi la memoria usata non dipende dal numero di annunci (a parte la
+     * copia dei riferimenti presa all'inizio, come per il salvataggio).
+     *
+     * @param output destinazione (non viene chiusa)
+     * @return numero di annunci esportati
+     * @throws IOException in caso di errore di scrittura
+     */
+    public int esportaNdjson(Writer output) throws IOException {
+        List<Annuncio> copia = getAnnunci();
+        for (Annuncio a : copia) {
+            output.write(Json.scrivi(CodificaAnnuncio.inMappa(a)));
+            output.write('\n');
+        }
+        output.flush();
+        return copia.size();
+    }
+
+    /**
+     * Esporta gli annunci in un file NDJSON (UTF-8).
+     *
+     * @param fileName percorso del file
+     * @throws IOException in caso di errore I/O
+     */
+    public void esportaNdjsonSuFile(String fileName) throws IOException {
+        EventoPersistenza evento = new EventoPersistenza();
+        evento.begin();
+        long inizio = metriche.inizio();
+        boolean riuscito = false;
+        int esportati = 0;
+        try (Writer output = Files.newBufferedWriter(Path.of(fileName), StandardCharsets.UTF_8)) {
+            esportati = esportaNdjson(output);
+            riuscito = true;
+        } finally {
+            if (!riuscito) {
+                metriche.registra(Operazione.ESPORTAZIONE, inizio, false);
+            }
+            emettiPersistenza(evento, EventoPersistenza.ESPORTAZIONE, fileName, esportati, 0, riuscito);
+        }
+        metriche.registraPersistenza(Operazione.ESPORTAZIONE, inizio, Path.of(fileName));
+    }
+
+    /**
+     * Importa annunci da NDJSON, aggiungendoli a quelli già presenti. Ogni riga
+     * viene validata con gli stessi costruttori di {@link Annuncio} e
+     * {@link Utente}; le righe non valide (JSON errato, campi non validi, id già
+     * presente) vengono registrate nel rapporto e saltate, senza interrompere
+     * l'importazione. Le righe vuote sono ignorate.
+     *
+     * <p>
+     * Il file viene letto una riga alla volta e gli annunci vengono inseriti a
+     * lotti di {@value #DIMENSIONE_LOTTO_IMPORTAZIONE}, con una sola
+     * acquisizione del lock di scrittura per lotto: la lettura non va mai più
+     * avanti di un lotto rispetto all'inserimento, quindi la memoria resta
+     * limitata qualunque sia la dimensione del file.
+     * </p>
+     *
+     * @param input sorgente (non viene chiusa)
+     * @return rapporto con conteggi ed errori per riga
+     * @throws IOException in caso di errore di lettura
+     */
+    public RapportoImportazione importaNdjson(Reader input) throws IOException {
+        RapportoImportazione rapporto = new RapportoImportazione();
+        BufferedReader lettore = input instanceof BufferedReader b ? b : new BufferedReader(input);
+        Annuncio[] lotto = new Annuncio[DIMENSIONE_LOTTO_IMPORTAZIONE];
+        long[] righe = new long[DIMENSIONE_LOTTO_IMPORTAZIONE];
+        int n = 0;
+        long numeroRiga = 0;
+
+        String linea;
+        while ((linea = lettore.readLine()) != null) {
+            numeroRiga++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            rapporto.rigaLetta();
+            try {
+                lotto[n] = CodificaAnnuncio.daMappa(Json.leggiOggetto(linea));
+            } catch (IllegalArgumentException | AnnuncioException | UtenteException e) {
+                rapporto.errore(numeroRiga, e.getMessage());
+                continue;
+            }
+            righe[n++] = numeroRiga;
+            if (n == lotto.length) {
+                inserisciLotto(lotto, righe, n, rapporto);
+                n = 0;
+            }
+        }
+        inserisciLotto(lotto, righe, n, rapporto);
+        return rapporto;
+    }
+
+    /**
+     * Importa annunci da un file NDJSON (UTF-8); vedi {@link #importaNdjson(Reader)}.
+     *
+     * @param fileName percorso del file
+     * @return rapporto con conteggi ed errori per riga
+     * @throws IOException in caso di errore I/O
+     */
+    public RapportoImportazione importaNdjsonDaFile(String fileName) throws IOException {
+        EventoPersistenza evento = new EventoPersistenza();
+        evento.begin();
+        long inizio = metriche.inizio();
+        RapportoImportazione rapporto = null;
+        try (Reader input = Files.newBufferedReader(Path.of(fileName), StandardCharsets.UTF_8)) {
+            rapporto = importaNdjson(input);
+        } finally {
+            if (rapporto == null) {
+                metriche.registra(Operazione.IMPORTAZIONE, inizio, false);
+                emettiPersistenza(evento, EventoPersistenza.IMPORTAZIONE, fileName, 0, 0, false);
+            } else {
+                emettiPersistenza(evento, EventoPersistenza.IMPORTAZIONE, fileName,
+                        (int) Math.min(Integer.MAX_VALUE, rapporto.getRigheLette()),
+                        (int) Math.min(Integer.MAX_VALUE, rapporto.getNumeroErrori()), true);
+            }
+        }
+        metriche.registraPersistenza(Operazione.IMPORTAZIONE, inizio, Path.of(fileName));
+        return rapporto;
+    }
+
+    /**
+     * Inserisce i primi {@code n} annunci del lotto con una sola acquisizione del
+     * lock; gli id già presenti finiscono tra gli errori del rapporto. Gli
+     * elementi del lotto vengono azzerati.
+     */
+    void inserisciLotto(Annuncio[] lotto, long[] righe, int n, RapportoImportazione rapporto) {
+        if (n == 0) {
+            return;
+        }
+        int inseriti = 0;
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < n; i++) {
+                if (poolId.contains(lotto[i].getId())) {
+                    rapporto.errore(righe[i], "ID già presente: " + lotto[i].getId());
+                } else {
+                    registra(lotto[i]);
+                    inseriti++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        rapporto.importati(inseriti);
+        Arrays.fill(lotto, 0, n, null);
+    }
+
+    /**
+     * Estrae email e nome dalla stringa fornita da Utente.toString() in modo
+     * robusto.
+     * Cerca pattern tipo: ...email=qualcosa,...nome=qualcosa...
+     *
+     * @param autoreString stringa contenente la rappresentazione di Utente
+     * @return Utente costruito
+     * @throws UtenteException se il parsing o la creazione falliscono
+     */
+    private static Utente generaAutore(String autoreString) throws UtenteException {
+        if (autoreString == null || autoreString.isBlank()) {
+            throw new UtenteException("Stringa autore vuota");
+        }
+
+        // Rimuovo il prefisso "Utente[" e il suffisso "]" se presenti
+        if (autoreString.startsWith("Utente[") && autoreString.endsWith("]")) {
+            autoreString = autoreString.substring(7, autoreString.length() - 1);
+        }
+
+        // Pattern che cerca "email=<qualcosa>, nome=<qualcosa>"
+        Pattern p = Pattern.compile("email\\s*=\\s*(.+?)\\s*,\\s*nome\\s*=\\s*(.+)", Pattern.CASE_INSENSITIVE);
+        Matcher m = p.matcher(autoreString);
+
+        if (m.find()) {
+            String email = m.group(1).trim();
+            String nome = m.group(2).trim();
+            return new Utente(email, nome);
+        } else {
+            // Fallback: prova a eseguire una semplice estrazione
+            String cleaned = autoreString.replaceAll("[\\[\\]]", "").replace("email=", "").replace("nome=", "");
+            String[] parti = cleaned.split(",", 2);
+            if (parti.length >= 2) {
+                String email = parti[0].trim();
+                String nome = parti[1].trim();
+                return new Utente(email, nome);
+            }
+        }
+
+        throw new UtenteException("Formato autore non riconosciuto: " + autoreString);
+    }
+
+    /**
+     * Completa e registra un evento JFR di ricerca (solo se JFR lo sta
+     * registrando).
+     */
+    private static void emettiRicerca(EventoRicerca evento, String tipo, String paroleChiave, int risultati) {
+        if (evento.shouldCommit()) {
+            evento.tipo = tipo;
+            evento.paroleChiave = paroleChiave;
+            evento.risultati = risultati;
+            evento.commit();
+        }
+    }
+
+    /**
+     * Completa e registra un evento JFR di modifica di un annuncio.
+     */
+    private static void emettiModifica(EventoModifica evento, String operazione, int id, boolean riuscita) {
+        if (evento.shouldCommit()) {
+            evento.operazione = operazione;
+            evento.idAnnuncio = id;
+            evento.riuscita = riuscita;
+            evento.commit();
+        }
+    }
+
+    /**
+     * Completa e registra un evento JFR di persistenza; la dimensione del file
+     * viene letta solo se l'evento sarà registrato.
+     */
+    private static void emettiPersistenza(EventoPersistenza evento, String operazione, String fileName, int righe,
+            int scartate, boolean riuscito) {
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.operazione = operazione;
+            evento.file = fileName;
+            evento.righe = righe;
+            evento.righeScartate = scartate;
+            evento.riuscita = riuscito;
+            try {
+                evento.numeroByte = Files.size(Path.of(fileName));
+            } catch (IOException | RuntimeException e) {
+                evento.numeroByte = -1;
+            }
+            evento.commit();
+        }
+    }
+
+    /**
+     * Inserisce l'annuncio nella lista, nella pool degli id e nell'indice.
+     */
+    private void registra(Annuncio annuncio) {
+        annunci.add(annuncio);
+        perTipologia.get(annuncio.getTipo()).add(annuncio);
+        perPrezzo.add(annuncio);
+        poolId.add(annuncio.getId());
+        annunciPerId.put(annuncio.getId(), annuncio);
+        indice.aggiungi(annuncio);
+        filtroParole.aggiungi(annuncio.idParoleCanoniche());
+        cacheRicerche.invalida(annuncio.idParoleCanoniche());
+        // dagli id, senza creare la vista memorizzata nell'annuncio
+        DizionarioParole parole = DizionarioParole.globale();
+        for (int id : annuncio.idParoleCanoniche()) {
+            dizionario.aggiungi(parole.parola(id));
+        }
+        segnaModificato(annuncio.getId());
+    }
+
+    /**
+     * Toglie l'annuncio (già rimosso dalla lista) da pool degli id e indici.
+     */
+    private void deregistra(Annuncio annuncio) {
+        perTipologia.get(annuncio.getTipo()).remove(annuncio);
+        perPrezzo.remove(annuncio);
+        poolId.remove(annuncio.getId());
+        annunciPerId.remove(annuncio.getId());
+        indice.rimuovi(annuncio);
+        filtroParole.rimuovi(annuncio.idParoleCanoniche());
+        cacheRicerche.invalida(annuncio.idParoleCanoniche());
+        segnaModificato(annuncio.getId());
+    }
+
+    /** Segna da riscrivere il segmento che contiene l'id. */
+    private void segnaModificato(int id) {
+        if (cartellaSegmenti != null) {
+            segmentiModificati.add(segmento(id));
+        }
+    }
+
+    private static int segmento(int id) {
+        return Math.floorDiv(id, DIMENSIONE_SEGMENTO);
+    }
+
+    private static Path fileSegmento(Path cartella, int segmento) {
+        return cartella.resolve("segmento-" + segmento + ".txt");
+    }
+
+    /**
+     * Controlla se l'id è già presente nella pool. Se presente lancia
+     * BachecaException,
+     * altrimenti lo aggiunge al pool e ritorna true.
+     *
+     * @param id id da controllare
+     * @return true se aggiunto con successo
+     * @throws BachecaException se id già presente
+     */
+    private boolean controlloIdPresente(int id) throws BachecaException {
+        if (poolId.contains(id)) {
+            throw new BachecaException("ID già presente");
+        }
+        return true;
+    }
+
+    /**
+     * Rappresentazione testuale della bacheca (tutti gli annunci, separati da
+     * newline).
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Annuncio a : getAnnunci()) {
+            sb.append(a).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
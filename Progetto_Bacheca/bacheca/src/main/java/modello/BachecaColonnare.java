@@ -0,0 +1,758 @@
+package modello;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+import modello.colonnare.ArenaStringhe;
+import modello.colonnare.Colonna;
+import modello.colonnare.TabellaId;
+import modello.exception.AnnuncioException;
+import modello.exception.AutoreNonAutorizzatoException;
+import modello.exception.BachecaException;
+import modello.exception.UtenteException;
+import modello.json.CodificaAnnuncio;
+import modello.json.Json;
+import modello.persistenza.ScritturaAtomica;
+
+/**
+ * Bacheca che conserva gli annunci fuori dallo heap, per colonne: id, prezzo,
+ * giorno di scadenza, tipologia, autore, titolo e id delle parole stanno in
+ * {@link Colonna} e {@link ArenaStringhe} allocate con buffer diretti, una riga
+ * per annuncio nell'ordine di inserimento. Sullo heap restano solo strutture
+ * proporzionali al vocabolario e al numero di autori (non a quello degli
+ * annunci), quindi il lavoro del garbage collector non cresce con la bacheca.
+ *
+ * <p>
+ * Gli {@link Annuncio} restituiti sono viste create al momento dalla riga:
+ * modificarle non modifica la bacheca, e due chiamate restituiscono oggetti
+ * diversi (uguali per {@code equals}). Le ricerche scorrono le colonne e creano
+ * solo gli annunci trovati.
+ * </p>
+ *
+ * <p>
+ * Le righe rimosse restano nelle colonne, segnate come tali, finché non superano
+ * quelle vive: a quel punto le righe vive vengono ricopiate in colonne nuove.
+ * Come {@link Bacheca}, è thread-safe con un lock lettura/scrittura.
+ * </p>
+ */
+public class BachecaColonnare implements OperazioniBacheca {
+
+    /**
+     * Righe rimosse da cui la bacheca viene ricompattata (se sono più di quelle
+     * vive).
+     */
+    public static final int RIMOSSE_PRIMA_DI_COMPATTARE = 4096;
+
+    /** Giorno di scadenza memorizzato per gli acquisti. */
+    private static final int SENZA_SCADENZA = Integer.MIN_VALUE;
+
+    /** Bit della colonna di stato. */
+    private static final byte ACQUISTO = 1;
+    private static final byte RIMOSSO = 2;
+
+    /** Separatore delle parole del titolo (come nell'{@link IndiceParole}). */
+    private static final Pattern SEPARATORE_TITOLO = Pattern.compile("[^\\p{L}0-9]+");
+
+    private static final DizionarioParole PAROLE = DizionarioParole.globale();
+
+    /** Colonne degli annunci (sostituite in blocco dalla compattazione). */
+    private Righe righe;
+
+    /** Id -> riga degli annunci presenti. */
+    private final TabellaId idRighe;
+
+    /** Autori distinti; le righe ne memorizzano la posizione. */
+    private final List<Utente> autori;
+    private final Map<Utente, Integer> idAutori;
+
+    /** Termine canonico (parola chiave o del titolo) -> numero di annunci che lo contengono. */
+    private final NavigableMap<String, Integer> frequenze;
+
+    /** Dizionario delle parole chiave per la ricerca approssimata. */
+    private final AlberoBK dizionario;
+
+    /** Righe rimosse ancora presenti nelle colonne. */
+    private int rimosse;
+
+    private final ReentrantReadWriteLock lock;
+
+    /**
+     * Colonne di una generazione di righe. Per ogni riga, in {@code termini} a
+     * partire da {@code inizioTermini} ci sono in fila gli id delle parole chiave
+     * come inserite, delle loro forme canoniche (ordinati) e delle forme canoniche
+     * delle parole del titolo (ordinati).
+     */
+    private static final class Righe {
+        final Colonna id = new Colonna(Integer.BYTES);
+        final Colonna prezzo = new Colonna(Long.BYTES); // centesimi
+        final Colonna scadenza = new Colonna(Integer.BYTES);
+        final Colonna stato = new Colonna(Byte.BYTES);
+        final Colonna autore = new Colonna(Integer.BYTES);
+        final Colonna articolo = new Colonna(Long.BYTES);
+        final Colonna inizioTermini = new Colonna(Long.BYTES);
+        final Colonna numeroParole = new Colonna(Integer.BYTES);
+        final Colonna numeroCanoniche = new Colonna(Integer.BYTES);
+        final Colonna numeroTitolo = new Colonna(Integer.BYTES);
+        final Colonna termini = new Colonna(Integer.BYTES);
+        final ArenaStringhe testi = new ArenaStringhe();
+
+        int numero() {
+            return (int) id.getDimensione();
+        }
+
+        long byteAllocati() {
+            long totale = testi.getByteAllocati();
+            for (Colonna c : List.of(id, prezzo, scadenza, stato, autore, articolo, inizioTermini, numeroParole,
+                    numeroCanoniche, numeroTitolo, termini)) {
+                totale += c.getByteAllocati();
+            }
+            return totale;
+        }
+    }
+
+    /**
+     * Costruttore: crea una bacheca vuota.
+     */
+    public BachecaColonnare() {
+        this.righe = new Righe();
+        this.idRighe = new TabellaId();
+        this.autori = new ArrayList<>();
+        this.idAutori = new HashMap<>();
+        this.frequenze = new TreeMap<>();
+        this.dizionario = new AlberoBK();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Aggiunge un annuncio se l'id non è già presente. Per un acquisto
+     * restituisce le vendite con almeno una parola chiave in comune.
+     */
+    @Override
+    public ArrayList<Annuncio> aggiungiAnnuncio(Annuncio annuncio) throws BachecaException {
+        if (annuncio == null) {
+            throw new BachecaException("Annuncio nullo");
+        }
+        lock.writeLock().lock();
+        try {
+            if (idRighe.contiene(annuncio.getId())) {
+                throw new BachecaException("Annuncio già presente");
+            }
+            memorizza(annuncio);
+            if (annuncio.getTipo() == Tipologia.ACQUISTO) {
+                int[] cercate = annuncio.idParoleCanoniche();
+                return scandisci(riga -> (righe.stato.getByte(riga) & ACQUISTO) == 0
+                        && intersecaCanoniche(riga, cercate));
+            }
+            return new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean rimuoviAnnuncio(int id, Utente utente) throws AutoreNonAutorizzatoException, BachecaException {
+        lock.writeLock().lock();
+        try {
+            int riga = idRighe.riga(id);
+            if (riga == TabellaId.ASSENTE) {
+                throw new BachecaException("Annuncio non trovato.");
+            }
+            if (!autori.get(righe.autore.getInt(riga)).equals(utente)) {
+                throw new AutoreNonAutorizzatoException("Non sei autorizzato a rimuovere questo annuncio.");
+            }
+            elimina(riga);
+            compattaSeServe();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Annuncio> cercaPerParolaChiave(String paroleChiave) {
+        if (paroleChiave == null || paroleChiave.isBlank()) {
+            return new ArrayList<>();
+        }
+        int[] cercate = idOrdinati(Arrays.stream(paroleChiave.split(","))
+                .map(Annuncio::formaCanonica)
+                .filter(s -> !s.isEmpty())
+                .mapToInt(PAROLE::cerca)
+                .toArray());
+        if (cercate.length == 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            return scandisci(riga -> intersecaCanoniche(riga, cercate));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Annuncio> cercaPerParolaChiaveFuzzy(String paroleChiave, int distanzaMassima) {
+        if (paroleChiave == null || paroleChiave.isBlank()) {
+            return new ArrayList<>();
+        }
+        int k = Math.max(0, Math.min(distanzaMassima, Bacheca.DISTANZA_MASSIMA_FUZZY));
+        lock.readLock().lock();
+        try {
+            List<Integer> termini = new ArrayList<>();
+            for (String parola : paroleChiave.split(",")) {
+                String p = Annuncio.formaCanonica(parola);
+                if (!p.isEmpty()) {
+                    for (String termine : dizionario.cerca(p, k)) {
+                        termini.add(PAROLE.cerca(termine));
+                    }
+                }
+            }
+            int[] cercate = idOrdinati(termini.stream().mapToInt(Integer::intValue).toArray());
+            if (cercate.length == 0) {
+                return new ArrayList<>();
+            }
+            return scandisci(riga -> intersecaCanoniche(riga, cercate));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Annuncio> cercaPerPrefisso(String prefisso) {
+        String p = Annuncio.formaCanonica(prefisso);
+        if (p.isEmpty()) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            int[] cercate = idOrdinati(IndiceParole.intervallo(frequenze, p).keySet().stream()
+                    .mapToInt(PAROLE::cerca)
+                    .toArray());
+            if (cercate.length == 0) {
+                return new ArrayList<>();
+            }
+            return scandisci(riga -> intersecaCanoniche(riga, cercate) || intersecaTitolo(riga, cercate));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<String> suggerisciParole(String prefisso, int massimo) {
+        String p = Annuncio.formaCanonica(prefisso);
+        if (p.isEmpty() || massimo <= 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            // stesso ordinamento di IndiceParole.suggerisci
+            PriorityQueue<Map.Entry<String, Integer>> migliori = new PriorityQueue<>(
+                    (a, b) -> !a.getValue().equals(b.getValue())
+                            ? Integer.compare(a.getValue(), b.getValue())
+                            : b.getKey().compareTo(a.getKey()));
+            for (Map.Entry<String, Integer> e : IndiceParole.intervallo(frequenze, p).entrySet()) {
+                migliori.offer(e);
+                if (migliori.size() > massimo) {
+                    migliori.poll();
+                }
+            }
+            List<String> suggerimenti = new ArrayList<>(migliori.size());
+            while (!migliori.isEmpty()) {
+                suggerimenti.add(migliori.poll().getKey());
+            }
+            Collections.reverse(suggerimenti);
+            return suggerimenti;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rimuove le vendite scadute scorrendo solo la colonna delle scadenze.
+     */
+    @Override
+    public boolean pulisciBacheca() {
+        int oggi = (int) LocalDate.now().toEpochDay();
+        int rimossi = 0;
+        lock.writeLock().lock();
+        try {
+            Righe r = righe;
+            for (int riga = 0, n = r.numero(); riga < n; riga++) {
+                int scadenza = r.scadenza.getInt(riga);
+                if (scadenza != SENZA_SCADENZA && scadenza < oggi && (r.stato.getByte(riga) & RIMOSSO) == 0) {
+                    elimina(riga);
+                    rimossi++;
+                }
+            }
+            compattaSeServe();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return rimossi > 0;
+    }
+
+    @Override
+    public boolean aggiungiNuovaParolaChiave(int id, Utente utente, String nuovaParola)
+            throws AutoreNonAutorizzatoException, AnnuncioException {
+        lock.writeLock().lock();
+        try {
+            if (nuovaParola == null || nuovaParola.trim().isEmpty()) {
+                throw new AnnuncioException("Parola chiave non valida");
+            }
+            int riga = idRighe.riga(id);
+            if (riga == TabellaId.ASSENTE) {
+                throw new AnnuncioException("Annuncio non trovato");
+            }
+            Annuncio annuncio = materializza(riga);
+            if (!annuncio.getAutore().equals(utente)) {
+                throw new AutoreNonAutorizzatoException("Non sei autorizzato a rimuovere questo annuncio.");
+            }
+            // la vista valida la parola e calcola i nuovi id; poi la riga viene riscritta
+            annuncio.aggiungiParola(nuovaParola.trim());
+            Righe r = righe;
+            long inizio = r.inizioTermini.getLong(riga);
+            int[] titolo = r.termini.leggiInt(inizio + r.numeroParole.getInt(riga) + r.numeroCanoniche.getInt(riga),
+                    r.numeroTitolo.getInt(riga));
+            contaTermini(riga, -1);
+            scriviTermini(r, riga, annuncio.idParole(), annuncio.idParoleCanoniche(), titolo);
+            contaTermini(riga, +1);
+            dizionario.aggiungi(Annuncio.formaCanonica(nuovaParola));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Restituisce tutti gli annunci, creandone le viste: per bacheche grandi
+     * riporta sullo heap l'intera bacheca.
+     */
+    @Override
+    public ArrayList<Annuncio> getAnnunci() {
+        lock.readLock().lock();
+        try {
+            return scandisci(riga -> true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Annuncio cercaPerId(int id) {
+        lock.readLock().lock();
+        try {
+            int riga = idRighe.riga(id);
+            return riga == TabellaId.ASSENTE ? null : materializza(riga);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getNumeroAnnunci() {
+        lock.readLock().lock();
+        try {
+            return idRighe.getDimensione();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Byte occupati fuori dallo heap dalle colonne. */
+    public long getByteFuoriHeap() {
+        lock.readLock().lock();
+        try {
+            return righe.byteAllocati();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Iteratore su una copia degli annunci (vedi {@link #getAnnunci()}); non
+     * permette la rimozione.
+     */
+    @Override
+    public Iterator<Annuncio> iterator() {
+        return Collections.unmodifiableList(getAnnunci()).iterator();
+    }
+
+    /**
+     * Salva gli annunci nel formato di {@link Bacheca#salvaAnnunciSuFile(String)}.
+     * Le viste vengono create una alla volta mentre il file viene scritto, con il
+     * lock di lettura tenuto per tutto il salvataggio.
+     */
+    @Override
+    public void salvaAnnunciSuFile(String fileName) throws IOException {
+        lock.readLock().lock();
+        try {
+            ScritturaAtomica.scrivi(Path.of(fileName), output -> Bacheca.scriviAnnunci(new PrintWriter(output), viste()));
+        } catch (IOException e) {
+            throw new IOException("Errore nel salvataggio della bacheca su file", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Carica gli annunci da un file nel formato di
+     * {@link Bacheca#salvaAnnunciSuFile(String)}, sostituendo quelli presenti. Le
+     * righe malformate vengono ignorate.
+     */
+    @Override
+    public void caricaAnnunciDaFile(String fileName)
+            throws IOException, AnnuncioException, UtenteException, BachecaException {
+        lock.writeLock().lock();
+        try (BufferedReader input = new BufferedReader(new FileReader(fileName))) {
+            svuota();
+            String linea;
+            while ((linea = input.readLine()) != null) {
+                Annuncio annuncio = Bacheca.leggiRiga(linea);
+                if (annuncio == null) {
+                    continue;
+                }
+                if (idRighe.contiene(annuncio.getId())) {
+                    throw new BachecaException("ID già presente");
+                }
+                memorizza(annuncio);
+            }
+        } catch (IOException e) {
+            throw new IOException("Errore nel caricamento della bacheca", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Esporta gli annunci in NDJSON come {@link Bacheca#esportaNdjson(Writer)},
+     * creando le viste una alla volta con il lock di lettura tenuto per tutta
+     * l'esportazione.
+     */
+    @Override
+    public int esportaNdjson(Writer output) throws IOException {
+        int esportati = 0;
+        lock.readLock().lock();
+        try {
+            for (Annuncio a : viste()) {
+                output.write(Json.scrivi(CodificaAnnuncio.inMappa(a)));
+                output.write('\n');
+                esportati++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        output.flush();
+        return esportati;
+    }
+
+    /**
+     * Importa annunci in NDJSON come {@link Bacheca#importaNdjson(Reader)}: le
+     * righe valide entrano a lotti di
+     * {@value Bacheca#DIMENSIONE_LOTTO_IMPORTAZIONE}, con una sola acquisizione
+     * del lock per lotto.
+     */
+    @Override
+    public RapportoImportazione importaNdjson(Reader input) throws IOException {
+        RapportoImportazione rapporto = new RapportoImportazione();
+        BufferedReader lettore = input instanceof BufferedReader b ? b : new BufferedReader(input);
+        List<Annuncio> lotto = new ArrayList<>(Bacheca.DIMENSIONE_LOTTO_IMPORTAZIONE);
+        List<Long> righeLotto = new ArrayList<>(Bacheca.DIMENSIONE_LOTTO_IMPORTAZIONE);
+        long numeroRiga = 0;
+        String linea;
+        while ((linea = lettore.readLine()) != null) {
+            numeroRiga++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            rapporto.rigaLetta();
+            try {
+                lotto.add(CodificaAnnuncio.daMappa(Json.leggiOggetto(linea)));
+                righeLotto.add(numeroRiga);
+            } catch (IllegalArgumentException | AnnuncioException | UtenteException e) {
+                rapporto.errore(numeroRiga, e.getMessage());
+                continue;
+            }
+            if (lotto.size() == Bacheca.DIMENSIONE_LOTTO_IMPORTAZIONE) {
+                inserisciLotto(lotto, righeLotto, rapporto);
+            }
+        }
+        inserisciLotto(lotto, righeLotto, rapporto);
+        return rapporto;
+    }
+
+    private void inserisciLotto(List<Annuncio> lotto, List<Long> righeLotto, RapportoImportazione rapporto) {
+        if (lotto.isEmpty()) {
+            return;
+        }
+        int inseriti = 0;
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < lotto.size(); i++) {
+                Annuncio a = lotto.get(i);
+                if (idRighe.contiene(a.getId())) {
+                    rapporto.errore(righeLotto.get(i), "ID già presente: " + a.getId());
+                } else {
+                    memorizza(a);
+                    inseriti++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        rapporto.importati(inseriti);
+        lotto.clear();
+        righeLotto.clear();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Annuncio a : this) {
+            sb.append(a).append("\n");
+        }
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------
+    // Righe (da chiamare con il lock preso)
+    // ------------------------------------------------------------------
+
+    /** Scrive l'annuncio in una nuova riga e aggiorna id, termini e dizionario. */
+    private void memorizza(Annuncio annuncio) {
+        Utente autore = annuncio.getAutore();
+        Integer idAutore = idAutori.get(autore);
+        if (idAutore == null) {
+            idAutore = autori.size();
+            autori.add(autore);
+            idAutori.put(autore, idAutore);
+        }
+        LocalDate data = annuncio.getDataScadenza();
+        int riga = aggiungiRiga(righe, annuncio.getId(), annuncio.getPrezzoCentesimi(),
+                data == null ? SENZA_SCADENZA : (int) data.toEpochDay(),
+                annuncio.getTipo() == Tipologia.ACQUISTO ? ACQUISTO : 0,
+                idAutore, annuncio.getArticolo(),
+                annuncio.idParole(), annuncio.idParoleCanoniche(), terminiTitolo(annuncio.getArticolo()));
+        idRighe.metti(annuncio.getId(), riga);
+        contaTermini(riga, +1);
+        for (int k : annuncio.idParoleCanoniche()) {
+            dizionario.aggiungi(PAROLE.parola(k));
+        }
+    }
+
+    private static int aggiungiRiga(Righe r, int id, long prezzo, int scadenza, byte stato, int autore,
+            String articolo, int[] parole, int[] canoniche, int[] titolo) {
+        int riga = (int) r.id.aggiungiInt(id);
+        r.prezzo.aggiungiLong(prezzo);
+        r.scadenza.aggiungiInt(scadenza);
+        r.stato.aggiungiByte(stato);
+        r.autore.aggiungiInt(autore);
+        r.articolo.aggiungiLong(r.testi.aggiungi(articolo));
+        r.inizioTermini.riserva(1);
+        r.numeroParole.riserva(1);
+        r.numeroCanoniche.riserva(1);
+        r.numeroTitolo.riserva(1);
+        scriviTermini(r, riga, parole, canoniche, titolo);
+        return riga;
+    }
+
+    /** Scrive in fondo alla colonna dei termini quelli della riga. */
+    private static void scriviTermini(Righe r, int riga, int[] parole, int[] canoniche, int[] titolo) {
+        long inizio = r.termini.aggiungiInt(parole);
+        r.termini.aggiungiInt(canoniche);
+        r.termini.aggiungiInt(titolo);
+        r.inizioTermini.setLong(riga, inizio);
+        r.numeroParole.setInt(riga, parole.length);
+        r.numeroCanoniche.setInt(riga, canoniche.length);
+        r.numeroTitolo.setInt(riga, titolo.length);
+    }
+
+    /** Segna la riga come rimossa e ne toglie id e termini. */
+    private void elimina(int riga) {
+        Righe r = righe;
+        r.stato.setByte(riga, (byte) (r.stato.getByte(riga) | RIMOSSO));
+        idRighe.rimuovi(r.id.getInt(riga));
+        contaTermini(riga, -1);
+        rimosse++;
+    }
+
+    /**
+     * Aggiorna la frequenza dei termini distinti (parole chiave e titolo) della
+     * riga.
+     */
+    private void contaTermini(int riga, int delta) {
+        Righe r = righe;
+        long inizio = r.inizioTermini.getLong(riga) + r.numeroParole.getInt(riga);
+        int[] termini = r.termini.leggiInt(inizio, r.numeroCanoniche.getInt(riga) + r.numeroTitolo.getInt(riga));
+        Arrays.sort(termini);
+        for (int i = 0; i < termini.length; i++) {
+            if (i > 0 && termini[i] == termini[i - 1]) {
+                continue;
+            }
+            frequenze.merge(PAROLE.parola(termini[i]), delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+    }
+
+    /**
+     * Ricopia le righe vive in colonne nuove se le righe rimosse sono troppe.
+     */
+    private void compattaSeServe() {
+        if (rimosse < RIMOSSE_PRIMA_DI_COMPATTARE || rimosse <= idRighe.getDimensione()) {
+            return;
+        }
+        Righe vecchie = righe;
+        Righe nuove = new Righe();
+        for (int riga = 0, n = vecchie.numero(); riga < n; riga++) {
+            byte stato = vecchie.stato.getByte(riga);
+            if ((stato & RIMOSSO) != 0) {
+                continue;
+            }
+            long inizio = vecchie.inizioTermini.getLong(riga);
+            int np = vecchie.numeroParole.getInt(riga);
+            int nc = vecchie.numeroCanoniche.getInt(riga);
+            int id = vecchie.id.getInt(riga);
+            int nuova = aggiungiRiga(nuove, id, vecchie.prezzo.getLong(riga), vecchie.scadenza.getInt(riga), stato,
+                    vecchie.autore.getInt(riga), vecchie.testi.leggi(vecchie.articolo.getLong(riga)),
+                    vecchie.termini.leggiInt(inizio, np),
+                    vecchie.termini.leggiInt(inizio + np, nc),
+                    vecchie.termini.leggiInt(inizio + np + nc, vecchie.numeroTitolo.getInt(riga)));
+            idRighe.metti(id, nuova);
+        }
+        righe = nuove;
+        rimosse = 0;
+    }
+
+    /** Svuota la bacheca (il dizionario della ricerca approssimata resta). */
+    private void svuota() {
+        righe = new Righe();
+        idRighe.svuota();
+        autori.clear();
+        idAutori.clear();
+        frequenze.clear();
+        rimosse = 0;
+    }
+
+    /** Crea la vista della riga. */
+    private Annuncio materializza(int riga) {
+        Righe r = righe;
+        long inizio = r.inizioTermini.getLong(riga);
+        int np = r.numeroParole.getInt(riga);
+        int scadenza = r.scadenza.getInt(riga);
+        return new Annuncio(
+                r.id.getInt(riga),
+                autori.get(r.autore.getInt(riga)),
+                r.testi.leggi(r.articolo.getLong(riga)),
+                r.prezzo.getLong(riga),
+                (r.stato.getByte(riga) & ACQUISTO) != 0 ? Tipologia.ACQUISTO : Tipologia.VENDITA,
+                r.termini.leggiInt(inizio, np),
+                r.termini.leggiInt(inizio + np, r.numeroCanoniche.getInt(riga)),
+                scadenza == SENZA_SCADENZA ? null : LocalDate.ofEpochDay(scadenza));
+    }
+
+    /** Viste degli annunci vivi, nell'ordine delle righe, create man mano. */
+    private ArrayList<Annuncio> scandisci(IntPredicate condizione) {
+        ArrayList<Annuncio> risultati = new ArrayList<>();
+        Righe r = righe;
+        for (int riga = 0, n = r.numero(); riga < n; riga++) {
+            if ((r.stato.getByte(riga) & RIMOSSO) == 0 && condizione.test(riga)) {
+                risultati.add(materializza(riga));
+            }
+        }
+        return risultati;
+    }
+
+    /** Viste degli annunci vivi create una alla volta durante l'iterazione. */
+    private Iterable<Annuncio> viste() {
+        Righe r = righe;
+        return () -> new Iterator<>() {
+            private int riga = prossima(0);
+
+            private int prossima(int da) {
+                int i = da;
+                while (i < r.numero() && (r.stato.getByte(i) & RIMOSSO) != 0) {
+                    i++;
+                }
+                return i;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return riga < r.numero();
+            }
+
+            @Override
+            public Annuncio next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Annuncio a = materializza(riga);
+                riga = prossima(riga + 1);
+                return a;
+            }
+        };
+    }
+
+    private boolean intersecaCanoniche(int riga, int[] idOrdinati) {
+        Righe r = righe;
+        return interseca(r, r.inizioTermini.getLong(riga) + r.numeroParole.getInt(riga),
+                r.numeroCanoniche.getInt(riga), idOrdinati);
+    }
+
+    private boolean intersecaTitolo(int riga, int[] idOrdinati) {
+        Righe r = righe;
+        return interseca(r, r.inizioTermini.getLong(riga) + r.numeroParole.getInt(riga)
+                + r.numeroCanoniche.getInt(riga), r.numeroTitolo.getInt(riga), idOrdinati);
+    }
+
+    /**
+     * Fusione di {@code n} id ordinati della colonna dei termini con quelli dati,
+     * come {@link Annuncio#contieneAlmenoUna(int[])}.
+     */
+    private static boolean interseca(Righe r, long inizio, int n, int[] idOrdinati) {
+        int i = 0;
+        int j = 0;
+        while (i < n && j < idOrdinati.length) {
+            int proprio = r.termini.getInt(inizio + i);
+            if (proprio == idOrdinati[j]) {
+                return true;
+            } else if (proprio < idOrdinati[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /** Id ordinati e senza duplicati delle forme canoniche delle parole del titolo. */
+    private static int[] terminiTitolo(String articolo) {
+        return idOrdinati(SEPARATORE_TITOLO.splitAsStream(articolo)
+                .map(Annuncio::formaCanonica)
+                .filter(t -> !t.isEmpty())
+                .mapToInt(PAROLE::id)
+                .toArray());
+    }
+
+    /** Ordina gli id togliendo duplicati e quelli assenti dal dizionario (negativi). */
+    private static int[] idOrdinati(int[] ids) {
+        return Arrays.stream(ids).filter(k -> k >= 0).sorted().distinct().toArray();
+    }
+}
@@ -0,0 +1,417 @@
+package modello;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+import modello.exception.AnnuncioException;
+import modello.exception.AutoreNonAutorizzatoException;
+import modello.exception.BachecaException;
+import modello.exception.UtenteException;
+import modello.json.CodificaAnnuncio;
+import modello.json.Json;
+
+/**
+ * Bacheca divisa in {@code N} partizioni indipendenti, ognuna una
+ * {@link Bacheca} con lista, indici, lock e file propri. Ogni annuncio sta
+ * nella partizione scelta dal suo id, quindi aggiunte, rimozioni e modifiche
+ * di annunci diversi non si contendono lo stesso lock e possono procedere in
+ * parallelo su core diversi.
+ *
+ * <p>
+ * Le ricerche vengono eseguite su tutte le partizioni in parallelo nel
+ * {@link ForkJoinPool} comune (la prima nel thread chiamante) e i risultati
+ * vengono concatenati, partizione per partizione. Le operazioni su un solo id
+ * toccano una sola partizione.
+ * </p>
+ *
+ * <p>
+ * Il salvataggio scrive un file per partizione ({@code <fileName>.<i>}), in
+ * parallelo; il caricamento richiede lo stesso numero di partizioni usato per
+ * salvare.
+ * </p>
+ */
+public class BachecaPartizionata implements OperazioniBacheca {
+
+    private final Bacheca[] partizioni;
+    private final ForkJoinPool pool;
+
+    /**
+     * Crea una bacheca con una partizione per processore disponibile.
+     */
+    public BachecaPartizionata() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Crea una bacheca con il numero di partizioni dato.
+     *
+     * @param numeroPartizioni numero di partizioni (almeno 1)
+     */
+    public BachecaPartizionata(int numeroPartizioni) {
+        if (numeroPartizioni < 1) {
+            throw new IllegalArgumentException("Serve almeno una partizione");
+        }
+        this.partizioni = new Bacheca[numeroPartizioni];
+        for (int i = 0; i < numeroPartizioni; i++) {
+            partizioni[i] = new Bacheca();
+        }
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    /** Numero di partizioni. */
+    public int getNumeroPartizioni() {
+        return partizioni.length;
+    }
+
+    /**
+     * Le partizioni (ad esempio per leggerne le metriche); non vanno modificate
+     * direttamente.
+     */
+    public List<Bacheca> getPartizioni() {
+        return List.of(partizioni);
+    }
+
+    /** Indice della partizione che contiene l'id. */
+    public int partizione(int id) {
+        // mescola i bit: id consecutivi o con passo fisso si distribuiscono comunque
+        int h = id * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), partizioni.length);
+    }
+
+    private Bacheca partizionePer(int id) {
+        return partizioni[partizione(id)];
+    }
+
+    /**
+     * Aggiunge l'annuncio alla sua partizione; per un acquisto le vendite
+     * compatibili vengono cercate in tutte le partizioni.
+     */
+    @Override
+    public ArrayList<Annuncio> aggiungiAnnuncio(Annuncio annuncio) throws BachecaException {
+        if (annuncio == null) {
+            throw new BachecaException("Annuncio nullo");
+        }
+        Bacheca propria = partizionePer(annuncio.getId());
+        ArrayList<Annuncio> corrispondenze = propria.aggiungiAnnuncio(annuncio);
+        if (annuncio.getTipo() != Tipologia.ACQUISTO || partizioni.length == 1) {
+            return corrispondenze;
+        }
+        ArrayList<Annuncio> tutte = new ArrayList<>();
+        for (ArrayList<Annuncio> parziali : suTutte(b -> b == propria ? corrispondenze
+                : b.cercaVenditeCompatibili(annuncio))) {
+            tutte.addAll(parziali);
+        }
+        return tutte;
+    }
+
+    @Override
+    public boolean rimuoviAnnuncio(int id, Utente utente) throws AutoreNonAutorizzatoException, BachecaException {
+        return partizionePer(id).rimuoviAnnuncio(id, utente);
+    }
+
+    @Override
+    public ArrayList<Annuncio> cercaPerParolaChiave(String paroleChiave) {
+        return unisci(suTutte(b -> b.cercaPerParolaChiave(paroleChiave)));
+    }
+
+    @Override
+    public ArrayList<Annuncio> cercaPerParolaChiaveFuzzy(String paroleChiave, int distanzaMassima) {
+        return unisci(suTutte(b -> b.cercaPerParolaChiaveFuzzy(paroleChiave, distanzaMassima)));
+    }
+
+    @Override
+    public ArrayList<Annuncio> cercaPerPrefisso(String prefisso) {
+        return unisci(suTutte(b -> b.cercaPerPrefisso(prefisso)));
+    }
+
+    /**
+     * Suggerimenti di autocompletamento. I candidati sono i migliori
+     * {@code massimo} termini di ogni partizione, ordinati per numero di annunci
+     * sommato su tutte le partizioni: un termine che non è tra i migliori in
+     * nessuna partizione può mancare anche se nel totale lo sarebbe.
+     */
+    @Override
+    public List<String> suggerisciParole(String prefisso, int massimo) {
+        if (partizioni.length == 1) {
+            return partizioni[0].suggerisciParole(prefisso, massimo);
+        }
+        Set<String> candidati = new LinkedHashSet<>();
+        for (List<String> parziali : suTutte(b -> b.suggerisciParole(prefisso, massimo))) {
+            candidati.addAll(parziali);
+        }
+        Map<String, Integer> frequenze = new HashMap<>();
+        for (String termine : candidati) {
+            int totale = 0;
+            for (Bacheca b : partizioni) {
+                totale += b.frequenza(termine);
+            }
+            frequenze.put(termine, totale);
+        }
+        List<String> suggerimenti = new ArrayList<>(candidati);
+        suggerimenti.sort((a, b) -> !frequenze.get(a).equals(frequenze.get(b))
+                ? Integer.compare(frequenze.get(b), frequenze.get(a))
+                : a.compareTo(b));
+        return suggerimenti.subList(0, Math.min(massimo, suggerimenti.size()));
+    }
+
+    @Override
+    public boolean pulisciBacheca() {
+        boolean rimosso = false;
+        for (boolean r : suTutte(Bacheca::pulisciBacheca)) {
+            rimosso |= r;
+        }
+        return rimosso;
+    }
+
+    @Override
+    public boolean aggiungiNuovaParolaChiave(int id, Utente utente, String nuovaParola)
+            throws AutoreNonAutorizzatoException, AnnuncioException {
+        return partizionePer(id).aggiungiNuovaParolaChiave(id, utente, nuovaParola);
+    }
+
+    /**
+     * Tutti gli annunci, partizione per partizione. Ogni partizione viene copiata
+     * con il proprio lock: la lista non è un'istantanea dell'intera bacheca.
+     */
+    @Override
+    public ArrayList<Annuncio> getAnnunci() {
+        ArrayList<Annuncio> annunci = new ArrayList<>(getNumeroAnnunci());
+        for (Bacheca b : partizioni) {
+            annunci.addAll(b.getAnnunci());
+        }
+        return annunci;
+    }
+
+    @Override
+    public Annuncio cercaPerId(int id) {
+        return partizionePer(id).cercaPerId(id);
+    }
+
+    @Override
+    public int getNumeroAnnunci() {
+        int totale = 0;
+        for (Bacheca b : partizioni) {
+            totale += b.getNumeroAnnunci();
+        }
+        return totale;
+    }
+
+    /**
+     * Id presenti in tutte le partizioni (copia non modificabile).
+     */
+    public Set<Integer> getPoolId() {
+        Set<Integer> id = new HashSet<>();
+        for (Bacheca b : partizioni) {
+            id.addAll(b.getPoolId());
+        }
+        return Collections.unmodifiableSet(id);
+    }
+
+    @Override
+    public Iterator<Annuncio> iterator() {
+        return Collections.unmodifiableList(getAnnunci()).iterator();
+    }
+
+    /** File della partizione {@code i} per il salvataggio su {@code fileName}. */
+    public static String filePartizione(String fileName, int i) {
+        return fileName + "." + i;
+    }
+
+    /**
+     * Salva ogni partizione nel proprio file ({@link #filePartizione}), in
+     * parallelo.
+     */
+    @Override
+    public void salvaAnnunciSuFile(String fileName) throws IOException {
+        try {
+            suTutteConEccezioni((i, b) -> {
+                b.salvaAnnunciSuFile(filePartizione(fileName, i));
+                return null;
+            });
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Carica ogni partizione dal proprio file, in parallelo.
+     *
+     * @throws BachecaException se un file contiene annunci di un'altra
+     *                          partizione (salvati con un numero di partizioni
+     *                          diverso)
+     */
+    @Override
+    public void caricaAnnunciDaFile(String fileName)
+            throws IOException, AnnuncioException, UtenteException, BachecaException {
+        try {
+            suTutteConEccezioni((i, b) -> {
+                b.caricaAnnunciDaFile(filePartizione(fileName, i));
+                for (Annuncio a : b) {
+                    if (partizione(a.getId()) != i) {
+                        throw new BachecaException("L'annuncio " + a.getId() + " non appartiene alla partizione " + i
+                                + ": file salvati con un numero di partizioni diverso?");
+                    }
+                }
+                return null;
+            });
+        } catch (IOException | AnnuncioException | UtenteException | BachecaException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public int esportaNdjson(Writer output) throws IOException {
+        int esportati = 0;
+        for (Bacheca b : partizioni) {
+            esportati += b.esportaNdjson(output);
+        }
+        return esportati;
+    }
+
+    /**
+     * Importazione NDJSON come {@link Bacheca#importaNdjson(Reader)}: le righe
+     * valide vengono smistate per partizione e ogni partizione riceve il suo
+     * lotto con una sola acquisizione del proprio lock.
+     */
+    @Override
+    public RapportoImportazione importaNdjson(Reader input) throws IOException {
+        RapportoImportazione rapporto = new RapportoImportazione();
+        BufferedReader lettore = input instanceof BufferedReader b ? b : new BufferedReader(input);
+        int dimensioneLotto = Bacheca.DIMENSIONE_LOTTO_IMPORTAZIONE;
+        Annuncio[][] lotti = new Annuncio[partizioni.length][dimensioneLotto];
+        long[][] righe = new long[partizioni.length][dimensioneLotto];
+        int[] n = new int[partizioni.length];
+        long numeroRiga = 0;
+
+        String linea;
+        while ((linea = lettore.readLine()) != null) {
+            numeroRiga++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            rapporto.rigaLetta();
+            Annuncio annuncio;
+            try {
+                annuncio = CodificaAnnuncio.daMappa(Json.leggiOggetto(linea));
+            } catch (IllegalArgumentException | AnnuncioException | UtenteException e) {
+                rapporto.errore(numeroRiga, e.getMessage());
+                continue;
+            }
+            int p = partizione(annuncio.getId());
+            lotti[p][n[p]] = annuncio;
+            righe[p][n[p]++] = numeroRiga;
+            if (n[p] == dimensioneLotto) {
+                partizioni[p].inserisciLotto(lotti[p], righe[p], n[p], rapporto);
+                n[p] = 0;
+            }
+        }
+        for (int p = 0; p < partizioni.length; p++) {
+            partizioni[p].inserisciLotto(lotti[p], righe[p], n[p], rapporto);
+        }
+        return rapporto;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Annuncio a : this) {
+            sb.append(a).append("\n");
+        }
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------
+    // Esecuzione su tutte le partizioni
+    // ------------------------------------------------------------------
+
+    /**
+     * Esegue l'operazione su tutte le partizioni: le partizioni dalla seconda in
+     * poi come compiti del pool, la prima nel thread chiamante. I risultati sono
+     * nell'ordine delle partizioni.
+     */
+    private <T> List<T> suTutte(Function<Bacheca, T> operazione) {
+        if (partizioni.length == 1) {
+            return List.of(operazione.apply(partizioni[0]));
+        }
+        List<ForkJoinTask<T>> compiti = new ArrayList<>(partizioni.length - 1);
+        for (int i = 1; i < partizioni.length; i++) {
+            Bacheca b = partizioni[i];
+            compiti.add(pool.submit(() -> operazione.apply(b)));
+        }
+        List<T> risultati = new ArrayList<>(partizioni.length);
+        risultati.add(operazione.apply(partizioni[0]));
+        for (ForkJoinTask<T> compito : compiti) {
+            risultati.add(compito.join());
+        }
+        return risultati;
+    }
+
+    /** Operazione su una partizione che può lanciare eccezioni controllate. */
+    @FunctionalInterface
+    private interface OperazionePartizione<T> {
+        T esegui(int indice, Bacheca partizione) throws Exception;
+    }
+
+    /**
+     * Come {@link #suTutte(Function)}, ma attende tutte le partizioni anche se
+     * una fallisce e poi rilancia la prima eccezione.
+     */
+    private <T> List<T> suTutteConEccezioni(OperazionePartizione<T> operazione) throws Exception {
+        List<ForkJoinTask<T>> compiti = new ArrayList<>(partizioni.length - 1);
+        for (int i = 1; i < partizioni.length; i++) {
+            int indice = i;
+            compiti.add(pool.submit(() -> operazione.esegui(indice, partizioni[indice])));
+        }
+        List<T> risultati = new ArrayList<>(partizioni.length);
+        Exception errore = null;
+        try {
+            risultati.add(operazione.esegui(0, partizioni[0]));
+        } catch (Exception e) {
+            errore = e;
+        }
+        for (ForkJoinTask<T> compito : compiti) {
+            try {
+                risultati.add(compito.get());
+            } catch (ExecutionException e) {
+                if (errore == null) {
+                    errore = e.getCause() instanceof Exception causa ? causa : e;
+                }
+            }
+        }
+        if (errore != null) {
+            throw errore;
+        }
+        return risultati;
+    }
+
+    private static ArrayList<Annuncio> unisci(List<ArrayList<Annuncio>> parziali) {
+        int totale = 0;
+        for (List<Annuncio> p : parziali) {
+            totale += p.size();
+        }
+        ArrayList<Annuncio> risultati = new ArrayList<>(totale);
+        for (List<Annuncio> p : parziali) {
+            risultati.addAll(p);
+        }
+        return risultati;
+    }
+}
@@ -0,0 +1,811 @@
+package modello;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+import modello.colonnare.TabellaId;
+import modello.disco.FileMappato;
+import modello.disco.IndiceFile;
+import modello.exception.AnnuncioException;
+import modello.exception.AutoreNonAutorizzatoException;
+import modello.exception.BachecaException;
+import modello.exception.UtenteException;
+import modello.json.CodificaAnnuncio;
+import modello.json.Json;
+import modello.persistenza.ScritturaAtomica;
+
+/**
+ * Bacheca che lascia gli annunci nel file da cui li carica: il file viene
+ * mappato in memoria e ogni {@link Annuncio} viene letto dalla sua riga solo
+ * quando serve. Pensata per bacheche più grandi della memoria disponibile.
+ *
+ * <p>
+ * {@link #caricaAnnunciDaFile(String)} non legge gli annunci: apre l'indice
+ * salvato accanto al file ({@code <file>}{@value #SUFFISSO_INDICE}, vedi
+ * {@link IndiceFile}) con righe, id, scadenze e termini. Se l'indice manca o il
+ * file è cambiato, lo ricostruisce con una sola scansione del file; dalla volta
+ * successiva tempo di avvio e heap occupato non dipendono dal numero di annunci.
+ * Gli annunci letti di recente restano in una cache LRU limitata.
+ * </p>
+ *
+ * <p>
+ * Il file non viene mai modificato: gli annunci aggiunti vivono in una
+ * {@link Bacheca} in memoria e quelli rimossi vengono solo segnati. Un annuncio
+ * del file a cui si aggiunge una parola chiave passa nella bacheca in memoria,
+ * quindi in {@link #getAnnunci()} compare dopo quelli del file.
+ * {@link #salvaAnnunciSuFile(String)} scrive tutto in un file nuovo, ricopiando
+ * le righe del file così come sono; non può sostituire il file caricato, che
+ * resta mappato (su Windows un file mappato non può essere rinominato o
+ * sovrascritto). Come {@link Bacheca}, è thread-safe con un lock
+ * lettura/scrittura.
+ * </p>
+ */
+public class BachecaSuDisco implements OperazioniBacheca {
+
+    /** Suffisso del file d'indice salvato accanto al file degli annunci. */
+    public static final String SUFFISSO_INDICE = ".indice";
+
+    /** Annunci tenuti in cache per default. */
+    public static final int DIMENSIONE_CACHE_PREDEFINITA = 10_000;
+
+    /** Separatore delle parole del titolo (come nell'{@link IndiceParole}). */
+    private static final Pattern SEPARATORE_TITOLO = Pattern.compile("[^\\p{L}0-9]+");
+
+    private static final DizionarioParole PAROLE = DizionarioParole.globale();
+
+    /** File degli annunci e suo indice; null finché non viene caricato un file. */
+    private Path caricato;
+    private FileMappato dati;
+    private IndiceFile indice;
+
+    /** Righe del file rimosse (o passate nella bacheca in memoria). */
+    private final BitSet rimosse;
+
+    /** Annunci aggiunti dopo il caricamento. */
+    private Bacheca aggiunti;
+
+    /** Riga -> annuncio letto, in ordine di accesso (protetta da se stessa). */
+    private final Map<Integer, Annuncio> cache;
+
+    /**
+     * Dizionario delle parole chiave del file per la ricerca approssimata,
+     * costruito alla prima ricerca di questo tipo.
+     */
+    private volatile AlberoBK dizionario;
+
+    private final ReentrantReadWriteLock lock;
+
+    /**
+     * Costruttore: crea una bacheca vuota con una cache di
+     * {@value #DIMENSIONE_CACHE_PREDEFINITA} annunci.
+     */
+    public BachecaSuDisco() {
+        this(DIMENSIONE_CACHE_PREDEFINITA);
+    }
+
+    /**
+     * Costruttore: crea una bacheca vuota.
+     *
+     * @param dimensioneCache numero massimo di annunci del file tenuti in cache
+     */
+    public BachecaSuDisco(int dimensioneCache) {
+        if (dimensioneCache < 0) {
+            throw new IllegalArgumentException("Dimensione della cache non valida: " + dimensioneCache);
+        }
+        this.rimosse = new BitSet();
+        this.aggiunti = new Bacheca();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Annuncio> piuVecchio) {
+                return size() > dimensioneCache;
+            }
+        };
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Aggiunge un annuncio se l'id non è già presente. Per un acquisto
+     * restituisce le vendite con almeno una parola chiave in comune: prima quelle
+     * del file, poi quelle aggiunte.
+     */
+    @Override
+    public ArrayList<Annuncio> aggiungiAnnuncio(Annuncio annuncio) throws BachecaException {
+        if (annuncio == null) {
+            throw new BachecaException("Annuncio nullo");
+        }
+        lock.writeLock().lock();
+        try {
+            if (rigaViva(annuncio.getId()) != IndiceFile.ASSENTE) {
+                throw new BachecaException("Annuncio già presente");
+            }
+            ArrayList<Annuncio> inMemoria = aggiunti.aggiungiAnnuncio(annuncio);
+            if (annuncio.getTipo() != Tipologia.ACQUISTO) {
+                return inMemoria;
+            }
+            List<int[]> gruppi = new ArrayList<>();
+            for (int k : annuncio.idParoleCanoniche()) {
+                int t = termine(PAROLE.parola(k));
+                if (t >= 0) {
+                    gruppi.add(indice.righeChiave(t));
+                }
+            }
+            ArrayList<Annuncio> risultati = vive(unione(gruppi), riga -> !indice.isAcquisto(riga));
+            risultati.addAll(inMemoria);
+            return risultati;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean rimuoviAnnuncio(int id, Utente utente) throws AutoreNonAutorizzatoException, BachecaException {
+        lock.writeLock().lock();
+        try {
+            if (aggiunti.cercaPerId(id) != null) {
+                return aggiunti.rimuoviAnnuncio(id, utente);
+            }
+            int riga = rigaViva(id);
+            if (riga == IndiceFile.ASSENTE) {
+                throw new BachecaException("Annuncio non trovato.");
+            }
+            if (!annuncio(riga).getAutore().equals(utente)) {
+                throw new AutoreNonAutorizzatoException("Non sei autorizzato a rimuovere questo annuncio.");
+            }
+            elimina(riga);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Annuncio> cercaPerParolaChiave(String paroleChiave) {
+        if (paroleChiave == null || paroleChiave.isBlank()) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            List<int[]> gruppi = new ArrayList<>();
+            for (String parola : paroleChiave.split(",")) {
+                int t = termine(Annuncio.formaCanonica(parola));
+                if (t >= 0) {
+                    gruppi.add(indice.righeChiave(t));
+                }
+            }
+            ArrayList<Annuncio> risultati = vive(unione(gruppi), riga -> true);
+            risultati.addAll(aggiunti.cercaPerParolaChiave(paroleChiave));
+            return risultati;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Annuncio> cercaPerParolaChiaveFuzzy(String paroleChiave, int distanzaMassima) {
+        if (paroleChiave == null || paroleChiave.isBlank()) {
+            return new ArrayList<>();
+        }
+        int k = Math.max(0, Math.min(distanzaMassima, Bacheca.DISTANZA_MASSIMA_FUZZY));
+        lock.readLock().lock();
+        try {
+            List<int[]> gruppi = new ArrayList<>();
+            if (indice != null) {
+                AlberoBK albero = dizionario();
+                for (String parola : paroleChiave.split(",")) {
+                    String p = Annuncio.formaCanonica(parola);
+                    if (!p.isEmpty()) {
+                        for (String termine : albero.cerca(p, k)) {
+                            gruppi.add(indice.righeChiave(indice.cerca(termine)));
+                        }
+                    }
+                }
+            }
+            ArrayList<Annuncio> risultati = vive(unione(gruppi), riga -> true);
+            risultati.addAll(aggiunti.cercaPerParolaChiaveFuzzy(paroleChiave, distanzaMassima));
+            return risultati;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Annuncio> cercaPerPrefisso(String prefisso) {
+        String p = Annuncio.formaCanonica(prefisso);
+        if (p.isEmpty()) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            List<int[]> gruppi = new ArrayList<>();
+            for (int t = primoConPrefisso(p); t >= 0 && conPrefisso(t, p); t++) {
+                gruppi.add(indice.righe(t));
+            }
+            ArrayList<Annuncio> risultati = vive(unione(gruppi), riga -> true);
+            risultati.addAll(aggiunti.cercaPerPrefisso(prefisso));
+            return risultati;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Suggerimenti come {@link Bacheca#suggerisciParole(String, int)}: i migliori
+     * termini del file e quelli della bacheca in memoria, ordinati per il numero
+     * complessivo di annunci che li contengono.
+     */
+    @Override
+    public List<String> suggerisciParole(String prefisso, int massimo) {
+        String p = Annuncio.formaCanonica(prefisso);
+        if (p.isEmpty() || massimo <= 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            // stesso ordinamento di IndiceParole.suggerisci, sulle frequenze scritte nell'indice
+            PriorityQueue<Integer> migliori = new PriorityQueue<>(
+                    (a, b) -> indice.frequenza(a) != indice.frequenza(b)
+                            ? Integer.compare(indice.frequenza(a), indice.frequenza(b))
+                            : Integer.compare(b, a));
+            for (int t = primoConPrefisso(p); t >= 0 && conPrefisso(t, p); t++) {
+                migliori.offer(t);
+                if (migliori.size() > massimo) {
+                    migliori.poll();
+                }
+            }
+            Set<String> candidati = new LinkedHashSet<>();
+            for (int t : migliori) {
+                candidati.add(indice.termine(t));
+            }
+            candidati.addAll(aggiunti.suggerisciParole(prefisso, massimo));
+
+            Map<String, Integer> frequenze = new HashMap<>();
+            for (String termine : candidati) {
+                frequenze.put(termine, frequenzaNelFile(termine) + aggiunti.frequenza(termine));
+            }
+            List<String> suggerimenti = new ArrayList<>(candidati);
+            suggerimenti.removeIf(termine -> frequenze.get(termine) == 0);
+            suggerimenti.sort((a, b) -> !frequenze.get(a).equals(frequenze.get(b))
+                    ? Integer.compare(frequenze.get(b), frequenze.get(a))
+                    : a.compareTo(b));
+            return suggerimenti.subList(0, Math.min(massimo, suggerimenti.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rimuove le vendite scadute: per quelle del file basta la scadenza
+     * nell'indice, senza leggere gli annunci.
+     */
+    @Override
+    public boolean pulisciBacheca() {
+        int oggi = (int) LocalDate.now().toEpochDay();
+        boolean rimosso = false;
+        lock.writeLock().lock();
+        try {
+            for (int riga = 0, n = righe(); riga < n; riga++) {
+                int scadenza = indice.scadenza(riga);
+                if (scadenza != IndiceFile.SENZA_SCADENZA && scadenza < oggi && !rimosse.get(riga)) {
+                    elimina(riga);
+                    rimosso = true;
+                }
+            }
+            rimosso |= aggiunti.pulisciBacheca();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return rimosso;
+    }
+
+    /**
+     * Aggiunge una parola chiave. Un annuncio del file passa nella bacheca in
+     * memoria con la nuova parola.
+     */
+    @Override
+    public boolean aggiungiNuovaParolaChiave(int id, Utente utente, String nuovaParola)
+            throws AutoreNonAutorizzatoException, AnnuncioException {
+        lock.writeLock().lock();
+        try {
+            if (aggiunti.cercaPerId(id) != null) {
+                return aggiunti.aggiungiNuovaParolaChiave(id, utente, nuovaParola);
+            }
+            if (nuovaParola == null || nuovaParola.trim().isEmpty()) {
+                throw new AnnuncioException("Parola chiave non valida");
+            }
+            int riga = rigaViva(id);
+            if (riga == IndiceFile.ASSENTE) {
+                throw new AnnuncioException("Annuncio non trovato");
+            }
+            // copia nuova: quella in cache potrebbe essere già stata restituita
+            Annuncio annuncio = leggi(riga);
+            if (!annuncio.getAutore().equals(utente)) {
+                throw new AutoreNonAutorizzatoException("Non sei autorizzato a rimuovere questo annuncio.");
+            }
+            annuncio.aggiungiParola(nuovaParola.trim());
+            elimina(riga);
+            try {
+                aggiunti.aggiungiAnnuncio(annuncio);
+            } catch (BachecaException e) {
+                // l'id era solo nel file, appena segnato come rimosso
+                throw new IllegalStateException(e);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Restituisce tutti gli annunci, leggendoli dal file: per bacheche grandi
+     * riporta sullo heap l'intera bacheca.
+     */
+    @Override
+    public ArrayList<Annuncio> getAnnunci() {
+        lock.readLock().lock();
+        try {
+            ArrayList<Annuncio> risultati = new ArrayList<>();
+            for (Annuncio a : viste()) {
+                risultati.add(a);
+            }
+            return risultati;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Annuncio cercaPerId(int id) {
+        lock.readLock().lock();
+        try {
+            Annuncio annuncio = aggiunti.cercaPerId(id);
+            if (annuncio != null) {
+                return annuncio;
+            }
+            int riga = rigaViva(id);
+            return riga == IndiceFile.ASSENTE ? null : annuncio(riga);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getNumeroAnnunci() {
+        lock.readLock().lock();
+        try {
+            return righe() - rimosse.cardinality() + aggiunti.getNumeroAnnunci();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Numero di annunci del file attualmente in cache. */
+    public int getAnnunciInCache() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Iteratore su una copia degli annunci (vedi {@link #getAnnunci()}); non
+     * permette la rimozione.
+     */
+    @Override
+    public Iterator<Annuncio> iterator() {
+        return Collections.unmodifiableList(getAnnunci()).iterator();
+    }
+
+    /**
+     * Salva gli annunci nel formato di {@link Bacheca#salvaAnnunciSuFile(String)}.
+     * Le righe del file caricato vengono ricopiate senza interpretarle; la
+     * bacheca continua poi a leggere dal file caricato. Il lock di lettura resta
+     * preso per tutto il salvataggio.
+     *
+     * @throws IOException in caso di errore I/O, o se {@code fileName} è il file
+     *                     caricato: per sostituirlo si salva su un altro file e
+     *                     lo si ricarica
+     */
+    @Override
+    public void salvaAnnunciSuFile(String fileName) throws IOException {
+        lock.readLock().lock();
+        try {
+            Path destinazione = Path.of(fileName);
+            if (caricato != null && Files.exists(destinazione) && Files.exists(caricato)
+                    && Files.isSameFile(destinazione, caricato)) {
+                throw new IOException("Il file caricato è mappato in memoria e non può essere sostituito: "
+                        + fileName);
+            }
+            ScritturaAtomica.scrivi(Path.of(fileName), output -> {
+                PrintWriter righeFile = new PrintWriter(output);
+                for (int riga = 0, n = righe(); riga < n; riga++) {
+                    if (!rimosse.get(riga)) {
+                        righeFile.println(testo(riga));
+                    }
+                }
+                Bacheca.scriviAnnunci(righeFile, aggiunti.getAnnunci());
+            });
+        } catch (IOException e) {
+            throw new IOException("Errore nel salvataggio della bacheca su file", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Apre un file nel formato di {@link Bacheca#salvaAnnunciSuFile(String)},
+     * sostituendo gli annunci presenti, senza leggerne gli annunci. Se l'indice
+     * del file manca o non è aggiornato viene ricostruito, leggendo e validando
+     * ogni riga come {@link Bacheca#caricaAnnunciDaFile(String)}; le righe
+     * malformate vengono ignorate.
+     *
+     * @throws BachecaException se due righe hanno lo stesso id
+     */
+    @Override
+    public void caricaAnnunciDaFile(String fileName)
+            throws IOException, AnnuncioException, UtenteException, BachecaException {
+        lock.writeLock().lock();
+        try {
+            Path file = Path.of(fileName);
+            long dimensione = Files.size(file);
+            long ultimaModifica = Files.getLastModifiedTime(file).to(TimeUnit.NANOSECONDS);
+            FileMappato nuoviDati = FileMappato.apri(file);
+            Path percorsoIndice = file.resolveSibling(file.getFileName() + SUFFISSO_INDICE);
+            IndiceFile nuovoIndice = IndiceFile.apri(percorsoIndice, dimensione, ultimaModifica);
+            if (nuovoIndice == null) {
+                costruisciIndice(nuoviDati, percorsoIndice, ultimaModifica);
+                nuovoIndice = IndiceFile.apri(percorsoIndice, dimensione, ultimaModifica);
+            }
+            caricato = file.toAbsolutePath();
+            dati = nuoviDati;
+            indice = nuovoIndice;
+            rimosse.clear();
+            aggiunti = new Bacheca();
+            synchronized (cache) {
+                cache.clear();
+            }
+            dizionario = null;
+        } catch (IOException e) {
+            throw new IOException("Errore nel caricamento della bacheca", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Esporta gli annunci in NDJSON come {@link Bacheca#esportaNdjson(Writer)},
+     * leggendoli dal file uno alla volta con il lock di lettura tenuto per tutta
+     * l'esportazione.
+     */
+    @Override
+    public int esportaNdjson(Writer output) throws IOException {
+        int esportati = 0;
+        lock.readLock().lock();
+        try {
+            for (Annuncio a : viste()) {
+                output.write(Json.scrivi(CodificaAnnuncio.inMappa(a)));
+                output.write('\n');
+                esportati++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        output.flush();
+        return esportati;
+    }
+
+    /**
+     * Importa annunci in NDJSON come {@link Bacheca#importaNdjson(Reader)}: le
+     * righe valide entrano nella bacheca in memoria a lotti di
+     * {@value Bacheca#DIMENSIONE_LOTTO_IMPORTAZIONE}.
+     */
+    @Override
+    public RapportoImportazione importaNdjson(Reader input) throws IOException {
+        RapportoImportazione rapporto = new RapportoImportazione();
+        BufferedReader lettore = input instanceof BufferedReader b ? b : new BufferedReader(input);
+        Annuncio[] lotto = new Annuncio[Bacheca.DIMENSIONE_LOTTO_IMPORTAZIONE];
+        long[] righeLotto = new long[Bacheca.DIMENSIONE_LOTTO_IMPORTAZIONE];
+        int n = 0;
+        long numeroRiga = 0;
+        String linea;
+        while ((linea = lettore.readLine()) != null) {
+            numeroRiga++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            rapporto.rigaLetta();
+            try {
+                lotto[n] = CodificaAnnuncio.daMappa(Json.leggiOggetto(linea));
+            } catch (IllegalArgumentException | AnnuncioException | UtenteException e) {
+                rapporto.errore(numeroRiga, e.getMessage());
+                continue;
+            }
+            righeLotto[n++] = numeroRiga;
+            if (n == lotto.length) {
+                inserisciLotto(lotto, righeLotto, n, rapporto);
+                n = 0;
+            }
+        }
+        inserisciLotto(lotto, righeLotto, n, rapporto);
+        return rapporto;
+    }
+
+    /**
+     * Passa il lotto alla bacheca in memoria, togliendo prima gli id già
+     * presenti nel file.
+     */
+    private void inserisciLotto(Annuncio[] lotto, long[] righeLotto, int n, RapportoImportazione rapporto) {
+        lock.writeLock().lock();
+        try {
+            int nuovi = 0;
+            for (int i = 0; i < n; i++) {
+                if (rigaViva(lotto[i].getId()) != IndiceFile.ASSENTE) {
+                    rapporto.errore(righeLotto[i], "ID già presente: " + lotto[i].getId());
+                } else {
+                    lotto[nuovi] = lotto[i];
+                    righeLotto[nuovi++] = righeLotto[i];
+                }
+            }
+            Arrays.fill(lotto, nuovi, n, null);
+            aggiunti.inserisciLotto(lotto, righeLotto, nuovi, rapporto);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Annuncio a : this) {
+            sb.append(a).append("\n");
+        }
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------
+    // Righe del file (da chiamare con il lock preso)
+    // ------------------------------------------------------------------
+
+    private int righe() {
+        return indice == null ? 0 : indice.getNumeroRighe();
+    }
+
+    /** Riga del file con l'annuncio, se non rimossa; altrimenti ASSENTE. */
+    private int rigaViva(int id) {
+        if (indice == null) {
+            return IndiceFile.ASSENTE;
+        }
+        int riga = indice.riga(id);
+        return riga == IndiceFile.ASSENTE || rimosse.get(riga) ? IndiceFile.ASSENTE : riga;
+    }
+
+    private void elimina(int riga) {
+        rimosse.set(riga);
+        synchronized (cache) {
+            cache.remove(riga);
+        }
+    }
+
+    /** Posizione del termine nell'indice, oppure un valore negativo. */
+    private int termine(String termine) {
+        return indice == null || termine.isEmpty() ? -1 : indice.cerca(termine);
+    }
+
+    /** Primo termine dell'indice non minore del prefisso, oppure -1 senza indice. */
+    private int primoConPrefisso(String prefisso) {
+        if (indice == null) {
+            return -1;
+        }
+        int t = indice.cerca(prefisso);
+        return t >= 0 ? t : -t - 1;
+    }
+
+    private boolean conPrefisso(int t, String prefisso) {
+        return t < indice.getNumeroTermini() && indice.termine(t).startsWith(prefisso);
+    }
+
+    /** Annunci del file non rimossi che contengono il termine. */
+    private int frequenzaNelFile(String termine) {
+        int t = termine(termine);
+        if (t < 0) {
+            return 0;
+        }
+        if (rimosse.isEmpty()) {
+            return indice.frequenza(t);
+        }
+        int n = 0;
+        for (int riga : indice.righe(t)) {
+            if (!rimosse.get(riga)) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /** Annunci delle righe date (crescenti) non rimosse che soddisfano la condizione. */
+    private ArrayList<Annuncio> vive(int[] righe, IntPredicate condizione) {
+        ArrayList<Annuncio> risultati = new ArrayList<>(righe.length);
+        for (int riga : righe) {
+            if (!rimosse.get(riga) && condizione.test(riga)) {
+                risultati.add(annuncio(riga));
+            }
+        }
+        return risultati;
+    }
+
+    /** Annuncio della riga, dalla cache se c'è. */
+    private Annuncio annuncio(int riga) {
+        synchronized (cache) {
+            Annuncio annuncio = cache.get(riga);
+            if (annuncio != null) {
+                return annuncio;
+            }
+        }
+        Annuncio annuncio = leggi(riga);
+        synchronized (cache) {
+            cache.put(riga, annuncio);
+        }
+        return annuncio;
+    }
+
+    /** Testo della riga del file, senza fine riga. */
+    private String testo(int riga) {
+        byte[] contenuto = new byte[indice.lunghezza(riga)];
+        dati.leggi(indice.posizione(riga), contenuto, 0, contenuto.length);
+        return new String(contenuto, StandardCharsets.UTF_8);
+    }
+
+    /** Legge e interpreta la riga del file (senza passare per la cache). */
+    private Annuncio leggi(int riga) {
+        try {
+            return Bacheca.leggiRiga(testo(riga));
+        } catch (AnnuncioException | UtenteException e) {
+            // la riga è stata validata quando è stato costruito l'indice
+            throw new IllegalStateException("Riga del file non valida per l'annuncio " + indice.id(riga), e);
+        }
+    }
+
+    /**
+     * Annunci del file non rimossi, letti uno alla volta durante l'iterazione
+     * senza riempire la cache, seguiti da quelli in memoria.
+     */
+    private Iterable<Annuncio> viste() {
+        List<Annuncio> inMemoria = aggiunti.getAnnunci();
+        return () -> new Iterator<>() {
+            private int riga = rimosse.nextClearBit(0);
+            private final Iterator<Annuncio> altri = inMemoria.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return riga < righe() || altri.hasNext();
+            }
+
+            @Override
+            public Annuncio next() {
+                if (riga >= righe()) {
+                    return altri.next();
+                }
+                Annuncio a = leggi(riga);
+                riga = rimosse.nextClearBit(riga + 1);
+                return a;
+            }
+        };
+    }
+
+    /**
+     * Dizionario delle parole chiave del file, costruito al primo uso. La
+     * bacheca in memoria ha il proprio.
+     */
+    private AlberoBK dizionario() {
+        AlberoBK albero = dizionario;
+        if (albero == null) {
+            synchronized (this) {
+                albero = dizionario;
+                if (albero == null) {
+                    albero = new AlberoBK();
+                    for (int t = 0; t < indice.getNumeroTermini(); t++) {
+                        if (indice.numeroChiave(t) > 0) {
+                            albero.aggiungi(indice.termine(t));
+                        }
+                    }
+                    dizionario = albero;
+                }
+            }
+        }
+        return albero;
+    }
+
+    /** Unione ordinata e senza duplicati di gruppi di righe. */
+    private static int[] unione(List<int[]> gruppi) {
+        int totale = 0;
+        for (int[] g : gruppi) {
+            totale += g.length;
+        }
+        int[] tutte = new int[totale];
+        int n = 0;
+        for (int[] g : gruppi) {
+            System.arraycopy(g, 0, tutte, n, g.length);
+            n += g.length;
+        }
+        Arrays.sort(tutte);
+        int distinte = 0;
+        for (int i = 0; i < tutte.length; i++) {
+            if (i == 0 || tutte[i] != tutte[i - 1]) {
+                tutte[distinte++] = tutte[i];
+            }
+        }
+        return Arrays.copyOf(tutte, distinte);
+    }
+
+    /**
+     * Scandisce una volta il file degli annunci, validando ogni riga, e scrive il
+     * suo indice.
+     */
+    private static void costruisciIndice(FileMappato dati, Path percorsoIndice, long ultimaModifica)
+            throws IOException, AnnuncioException, UtenteException, BachecaException {
+        IndiceFile.Costruttore costruttore = new IndiceFile.Costruttore();
+        TabellaId visti = new TabellaId();
+        byte[] buffer = new byte[256];
+        long dimensione = dati.getDimensione();
+        long inizio = 0;
+        while (inizio < dimensione) {
+            long fine = inizio;
+            while (fine < dimensione && dati.get(fine) != '\n') {
+                fine++;
+            }
+            long fineTesto = fine > inizio && dati.get(fine - 1) == '\r' ? fine - 1 : fine;
+            int lunghezza = (int) (fineTesto - inizio);
+            if (lunghezza > buffer.length) {
+                buffer = new byte[Math.max(lunghezza, buffer.length * 2)];
+            }
+            dati.leggi(inizio, buffer, 0, lunghezza);
+            Annuncio annuncio = Bacheca.leggiRiga(new String(buffer, 0, lunghezza, StandardCharsets.UTF_8));
+            if (annuncio != null) {
+                if (visti.contiene(annuncio.getId())) {
+                    throw new BachecaException("ID già presente");
+                }
+                visti.metti(annuncio.getId(), 0);
+                LocalDate data = annuncio.getDataScadenza();
+                costruttore.aggiungiRiga(inizio, lunghezza, annuncio.getId(),
+                        data == null ? IndiceFile.SENZA_SCADENZA : (int) data.toEpochDay(),
+                        annuncio.getTipo() == Tipologia.ACQUISTO,
+                        annuncio.getParoleChiaveCanoniche(), terminiTitolo(annuncio.getArticolo()));
+            }
+            inizio = fine + 1;
+        }
+        costruttore.scrivi(percorsoIndice, dimensione, ultimaModifica);
+    }
+
+    /** Forme canoniche delle parole del titolo. */
+    private static Set<String> terminiTitolo(String articolo) {
+        Set<String> termini = new LinkedHashSet<>();
+        for (String parola : SEPARATORE_TITOLO.split(articolo)) {
+            String t = Annuncio.formaCanonica(parola);
+            if (!t.isEmpty()) {
+                termini.add(t);
+            }
+        }
+        return termini;
+    }
+}
@@ -0,0 +1,224 @@
+package modello;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache LRU dei risultati di {@link Bacheca#cercaPerParolaChiave(String)},
+ * indicizzata dall'insieme ordinato degli id canonici cercati: "TV, Città" e
+ * "citta,tv" condividono la stessa voce.
+ *
+ * <p>
+ * La dimensione è limitata sia nel numero di voci sia nel numero totale di
+ * annunci memorizzati, così poche ricerche molto generiche non possono
+ * occupare memoria proporzionale alla bacheca. Oltre la soglia vengono tolte
+ * le voci usate meno di recente.
+ * </p>
+ *
+ * <p>
+ * L'invalidazione è precisa: per ogni id canonico la cache ricorda le voci che
+ * lo contengono, e quando un annuncio entra, esce o riceve una parola vengono
+ * scartate solo le voci che condividono almeno un id con lui. Le altre restano
+ * valide, perché il risultato di una ricerca dipende solo dagli annunci che
+ * contengono almeno una delle parole cercate.
+ * </p>
+ *
+ * <p>
+ * Thread-safe (metodi sincronizzati). La bacheca legge e inserisce sotto il suo
+ * lock di lettura e invalida sotto quello di scrittura: un risultato calcolato
+ * non può quindi essere inserito dopo una modifica che lo rende vecchio.
+ * </p>
+ */
+final class CacheRicerche {
+
+    /** Numero massimo predefinito di ricerche memorizzate. */
+    static final int VOCI_PREDEFINITE = 1024;
+
+    /** Numero massimo predefinito di annunci memorizzati in tutte le voci. */
+    static final int ANNUNCI_PREDEFINITI = 1 << 20;
+
+    /**
+     * Insieme ordinato di id canonici (i primi {@code numero} dell'array), usato
+     * come chiave. Le chiavi memorizzate hanno un array proprio; la
+     * {@link #sonda} punta invece al buffer del chiamante.
+     */
+    private static final class Chiave {
+
+        private int[] ids;
+        private int numero;
+        private int hash;
+
+        Chiave imposta(int[] ids, int numero) {
+            this.ids = ids;
+            this.numero = numero;
+            int h = 1;
+            for (int i = 0; i < numero; i++) {
+                h = 31 * h + ids[i];
+            }
+            this.hash = h;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Chiave c && Arrays.equals(ids, 0, numero, c.ids, 0, c.numero);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /** Chiave riusata dalle ricerche (protetta dal monitor della cache). */
+    private final Chiave sonda = new Chiave();
+
+    /** Voci in ordine di accesso: la prima è la meno recente. */
+    private final LinkedHashMap<Chiave, Annuncio[]> voci = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Id canonico -> voci che lo contengono. */
+    private final Map<Integer, Set<Chiave>> perParola = new HashMap<>();
+
+    private int massimoVoci;
+    private int massimoAnnunci;
+    private long annunciMemorizzati;
+
+    CacheRicerche(int massimoVoci, int massimoAnnunci) {
+        imposta(massimoVoci, massimoAnnunci);
+    }
+
+    /**
+     * Cambia i limiti, togliendo subito le voci in eccesso. Con un limite a 0 la
+     * cache è disattivata.
+     */
+    synchronized void imposta(int massimoVoci, int massimoAnnunci) {
+        if (massimoVoci < 0 || massimoAnnunci < 0) {
+            throw new IllegalArgumentException("Dimensione della cache negativa");
+        }
+        this.massimoVoci = massimoVoci;
+        this.massimoAnnunci = massimoAnnunci;
+        riduci();
+    }
+
+    synchronized int getMassimoVoci() {
+        return massimoVoci;
+    }
+
+    synchronized int getMassimoAnnunci() {
+        return massimoAnnunci;
+    }
+
+    /** Numero di ricerche attualmente memorizzate. */
+    synchronized int getNumeroVoci() {
+        return voci.size();
+    }
+
+    /**
+     * Risultato memorizzato per gli id dati (in una nuova lista modificabile),
+     * o null se non presente. Oltre alla lista non alloca nulla.
+     *
+     * @param idOrdinati id canonici cercati, in ordine crescente
+     * @param numero     quanti id dell'array considerare
+     */
+    synchronized ArrayList<Annuncio> cerca(int[] idOrdinati, int numero) {
+        Annuncio[] risultato = voci.get(sonda.imposta(idOrdinati, numero));
+        sonda.ids = null;
+        if (risultato == null) {
+            return null;
+        }
+        ArrayList<Annuncio> lista = new ArrayList<>(risultato.length);
+        Collections.addAll(lista, risultato);
+        return lista;
+    }
+
+    /**
+     * Memorizza il risultato di una ricerca, se rientra nei limiti.
+     *
+     * @param idOrdinati id canonici cercati, in ordine crescente (copiati)
+     * @param numero     quanti id dell'array considerare
+     */
+    synchronized void memorizza(int[] idOrdinati, int numero, List<Annuncio> risultato) {
+        if (massimoVoci == 0 || risultato.size() > massimoAnnunci) {
+            return;
+        }
+        Chiave chiave = new Chiave().imposta(Arrays.copyOf(idOrdinati, numero), numero);
+        Annuncio[] precedente = voci.put(chiave, risultato.toArray(new Annuncio[0]));
+        if (precedente != null) {
+            annunciMemorizzati -= precedente.length;
+        } else {
+            for (int id : chiave.ids) {
+                perParola.computeIfAbsent(id, k -> new HashSet<>()).add(chiave);
+            }
+        }
+        annunciMemorizzati += risultato.size();
+        riduci();
+    }
+
+    /**
+     * Scarta le ricerche che contengono almeno uno degli id dati.
+     *
+     * @param ids id canonici toccati da una modifica (in qualunque ordine)
+     */
+    synchronized void invalida(int[] ids) {
+        if (voci.isEmpty()) {
+            return;
+        }
+        for (int id : ids) {
+            Set<Chiave> chiavi = perParola.remove(id);
+            if (chiavi != null) {
+                for (Chiave chiave : chiavi) {
+                    togli(chiave, voci.remove(chiave), id);
+                }
+            }
+        }
+    }
+
+    /** Scarta tutte le ricerche memorizzate. */
+    synchronized void svuota() {
+        voci.clear();
+        perParola.clear();
+        annunciMemorizzati = 0;
+    }
+
+    /** Toglie le voci meno recenti finché la cache non rientra nei limiti. */
+    private void riduci() {
+        Iterator<Map.Entry<Chiave, Annuncio[]>> it = voci.entrySet().iterator();
+        while (it.hasNext() && (voci.size() > massimoVoci || annunciMemorizzati > massimoAnnunci)) {
+            Map.Entry<Chiave, Annuncio[]> piuVecchia = it.next();
+            it.remove();
+            togli(piuVecchia.getKey(), piuVecchia.getValue(), -1);
+        }
+    }
+
+    /**
+     * Aggiorna contatore e mappa inversa dopo che la voce è stata tolta da
+     * {@link #voci}. L'id {@code saltato} è quello la cui lista è già stata
+     * rimossa.
+     */
+    private void togli(Chiave chiave, Annuncio[] risultato, int saltato) {
+        if (risultato == null) {
+            return;
+        }
+        annunciMemorizzati -= risultato.length;
+        for (int id : chiave.ids) {
+            if (id == saltato) {
+                continue;
+            }
+            Set<Chiave> chiavi = perParola.get(id);
+            if (chiavi != null) {
+                chiavi.remove(chiave);
+                if (chiavi.isEmpty()) {
+                    perParola.remove(id);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package modello;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dizionario globale delle parole chiave: associa a ogni parola distinta un id
+ * intero progressivo, in modo che gli annunci possano memorizzare array di
+ * interi invece di insiemi di stringhe duplicate.
+ *
+ * <p>
+ * Le parole comuni ("usato", "apple", ...) sono quindi memorizzate una sola
+ * volta, indipendentemente dal numero di annunci che le usano. Il dizionario
+ * non rimuove mai parole: gli id restano validi per tutta la vita del
+ * programma.
+ * </p>
+ *
+ * <p>
+ * Oltre alla mappa, una tabella ad indirizzamento aperto indicizzata da
+ * {@link #hash(String)} permette di cercare la forma canonica di una parola
+ * ASCII direttamente nel testo di una ricerca
+ * ({@link #cercaCanonica(String, int, int)}), senza creare stringhe.
+ * </p>
+ */
+public final class DizionarioParole {
+
+    /** Istanza condivisa da tutti gli annunci. */
+    private static final DizionarioParole GLOBALE = new DizionarioParole();
+
+    /** Parola -> id (lettura senza lock). */
+    private final ConcurrentHashMap<String, Integer> ids;
+
+    /** Id -> parola; riallocato (raddoppiando) quando si riempie. */
+    private volatile String[] parole;
+
+    /**
+     * Hash della parola -> id (-1 se vuota), con scansione lineare; la
+     * lunghezza è una potenza di 2 e la tabella è piena al più a metà.
+     * Sostituita, non ridimensionata, quando cresce.
+     */
+    private volatile int[] tabella;
+
+    /** Numero di parole presenti (modificato solo sotto lock). */
+    private int dimensione;
+
+    // parametri di FNV-1a a 64 bit
+    private static final long BASE_HASH = 0xcbf29ce484222325L;
+    private static final long MOLTIPLICATORE_HASH = 0x100000001b3L;
+
+    private DizionarioParole() {
+        this.ids = new ConcurrentHashMap<>();
+        this.parole = new String[64];
+        this.tabella = tabellaVuota(128);
+    }
+
+    /**
+     * Restituisce il dizionario globale.
+     */
+    public static DizionarioParole globale() {
+        return GLOBALE;
+    }
+
+    /**
+     * Restituisce l'id della parola, aggiungendola al dizionario se non presente.
+     *
+     * @param parola parola da internare (non null)
+     * @return id della parola (>= 0)
+     */
+    public int id(String parola) {
+        Integer id = ids.get(parola);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(parola);
+            if (id != null) {
+                return id;
+            }
+            if (dimensione == parole.length) {
+                parole = Arrays.copyOf(parole, dimensione * 2);
+            }
+            // la parola è scritta nell'array prima di pubblicare l'id nella mappa
+            parole[dimensione] = parola;
+            if (2 * (dimensione + 1) > tabella.length) {
+                int[] nuova = tabellaVuota(tabella.length * 2);
+                for (int i = 0; i < dimensione; i++) {
+                    inserisci(nuova, parole[i], i);
+                }
+                tabella = nuova;
+            }
+            inserisci(tabella, parola, dimensione);
+            ids.put(parola, dimensione);
+            return dimensione++;
+        }
+    }
+
+    /**
+     * Restituisce l'id della parola senza aggiungerla.
+     *
+     * @param parola parola da cercare
+     * @return id della parola, oppure -1 se non è nel dizionario
+     */
+    public int cerca(String parola) {
+        Integer id = ids.get(parola);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Restituisce l'id della forma canonica (vedi
+     * {@link Annuncio#formaCanonica(String)}) di {@code testo[da, a)} senza
+     * aggiungerla. Se il tratto è solo ASCII la forma canonica non viene
+     * costruita: spazi ai bordi e maiuscole sono ignorati durante il confronto
+     * con le parole della tabella. Altrimenti si passa per la normalizzazione
+     * Unicode, che alloca.
+     *
+     * @return id della forma canonica, oppure -1 se è vuota o non è nel
+     *         dizionario
+     */
+    public int cercaCanonica(String testo, int da, int a) {
+        while (da < a && testo.charAt(da) <= ' ') {
+            da++;
+        }
+        while (a > da && testo.charAt(a - 1) <= ' ') {
+            a--;
+        }
+        if (da == a) {
+            return -1;
+        }
+        long h = BASE_HASH;
+        for (int i = da; i < a; i++) {
+            char c = testo.charAt(i);
+            if (c > 0x7F) {
+                return cerca(Annuncio.formaCanonica(testo.substring(da, a)));
+            }
+            h = passoHash(h, minuscola(c));
+        }
+        int[] t = tabella;
+        String[] p = parole;
+        int maschera = t.length - 1;
+        for (int i = (int) mescola(h) & maschera;; i = (i + 1) & maschera) {
+            int id = t[i];
+            if (id < 0) {
+                return -1;
+            }
+            // un id appena inserito da un altro thread può non essere ancora visibile in parole
+            String parola = id < p.length ? p[id] : null;
+            if (parola != null && ugualeMinuscola(parola, testo, da, a)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Restituisce la parola associata all'id.
+     *
+     * @param id id valido restituito da {@link #id(String)}
+     * @return la parola
+     */
+    public String parola(int id) {
+        return parole[id];
+    }
+
+    /**
+     * Restituisce il numero di parole distinte nel dizionario.
+     */
+    public int getDimensione() {
+        return ids.size();
+    }
+
+    /**
+     * Hash a 64 bit della parola: FNV-1a sui caratteri, seguito dal
+     * mescolamento finale di MurmurHash3. Lo stesso valore si ottiene
+     * carattere per carattere con {@link #passoHash(long, char)} partendo da
+     * {@link #inizioHash()} e chiudendo con {@link #mescola(long)}.
+     */
+    static long hash(String parola) {
+        long h = BASE_HASH;
+        for (int i = 0; i < parola.length(); i++) {
+            h = passoHash(h, parola.charAt(i));
+        }
+        return mescola(h);
+    }
+
+    static long inizioHash() {
+        return BASE_HASH;
+    }
+
+    static long passoHash(long h, char c) {
+        return (h ^ c) * MOLTIPLICATORE_HASH;
+    }
+
+    static long mescola(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9a53ed1a893L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /** Minuscola di un carattere ASCII, come {@code toLowerCase(Locale.ROOT)}. */
+    static char minuscola(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean ugualeMinuscola(String parola, String testo, int da, int a) {
+        if (parola.length() != a - da) {
+            return false;
+        }
+        for (int i = 0; i < parola.length(); i++) {
+            if (parola.charAt(i) != minuscola(testo.charAt(da + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] tabellaVuota(int lunghezza) {
+        int[] t = new int[lunghezza];
+        Arrays.fill(t, -1);
+        return t;
+    }
+
+    private static void inserisci(int[] tabella, String parola, int id) {
+        int maschera = tabella.length - 1;
+        int i = (int) hash(parola) & maschera;
+        while (tabella[i] >= 0) {
+            i = (i + 1) & maschera;
+        }
+        tabella[i] = id;
+    }
+}
@@ -0,0 +1,203 @@
+package modello;
+
+import java.util.Arrays;
+
+/**
+ * Parole chiave (in forma canonica) presenti negli annunci di una bacheca, per
+ * scartare senza scorrere nulla le ricerche che non possono avere risultati.
+ *
+ * <p>
+ * Per ogni id canonico del {@link DizionarioParole} il filtro conta gli annunci
+ * che lo usano; le parole con almeno un annuncio sono anche in un filtro di
+ * Bloom a contatori, così che una parola esca dal filtro quando esce l'ultimo
+ * annuncio che la contiene. Il filtro di Bloom permette di controllare il testo
+ * di una ricerca così com'è, senza dividerlo, normalizzarlo o cercarlo nel
+ * dizionario: per le parole ASCII l'hash della forma canonica si calcola
+ * direttamente sui caratteri della stringa, senza allocare nulla.
+ * </p>
+ *
+ * <p>
+ * Il filtro ha circa {@value #CONTATORI_PER_PAROLA} contatori (un byte
+ * ciascuno) per parola distinta e viene ricostruito con il doppio dei
+ * contatori quando le parole superano la capacità, così i falsi positivi
+ * restano intorno all'1%. Non è thread-safe: la bacheca lo modifica sotto il
+ * lock di scrittura e lo consulta sotto quello di lettura.
+ * </p>
+ */
+final class FiltroParole {
+
+    /** Contatori per parola distinta prevista. */
+    static final int CONTATORI_PER_PAROLA = 10;
+
+    /** Posizioni controllate per ogni parola. */
+    private static final int FUNZIONI_HASH = 7;
+
+    /** Capacità iniziale, in parole distinte. */
+    private static final int CAPACITA_INIZIALE = 1024;
+
+    /** Valore oltre il quale un contatore resta fermo e non viene più decrementato. */
+    private static final int SATURO = 0xFF;
+
+    /** Id canonico -> numero di annunci che lo contengono tra le parole chiave. */
+    private int[] occorrenze = new int[0];
+
+    /** Contatori del filtro di Bloom (senza segno); la lunghezza è una potenza di 2. */
+    private byte[] contatori;
+
+    private int capacita;
+    private int distinte;
+
+    FiltroParole() {
+        svuota();
+    }
+
+    /** Numero di parole distinte presenti. */
+    int getNumeroParole() {
+        return distinte;
+    }
+
+    /** Registra le parole chiave di un annuncio entrato in bacheca. */
+    void aggiungi(int[] idCanonici) {
+        for (int id : idCanonici) {
+            if (id >= occorrenze.length) {
+                occorrenze = Arrays.copyOf(occorrenze, Math.max(id + 1, occorrenze.length * 2));
+            }
+            if (occorrenze[id]++ == 0) {
+                distinte++;
+                if (distinte > capacita) {
+                    capacita *= 2;
+                    ricostruisci();
+                } else {
+                    modifica(DizionarioParole.globale().parola(id), 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Toglie le parole chiave di un annuncio uscito dalla bacheca. Gli id mai
+     * registrati sono ignorati.
+     */
+    void rimuovi(int[] idCanonici) {
+        for (int id : idCanonici) {
+            if (contiene(id) && --occorrenze[id] == 0) {
+                distinte--;
+                modifica(DizionarioParole.globale().parola(id), -1);
+            }
+        }
+    }
+
+    void svuota() {
+        occorrenze = new int[0];
+        distinte = 0;
+        capacita = CAPACITA_INIZIALE;
+        contatori = new byte[dimensione(capacita)];
+    }
+
+    /** Indica se almeno un annuncio ha la parola con l'id canonico dato. */
+    boolean contiene(int idCanonico) {
+        return idCanonico < occorrenze.length && occorrenze[idCanonico] > 0;
+    }
+
+    /** Indica se almeno un annuncio ha una delle parole con gli id canonici dati. */
+    boolean almenoUna(int[] idCanonici) {
+        for (int id : idCanonici) {
+            if (contiene(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indica se nessuna delle parole cercate (separate da virgola, come in
+     * {@link Bacheca#cercaPerParolaChiave(String)}) è sicuramente presente:
+     * in quel caso la ricerca non ha risultati. Una risposta false non
+     * garantisce che ce ne siano. Le parole con caratteri non ASCII, che
+     * richiederebbero la normalizzazione Unicode, sono considerate presenti.
+     * Non alloca memoria.
+     */
+    boolean nessunaPresente(String paroleChiave) {
+        int inizio = 0;
+        int n = paroleChiave.length();
+        while (inizio <= n) {
+            int fine = paroleChiave.indexOf(',', inizio);
+            if (fine < 0) {
+                fine = n;
+            }
+            if (puoContenere(paroleChiave, inizio, fine)) {
+                return false;
+            }
+            inizio = fine + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Controlla la forma canonica di {@code testo[da, a)}: come
+     * {@link Annuncio#formaCanonica(String)} toglie spazi iniziali e finali e
+     * porta le lettere ASCII in minuscolo. Una parola vuota non è mai presente.
+     */
+    private boolean puoContenere(String testo, int da, int a) {
+        while (da < a && testo.charAt(da) <= ' ') {
+            da++;
+        }
+        while (a > da && testo.charAt(a - 1) <= ' ') {
+            a--;
+        }
+        if (da == a) {
+            return false;
+        }
+        long h = DizionarioParole.inizioHash();
+        for (int i = da; i < a; i++) {
+            char c = testo.charAt(i);
+            if (c > 0x7F) {
+                return true;
+            }
+            h = DizionarioParole.passoHash(h, DizionarioParole.minuscola(c));
+        }
+        return tuttiPositivi(DizionarioParole.mescola(h));
+    }
+
+    private boolean tuttiPositivi(long hash) {
+        int maschera = contatori.length - 1;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < FUNZIONI_HASH; i++) {
+            if (contatori[(h1 + i * h2) & maschera] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Incrementa o decrementa i contatori della parola (in forma canonica). */
+    private void modifica(String canonica, int delta) {
+        long hash = DizionarioParole.hash(canonica);
+        int maschera = contatori.length - 1;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < FUNZIONI_HASH; i++) {
+            int p = (h1 + i * h2) & maschera;
+            int valore = contatori[p] & 0xFF;
+            if (valore != SATURO) {
+                contatori[p] = (byte) (valore + delta);
+            }
+        }
+    }
+
+    /** Ricrea i contatori per la capacità attuale a partire dalle occorrenze. */
+    private void ricostruisci() {
+        contatori = new byte[dimensione(capacita)];
+        DizionarioParole dizionario = DizionarioParole.globale();
+        for (int id = 0; id < occorrenze.length; id++) {
+            if (occorrenze[id] > 0) {
+                modifica(dizionario.parola(id), 1);
+            }
+        }
+    }
+
+    private static int dimensione(int capacita) {
+        return Integer.highestOneBit(capacita * CONTATORI_PER_PAROLA - 1) << 1;
+    }
+}
@@ -0,0 +1,214 @@
+package modello;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Indice ordinato dei termini presenti in bacheca, usato per la ricerca per
+ * prefisso e per l'autocompletamento.
+ *
+ * <p>
+ * Ogni termine (parola chiave o parola del titolo dell'articolo, in forma
+ * canonica)
+ * è associato all'insieme degli annunci che lo contengono. Essendo la mappa
+ * ordinata, tutti i termini che iniziano con un prefisso formano un intervallo
+ * contiguo che si raggiunge con una ricerca binaria in O(log n).
+ * </p>
+ */
+public class IndiceParole {
+
+    /** Termine in forma canonica -> annunci che lo contengono (ordine d'inserimento). */
+    private final NavigableMap<String, Set<Annuncio>> termini;
+
+    /**
+     * Costruttore: crea un indice vuoto.
+     */
+    public IndiceParole() {
+        this.termini = new TreeMap<>();
+    }
+
+    /**
+     * Indicizza parole chiave e titolo dell'annuncio.
+     *
+     * @param annuncio annuncio da indicizzare
+     */
+    public void aggiungi(Annuncio annuncio) {
+        for (String termine : terminiDi(annuncio)) {
+            termini.computeIfAbsent(termine, k -> new LinkedHashSet<>()).add(annuncio);
+        }
+    }
+
+    /**
+     * Indicizza una singola parola chiave aggiunta in seguito a un annuncio già
+     * presente.
+     *
+     * @param annuncio annuncio modificato
+     * @param parola   parola chiave aggiunta
+     */
+    public void aggiungiParola(Annuncio annuncio, String parola) {
+        String termine = Annuncio.formaCanonica(parola);
+        if (!termine.isEmpty()) {
+            termini.computeIfAbsent(termine, k -> new LinkedHashSet<>()).add(annuncio);
+        }
+    }
+
+    /**
+     * Rimuove l'annuncio da tutti i termini che lo riferiscono. I termini rimasti
+     * senza annunci vengono eliminati.
+     *
+     * @param annuncio annuncio da rimuovere
+     */
+    public void rimuovi(Annuncio annuncio) {
+        for (String termine : terminiDi(annuncio)) {
+            Set<Annuncio> insieme = termini.get(termine);
+            if (insieme != null) {
+                insieme.remove(annuncio);
+                if (insieme.isEmpty()) {
+                    termini.remove(termine);
+                }
+            }
+        }
+    }
+
+    /**
+     * Svuota l'indice.
+     */
+    public void svuota() {
+        termini.clear();
+    }
+
+    /**
+     * Restituisce gli annunci che contengono almeno un termine che inizia con il
+     * prefisso dato. Ogni annuncio compare una sola volta.
+     *
+     * @param prefisso prefisso da cercare (ignora maiuscole e accenti)
+     * @return annunci trovati
+     */
+    public List<Annuncio> cercaPerPrefisso(String prefisso) {
+        String p = Annuncio.formaCanonica(prefisso);
+        if (p.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Annuncio> risultati = new LinkedHashSet<>();
+        for (Set<Annuncio> insieme : intervallo(p).values()) {
+            risultati.addAll(insieme);
+        }
+        return new ArrayList<>(risultati);
+    }
+
+    /**
+     * Suggerisce i termini che iniziano con il prefisso dato, ordinati per numero
+     * decrescente di annunci che li contengono (a parità, in ordine alfabetico).
+     *
+     * @param prefisso prefisso digitato dall'utente
+     * @param massimo  numero massimo di suggerimenti
+     * @return lista di suggerimenti (al più {@code massimo} elementi)
+     */
+    public List<String> suggerisci(String prefisso, int massimo) {
+        String p = Annuncio.formaCanonica(prefisso);
+        if (p.isEmpty() || massimo <= 0) {
+            return new ArrayList<>();
+        }
+
+        // min-heap di dimensione "massimo": in testa il suggerimento peggiore
+        PriorityQueue<Map.Entry<String, Set<Annuncio>>> migliori = new PriorityQueue<>(
+                (a, b) -> a.getValue().size() != b.getValue().size()
+                        ? Integer.compare(a.getValue().size(), b.getValue().size())
+                        : b.getKey().compareTo(a.getKey()));
+        for (Map.Entry<String, Set<Annuncio>> e : intervallo(p).entrySet()) {
+            migliori.offer(e);
+            if (migliori.size() > massimo) {
+                migliori.poll();
+            }
+        }
+
+        List<String> suggerimenti = new ArrayList<>(migliori.size());
+        while (!migliori.isEmpty()) {
+            suggerimenti.add(migliori.poll().getKey());
+        }
+        Collections.reverse(suggerimenti);
+        return suggerimenti;
+    }
+
+    /**
+     * Restituisce gli annunci che contengono esattamente il termine dato.
+     *
+     * @param termine termine da cercare
+     * @return insieme non modificabile degli annunci (vuoto se il termine manca)
+     */
+    public Set<Annuncio> annunciCon(String termine) {
+        Set<Annuncio> insieme = termini.get(Annuncio.formaCanonica(termine));
+        return insieme == null ? Collections.emptySet() : Collections.unmodifiableSet(insieme);
+    }
+
+    /**
+     * Restituisce la frequenza (numero di annunci) di un termine.
+     *
+     * @param termine termine da cercare
+     * @return numero di annunci che contengono il termine
+     */
+    public int frequenza(String termine) {
+        Set<Annuncio> insieme = termini.get(Annuncio.formaCanonica(termine));
+        return insieme == null ? 0 : insieme.size();
+    }
+
+    /**
+     * Restituisce il numero di termini distinti indicizzati.
+     */
+    public int getNumeroTermini() {
+        return termini.size();
+    }
+
+    /**
+     * Intervallo dei termini che iniziano con il prefisso (già in forma canonica).
+     */
+    private NavigableMap<String, Set<Annuncio>> intervallo(String prefisso) {
+        return intervallo(termini, prefisso);
+    }
+
+    /**
+     * Intervallo delle chiavi di una mappa ordinata che iniziano con il prefisso
+     * (non vuoto).
+     */
+    static <V> NavigableMap<String, V> intervallo(NavigableMap<String, V> mappa, String prefisso) {
+        // il primo termine NON compreso si ottiene incrementando l'ultimo carattere
+        // che non sia già Character.MAX_VALUE, dopo aver tolto quelli che lo sono
+        int n = prefisso.length();
+        while (n > 0 && prefisso.charAt(n - 1) == Character.MAX_VALUE) {
+            n--;
+        }
+        if (n == 0) {
+            // solo MAX_VALUE: ogni chiave non minore del prefisso inizia con esso
+            return mappa.tailMap(prefisso, true);
+        }
+        String fine = prefisso.substring(0, n - 1) + (char) (prefisso.charAt(n - 1) + 1);
+        return mappa.subMap(prefisso, true, fine, false);
+    }
+
+    /**
+     * Termini canonici di un annuncio: parole chiave e parole del titolo. Le
+     * parole chiave vengono lette dagli id, senza creare la vista memorizzata
+     * nell'annuncio (l'indice passa da ogni annuncio della bacheca).
+     */
+    private static Set<String> terminiDi(Annuncio annuncio) {
+        Set<String> risultato = new LinkedHashSet<>();
+        DizionarioParole parole = DizionarioParole.globale();
+        for (int id : annuncio.idParoleCanoniche()) {
+            risultato.add(parole.parola(id));
+        }
+        for (String parola : annuncio.getArticolo().split("[^\\p{L}0-9]+")) {
+            String t = Annuncio.formaCanonica(parola);
+            if (!t.isEmpty()) {
+                risultato.add(t);
+            }
+        }
+        return risultato;
+    }
+}
@@ -0,0 +1,53 @@
+package modello;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import modello.exception.AnnuncioException;
+import modello.exception.AutoreNonAutorizzatoException;
+import modello.exception.BachecaException;
+import modello.exception.UtenteException;
+
+/**
+ * Operazioni comuni a {@link Bacheca}, {@link BachecaPartizionata},
+ * {@link BachecaColonnare} e {@link BachecaSuDisco}, usate da chi deve poter
+ * lavorare con l'una o con l'altra (interfaccia HTTP, strumenti di carico). Il
+ * comportamento di ogni metodo è documentato in {@link Bacheca}.
+ */
+public interface OperazioniBacheca extends Iterable<Annuncio> {
+
+    ArrayList<Annuncio> aggiungiAnnuncio(Annuncio annuncio) throws BachecaException;
+
+    boolean rimuoviAnnuncio(int id, Utente utente) throws AutoreNonAutorizzatoException, BachecaException;
+
+    ArrayList<Annuncio> cercaPerParolaChiave(String paroleChiave);
+
+    ArrayList<Annuncio> cercaPerParolaChiaveFuzzy(String paroleChiave, int distanzaMassima);
+
+    ArrayList<Annuncio> cercaPerPrefisso(String prefisso);
+
+    List<String> suggerisciParole(String prefisso, int massimo);
+
+    boolean pulisciBacheca();
+
+    boolean aggiungiNuovaParolaChiave(int id, Utente utente, String nuovaParola)
+            throws AutoreNonAutorizzatoException, AnnuncioException;
+
+    ArrayList<Annuncio> getAnnunci();
+
+    Annuncio cercaPerId(int id);
+
+    int getNumeroAnnunci();
+
+    void salvaAnnunciSuFile(String fileName) throws IOException;
+
+    void caricaAnnunciDaFile(String fileName)
+            throws IOException, AnnuncioException, UtenteException, BachecaException;
+
+    int esportaNdjson(Writer output) throws IOException;
+
+    RapportoImportazione importaNdjson(Reader input) throws IOException;
+}
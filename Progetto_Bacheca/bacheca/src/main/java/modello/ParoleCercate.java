@@ -0,0 +1,96 @@
+package modello;
+
+import java.util.Arrays;
+
+/**
+ * Id canonici delle parole di una ricerca ("tv, Città, tv" -> id ordinati e
+ * distinti di "citta" e "tv"), in un array riusato: ogni thread ne ha uno
+ * ({@link #delThread()}), quindi dividere e confrontare le parole cercate non
+ * alloca nulla.
+ *
+ * <p>
+ * Le parole sono cercate nel {@link DizionarioParole} direttamente nel testo
+ * ({@link DizionarioParole#cercaCanonica(String, int, int)}); quelle mai viste
+ * dal dizionario non possono dare risultati e vengono scartate. Il contenuto
+ * resta valido fino al successivo {@link #leggi(String)} dello stesso thread:
+ * chi deve conservarlo ne fa una {@link #copia()}.
+ * </p>
+ */
+final class ParoleCercate {
+
+    private static final ThreadLocal<ParoleCercate> PER_THREAD = ThreadLocal.withInitial(ParoleCercate::new);
+
+    private int[] ids = new int[8];
+    private int numero;
+
+    private ParoleCercate() {
+    }
+
+    /** Istanza del thread corrente. */
+    static ParoleCercate delThread() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Legge le parole separate da virgola, sostituendo il contenuto precedente.
+     *
+     * @return this
+     */
+    ParoleCercate leggi(String paroleChiave) {
+        DizionarioParole dizionario = DizionarioParole.globale();
+        numero = 0;
+        int inizio = 0;
+        int n = paroleChiave.length();
+        while (inizio <= n) {
+            int fine = paroleChiave.indexOf(',', inizio);
+            if (fine < 0) {
+                fine = n;
+            }
+            int id = dizionario.cercaCanonica(paroleChiave, inizio, fine);
+            if (id >= 0) {
+                aggiungi(id);
+            }
+            inizio = fine + 1;
+        }
+        return this;
+    }
+
+    /** Svuota il contenuto (nessuna parola cercata). */
+    ParoleCercate svuota() {
+        numero = 0;
+        return this;
+    }
+
+    /** Array interno, ordinato e senza duplicati nelle prime {@link #numero()} posizioni. */
+    int[] ids() {
+        return ids;
+    }
+
+    int numero() {
+        return numero;
+    }
+
+    boolean isVuota() {
+        return numero == 0;
+    }
+
+    /** Copia esatta degli id, da conservare. */
+    int[] copia() {
+        return Arrays.copyOf(ids, numero);
+    }
+
+    /** Inserimento ordinato: le ricerche hanno poche parole. */
+    private void aggiungi(int id) {
+        int pos = Arrays.binarySearch(ids, 0, numero, id);
+        if (pos >= 0) {
+            return;
+        }
+        pos = -pos - 1;
+        if (numero == ids.length) {
+            ids = Arrays.copyOf(ids, numero * 2);
+        }
+        System.arraycopy(ids, pos, ids, pos + 1, numero - pos);
+        ids[pos] = id;
+        numero++;
+    }
+}
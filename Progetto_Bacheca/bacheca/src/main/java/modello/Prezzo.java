@@ -0,0 +1,145 @@
+package modello;
+
+/**
+ * Prezzi in centesimi di euro, tenuti in un {@code long}: confronti e somme
+ * sono esatti, senza gli arrotondamenti dei float.
+ *
+ * <p>
+ * Lettura e scrittura del testo ("12.50") lavorano direttamente sui
+ * caratteri, senza {@link java.util.Formatter}, {@code Double.parseDouble} né
+ * stringhe intermedie: sono le routine usate dal salvataggio e dal caricamento
+ * della bacheca. In lettura è accettata anche la virgola come separatore
+ * decimale, perché i file salvati dalle versioni precedenti usavano
+ * {@code %.2f} con il locale di sistema.
+ * </p>
+ */
+public final class Prezzo {
+
+    /**
+     * Caratteri sufficienti per qualunque prezzo scritto da
+     * {@link #scrivi(long, char[], int)}: segno, 17 cifre intere, punto e due
+     * decimali.
+     */
+    public static final int LUNGHEZZA_MASSIMA = 21;
+
+    private Prezzo() {
+    }
+
+    /**
+     * Converte un importo in euro nei centesimi più vicini (0 per NaN).
+     */
+    public static long centesimi(double euro) {
+        return Math.round(euro * 100);
+    }
+
+    /**
+     * Importo in euro corrispondente ai centesimi, per JSON e interfacce.
+     */
+    public static double inEuro(long centesimi) {
+        return centesimi / 100.0;
+    }
+
+    /**
+     * Testo del prezzo con due decimali e il punto come separatore (es.
+     * "1234.50").
+     */
+    public static String formatta(long centesimi) {
+        char[] caratteri = new char[LUNGHEZZA_MASSIMA];
+        return new String(caratteri, 0, scrivi(centesimi, caratteri, 0));
+    }
+
+    /**
+     * Scrive il prezzo come {@link #formatta(long)} nell'array dato, a partire
+     * da {@code posizione}, senza allocare nulla.
+     *
+     * @param destinazione array con almeno {@link #LUNGHEZZA_MASSIMA} caratteri
+     *                     liberi da {@code posizione}
+     * @return la posizione successiva all'ultimo carattere scritto
+     */
+    public static int scrivi(long centesimi, char[] destinazione, int posizione) {
+        // lavoro sul valore negativo, così anche Long.MIN_VALUE è rappresentabile
+        long n = centesimi < 0 ? centesimi : -centesimi;
+        int cifreIntere = 1;
+        for (long q = n / 100; q <= -10; q /= 10) {
+            cifreIntere++;
+        }
+        int fine = posizione + (centesimi < 0 ? 1 : 0) + cifreIntere + 3;
+        int i = fine;
+        destinazione[--i] = (char) ('0' - n % 10);
+        n /= 10;
+        destinazione[--i] = (char) ('0' - n % 10);
+        n /= 10;
+        destinazione[--i] = '.';
+        do {
+            destinazione[--i] = (char) ('0' - n % 10);
+            n /= 10;
+        } while (n != 0);
+        if (centesimi < 0) {
+            destinazione[--i] = '-';
+        }
+        return fine;
+    }
+
+    /**
+     * Legge un prezzo scritto come "12", "12.5", "12.50" o "12,50" (spazi ai
+     * lati ignorati). Oltre il secondo decimale il valore viene arrotondato al
+     * centesimo (metà per eccesso).
+     *
+     * @return il prezzo in centesimi
+     * @throws NumberFormatException se il testo non è un prezzo
+     */
+    public static long leggi(CharSequence testo) {
+        return leggi(testo, 0, testo.length());
+    }
+
+    /**
+     * Come {@link #leggi(CharSequence)}, sui caratteri da {@code inizio}
+     * (incluso) a {@code fine} (escluso).
+     */
+    public static long leggi(CharSequence testo, int inizio, int fine) {
+        int a = inizio;
+        int b = fine;
+        while (a < b && Character.isWhitespace(testo.charAt(a))) {
+            a++;
+        }
+        while (b > a && Character.isWhitespace(testo.charAt(b - 1))) {
+            b--;
+        }
+        boolean negativo = a < b && testo.charAt(a) == '-';
+        int i = negativo || (a < b && testo.charAt(a) == '+') ? a + 1 : a;
+
+        long euro = 0;
+        int cifre = 0;
+        long centesimi = 0;
+        int decimali = 0;
+        boolean perEccesso = false;
+        try {
+            for (; i < b && cifra(testo.charAt(i)); i++, cifre++) {
+                euro = Math.addExact(Math.multiplyExact(euro, 10), testo.charAt(i) - '0');
+            }
+            if (i < b && (testo.charAt(i) == '.' || testo.charAt(i) == ',')) {
+                for (i++; i < b && cifra(testo.charAt(i)); i++, decimali++) {
+                    if (decimali < 2) {
+                        centesimi = centesimi * 10 + (testo.charAt(i) - '0');
+                    } else if (decimali == 2) {
+                        perEccesso = testo.charAt(i) >= '5';
+                    }
+                }
+            }
+            if (i == b && cifre + decimali > 0) {
+                if (decimali == 1) {
+                    centesimi *= 10;
+                }
+                long totale = Math.addExact(Math.multiplyExact(euro, 100), centesimi + (perEccesso ? 1 : 0));
+                return negativo ? -totale : totale;
+            }
+        } catch (ArithmeticException e) {
+            // fuori dall'intervallo di un long: come un testo non valido
+        }
+        throw new NumberFormatException("Prezzo non valido: \"" + testo.subSequence(inizio, fine) + "\"");
+    }
+
+    private static boolean cifra(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
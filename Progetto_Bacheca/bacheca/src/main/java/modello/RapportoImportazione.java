@@ -0,0 +1,95 @@
+package modello;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Esito di un'importazione (o di un caricamento a lotti): quante righe sono
+ * state lette, quanti annunci importati e gli errori riga per riga (le righe
+ * errate vengono saltate, il resto del file viene importato comunque).
+ *
+ * <p>
+ * Per non occupare memoria senza limiti su file molto sporchi vengono
+ * conservati al più {@value #ERRORI_CONSERVATI} errori; il conteggio resta
+ * comunque esatto.
+ * </p>
+ */
+public class RapportoImportazione {
+
+    /** Numero massimo di errori conservati con il dettaglio. */
+    public static final int ERRORI_CONSERVATI = 1000;
+
+    /**
+     * Errore su una singola riga.
+     *
+     * @param riga      numero di riga (da 1)
+     * @param messaggio descrizione dell'errore
+     */
+    public record ErroreRiga(long riga, String messaggio) {
+        @Override
+        public String toString() {
+            return "riga " + riga + ": " + messaggio;
+        }
+    }
+
+    private long righeLette;
+    private long annunciImportati;
+    private long numeroErrori;
+    private final List<ErroreRiga> errori = new ArrayList<>();
+
+    void rigaLetta() {
+        righeLette++;
+    }
+
+    void importati(int n) {
+        annunciImportati += n;
+    }
+
+    void errore(long riga, String messaggio) {
+        numeroErrori++;
+        if (errori.size() < ERRORI_CONSERVATI) {
+            errori.add(new ErroreRiga(riga, messaggio));
+        }
+    }
+
+    /** Righe non vuote lette dal file. */
+    public long getRigheLette() {
+        return righeLette;
+    }
+
+    /** Annunci inseriti in bacheca. */
+    public long getAnnunciImportati() {
+        return annunciImportati;
+    }
+
+    /** Numero totale di righe scartate. */
+    public long getNumeroErrori() {
+        return numeroErrori;
+    }
+
+    /** Dettaglio dei primi {@value #ERRORI_CONSERVATI} errori, in ordine di riga. */
+    public List<ErroreRiga> getErrori() {
+        return Collections.unmodifiableList(errori);
+    }
+
+    /**
+     * Esito seguito dai primi {@code massimo} errori, uno per riga ("..." se ce
+     * ne sono altri): da mostrare all'utente dopo un caricamento.
+     */
+    public String riepilogo(int massimo) {
+        StringBuilder sb = new StringBuilder(toString());
+        for (int i = 0; i < Math.min(massimo, errori.size()); i++) {
+            sb.append('\n').append(errori.get(i));
+        }
+        if (numeroErrori > massimo) {
+            sb.append("\n...");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "Importati " + annunciImportati + " annunci su " + righeLette + " righe, " + numeroErrori + " errori";
+    }
+}
@@ -0,0 +1,46 @@
+package modello;
+
+/**
+ * Tipologia di un annuncio. Nel file di salvataggio, in JSON e nelle interfacce
+ * compare come testo minuscolo ({@link #getTesto()}).
+ */
+public enum Tipologia {
+
+    ACQUISTO("acquisto"),
+    VENDITA("vendita");
+
+    private final String testo;
+
+    Tipologia(String testo) {
+        this.testo = testo;
+    }
+
+    /** Testo minuscolo della tipologia ("acquisto" o "vendita"). */
+    public String getTesto() {
+        return testo;
+    }
+
+    /**
+     * Tipologia corrispondente al testo, ignorando maiuscole e spazi ai lati.
+     *
+     * @param testo "acquisto" o "vendita"
+     * @return la tipologia, oppure null se il testo non ne indica una
+     */
+    public static Tipologia daTesto(String testo) {
+        if (testo == null) {
+            return null;
+        }
+        String t = testo.trim();
+        for (Tipologia tipologia : values()) {
+            if (tipologia.testo.equalsIgnoreCase(t)) {
+                return tipologia;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return testo;
+    }
+}
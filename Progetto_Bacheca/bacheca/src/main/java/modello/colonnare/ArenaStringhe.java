@@ -0,0 +1,77 @@
+package modello.colonnare;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arena di stringhe fuori dallo heap: ogni stringa è scritta in UTF-8, preceduta
+ * dalla lunghezza, in blocchi da {@value #DIMENSIONE_BLOCCO} byte allocati con
+ * {@link ByteBuffer#allocateDirect(int)}. Una stringa non attraversa mai due
+ * blocchi, quindi è identificata da un indirizzo {@code long}
+ * (blocco nei 32 bit alti, posizione in quelli bassi).
+ *
+ * <p>
+ * Lo spazio delle stringhe non più usate viene recuperato solo ricopiando le
+ * stringhe vive in una nuova arena. Non è thread-safe.
+ * </p>
+ */
+public final class ArenaStringhe {
+
+    /** Dimensione di un blocco in byte. */
+    public static final int DIMENSIONE_BLOCCO = 1 << 20;
+
+    private final List<ByteBuffer> blocchi = new ArrayList<>();
+    private ByteBuffer corrente;
+    private long byteUsati;
+
+    /**
+     * Scrive la stringa nell'arena.
+     *
+     * @return indirizzo da passare a {@link #leggi(long)}
+     */
+    public long aggiungi(String testo) {
+        byte[] byteTesto = testo.getBytes(StandardCharsets.UTF_8);
+        int necessari = Integer.BYTES + byteTesto.length;
+        if (corrente == null || corrente.remaining() < necessari) {
+            // le stringhe più lunghe di un blocco ricevono un blocco su misura
+            corrente = ByteBuffer.allocateDirect(Math.max(DIMENSIONE_BLOCCO, necessari));
+            blocchi.add(corrente);
+        }
+        long indirizzo = ((long) (blocchi.size() - 1) << 32) | corrente.position();
+        corrente.putInt(byteTesto.length).put(byteTesto);
+        byteUsati += necessari;
+        return indirizzo;
+    }
+
+    /** Legge la stringa all'indirizzo dato. */
+    public String leggi(long indirizzo) {
+        ByteBuffer blocco = blocchi.get((int) (indirizzo >>> 32));
+        int posizione = (int) indirizzo;
+        byte[] byteTesto = new byte[blocco.getInt(posizione)];
+        blocco.get(posizione + Integer.BYTES, byteTesto);
+        return new String(byteTesto, StandardCharsets.UTF_8);
+    }
+
+    /** Byte occupati dalle stringhe scritte (comprese le lunghezze). */
+    public long getByteUsati() {
+        return byteUsati;
+    }
+
+    /** Byte allocati fuori dallo heap. */
+    public long getByteAllocati() {
+        long totale = 0;
+        for (ByteBuffer b : blocchi) {
+            totale += b.capacity();
+        }
+        return totale;
+    }
+
+    /** Toglie tutte le stringhe e rilascia i blocchi. */
+    public void svuota() {
+        blocchi.clear();
+        corrente = null;
+        byteUsati = 0;
+    }
+}
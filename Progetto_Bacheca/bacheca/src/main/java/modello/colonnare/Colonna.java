@@ -0,0 +1,172 @@
+package modello.colonnare;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Colonna di valori a larghezza fissa (1, 4 o 8 byte) fuori dallo heap, in
+ * blocchi di {@value #ELEMENTI_PER_BLOCCO} elementi allocati con
+ * {@link ByteBuffer#allocateDirect(int)}. Per il garbage collector l'intera
+ * colonna è un array di pochi riferimenti, qualunque sia il numero di elementi;
+ * dividerla in blocchi evita il limite di 2 GB di un singolo buffer e le copie
+ * quando cresce.
+ *
+ * <p>
+ * Non è thread-safe: la sincronizzazione è compito di chi la usa.
+ * </p>
+ */
+public final class Colonna {
+
+    /** Elementi in ogni blocco (potenza di due). */
+    public static final int ELEMENTI_PER_BLOCCO = 1 << 16;
+
+    private static final int BIT_BLOCCO = Integer.numberOfTrailingZeros(ELEMENTI_PER_BLOCCO);
+
+    private final int larghezza;
+    private ByteBuffer[] blocchi;
+    private int numeroBlocchi;
+    private long dimensione;
+
+    /**
+     * Crea una colonna vuota.
+     *
+     * @param larghezza byte per elemento: 1, 4 o 8
+     */
+    public Colonna(int larghezza) {
+        if (larghezza != 1 && larghezza != 4 && larghezza != 8) {
+            throw new IllegalArgumentException("Larghezza non supportata: " + larghezza);
+        }
+        this.larghezza = larghezza;
+        this.blocchi = new ByteBuffer[16];
+    }
+
+    /** Numero di elementi. */
+    public long getDimensione() {
+        return dimensione;
+    }
+
+    /** Byte allocati fuori dallo heap. */
+    public long getByteAllocati() {
+        return (long) numeroBlocchi * ELEMENTI_PER_BLOCCO * larghezza;
+    }
+
+    /**
+     * Aggiunge {@code n} elementi a zero in fondo alla colonna.
+     *
+     * @return indice del primo elemento aggiunto
+     */
+    public long riserva(int n) {
+        long inizio = dimensione;
+        long fine = inizio + n;
+        while (((long) numeroBlocchi << BIT_BLOCCO) < fine) {
+            if (numeroBlocchi == blocchi.length) {
+                blocchi = Arrays.copyOf(blocchi, blocchi.length * 2);
+            }
+            blocchi[numeroBlocchi++] = ByteBuffer.allocateDirect(ELEMENTI_PER_BLOCCO * larghezza)
+                    .order(ByteOrder.nativeOrder());
+        }
+        dimensione = fine;
+        return inizio;
+    }
+
+    /** Toglie tutti gli elementi e rilascia i blocchi. */
+    public void svuota() {
+        blocchi = new ByteBuffer[16];
+        numeroBlocchi = 0;
+        dimensione = 0;
+    }
+
+    public byte getByte(long i) {
+        return blocco(i).get(posizione(i));
+    }
+
+    public void setByte(long i, byte valore) {
+        blocco(i).put(posizione(i), valore);
+    }
+
+    public int getInt(long i) {
+        return blocco(i).getInt(posizione(i));
+    }
+
+    public void setInt(long i, int valore) {
+        blocco(i).putInt(posizione(i), valore);
+    }
+
+    public float getFloat(long i) {
+        return blocco(i).getFloat(posizione(i));
+    }
+
+    public void setFloat(long i, float valore) {
+        blocco(i).putFloat(posizione(i), valore);
+    }
+
+    public long getLong(long i) {
+        return blocco(i).getLong(posizione(i));
+    }
+
+    public void setLong(long i, long valore) {
+        blocco(i).putLong(posizione(i), valore);
+    }
+
+    /** Aggiunge in fondo un elemento da 1 byte e ne restituisce l'indice. */
+    public long aggiungiByte(byte valore) {
+        long i = riserva(1);
+        setByte(i, valore);
+        return i;
+    }
+
+    /** Aggiunge in fondo un elemento da 4 byte e ne restituisce l'indice. */
+    public long aggiungiInt(int valore) {
+        long i = riserva(1);
+        setInt(i, valore);
+        return i;
+    }
+
+    /** Aggiunge in fondo un elemento da 4 byte e ne restituisce l'indice. */
+    public long aggiungiFloat(float valore) {
+        long i = riserva(1);
+        setFloat(i, valore);
+        return i;
+    }
+
+    /** Aggiunge in fondo un elemento da 8 byte e ne restituisce l'indice. */
+    public long aggiungiLong(long valore) {
+        long i = riserva(1);
+        setLong(i, valore);
+        return i;
+    }
+
+    /**
+     * Aggiunge in fondo gli interi dell'array (colonna da 4 byte).
+     *
+     * @return indice del primo elemento aggiunto
+     */
+    public long aggiungiInt(int[] valori) {
+        long inizio = riserva(valori.length);
+        for (int k = 0; k < valori.length; k++) {
+            setInt(inizio + k, valori[k]);
+        }
+        return inizio;
+    }
+
+    /** Copia in un array gli {@code n} interi che iniziano all'indice dato. */
+    public int[] leggiInt(long inizio, int n) {
+        int[] valori = new int[n];
+        for (int k = 0; k < n; k++) {
+            valori[k] = getInt(inizio + k);
+        }
+        return valori;
+    }
+
+    private ByteBuffer blocco(long i) {
+        if (i < 0 || i >= dimensione) {
+            throw new IndexOutOfBoundsException("Indice " + i + " fuori dalla colonna di " + dimensione);
+        }
+        return blocchi[(int) (i >>> BIT_BLOCCO)];
+    }
+
+    private int posizione(long i) {
+        return (int) (i & (ELEMENTI_PER_BLOCCO - 1)) * larghezza;
+    }
+}
@@ -0,0 +1,116 @@
+package modello.colonnare;
+
+/**
+ * Tabella hash da id (int) a riga (int) con indirizzamento aperto su due array
+ * di interi: nessun oggetto per voce, quindi nulla da scandire per il garbage
+ * collector oltre ai due array. Le rimozioni spostano indietro le voci
+ * successive (nessuna lapide). Non è thread-safe.
+ */
+public final class TabellaId {
+
+    /** Valore restituito da {@link #riga(int)} per un id assente. */
+    public static final int ASSENTE = -1;
+
+    private int[] chiavi;
+    private int[] righe; // riga + 1: zero indica una cella libera
+    private int dimensione;
+
+    public TabellaId() {
+        svuota();
+    }
+
+    /** Numero di id presenti. */
+    public int getDimensione() {
+        return dimensione;
+    }
+
+    /** Riga associata all'id, oppure {@link #ASSENTE}. */
+    public int riga(int id) {
+        int maschera = chiavi.length - 1;
+        for (int i = cella(id, maschera);; i = (i + 1) & maschera) {
+            if (righe[i] == 0) {
+                return ASSENTE;
+            }
+            if (chiavi[i] == id) {
+                return righe[i] - 1;
+            }
+        }
+    }
+
+    public boolean contiene(int id) {
+        return riga(id) != ASSENTE;
+    }
+
+    /** Associa (o riassocia) l'id alla riga. */
+    public void metti(int id, int riga) {
+        if ((dimensione + 1) * 4L > chiavi.length * 3L) {
+            ridimensiona(chiavi.length * 2);
+        }
+        int maschera = chiavi.length - 1;
+        int i = cella(id, maschera);
+        while (righe[i] != 0 && chiavi[i] != id) {
+            i = (i + 1) & maschera;
+        }
+        if (righe[i] == 0) {
+            dimensione++;
+        }
+        chiavi[i] = id;
+        righe[i] = riga + 1;
+    }
+
+    /** Toglie l'id; restituisce la riga che aveva, oppure {@link #ASSENTE}. */
+    public int rimuovi(int id) {
+        int maschera = chiavi.length - 1;
+        int i = cella(id, maschera);
+        while (righe[i] != 0 && chiavi[i] != id) {
+            i = (i + 1) & maschera;
+        }
+        if (righe[i] == 0) {
+            return ASSENTE;
+        }
+        int riga = righe[i] - 1;
+        // sposto indietro le voci che sarebbero irraggiungibili dopo il buco
+        int buco = i;
+        for (int j = (i + 1) & maschera; righe[j] != 0; j = (j + 1) & maschera) {
+            int ideale = cella(chiavi[j], maschera);
+            if (((j - ideale) & maschera) >= ((j - buco) & maschera)) {
+                chiavi[buco] = chiavi[j];
+                righe[buco] = righe[j];
+                buco = j;
+            }
+        }
+        righe[buco] = 0;
+        dimensione--;
+        return riga;
+    }
+
+    /** Toglie tutti gli id. */
+    public void svuota() {
+        chiavi = new int[16];
+        righe = new int[16];
+        dimensione = 0;
+    }
+
+    private void ridimensiona(int capacita) {
+        int[] vecchieChiavi = chiavi;
+        int[] vecchieRighe = righe;
+        chiavi = new int[capacita];
+        righe = new int[capacita];
+        int maschera = capacita - 1;
+        for (int k = 0; k < vecchieChiavi.length; k++) {
+            if (vecchieRighe[k] != 0) {
+                int i = cella(vecchieChiavi[k], maschera);
+                while (righe[i] != 0) {
+                    i = (i + 1) & maschera;
+                }
+                chiavi[i] = vecchieChiavi[k];
+                righe[i] = vecchieRighe[k];
+            }
+        }
+    }
+
+    private static int cella(int id, int maschera) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & maschera;
+    }
+}
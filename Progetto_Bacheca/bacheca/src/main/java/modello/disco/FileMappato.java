@@ -0,0 +1,86 @@
+package modello.disco;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File mappato in memoria in sola lettura, a blocchi di {@value #BLOCCO} byte
+ * (un singolo {@link MappedByteBuffer} non supera i 2 GB). Le pagine vengono
+ * lette dal sistema operativo solo quando servono e non occupano lo heap.
+ *
+ * <p>
+ * {@link #getInt(long)} e {@link #getLong(long)} richiedono posizioni allineate
+ * alla dimensione del valore, così non attraversano mai il confine tra due
+ * blocchi; {@link #leggi(long, byte[], int, int)} accetta qualunque posizione.
+ * La mappatura viene rilasciata dal garbage collector quando l'oggetto non è più
+ * raggiungibile. Thread-safe: usa solo letture assolute.
+ * </p>
+ */
+public final class FileMappato {
+
+    /** Byte per blocco mappato (multiplo di 8). */
+    public static final int BLOCCO = 1 << 30;
+
+    private final MappedByteBuffer[] blocchi;
+    private final long dimensione;
+
+    private FileMappato(MappedByteBuffer[] blocchi, long dimensione) {
+        this.blocchi = blocchi;
+        this.dimensione = dimensione;
+    }
+
+    /**
+     * Mappa l'intero file in sola lettura.
+     *
+     * @throws IOException se il file non può essere aperto o mappato
+     */
+    public static FileMappato apri(Path file) throws IOException {
+        try (FileChannel canale = FileChannel.open(file, StandardOpenOption.READ)) {
+            long dimensione = canale.size();
+            MappedByteBuffer[] blocchi = new MappedByteBuffer[(int) ((dimensione + BLOCCO - 1) / BLOCCO)];
+            for (int i = 0; i < blocchi.length; i++) {
+                long inizio = (long) i * BLOCCO;
+                blocchi[i] = canale.map(FileChannel.MapMode.READ_ONLY, inizio, Math.min(BLOCCO, dimensione - inizio));
+            }
+            return new FileMappato(blocchi, dimensione);
+        }
+    }
+
+    /** Dimensione del file in byte. */
+    public long getDimensione() {
+        return dimensione;
+    }
+
+    public byte get(long posizione) {
+        return blocchi[(int) (posizione / BLOCCO)].get((int) (posizione % BLOCCO));
+    }
+
+    /** Intero alla posizione, che deve essere multipla di 4. */
+    public int getInt(long posizione) {
+        return blocchi[(int) (posizione / BLOCCO)].getInt((int) (posizione % BLOCCO));
+    }
+
+    /** Long alla posizione, che deve essere multipla di 8. */
+    public long getLong(long posizione) {
+        return blocchi[(int) (posizione / BLOCCO)].getLong((int) (posizione % BLOCCO));
+    }
+
+    /**
+     * Copia {@code lunghezza} byte a partire da {@code posizione} nell'array
+     * dato, anche a cavallo di due blocchi.
+     */
+    public void leggi(long posizione, byte[] destinazione, int da, int lunghezza) {
+        int copiati = 0;
+        while (copiati < lunghezza) {
+            long p = posizione + copiati;
+            int nelBlocco = (int) (p % BLOCCO);
+            MappedByteBuffer blocco = blocchi[(int) (p / BLOCCO)];
+            int n = Math.min(lunghezza - copiati, blocco.limit() - nelBlocco);
+            blocco.get(nelBlocco, destinazione, da + copiati, n);
+            copiati += n;
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package modello.disco;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Indice di un file di annunci, salvato accanto al file stesso e letto con un
+ * {@link FileMappato}: aprirlo costa lo stesso tempo e la stessa memoria
+ * qualunque sia il numero di annunci.
+ *
+ * <p>
+ * Per ogni riga del file di annunci (nell'ordine del file) l'indice conserva
+ * posizione e lunghezza in byte, id, giorno di scadenza e tipologia; per ogni
+ * termine in forma canonica le righe che lo hanno tra le parole chiave e
+ * quelle che lo hanno solo nel titolo. Le sezioni del file sono:
+ * </p>
+ *
+ * <pre>
+ * intestazione  72 byte   magia, versione, dimensione e data di modifica (ns) del
+ *                         file di annunci, numero di righe e termini, inizio
+ *                         sezioni
+ * righe         24 byte   posizione (long), lunghezza, id, scadenza (int), stato (byte)
+ * id            8 byte    id e riga, in ordine di id (ricerca binaria)
+ * termini       32 byte   posizione del testo, primo posting (long), numero di
+ *                         righe con il termine tra le parole chiave e solo nel
+ *                         titolo, lunghezza del testo (int); in ordine di termine
+ * posting       4 byte    righe, crescenti per ogni termine
+ * testi                   termini in UTF-8
+ * </pre>
+ *
+ * <p>
+ * Dimensione e data di modifica del file di annunci, al nanosecondo (o alla
+ * risoluzione del file system, se minore), servono a riconoscere un indice non
+ * più aggiornato: {@link #apri} in quel caso restituisce null e l'indice va
+ * ricostruito con un {@link Costruttore}. L'intestazione viene letta prima di
+ * mappare il file, così un indice vecchio non resta mappato mentre viene
+ * sostituito (su Windows la sostituzione fallirebbe).
+ * </p>
+ */
+public final class IndiceFile {
+
+    /** Valore restituito da {@link #riga(int)} per un id assente. */
+    public static final int ASSENTE = -1;
+
+    /** Giorno di scadenza memorizzato per gli acquisti. */
+    public static final int SENZA_SCADENZA = Integer.MIN_VALUE;
+
+    private static final int MAGIA = 0x42494458; // "BIDX"
+    private static final int VERSIONE = 2; // 1: data di modifica in millisecondi
+    private static final int INTESTAZIONE = 72;
+    private static final int RIGA = 24;
+    private static final int ID = 8;
+    private static final int TERMINE = 32;
+    private static final byte ACQUISTO = 1;
+
+    private final FileMappato file;
+    private final int righe;
+    private final int termini;
+    private final long inizioId;
+    private final long inizioTermini;
+    private final long inizioPostings;
+
+    private IndiceFile(FileMappato file) {
+        this.file = file;
+        this.righe = file.getInt(24);
+        this.termini = file.getInt(28);
+        this.inizioId = file.getLong(32);
+        this.inizioTermini = file.getLong(40);
+        this.inizioPostings = file.getLong(48);
+    }
+
+    /**
+     * Apre l'indice se esiste ed è stato costruito per il file di annunci con la
+     * dimensione e la data di modifica (in nanosecondi) date.
+     *
+     * @return l'indice, oppure null se manca, non è valido o non è aggiornato
+     * @throws IOException se il file esiste ma non può essere letto
+     */
+    public static IndiceFile apri(Path percorso, long dimensioneDati, long ultimaModifica) throws IOException {
+        if (!Files.isRegularFile(percorso) || Files.size(percorso) < INTESTAZIONE) {
+            return null;
+        }
+        try (DataInputStream intestazione = new DataInputStream(Files.newInputStream(percorso))) {
+            if (intestazione.readInt() != MAGIA || intestazione.readInt() != VERSIONE
+                    || intestazione.readLong() != dimensioneDati || intestazione.readLong() != ultimaModifica) {
+                return null;
+            }
+            intestazione.skipNBytes(40);
+            if (intestazione.readLong() != Files.size(percorso)) {
+                return null;
+            }
+        }
+        return new IndiceFile(FileMappato.apri(percorso));
+    }
+
+    public int getNumeroRighe() {
+        return righe;
+    }
+
+    /** Posizione in byte della riga nel file di annunci. */
+    public long posizione(int riga) {
+        return file.getLong(INTESTAZIONE + (long) riga * RIGA);
+    }
+
+    /** Lunghezza in byte della riga, senza il fine riga. */
+    public int lunghezza(int riga) {
+        return file.getInt(INTESTAZIONE + (long) riga * RIGA + 8);
+    }
+
+    public int id(int riga) {
+        return file.getInt(INTESTAZIONE + (long) riga * RIGA + 12);
+    }
+
+    /** Giorno di scadenza (epoch day), oppure {@link #SENZA_SCADENZA}. */
+    public int scadenza(int riga) {
+        return file.getInt(INTESTAZIONE + (long) riga * RIGA + 16);
+    }
+
+    public boolean isAcquisto(int riga) {
+        return (file.get(INTESTAZIONE + (long) riga * RIGA + 20) & ACQUISTO) != 0;
+    }
+
+    /** Riga dell'annuncio con l'id dato (ricerca binaria), oppure {@link #ASSENTE}. */
+    public int riga(int id) {
+        int basso = 0;
+        int alto = righe - 1;
+        while (basso <= alto) {
+            int medio = (basso + alto) >>> 1;
+            int proprio = file.getInt(inizioId + (long) medio * ID);
+            if (proprio < id) {
+                basso = medio + 1;
+            } else if (proprio > id) {
+                alto = medio - 1;
+            } else {
+                return file.getInt(inizioId + (long) medio * ID + 4);
+            }
+        }
+        return ASSENTE;
+    }
+
+    public int getNumeroTermini() {
+        return termini;
+    }
+
+    /** Testo del termine in posizione {@code t} (in ordine alfabetico). */
+    public String termine(int t) {
+        long voce = inizioTermini + (long) t * TERMINE;
+        byte[] testo = new byte[file.getInt(voce + 24)];
+        file.leggi(file.getLong(voce), testo, 0, testo.length);
+        return new String(testo, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Posizione del termine (ricerca binaria), oppure {@code -(punto di
+     * inserimento) - 1} come {@link Arrays#binarySearch(int[], int)}.
+     */
+    public int cerca(String termine) {
+        int basso = 0;
+        int alto = termini - 1;
+        while (basso <= alto) {
+            int medio = (basso + alto) >>> 1;
+            int confronto = termine(medio).compareTo(termine);
+            if (confronto < 0) {
+                basso = medio + 1;
+            } else if (confronto > 0) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -(basso + 1);
+    }
+
+    /** Numero di righe che hanno il termine {@code t} tra le parole chiave. */
+    public int numeroChiave(int t) {
+        return file.getInt(inizioTermini + (long) t * TERMINE + 16);
+    }
+
+    /** Numero di righe che contengono il termine {@code t} (parole chiave o titolo). */
+    public int frequenza(int t) {
+        long voce = inizioTermini + (long) t * TERMINE;
+        return file.getInt(voce + 16) + file.getInt(voce + 20);
+    }
+
+    /** Righe, crescenti, con il termine {@code t} tra le parole chiave. */
+    public int[] righeChiave(int t) {
+        return postings(t, numeroChiave(t));
+    }
+
+    /**
+     * Righe con il termine {@code t} tra le parole chiave o nel titolo: prima le
+     * une poi le altre, ciascun gruppo crescente.
+     */
+    public int[] righe(int t) {
+        return postings(t, frequenza(t));
+    }
+
+    private int[] postings(int t, int n) {
+        long primo = file.getLong(inizioTermini + (long) t * TERMINE + 8);
+        int[] righe = new int[n];
+        for (int i = 0; i < n; i++) {
+            righe[i] = file.getInt(inizioPostings + (primo + i) * Integer.BYTES);
+        }
+        return righe;
+    }
+
+    /**
+     * Raccoglie le righe di un file di annunci durante una sua scansione e scrive
+     * l'indice. Le righe vanno aggiunte nell'ordine del file. Tiene tutto sullo
+     * heap fino a {@link #scrivi}: serve solo a costruire l'indice.
+     */
+    public static final class Costruttore {
+
+        private long[] posizioni = new long[1024];
+        private int[] lunghezze = new int[1024];
+        private int[] ids = new int[1024];
+        private int[] scadenze = new int[1024];
+        private byte[] stati = new byte[1024];
+        private int numero;
+        private final Map<String, Occorrenze> termini = new HashMap<>();
+
+        /**
+         * Aggiunge la prossima riga del file.
+         *
+         * @param paroleChiave  forme canoniche delle parole chiave
+         * @param terminiTitolo forme canoniche delle parole del titolo
+         * @return il numero della riga
+         */
+        public int aggiungiRiga(long posizione, int lunghezza, int id, int scadenza, boolean acquisto,
+                Collection<String> paroleChiave, Collection<String> terminiTitolo) {
+            if (numero == posizioni.length) {
+                int capacita = numero * 2;
+                posizioni = Arrays.copyOf(posizioni, capacita);
+                lunghezze = Arrays.copyOf(lunghezze, capacita);
+                ids = Arrays.copyOf(ids, capacita);
+                scadenze = Arrays.copyOf(scadenze, capacita);
+                stati = Arrays.copyOf(stati, capacita);
+            }
+            int riga = numero++;
+            posizioni[riga] = posizione;
+            lunghezze[riga] = lunghezza;
+            ids[riga] = id;
+            scadenze[riga] = scadenza;
+            stati[riga] = acquisto ? ACQUISTO : 0;
+            for (String termine : paroleChiave) {
+                termini.computeIfAbsent(termine, k -> new Occorrenze()).chiave(riga);
+            }
+            for (String termine : terminiTitolo) {
+                termini.computeIfAbsent(termine, k -> new Occorrenze()).titolo(riga);
+            }
+            return riga;
+        }
+
+        /**
+         * Scrive l'indice in un file temporaneo e lo rinomina sopra
+         * {@code percorso}, così un'interruzione non lascia un indice a metà.
+         *
+         * @param dimensioneDati dimensione del file di annunci indicizzato
+         * @param ultimaModifica data di modifica del file di annunci (ns)
+         */
+        public void scrivi(Path percorso, long dimensioneDati, long ultimaModifica) throws IOException {
+            String[] ordinati = termini.keySet().toArray(new String[0]);
+            Arrays.sort(ordinati);
+            byte[][] testi = new byte[ordinati.length][];
+            long postings = 0;
+            for (int t = 0; t < ordinati.length; t++) {
+                testi[t] = ordinati[t].getBytes(StandardCharsets.UTF_8);
+                Occorrenze o = termini.get(ordinati[t]);
+                postings += o.numeroChiave + o.numeroTitolo;
+            }
+            long[] perId = new long[numero];
+            for (int riga = 0; riga < numero; riga++) {
+                perId[riga] = ((long) ids[riga] << 32) | riga;
+            }
+            Arrays.sort(perId);
+
+            long inizioId = INTESTAZIONE + (long) numero * RIGA;
+            long inizioTermini = inizioId + (long) numero * ID;
+            long inizioPostings = inizioTermini + (long) ordinati.length * TERMINE;
+            long inizioTesti = inizioPostings + postings * Integer.BYTES;
+            long dimensione = inizioTesti;
+            for (byte[] testo : testi) {
+                dimensione += testo.length;
+            }
+
+            Path file = percorso.toAbsolutePath();
+            Path temporaneo = Files.createTempFile(file.getParent(), "." + file.getFileName(), ".tmp");
+            boolean spostato = false;
+            try {
+                try (DataOutputStream output = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(temporaneo), 1 << 16))) {
+                    output.writeInt(MAGIA);
+                    output.writeInt(VERSIONE);
+                    output.writeLong(dimensioneDati);
+                    output.writeLong(ultimaModifica);
+                    output.writeInt(numero);
+                    output.writeInt(ordinati.length);
+                    output.writeLong(inizioId);
+                    output.writeLong(inizioTermini);
+                    output.writeLong(inizioPostings);
+                    output.writeLong(inizioTesti);
+                    output.writeLong(dimensione);
+                    for (int riga = 0; riga < numero; riga++) {
+                        output.writeLong(posizioni[riga]);
+                        output.writeInt(lunghezze[riga]);
+                        output.writeInt(ids[riga]);
+                        output.writeInt(scadenze[riga]);
+                        output.writeInt(stati[riga] << 24);
+                    }
+                    for (long voce : perId) {
+                        output.writeLong(voce);
+                    }
+                    long testo = inizioTesti;
+                    long primo = 0;
+                    for (int t = 0; t < ordinati.length; t++) {
+                        Occorrenze o = termini.get(ordinati[t]);
+                        output.writeLong(testo);
+                        output.writeLong(primo);
+                        output.writeInt(o.numeroChiave);
+                        output.writeInt(o.numeroTitolo);
+                        output.writeInt(testi[t].length);
+                        output.writeInt(0);
+                        testo += testi[t].length;
+                        primo += o.numeroChiave + o.numeroTitolo;
+                    }
+                    for (String termine : ordinati) {
+                        Occorrenze o = termini.get(termine);
+                        for (int i = 0; i < o.numeroChiave; i++) {
+                            output.writeInt(o.chiave[i]);
+                        }
+                        for (int i = 0; i < o.numeroTitolo; i++) {
+                            output.writeInt(o.titolo[i]);
+                        }
+                    }
+                    for (byte[] t : testi) {
+                        output.write(t);
+                    }
+                }
+                Files.move(temporaneo, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                spostato = true;
+            } finally {
+                if (!spostato) {
+                    Files.deleteIfExists(temporaneo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Righe di un termine durante la costruzione: quelle che lo hanno tra le
+     * parole chiave e quelle che lo hanno solo nel titolo.
+     */
+    private static final class Occorrenze {
+        int[] chiave = new int[2];
+        int numeroChiave;
+        int[] titolo = new int[2];
+        int numeroTitolo;
+
+        void chiave(int riga) {
+            if (numeroChiave > 0 && chiave[numeroChiave - 1] == riga) {
+                return;
+            }
+            if (numeroChiave == chiave.length) {
+                chiave = Arrays.copyOf(chiave, numeroChiave * 2);
+            }
+            chiave[numeroChiave++] = riga;
+        }
+
+        /** Da chiamare dopo {@link #chiave(int)} per la stessa riga. */
+        void titolo(int riga) {
+            if ((numeroChiave > 0 && chiave[numeroChiave - 1] == riga)
+                    || (numeroTitolo > 0 && titolo[numeroTitolo - 1] == riga)) {
+                return;
+            }
+            if (numeroTitolo == titolo.length) {
+                titolo = Arrays.copyOf(titolo, numeroTitolo * 2);
+            }
+            titolo[numeroTitolo++] = riga;
+        }
+    }
+}
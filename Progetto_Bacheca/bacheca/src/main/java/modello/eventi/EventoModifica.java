@@ -0,0 +1,29 @@
+package modello.eventi;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR emesso quando un annuncio viene aggiunto, rimosso o riceve una
+ * nuova parola chiave.
+ */
+@Name("modello.Modifica")
+@Label("Modifica annuncio")
+@Category({ "Bacheca", "Modifiche" })
+public class EventoModifica extends Event {
+
+    public static final String AGGIUNTA = "aggiunta";
+    public static final String RIMOZIONE = "rimozione";
+    public static final String NUOVA_PAROLA = "nuova parola chiave";
+
+    @Label("Operazione")
+    public String operazione;
+
+    @Label("Id annuncio")
+    public int idAnnuncio;
+
+    @Label("Riuscita")
+    public boolean riuscita;
+}
@@ -0,0 +1,47 @@
+package modello.eventi;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR emesso da ogni salvataggio o caricamento della bacheca su file
+ * (anche in formato NDJSON).
+ * Insieme agli eventi {@code jdk.FileWrite}/{@code jdk.FileRead} e a quelli
+ * del GC nello stesso thread permette di capire se il tempo va nella
+ * formattazione, nel disco o nelle pause.
+ */
+@Name("modello.Persistenza")
+@Label("Persistenza bacheca")
+@Category({ "Bacheca", "Persistenza" })
+@Description("Salvataggio o caricamento degli annunci su file")
+public class EventoPersistenza extends Event {
+
+    public static final String SALVATAGGIO = "salvataggio";
+    public static final String CARICAMENTO = "caricamento";
+    public static final String ESPORTAZIONE = "esportazione NDJSON";
+    public static final String IMPORTAZIONE = "importazione NDJSON";
+
+    @Label("Operazione")
+    public String operazione;
+
+    @Label("File")
+    public String file;
+
+    @Label("Byte")
+    @DataAmount
+    public long numeroByte;
+
+    @Label("Righe")
+    public int righe;
+
+    @Label("Righe scartate")
+    @Description("Righe malformate ignorate durante il caricamento o l'importazione")
+    public int righeScartate;
+
+    @Label("Riuscita")
+    public boolean riuscita;
+}
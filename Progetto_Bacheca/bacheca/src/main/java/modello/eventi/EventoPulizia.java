@@ -0,0 +1,21 @@
+package modello.eventi;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR emesso da ogni pulizia degli annunci scaduti.
+ */
+@Name("modello.Pulizia")
+@Label("Pulizia bacheca")
+@Category({ "Bacheca", "Modifiche" })
+public class EventoPulizia extends Event {
+
+    @Label("Annunci esaminati")
+    public int annunciEsaminati;
+
+    @Label("Annunci rimossi")
+    public int annunciRimossi;
+}
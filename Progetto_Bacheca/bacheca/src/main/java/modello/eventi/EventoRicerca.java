@@ -0,0 +1,39 @@
+package modello.eventi;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR emesso da ogni ricerca sulla bacheca. La durata dell'evento è la
+ * durata della ricerca.
+ */
+@Name("modello.Ricerca")
+@Label("Ricerca annunci")
+@Category({ "Bacheca", "Ricerche" })
+@Description("Ricerca per parola chiave, approssimata, per prefisso o per prezzo")
+public class EventoRicerca extends Event {
+
+    /** Ricerca per parole chiave esatte (a meno di maiuscole e accenti). */
+    public static final String PAROLA_CHIAVE = "parola chiave";
+
+    /** Ricerca tollerante agli errori di battitura. */
+    public static final String FUZZY = "fuzzy";
+
+    /** Ricerca per prefisso. */
+    public static final String PREFISSO = "prefisso";
+
+    /** Ricerca per intervallo di prezzo o degli annunci più economici. */
+    public static final String PREZZO = "prezzo";
+
+    @Label("Tipo")
+    public String tipo;
+
+    @Label("Parole cercate")
+    public String paroleChiave;
+
+    @Label("Risultati")
+    public int risultati;
+}
@@ -0,0 +1,114 @@
+package modello.json;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import modello.Annuncio;
+import modello.Prezzo;
+import modello.Utente;
+import modello.exception.AnnuncioException;
+import modello.exception.UtenteException;
+
+/**
+ * Conversione tra {@link Annuncio} e la sua forma JSON "piatta", usata sia
+ * dall'esportazione/importazione NDJSON sia dal corpo di
+ * {@code POST /annunci}:
+ *
+ * <pre>
+ * {"id":1,"email":"a@b.it","nome":"Anna","articolo":"Bici","prezzo":120.0,
+ *  "tipologia":"vendita","paroleChiave":["bici","sport"],"dataScadenza":"2099-01-01"}
+ * </pre>
+ *
+ * <p>
+ * In lettura l'annuncio viene creato con {@link Annuncio#conPrezzoInCentesimi}
+ * e il costruttore di {@link Utente}, quindi valgono le stesse validazioni del
+ * resto dell'applicazione. Il prezzo passa da euro a centesimi senza
+ * attraversare un float (vedi {@link Prezzo}).
+ * </p>
+ */
+public final class CodificaAnnuncio {
+
+    private CodificaAnnuncio() {
+    }
+
+    /**
+     * Forma JSON dell'annuncio (i campi nell'ordine mostrato sopra).
+     */
+    public static Map<String, Object> inMappa(Annuncio a) {
+        Map<String, Object> mappa = new LinkedHashMap<>();
+        mappa.put("id", a.getId());
+        mappa.put("email", a.getAutore().getEmail());
+        mappa.put("nome", a.getAutore().getNome());
+        mappa.put("articolo", a.getArticolo());
+        mappa.put("prezzo", Prezzo.inEuro(a.getPrezzoCentesimi()));
+        mappa.put("tipologia", a.getTipologia());
+        mappa.put("paroleChiave", a.getListaParoleChiave());
+        mappa.put("dataScadenza", a.getDataScadenza());
+        return mappa;
+    }
+
+    /**
+     * Crea un annuncio dalla sua forma JSON. Se manca {@code id} ne viene
+     * generato uno come nel costruttore senza id.
+     *
+     * @param mappa oggetto JSON letto con {@link Json}
+     * @return l'annuncio
+     * @throws AnnuncioException se un campo manca o non è valido
+     * @throws UtenteException   se email o nome dell'autore non sono validi
+     */
+    public static Annuncio daMappa(Map<String, Object> mappa) throws AnnuncioException, UtenteException {
+        Utente autore = new Utente(testo(mappa, "email"), testo(mappa, "nome"));
+        String articolo = testo(mappa, "articolo");
+        long prezzo = Prezzo.centesimi(numero(mappa, "prezzo"));
+        String tipologia = testo(mappa, "tipologia");
+        String paroleChiave = paroleChiave(mappa.get("paroleChiave"));
+        Object data = mappa.get("dataScadenza");
+        String dataScadenza = data == null ? null : data.toString();
+
+        if (mappa.get("id") == null) {
+            return Annuncio.conPrezzoInCentesimi(autore, articolo, prezzo, tipologia, paroleChiave, dataScadenza);
+        }
+        double id = numero(mappa, "id");
+        if (id != Math.rint(id) || id < Integer.MIN_VALUE || id > Integer.MAX_VALUE) {
+            throw new AnnuncioException("Campo 'id' non intero");
+        }
+        return Annuncio.conPrezzoInCentesimi((int) id, autore, articolo, prezzo, tipologia, paroleChiave,
+                dataScadenza);
+    }
+
+    private static String testo(Map<String, Object> mappa, String campo) throws AnnuncioException {
+        Object valore = mappa.get(campo);
+        if (!(valore instanceof String s)) {
+            throw new AnnuncioException("Campo '" + campo + "' mancante o non testuale");
+        }
+        return s;
+    }
+
+    private static double numero(Map<String, Object> mappa, String campo) throws AnnuncioException {
+        Object valore = mappa.get(campo);
+        if (!(valore instanceof Number n)) {
+            throw new AnnuncioException("Campo '" + campo + "' mancante o non numerico");
+        }
+        return n.doubleValue();
+    }
+
+    /**
+     * Le parole chiave possono arrivare come array di stringhe o come stringa
+     * separata da virgole.
+     */
+    private static String paroleChiave(Object valore) {
+        if (valore == null) {
+            return null;
+        }
+        if (valore instanceof List<?> lista) {
+            List<String> parole = new ArrayList<>(lista.size());
+            for (Object o : lista) {
+                parole.add(String.valueOf(o));
+            }
+            return String.join(",", parole);
+        }
+        return valore.toString();
+    }
+}
@@ -0,0 +1,329 @@
+package modello.json;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lettura e scrittura minimale di JSON, sufficiente per l'interfaccia HTTP e
+ * per l'esportazione NDJSON (così l'applicazione resta senza dipendenze).
+ *
+ * <p>
+ * Gli oggetti diventano {@code Map<String, Object>} (in ordine), gli array
+ * {@code List<Object>}, i numeri {@code Long} se interi e {@code Double}
+ * altrimenti. In scrittura sono accettati anche gli altri {@link Number} e,
+ * tramite {@code toString()}, qualsiasi altro oggetto come stringa.
+ * </p>
+ */
+public final class Json {
+
+    /** Annidamento massimo accettato, per non esaurire lo stack con input ostili. */
+    private static final int PROFONDITA_MASSIMA = 64;
+
+    private final String testo;
+    private int pos;
+    private int profondita;
+
+    private Json(String testo) {
+        this.testo = testo;
+    }
+
+    /**
+     * Legge un documento JSON.
+     *
+     * @param testo documento
+     * @return il valore letto (Map, List, String, Long, Double, Boolean o null)
+     * @throws IllegalArgumentException se il documento non è JSON valido
+     */
+    public static Object leggi(String testo) {
+        Json lettore = new Json(testo);
+        Object valore = lettore.valore();
+        lettore.spazi();
+        if (lettore.pos != testo.length()) {
+            throw lettore.errore("contenuto inatteso dopo il valore");
+        }
+        return valore;
+    }
+
+    /**
+     * Legge un documento JSON che deve essere un oggetto.
+     *
+     * @throws IllegalArgumentException se il documento non è un oggetto JSON
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> leggiOggetto(String testo) {
+        Object valore = leggi(testo);
+        if (!(valore instanceof Map)) {
+            throw new IllegalArgumentException("Atteso un oggetto JSON");
+        }
+        return (Map<String, Object>) valore;
+    }
+
+    /**
+     * Scrive un valore in JSON compatto.
+     */
+    public static String scrivi(Object valore) {
+        StringBuilder sb = new StringBuilder();
+        scrivi(valore, sb);
+        return sb.toString();
+    }
+
+    private static void scrivi(Object valore, StringBuilder sb) {
+        if (valore == null) {
+            sb.append("null");
+        } else if (valore instanceof Map<?, ?> mappa) {
+            sb.append('{');
+            boolean primo = true;
+            for (Map.Entry<?, ?> e : mappa.entrySet()) {
+                if (!primo) {
+                    sb.append(',');
+                }
+                primo = false;
+                stringa(String.valueOf(e.getKey()), sb);
+                sb.append(':');
+                scrivi(e.getValue(), sb);
+            }
+            sb.append('}');
+        } else if (valore instanceof Iterable<?> elementi) {
+            sb.append('[');
+            boolean primo = true;
+            for (Object o : elementi) {
+                if (!primo) {
+                    sb.append(',');
+                }
+                primo = false;
+                scrivi(o, sb);
+            }
+            sb.append(']');
+        } else if (valore instanceof Boolean || valore instanceof Integer || valore instanceof Long) {
+            sb.append(valore);
+        } else if (valore instanceof Number n) {
+            double d = n.doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                sb.append("null");
+            } else if (d == Math.rint(d) && Math.abs(d) < 1e15) {
+                sb.append((long) d);
+            } else {
+                sb.append(n);
+            }
+        } else {
+            stringa(valore.toString(), sb);
+        }
+    }
+
+    private static void stringa(String s, StringBuilder sb) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    // ------------------------------------------------------------------
+    // Parser a discesa ricorsiva
+    // ------------------------------------------------------------------
+
+    private Object valore() {
+        spazi();
+        if (pos >= testo.length()) {
+            throw errore("fine inattesa del documento");
+        }
+        char c = testo.charAt(pos);
+        switch (c) {
+            case '{':
+            case '[':
+                if (++profondita > PROFONDITA_MASSIMA) {
+                    throw errore("annidamento eccessivo");
+                }
+                Object contenitore = c == '{' ? oggetto() : array();
+                profondita--;
+                return contenitore;
+            case '"':
+                return stringa();
+            case 't':
+                return parolaRiservata("true", Boolean.TRUE);
+            case 'f':
+                return parolaRiservata("false", Boolean.FALSE);
+            case 'n':
+                return parolaRiservata("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return numero();
+                }
+                throw errore("carattere inatteso '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> oggetto() {
+        Map<String, Object> mappa = new LinkedHashMap<>();
+        pos++; // {
+        spazi();
+        if (consuma('}')) {
+            return mappa;
+        }
+        do {
+            spazi();
+            if (pos >= testo.length() || testo.charAt(pos) != '"') {
+                throw errore("attesa una chiave tra virgolette");
+            }
+            String chiave = stringa();
+            spazi();
+            if (!consuma(':')) {
+                throw errore("atteso ':'");
+            }
+            mappa.put(chiave, valore());
+            spazi();
+        } while (consuma(','));
+        if (!consuma('}')) {
+            throw errore("atteso '}'");
+        }
+        return mappa;
+    }
+
+    private List<Object> array() {
+        List<Object> lista = new ArrayList<>();
+        pos++; // [
+        spazi();
+        if (consuma(']')) {
+            return lista;
+        }
+        do {
+            lista.add(valore());
+            spazi();
+        } while (consuma(','));
+        if (!consuma(']')) {
+            throw errore("atteso ']'");
+        }
+        return lista;
+    }
+
+    private String stringa() {
+        StringBuilder sb = new StringBuilder();
+        pos++; // "
+        while (pos < testo.length()) {
+            char c = testo.charAt(pos++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos >= testo.length()) {
+                break;
+            }
+            char esc = testo.charAt(pos++);
+            switch (esc) {
+                case '"':
+                case '\\':
+                case '/':
+                    sb.append(esc);
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    if (pos + 4 > testo.length()) {
+                        throw errore("sequenza \\u incompleta");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(testo.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw errore("sequenza \\u non valida");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    throw errore("escape non valido '\\" + esc + "'");
+            }
+        }
+        throw errore("stringa non terminata");
+    }
+
+    private Object numero() {
+        int inizio = pos;
+        boolean decimale = false;
+        if (testo.charAt(pos) == '-') {
+            pos++;
+        }
+        while (pos < testo.length()) {
+            char c = testo.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                pos++;
+            } else if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                decimale = true;
+                pos++;
+            } else {
+                break;
+            }
+        }
+        String numero = testo.substring(inizio, pos);
+        try {
+            return decimale ? (Object) Double.parseDouble(numero) : (Object) Long.parseLong(numero);
+        } catch (NumberFormatException e) {
+            throw errore("numero non valido '" + numero + "'");
+        }
+    }
+
+    private Object parolaRiservata(String parola, Object valore) {
+        if (!testo.startsWith(parola, pos)) {
+            throw errore("valore non valido");
+        }
+        pos += parola.length();
+        return valore;
+    }
+
+    private boolean consuma(char c) {
+        if (pos < testo.length() && testo.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void spazi() {
+        while (pos < testo.length() && Character.isWhitespace(testo.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException errore(String messaggio) {
+        return new IllegalArgumentException("JSON non valido alla posizione " + pos + ": " + messaggio);
+    }
+}
@@ -0,0 +1,178 @@
+package modello.metriche;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Istogramma di latenze senza lock, con bucket log-lineari in stile
+ * HdrHistogram: i valori fino a {@value #SOTTO_BUCKET} sono contati
+ * esattamente, quelli più grandi con un errore relativo massimo di circa
+ * 1,6%. Può essere aggiornato da più thread contemporaneamente.
+ *
+ * <p>
+ * L'unità di misura è libera (di solito nanosecondi); {@link #tabellaPercentili}
+ * la converte in microsecondi per la stampa.
+ * </p>
+ */
+public class IstogrammaLatenze {
+
+    /** Bit di precisione: 2^7 sotto-bucket lineari. */
+    private static final int BIT_PRECISIONE = 7;
+    private static final int SOTTO_BUCKET = 1 << BIT_PRECISIONE;
+    private static final int META = SOTTO_BUCKET / 2;
+
+    /** Numero di bucket necessari per coprire tutti i long positivi. */
+    private static final int NUMERO_BUCKET = SOTTO_BUCKET + (63 - BIT_PRECISIONE) * META;
+
+    /** Percentili stampati da {@link #tabellaPercentili(String)}. */
+    private static final double[] PERCENTILI = { 50.0, 90.0, 99.0, 99.9, 99.99 };
+
+    private final AtomicLongArray conteggi;
+    private final LongAdder totale;
+    private final LongAdder somma;
+    private final LongAccumulator massimo;
+
+    /**
+     * Costruttore: crea un istogramma vuoto.
+     */
+    public IstogrammaLatenze() {
+        this.conteggi = new AtomicLongArray(NUMERO_BUCKET);
+        this.totale = new LongAdder();
+        this.somma = new LongAdder();
+        this.massimo = new LongAccumulator(Math::max, 0L);
+    }
+
+    /**
+     * Registra un valore (i valori negativi sono trattati come zero).
+     *
+     * @param valore valore da registrare
+     */
+    public void registra(long valore) {
+        long v = Math.max(0L, valore);
+        conteggi.incrementAndGet(indice(v));
+        totale.increment();
+        somma.add(v);
+        massimo.accumulate(v);
+    }
+
+    /**
+     * Restituisce il numero di valori registrati.
+     */
+    public long getConteggio() {
+        return totale.sum();
+    }
+
+    /**
+     * Restituisce il valore massimo registrato (0 se vuoto).
+     */
+    public long getMassimo() {
+        return massimo.get();
+    }
+
+    /**
+     * Restituisce la media dei valori registrati (0 se vuoto).
+     */
+    public double getMedia() {
+        long n = totale.sum();
+        return n == 0 ? 0.0 : (double) somma.sum() / n;
+    }
+
+    /**
+     * Restituisce il valore al percentile dato, approssimato al limite superiore
+     * del bucket che lo contiene (mai oltre il massimo registrato).
+     *
+     * @param percentile percentile tra 0 e 100
+     * @return valore stimato (0 se l'istogramma è vuoto)
+     */
+    public long percentile(double percentile) {
+        long n = 0;
+        long[] istantanea = new long[NUMERO_BUCKET];
+        for (int i = 0; i < NUMERO_BUCKET; i++) {
+            istantanea[i] = conteggi.get(i);
+            n += istantanea[i];
+        }
+        if (n == 0) {
+            return 0L;
+        }
+        long soglia = Math.max(1L, (long) Math.ceil(n * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+        long cumulato = 0;
+        for (int i = 0; i < NUMERO_BUCKET; i++) {
+            cumulato += istantanea[i];
+            if (cumulato >= soglia) {
+                return Math.min(limiteSuperiore(i), getMassimo());
+            }
+        }
+        return getMassimo();
+    }
+
+    /**
+     * Azzera l'istogramma. Non è atomico rispetto a registrazioni concorrenti.
+     */
+    public void azzera() {
+        for (int i = 0; i < NUMERO_BUCKET; i++) {
+            conteggi.set(i, 0L);
+        }
+        totale.reset();
+        somma.reset();
+        massimo.reset();
+    }
+
+    /**
+     * Tabella testuale dei percentili, con valori convertiti da nanosecondi a
+     * microsecondi.
+     *
+     * @param nome nome della serie (es. l'operazione misurata)
+     * @return una riga: nome, conteggio, percentili e massimo
+     */
+    public String tabellaPercentili(String nome) {
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT, "%-12s %10d", nome, getConteggio()));
+        for (double p : PERCENTILI) {
+            sb.append(String.format(Locale.ROOT, " %11.1f", percentile(p) / 1000.0));
+        }
+        sb.append(String.format(Locale.ROOT, " %11.1f", getMassimo() / 1000.0));
+        return sb.toString();
+    }
+
+    /**
+     * Intestazione delle colonne di {@link #tabellaPercentili(String)}.
+     */
+    public static String intestazioneTabella() {
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT, "%-12s %10s", "operazione", "conteggio"));
+        for (double p : PERCENTILI) {
+            sb.append(String.format(Locale.ROOT, " %11s", "p" + formattaPercentile(p) + " (us)"));
+        }
+        sb.append(String.format(Locale.ROOT, " %11s", "max (us)"));
+        return sb.toString();
+    }
+
+    private static String formattaPercentile(double p) {
+        return p == Math.rint(p) ? String.valueOf((long) p) : String.valueOf(p);
+    }
+
+    /**
+     * Indice del bucket per un valore non negativo.
+     */
+    static int indice(long v) {
+        if (v < SOTTO_BUCKET) {
+            return (int) v;
+        }
+        int bitPiuAlto = 63 - Long.numberOfLeadingZeros(v);
+        int gruppo = bitPiuAlto - BIT_PRECISIONE + 1; // >= 1
+        int sotto = (int) (v >>> gruppo); // in [META, SOTTO_BUCKET)
+        return SOTTO_BUCKET + (gruppo - 1) * META + (sotto - META);
+    }
+
+    /**
+     * Valore massimo contenuto nel bucket dato.
+     */
+    static long limiteSuperiore(int indice) {
+        if (indice < SOTTO_BUCKET) {
+            return indice;
+        }
+        int gruppo = (indice - SOTTO_BUCKET) / META + 1;
+        long sotto = (indice - SOTTO_BUCKET) % META + META;
+        return ((sotto + 1) << gruppo) - 1;
+    }
+}
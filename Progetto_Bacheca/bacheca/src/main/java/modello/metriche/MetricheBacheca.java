@@ -0,0 +1,550 @@
+package modello.metriche;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Metriche di una bacheca: contatori ({@link LongAdder}) e istogrammi di
+ * latenza ({@link IstogrammaLatenze}) per ogni operazione, più le dimensioni
+ * delle strutture interne e i byte scritti e letti dalla persistenza.
+ *
+ * <p>
+ * La raccolta è disattivata per default (si attiva con
+ * {@code -Dbacheca.metriche=true} o con {@link #setAbilitate(boolean)}): da
+ * disattivata ogni operazione costa una sola lettura volatile. Le metriche si
+ * possono pubblicare via JMX ({@link #registraMBean(String)}) e scrivere
+ * periodicamente su un file di log ({@link #avviaScritturaPeriodica(Path, long)}).
+ * </p>
+ *
+ * <p>
+ * Uso tipico all'interno di un'operazione:
+ * </p>
+ *
+ * <pre>
+ * long inizio = metriche.inizio();
+ * boolean riuscita = false;
+ * try {
+ *     ...
+ *     riuscita = true;
+ * } finally {
+ *     metriche.registra(Operazione.AGGIUNTA, inizio, riuscita);
+ * }
+ * </pre>
+ */
+public class MetricheBacheca implements MetricheBachecaMBean {
+
+    /** Proprietà di sistema che attiva la raccolta delle metriche. */
+    public static final String PROPRIETA_ABILITATE = "bacheca.metriche";
+
+    /** Proprietà di sistema con il file su cui scrivere le metriche. */
+    public static final String PROPRIETA_FILE = "bacheca.metriche.file";
+
+    /** Proprietà di sistema con il periodo di scrittura, in secondi. */
+    public static final String PROPRIETA_PERIODO = "bacheca.metriche.periodo";
+
+    /** Valore restituito da {@link #inizio()} quando la raccolta è disattivata. */
+    private static final long DISATTIVATE = Long.MIN_VALUE;
+
+    /**
+     * Operazioni misurate.
+     */
+    public enum Operazione {
+        AGGIUNTA, RIMOZIONE, RICERCA, RICERCA_FUZZY, RICERCA_PREFISSO, RICERCA_PREZZO, PULIZIA, SALVATAGGIO,
+        CARICAMENTO, ESPORTAZIONE, IMPORTAZIONE
+    }
+
+    private volatile boolean abilitate;
+
+    private final LongAdder[] conteggi;
+    private final LongAdder[] errori;
+    private final IstogrammaLatenze[] latenze;
+
+    private final LongAdder ricercheConRisultati;
+    private final LongAdder risultatiRestituiti;
+    private final LongAdder ricercheInCache;
+    private final LongAdder ricercheFuoriCache;
+    private final LongAdder annunciScaduti;
+    private final LongAdder byteScritti;
+    private final LongAdder byteLetti;
+
+    private volatile long durataUltimoSalvataggio;
+    private volatile long durataUltimoCaricamento;
+
+    private volatile LongSupplier numeroAnnunci = () -> 0L;
+    private volatile LongSupplier terminiIndice = () -> 0L;
+    private volatile LongSupplier paroleDizionario = () -> 0L;
+
+    private ObjectName nomeMBean;
+    private ScheduledExecutorService scrittore;
+
+    /**
+     * Costruttore: crea metriche vuote, attive solo se è impostata la proprietà
+     * {@value #PROPRIETA_ABILITATE}.
+     */
+    public MetricheBacheca() {
+        int n = Operazione.values().length;
+        this.conteggi = new LongAdder[n];
+        this.errori = new LongAdder[n];
+        this.latenze = new IstogrammaLatenze[n];
+        for (int i = 0; i < n; i++) {
+            conteggi[i] = new LongAdder();
+            errori[i] = new LongAdder();
+            latenze[i] = new IstogrammaLatenze();
+        }
+        this.ricercheConRisultati = new LongAdder();
+        this.risultatiRestituiti = new LongAdder();
+        this.ricercheInCache = new LongAdder();
+        this.ricercheFuoriCache = new LongAdder();
+        this.annunciScaduti = new LongAdder();
+        this.byteScritti = new LongAdder();
+        this.byteLetti = new LongAdder();
+        this.abilitate = Boolean.getBoolean(PROPRIETA_ABILITATE);
+    }
+
+    /**
+     * Collega le dimensioni delle strutture della bacheca. Le funzioni vengono
+     * lette solo quando le metriche sono consultate.
+     *
+     * @param numeroAnnunci    numero di annunci in bacheca
+     * @param terminiIndice    termini distinti nell'indice per prefisso
+     * @param paroleDizionario parole nel dizionario della ricerca approssimata
+     */
+    public void collegaDimensioni(LongSupplier numeroAnnunci, LongSupplier terminiIndice,
+            LongSupplier paroleDizionario) {
+        this.numeroAnnunci = numeroAnnunci;
+        this.terminiIndice = terminiIndice;
+        this.paroleDizionario = paroleDizionario;
+    }
+
+    // ------------------------------------------------------------------
+    // Registrazione (chiamata dalla bacheca)
+    // ------------------------------------------------------------------
+
+    /**
+     * Istante di inizio di un'operazione, da passare ai metodi di registrazione.
+     * Se la raccolta è disattivata non legge l'orologio.
+     */
+    public long inizio() {
+        return abilitate ? System.nanoTime() : DISATTIVATE;
+    }
+
+    /**
+     * Registra la fine di un'operazione.
+     *
+     * @param operazione operazione misurata
+     * @param inizio     valore restituito da {@link #inizio()}
+     * @param riuscita   false se l'operazione è terminata con un'eccezione
+     */
+    public void registra(Operazione operazione, long inizio, boolean riuscita) {
+        if (inizio == DISATTIVATE) {
+            return;
+        }
+        long durata = System.nanoTime() - inizio;
+        int i = operazione.ordinal();
+        latenze[i].registra(durata);
+        if (riuscita) {
+            conteggi[i].increment();
+        } else {
+            errori[i].increment();
+        }
+        if (operazione == Operazione.SALVATAGGIO) {
+            durataUltimoSalvataggio = durata;
+        } else if (operazione == Operazione.CARICAMENTO) {
+            durataUltimoCaricamento = durata;
+        }
+    }
+
+    /**
+     * Registra la fine di una ricerca e il numero di annunci trovati.
+     */
+    public void registraRicerca(Operazione operazione, long inizio, int risultati) {
+        if (inizio == DISATTIVATE) {
+            return;
+        }
+        registra(operazione, inizio, true);
+        if (risultati > 0) {
+            ricercheConRisultati.increment();
+            risultatiRestituiti.add(risultati);
+        }
+    }
+
+    /**
+     * Registra se una ricerca per parola chiave è stata servita dalla cache dei
+     * risultati.
+     */
+    public void registraCacheRicerca(boolean trovata) {
+        if (!abilitate) {
+            return;
+        }
+        (trovata ? ricercheInCache : ricercheFuoriCache).increment();
+    }
+
+    /**
+     * Registra la fine di una pulizia e il numero di annunci scaduti rimossi.
+     */
+    public void registraPulizia(long inizio, int rimossi) {
+        if (inizio == DISATTIVATE) {
+            return;
+        }
+        registra(Operazione.PULIZIA, inizio, true);
+        annunciScaduti.add(rimossi);
+    }
+
+    /**
+     * Registra la fine di un salvataggio o di un caricamento riuscito (anche
+     * NDJSON); i byte sono la dimensione del file, letta solo se la raccolta è
+     * attiva.
+     *
+     * @param operazione {@link Operazione#SALVATAGGIO},
+     *                   {@link Operazione#CARICAMENTO},
+     *                   {@link Operazione#ESPORTAZIONE} o
+     *                   {@link Operazione#IMPORTAZIONE}
+     * @param inizio     valore restituito da {@link #inizio()}
+     * @param file       file scritto o letto
+     */
+    public void registraPersistenza(Operazione operazione, long inizio, Path file) {
+        if (inizio == DISATTIVATE) {
+            return;
+        }
+        registra(operazione, inizio, true);
+        long dimensione;
+        try {
+            dimensione = Files.size(file);
+        } catch (IOException e) {
+            return; // il file è sparito nel frattempo: conto solo la durata
+        }
+        boolean scrittura = operazione == Operazione.SALVATAGGIO || operazione == Operazione.ESPORTAZIONE;
+        (scrittura ? byteScritti : byteLetti).add(dimensione);
+    }
+
+    // ------------------------------------------------------------------
+    // Lettura
+    // ------------------------------------------------------------------
+
+    /**
+     * Numero di operazioni del tipo dato completate con successo.
+     */
+    public long getConteggio(Operazione operazione) {
+        return conteggi[operazione.ordinal()].sum();
+    }
+
+    /**
+     * Numero di operazioni del tipo dato terminate con un'eccezione.
+     */
+    public long getErrori(Operazione operazione) {
+        return errori[operazione.ordinal()].sum();
+    }
+
+    /**
+     * Istogramma delle latenze (in nanosecondi) dell'operazione data.
+     */
+    public IstogrammaLatenze getLatenze(Operazione operazione) {
+        return latenze[operazione.ordinal()];
+    }
+
+    @Override
+    public boolean isAbilitate() {
+        return abilitate;
+    }
+
+    @Override
+    public void setAbilitate(boolean abilitate) {
+        this.abilitate = abilitate;
+    }
+
+    @Override
+    public long getAggiunte() {
+        return getConteggio(Operazione.AGGIUNTA);
+    }
+
+    @Override
+    public long getRimozioni() {
+        return getConteggio(Operazione.RIMOZIONE);
+    }
+
+    @Override
+    public long getRicerche() {
+        return getConteggio(Operazione.RICERCA) + getConteggio(Operazione.RICERCA_FUZZY)
+                + getConteggio(Operazione.RICERCA_PREFISSO) + getConteggio(Operazione.RICERCA_PREZZO);
+    }
+
+    @Override
+    public long getRicercheConRisultati() {
+        return ricercheConRisultati.sum();
+    }
+
+    @Override
+    public long getRisultatiRestituiti() {
+        return risultatiRestituiti.sum();
+    }
+
+    @Override
+    public long getRicercheInCache() {
+        return ricercheInCache.sum();
+    }
+
+    @Override
+    public long getRicercheFuoriCache() {
+        return ricercheFuoriCache.sum();
+    }
+
+    @Override
+    public double getPercentualeCacheRicerche() {
+        long trovate = ricercheInCache.sum();
+        long totale = trovate + ricercheFuoriCache.sum();
+        return totale == 0 ? 0.0 : 100.0 * trovate / totale;
+    }
+
+    @Override
+    public long getPulizie() {
+        return getConteggio(Operazione.PULIZIA);
+    }
+
+    @Override
+    public long getAnnunciScaduti() {
+        return annunciScaduti.sum();
+    }
+
+    @Override
+    public long getSalvataggi() {
+        return getConteggio(Operazione.SALVATAGGIO);
+    }
+
+    @Override
+    public long getCaricamenti() {
+        return getConteggio(Operazione.CARICAMENTO);
+    }
+
+    @Override
+    public long getErrori() {
+        long totale = 0;
+        for (LongAdder e : errori) {
+            totale += e.sum();
+        }
+        return totale;
+    }
+
+    @Override
+    public long getByteScritti() {
+        return byteScritti.sum();
+    }
+
+    @Override
+    public long getByteLetti() {
+        return byteLetti.sum();
+    }
+
+    @Override
+    public long getNumeroAnnunci() {
+        return numeroAnnunci.getAsLong();
+    }
+
+    @Override
+    public long getTerminiIndice() {
+        return terminiIndice.getAsLong();
+    }
+
+    @Override
+    public long getParoleDizionario() {
+        return paroleDizionario.getAsLong();
+    }
+
+    @Override
+    public double getLatenzaRicercaP50Us() {
+        return getLatenze(Operazione.RICERCA).percentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getLatenzaRicercaP99Us() {
+        return getLatenze(Operazione.RICERCA).percentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getDurataUltimoSalvataggioMs() {
+        return durataUltimoSalvataggio / 1_000_000.0;
+    }
+
+    @Override
+    public double getDurataUltimoCaricamentoMs() {
+        return durataUltimoCaricamento / 1_000_000.0;
+    }
+
+    @Override
+    public String[] getTabellaLatenze() {
+        Operazione[] operazioni = Operazione.values();
+        String[] righe = new String[operazioni.length + 1];
+        righe[0] = IstogrammaLatenze.intestazioneTabella();
+        for (Operazione op : operazioni) {
+            righe[op.ordinal() + 1] = getLatenze(op).tabellaPercentili(op.name().toLowerCase(Locale.ROOT));
+        }
+        return righe;
+    }
+
+    @Override
+    public void azzera() {
+        for (int i = 0; i < latenze.length; i++) {
+            conteggi[i].reset();
+            errori[i].reset();
+            latenze[i].azzera();
+        }
+        ricercheConRisultati.reset();
+        risultatiRestituiti.reset();
+        ricercheInCache.reset();
+        ricercheFuoriCache.reset();
+        annunciScaduti.reset();
+        byteScritti.reset();
+        byteLetti.reset();
+        durataUltimoSalvataggio = 0L;
+        durataUltimoCaricamento = 0L;
+    }
+
+    /**
+     * Resoconto testuale di tutte le metriche, come scritto nel file di log.
+     */
+    public String resoconto() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("== Metriche bacheca ").append(LocalDateTime.now().withNano(0)).append(" ==")
+                .append(System.lineSeparator());
+        sb.append(String.format(Locale.ROOT,
+                "annunci=%d terminiIndice=%d paroleDizionario=%d%n"
+                        + "aggiunte=%d rimozioni=%d ricerche=%d (con risultati=%d, risultati=%d, "
+                        + "in cache=%d, fuori cache=%d) "
+                        + "pulizie=%d (scaduti=%d) errori=%d%n"
+                        + "salvataggi=%d (byte=%d, ultimo=%.1f ms) caricamenti=%d (byte=%d, ultimo=%.1f ms)%n",
+                getNumeroAnnunci(), getTerminiIndice(), getParoleDizionario(),
+                getAggiunte(), getRimozioni(), getRicerche(), getRicercheConRisultati(), getRisultatiRestituiti(),
+                getRicercheInCache(), getRicercheFuoriCache(),
+                getPulizie(), getAnnunciScaduti(), getErrori(),
+                getSalvataggi(), getByteScritti(), getDurataUltimoSalvataggioMs(),
+                getCaricamenti(), getByteLetti(), getDurataUltimoCaricamentoMs()));
+        for (String riga : getTabellaLatenze()) {
+            sb.append(riga).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------
+    // Pubblicazione
+    // ------------------------------------------------------------------
+
+    /**
+     * Registra le metriche sul server JMX della piattaforma con il nome
+     * {@code modello.metriche:type=Bacheca,name=<nome>}.
+     *
+     * @param nome nome che distingue questa bacheca (es. "gui")
+     * @return il nome JMX registrato
+     * @throws JMException se il nome non è valido o è già registrato
+     */
+    public synchronized ObjectName registraMBean(String nome) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("modello.metriche:type=Bacheca,name=" + ObjectName.quote(nome));
+        server.registerMBean(this, objectName);
+        nomeMBean = objectName;
+        return objectName;
+    }
+
+    /**
+     * Rimuove la registrazione JMX, se presente.
+     */
+    public synchronized void annullaRegistrazioneMBean() {
+        if (nomeMBean == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(nomeMBean);
+        } catch (JMException e) {
+            // già rimossa dall'esterno
+        }
+        nomeMBean = null;
+    }
+
+    /**
+     * Avvia un thread demone che aggiunge periodicamente il
+     * {@link #resoconto()} in coda al file indicato. Sostituisce una scrittura
+     * periodica già avviata.
+     *
+     * @param file    file di log
+     * @param secondi periodo di scrittura
+     */
+    public synchronized void avviaScritturaPeriodica(Path file, long secondi) {
+        fermaScritturaPeriodica();
+        scrittore = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metriche-bacheca");
+            t.setDaemon(true);
+            return t;
+        });
+        scrittore.scheduleAtFixedRate(() -> scriviResoconto(file), secondi, secondi, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Ferma la scrittura periodica, se avviata.
+     */
+    public synchronized void fermaScritturaPeriodica() {
+        if (scrittore != null) {
+            scrittore.shutdownNow();
+            scrittore = null;
+        }
+    }
+
+    /**
+     * Aggiunge il resoconto corrente in coda al file.
+     *
+     * @param file file di log
+     * @return true se la scrittura è riuscita
+     */
+    public boolean scriviResoconto(Path file) {
+        try {
+            Files.writeString(file, resoconto() + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Impossibile scrivere le metriche su " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Se la raccolta è attiva, registra l'MBean e avvia la scrittura periodica su
+     * file usando le proprietà {@value #PROPRIETA_FILE} (default
+     * {@code metriche.log}) e {@value #PROPRIETA_PERIODO} (default 60 secondi).
+     * Gli errori di registrazione vengono solo segnalati.
+     *
+     * @param nome nome che distingue questa bacheca
+     */
+    public void pubblica(String nome) {
+        if (!abilitate) {
+            return;
+        }
+        try {
+            registraMBean(nome);
+        } catch (JMException e) {
+            System.err.println("Impossibile registrare le metriche JMX: " + e.getMessage());
+        }
+        Path file = Path.of(System.getProperty(PROPRIETA_FILE, "metriche.log"));
+        long periodo = Long.getLong(PROPRIETA_PERIODO, 60L);
+        avviaScritturaPeriodica(file, Math.max(1L, periodo));
+    }
+
+    /**
+     * Annulla quanto fatto da {@link #pubblica(String)}: ferma la scrittura
+     * periodica e rimuove l'MBean.
+     */
+    public void fermaPubblicazione() {
+        fermaScritturaPeriodica();
+        annullaRegistrazioneMBean();
+    }
+}
@@ -0,0 +1,86 @@
+package modello.metriche;
+
+/**
+ * Interfaccia JMX (standard MBean) delle metriche di una bacheca. Gli attributi
+ * sono visibili da JConsole o VisualVM sotto il dominio {@code modello.metriche}.
+ */
+public interface MetricheBachecaMBean {
+
+    /** Indica se la raccolta delle metriche è attiva. */
+    boolean isAbilitate();
+
+    /** Attiva o disattiva la raccolta delle metriche. */
+    void setAbilitate(boolean abilitate);
+
+    /** Numero di annunci aggiunti con successo. */
+    long getAggiunte();
+
+    /** Numero di annunci rimossi con successo. */
+    long getRimozioni();
+
+    /** Numero di ricerche eseguite (per parola chiave, approssimate e per prefisso). */
+    long getRicerche();
+
+    /** Numero di ricerche che hanno restituito almeno un annuncio. */
+    long getRicercheConRisultati();
+
+    /** Numero totale di annunci restituiti dalle ricerche. */
+    long getRisultatiRestituiti();
+
+    /** Ricerche per parola chiave servite dalla cache dei risultati. */
+    long getRicercheInCache();
+
+    /** Ricerche per parola chiave calcolate perché assenti dalla cache. */
+    long getRicercheFuoriCache();
+
+    /** Percentuale di ricerche per parola chiave servite dalla cache (0-100). */
+    double getPercentualeCacheRicerche();
+
+    /** Numero di pulizie della bacheca eseguite. */
+    long getPulizie();
+
+    /** Numero di annunci scaduti rimossi dalle pulizie. */
+    long getAnnunciScaduti();
+
+    /** Numero di salvataggi su file completati. */
+    long getSalvataggi();
+
+    /** Numero di caricamenti da file completati. */
+    long getCaricamenti();
+
+    /** Numero di operazioni terminate con un'eccezione. */
+    long getErrori();
+
+    /** Byte scritti dai salvataggi su file. */
+    long getByteScritti();
+
+    /** Byte letti dai caricamenti da file. */
+    long getByteLetti();
+
+    /** Numero di annunci presenti in bacheca. */
+    long getNumeroAnnunci();
+
+    /** Numero di termini distinti nell'indice per prefisso. */
+    long getTerminiIndice();
+
+    /** Numero di parole nel dizionario della ricerca approssimata. */
+    long getParoleDizionario();
+
+    /** Latenza mediana delle ricerche per parola chiave, in microsecondi. */
+    double getLatenzaRicercaP50Us();
+
+    /** 99° percentile della latenza delle ricerche per parola chiave, in microsecondi. */
+    double getLatenzaRicercaP99Us();
+
+    /** Durata dell'ultimo salvataggio su file, in millisecondi. */
+    double getDurataUltimoSalvataggioMs();
+
+    /** Durata dell'ultimo caricamento da file, in millisecondi. */
+    double getDurataUltimoCaricamentoMs();
+
+    /** Tabella dei percentili di latenza, una riga per operazione. */
+    String[] getTabellaLatenze();
+
+    /** Azzera contatori e istogrammi. */
+    void azzera();
+}
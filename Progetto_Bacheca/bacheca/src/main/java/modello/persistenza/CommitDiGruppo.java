@@ -0,0 +1,196 @@
+package modello.persistenza;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Salvataggio asincrono con commit di gruppo: chi modifica la bacheca chiede un
+ * salvataggio con {@link #richiedi()} e riceve un {@link CompletableFuture} che
+ * si completa quando le sue modifiche sono su disco. Un solo thread scrittore
+ * raccoglie le richieste arrivate entro {@code attesa} dalla prima (o fino a
+ * {@code gruppoMassimo} richieste) e le soddisfa tutte con un unico
+ * salvataggio.
+ *
+ * <p>
+ * Il salvataggio scrive sempre lo stato completo della bacheca, quindi basta
+ * che parta dopo l'arrivo di una richiesta per coprire le modifiche fatte
+ * prima di essa: il costo dell'fsync viene diviso tra tutte le richieste del
+ * gruppo invece di essere pagato da ognuna. Le richieste che arrivano mentre un
+ * salvataggio è in corso formano il gruppo successivo.
+ * </p>
+ */
+public class CommitDiGruppo implements AutoCloseable {
+
+    /** Attesa predefinita per raccogliere altre richieste dopo la prima. */
+    public static final long ATTESA_PREDEFINITA_MS = 5;
+
+    /** Numero predefinito di richieste oltre il quale il gruppo parte subito. */
+    public static final int GRUPPO_MASSIMO_PREDEFINITO = 256;
+
+    /** Salvataggio completo e durevole (ad esempio {@code salvaAnnunciSuFile}). */
+    @FunctionalInterface
+    public interface Salvataggio {
+        void salva() throws IOException;
+    }
+
+    private final Salvataggio salvataggio;
+    private final long attesaNanos;
+    private final int gruppoMassimo;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition nuoveRichieste = lock.newCondition();
+    private List<CompletableFuture<Void>> inAttesa = new ArrayList<>();
+    private boolean chiuso;
+
+    private final LongAdder richieste = new LongAdder();
+    private final LongAdder commit = new LongAdder();
+    private final Thread scrittore;
+
+    /**
+     * Crea e avvia lo scrittore con i parametri predefiniti.
+     *
+     * @param salvataggio salvataggio eseguito per ogni gruppo
+     */
+    public CommitDiGruppo(Salvataggio salvataggio) {
+        this(salvataggio, ATTESA_PREDEFINITA_MS, TimeUnit.MILLISECONDS, GRUPPO_MASSIMO_PREDEFINITO);
+    }
+
+    /**
+     * Crea e avvia lo scrittore.
+     *
+     * @param salvataggio   salvataggio eseguito per ogni gruppo
+     * @param attesa        tempo massimo di raccolta dopo la prima richiesta (0 per
+     *                      salvare appena possibile)
+     * @param unita         unità di {@code attesa}
+     * @param gruppoMassimo numero di richieste che fa partire il salvataggio
+     *                      senza aspettare
+     */
+    public CommitDiGruppo(Salvataggio salvataggio, long attesa, TimeUnit unita, int gruppoMassimo) {
+        if (attesa < 0 || gruppoMassimo < 1) {
+            throw new IllegalArgumentException("Attesa negativa o gruppo massimo minore di 1");
+        }
+        this.salvataggio = salvataggio;
+        this.attesaNanos = unita.toNanos(attesa);
+        this.gruppoMassimo = gruppoMassimo;
+        this.scrittore = new Thread(this::esegui, "commit-di-gruppo");
+        this.scrittore.setDaemon(true);
+        this.scrittore.start();
+    }
+
+    /**
+     * Chiede un salvataggio che includa tutte le modifiche fatte finora.
+     *
+     * @return future completato a salvataggio avvenuto, o con l'eccezione del
+     *         salvataggio se non è riuscito
+     * @throws IllegalStateException se lo scrittore è già stato chiuso
+     */
+    public CompletableFuture<Void> richiedi() {
+        CompletableFuture<Void> futuro = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (chiuso) {
+                throw new IllegalStateException("Salvataggio di gruppo già chiuso");
+            }
+            inAttesa.add(futuro);
+            if (inAttesa.size() == 1 || inAttesa.size() >= gruppoMassimo) {
+                nuoveRichieste.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        richieste.increment();
+        return futuro;
+    }
+
+    /** Richieste ricevute finora. */
+    public long getNumeroRichieste() {
+        return richieste.sum();
+    }
+
+    /** Salvataggi eseguiti finora (uno per gruppo). */
+    public long getNumeroCommit() {
+        return commit.sum();
+    }
+
+    /**
+     * Salva le richieste ancora in attesa e ferma lo scrittore; le richieste
+     * successive vengono rifiutate.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            chiuso = true;
+            nuoveRichieste.signal();
+        } finally {
+            lock.unlock();
+        }
+        boolean interrotto = false;
+        while (scrittore.isAlive()) {
+            try {
+                scrittore.join();
+            } catch (InterruptedException e) {
+                interrotto = true;
+            }
+        }
+        if (interrotto) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Ciclo dello scrittore: un gruppo per iterazione. */
+    private void esegui() {
+        while (true) {
+            List<CompletableFuture<Void>> gruppo = prossimoGruppo();
+            if (gruppo == null) {
+                return;
+            }
+            try {
+                salvataggio.salva();
+                commit.increment();
+                for (CompletableFuture<Void> futuro : gruppo) {
+                    futuro.complete(null);
+                }
+            } catch (Throwable e) {
+                for (CompletableFuture<Void> futuro : gruppo) {
+                    futuro.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Attende la prima richiesta, poi raccoglie le altre fino all'attesa o alla
+     * dimensione massima; null quando lo scrittore è chiuso e non resta nulla.
+     */
+    private List<CompletableFuture<Void>> prossimoGruppo() {
+        lock.lock();
+        try {
+            while (inAttesa.isEmpty() && !chiuso) {
+                nuoveRichieste.awaitUninterruptibly();
+            }
+            if (inAttesa.isEmpty()) {
+                return null;
+            }
+            long restante = attesaNanos;
+            while (restante > 0 && !chiuso && inAttesa.size() < gruppoMassimo) {
+                try {
+                    restante = nuoveRichieste.awaitNanos(restante);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            List<CompletableFuture<Void>> gruppo = inAttesa;
+            inAttesa = new ArrayList<>();
+            return gruppo;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package modello.persistenza;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sostituzione atomica di un file: il nuovo contenuto viene scritto in un file
+ * temporaneo nella stessa cartella, forzato su disco e poi rinominato sopra la
+ * destinazione. Se il processo si interrompe a metà, sul disco resta il file
+ * precedente intatto (più, al massimo, un temporaneo orfano {@code .tmp}).
+ *
+ * <p>
+ * Prima della sostituzione la versione corrente viene conservata come
+ * {@code <nome>}{@value #SUFFISSO_PRECEDENTE} (una sola generazione, sovrascritta
+ * a ogni salvataggio). Dove il file system lo permette la copia è un hard link,
+ * quindi non costa una seconda scrittura.
+ * </p>
+ */
+public final class ScritturaAtomica {
+
+    /** Suffisso della generazione precedente del file. */
+    public static final String SUFFISSO_PRECEDENTE = ".bak";
+
+    /** Dimensione del buffer di codifica verso il canale. */
+    public static final int DIMENSIONE_BUFFER = 1 << 20;
+
+    /** Scrive il contenuto del file. */
+    @FunctionalInterface
+    public interface Contenuto {
+        void scrivi(Writer output) throws IOException;
+    }
+
+    private ScritturaAtomica() {
+    }
+
+    /**
+     * Sostituisce atomicamente {@code destinazione} con il contenuto scritto da
+     * {@code contenuto} (in UTF-8).
+     *
+     * @param destinazione file da scrivere
+     * @param contenuto    scrittura del contenuto
+     * @throws IOException in caso di errore: la destinazione resta quella di prima
+     */
+    public static void scrivi(Path destinazione, Contenuto contenuto) throws IOException {
+        scrivi(destinazione, contenuto, true);
+    }
+
+    /**
+     * Come {@link #scrivi(Path, Contenuto)}, scegliendo se conservare la
+     * generazione precedente.
+     *
+     * @param destinazione       file da scrivere
+     * @param contenuto          scrittura del contenuto
+     * @param conservaPrecedente se true la versione sostituita resta in
+     *                           {@code <nome>}{@value #SUFFISSO_PRECEDENTE}
+     * @throws IOException in caso di errore: la destinazione resta quella di prima
+     */
+    public static void scrivi(Path destinazione, Contenuto contenuto, boolean conservaPrecedente)
+            throws IOException {
+        Path file = destinazione.toAbsolutePath();
+        Path cartella = file.getParent();
+        Path temporaneo = Files.createTempFile(cartella, "." + file.getFileName(), ".tmp");
+        boolean spostato = false;
+        try {
+            try (FileChannel canale = FileChannel.open(temporaneo, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                // il Writer non va chiuso: chiuderebbe il canale prima del force
+                Writer output = Channels.newWriter(canale, StandardCharsets.UTF_8.newEncoder(), DIMENSIONE_BUFFER);
+                contenuto.scrivi(output);
+                output.flush();
+                canale.force(true);
+            }
+            if (Files.exists(file)) {
+                copiaPermessi(file, temporaneo);
+                if (conservaPrecedente) {
+                    conservaPrecedente(file);
+                }
+            }
+            Files.move(temporaneo, file, StandardCopyOption.ATOMIC_MOVE);
+            spostato = true;
+            sincronizzaCartella(cartella);
+        } catch (AtomicMoveNotSupportedException e) {
+            throw new IOException("Il file system non supporta la rinomina atomica: " + cartella, e);
+        } finally {
+            if (!spostato) {
+                Files.deleteIfExists(temporaneo);
+            }
+        }
+    }
+
+    /** Percorso della generazione precedente di {@code file}. */
+    public static Path precedente(Path file) {
+        return file.resolveSibling(file.getFileName() + SUFFISSO_PRECEDENTE);
+    }
+
+    /**
+     * Conserva la versione corrente come generazione precedente: hard link se
+     * possibile, altrimenti copia.
+     */
+    private static void conservaPrecedente(Path file) throws IOException {
+        Path precedente = precedente(file);
+        Files.deleteIfExists(precedente);
+        try {
+            Files.createLink(precedente, file);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.copy(file, precedente, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * {@code createTempFile} crea il file leggibile solo dal proprietario: il
+     * file salvato mantiene i permessi di quello che sostituisce.
+     */
+    private static void copiaPermessi(Path da, Path a) {
+        try {
+            Files.setPosixFilePermissions(a, Files.getPosixFilePermissions(da));
+        } catch (UnsupportedOperationException | IOException e) {
+            // file system non POSIX: restano i permessi predefiniti
+        }
+    }
+
+    /**
+     * Rende persistente la rinomina forzando la cartella; non tutti i sistemi
+     * permettono di aprire una cartella (es. Windows), in quel caso si ignora.
+     */
+    private static void sincronizzaCartella(Path cartella) {
+        try (FileChannel canale = FileChannel.open(cartella, StandardOpenOption.READ)) {
+            canale.force(true);
+        } catch (IOException e) {
+            // non supportato su questa piattaforma
+        }
+    }
+}
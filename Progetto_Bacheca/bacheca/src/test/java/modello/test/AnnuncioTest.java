@@ -3,8 +3,12 @@ package modello.test;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 import modello.Annuncio;
+import modello.DizionarioParole;
+import modello.Tipologia;
 import modello.Utente;
 import modello.exception.AnnuncioException;
 
@@ -53,6 +57,7 @@ class AnnuncioTest {
         assertEquals("Smart TV 50\"", annuncio.getArticolo());
         assertEquals(620.0, annuncio.getPrezzo());
         assertEquals("acquisto", annuncio.getTipologia());
+        assertEquals(Tipologia.ACQUISTO, annuncio.getTipo());
         assertEquals("elettronica, intrattenimento", annuncio.getParoleChiave());
         assertNull(annuncio.getDataScadenza());
         assertEquals(utente, annuncio.getAutore());
@@ -95,6 +100,61 @@ class AnnuncioTest {
         assertEquals("Tipologia non valida, deve essere 'acquisto' o 'vendita'", e.getMessage());
     }
 
+    @Test
+    void testParoleChiaveCanoniche() throws Exception {
+        Utente utente = new Utente("claudia.verdi@example.com", "claudiaVerdi");
+        Annuncio annuncio = new Annuncio(utente, "Monolocale", 500, "acquisto", "Città, CAFFÈ", null);
+
+        // la forma visualizzata resta quella inserita, la canonica è senza accenti e minuscola
+        assertEquals("Città, CAFFÈ", annuncio.getParoleChiave());
+        assertEquals(Set.of("citta", "caffe"), annuncio.getParoleChiaveCanoniche());
+        assertTrue(annuncio.haParolaChiave("citta"));
+
+        annuncio.aggiungiParola("Perché");
+        assertTrue(annuncio.getParoleChiaveCanoniche().contains("perche"));
+        assertEquals("ninja", Annuncio.formaCanonica("  ＮＩＮＪＡ "));
+    }
+
+    @Test
+    void testCercaFormaCanonicaNelTesto() throws Exception {
+        Utente utente = new Utente("claudia.verdi@example.com", "claudiaVerdi");
+        new Annuncio(utente, "Monolocale", 500, "acquisto", "Città, Lavatrice", null);
+        DizionarioParole dizionario = DizionarioParole.globale();
+        int citta = dizionario.cerca("citta");
+        int lavatrice = dizionario.cerca("lavatrice");
+
+        String testo = "x, LavaTRICE ,CITTÀ,  ,città,zzz-mai-vista";
+        assertEquals(lavatrice, dizionario.cercaCanonica(testo, 2, 13));
+        assertEquals(citta, dizionario.cercaCanonica(testo, 14, 19));
+        assertEquals(-1, dizionario.cercaCanonica(testo, 20, 22));
+        assertEquals(citta, dizionario.cercaCanonica(testo, 23, 28));
+        assertEquals(-1, dizionario.cercaCanonica(testo, 29, testo.length()));
+        // oltre la tabella iniziale
+        for (int i = 0; i < 500; i++) {
+            dizionario.id("parolacanonica" + i);
+        }
+        assertEquals(dizionario.cerca("parolacanonica321"), dizionario.cercaCanonica(" ParolaCanonica321", 0, 18));
+        assertEquals(lavatrice, dizionario.cercaCanonica("lavatrice", 0, 9));
+    }
+
+    @Test
+    void testVisteParoleChiaveMemorizzate() throws Exception {
+        Utente utente = new Utente("claudia.verdi@example.com", "claudiaVerdi");
+        Annuncio annuncio = new Annuncio(utente, "Smart TV", 620, "acquisto", "elettronica, TV", null);
+
+        // senza modifiche viene restituita sempre la stessa istanza
+        assertSame(annuncio.getParoleChiave(), annuncio.getParoleChiave());
+        assertSame(annuncio.getListaParoleChiave(), annuncio.getListaParoleChiave());
+        assertEquals(List.of("elettronica", "TV"), annuncio.getListaParoleChiave());
+        assertThrows(UnsupportedOperationException.class, () -> annuncio.getListaParoleChiave().add("radio"));
+
+        // aggiungiParola invalida le viste
+        annuncio.aggiungiParola("OLED");
+        assertEquals("elettronica, TV, OLED", annuncio.getParoleChiave());
+        assertEquals(List.of("elettronica", "TV", "OLED"), annuncio.getListaParoleChiave());
+        assertTrue(annuncio.getParoleChiaveCanoniche().contains("oled"));
+    }
+
     @Test
     void testParoleChiaveNonValide() throws Exception {
         Utente utente = new Utente("claudia.verdi@example.com", "claudiaVerdi");
@@ -0,0 +1,178 @@
+package modello.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import modello.*;
+import modello.colonnare.Colonna;
+import modello.colonnare.TabellaId;
+import modello.exception.*;
+
+class BachecaColonnareTest {
+
+    private BachecaColonnare bacheca;
+    private Utente utente;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bacheca = new BachecaColonnare();
+        utente = new Utente("giovanni.neri@example.com", "giovanniNeri");
+    }
+
+    @Test
+    void testStessiRisultatiDiBacheca() throws Exception {
+        Bacheca riferimento = new Bacheca();
+        Utente altro = new Utente("anna.rossi@example.com", "annaRossi");
+        String[] parole = { "elettronica, TV", "casa, Città", "cucina", "elettronica, caffè", "tavolo, tavoletta" };
+        for (int id = 1; id <= 200; id++) {
+            String tipologia = id % 4 == 0 ? "acquisto" : "vendita";
+            Annuncio a = new Annuncio(id, id % 2 == 0 ? utente : altro, "Articolo numero " + id, id,
+                    tipologia, parole[id % parole.length], "2099-01-01");
+            assertEquals(ids(riferimento.aggiungiAnnuncio(a)), ids(bacheca.aggiungiAnnuncio(a)));
+        }
+
+        assertEquals(riferimento.getAnnunci(), bacheca.getAnnunci());
+        assertEquals(ids(riferimento.cercaPerParolaChiave("citta, tv")), ids(bacheca.cercaPerParolaChiave("citta, tv")));
+        assertEquals(sorted(riferimento.cercaPerParolaChiaveFuzzy("tavola", 1)),
+                sorted(bacheca.cercaPerParolaChiaveFuzzy("tavola", 1)));
+        assertEquals(sorted(riferimento.cercaPerPrefisso("num")), sorted(bacheca.cercaPerPrefisso("num")));
+        assertEquals(riferimento.suggerisciParole("ta", 3), bacheca.suggerisciParole("ta", 3));
+
+        Annuncio vista = bacheca.cercaPerId(10);
+        Annuncio originale = riferimento.cercaPerId(10);
+        assertEquals(originale.toString(), vista.toString());
+        assertEquals(originale.getParoleChiaveCanoniche(), vista.getParoleChiaveCanoniche());
+    }
+
+    @Test
+    void testRimozioneEParole() throws Exception {
+        bacheca.aggiungiAnnuncio(new Annuncio(1, utente, "Lampada", 15, "vendita", "casa", "2099-01-01"));
+        Utente altro = new Utente("anna.rossi@example.com", "annaRossi");
+
+        assertThrows(AutoreNonAutorizzatoException.class, () -> bacheca.rimuoviAnnuncio(1, altro));
+        assertThrows(BachecaException.class, () -> bacheca.rimuoviAnnuncio(2, utente));
+        assertThrows(BachecaException.class,
+                () -> bacheca.aggiungiAnnuncio(new Annuncio(1, utente, "Altro", 1, "vendita", "x", "2099-01-01")));
+
+        assertTrue(bacheca.aggiungiNuovaParolaChiave(1, utente, "Luce"));
+        assertEquals("casa, Luce", bacheca.cercaPerId(1).getParoleChiave());
+        assertEquals(1, bacheca.cercaPerParolaChiave("luce").size());
+        assertEquals(List.of("luce"), bacheca.suggerisciParole("lu", 5));
+
+        assertTrue(bacheca.rimuoviAnnuncio(1, utente));
+        assertNull(bacheca.cercaPerId(1));
+        assertTrue(bacheca.cercaPerParolaChiave("casa").isEmpty());
+        assertTrue(bacheca.suggerisciParole("lu", 5).isEmpty());
+        assertEquals(0, bacheca.getNumeroAnnunci());
+    }
+
+    @Test
+    void testCompattazioneDopoMolteRimozioni() throws Exception {
+        // abbastanza righe da occupare più blocchi di ogni colonna
+        int n = Colonna.ELEMENTI_PER_BLOCCO * 2;
+        for (int id = 1; id <= n; id++) {
+            bacheca.aggiungiAnnuncio(new Annuncio(id, utente, "Articolo " + id, 1, "vendita", "casa", "2099-01-01"));
+        }
+        long prima = bacheca.getByteFuoriHeap();
+        for (int id = 1; id <= n - 10; id++) {
+            bacheca.rimuoviAnnuncio(id, utente);
+        }
+
+        assertEquals(10, bacheca.getNumeroAnnunci());
+        assertTrue(bacheca.getByteFuoriHeap() < prima);
+        assertEquals(10, bacheca.cercaPerParolaChiave("casa").size());
+        assertEquals("Articolo " + n, bacheca.cercaPerId(n).getArticolo());
+    }
+
+    @Test
+    void testPulisciBacheca() throws Exception {
+        String ieri = LocalDate.now().minusDays(1).toString();
+        bacheca.caricaAnnunciDaFile(scriviFile(
+                "1;giovanni.neri@example.com;giovanniNeri;Sedia;10.00;vendita;casa;" + ieri,
+                "2;giovanni.neri@example.com;giovanniNeri;Tavolo;20.00;vendita;casa;2099-01-01",
+                "3;giovanni.neri@example.com;giovanniNeri;Divano;30.00;acquisto;casa;null"));
+
+        assertTrue(bacheca.pulisciBacheca());
+        assertFalse(bacheca.pulisciBacheca());
+        assertEquals(List.of(2, 3), ids(bacheca.getAnnunci()));
+    }
+
+    @Test
+    void testSalvaCaricaEsportaImporta(@TempDir Path cartella) throws Exception {
+        for (int id = 1; id <= 50; id++) {
+            bacheca.aggiungiAnnuncio(new Annuncio(id, utente, "Articolo " + id, id,
+                    id % 3 == 0 ? "acquisto" : "vendita",
+                    "casa, città", "2099-01-01"));
+        }
+        String file = cartella.resolve("annunci.txt").toString();
+        bacheca.salvaAnnunciSuFile(file);
+
+        Bacheca classica = new Bacheca();
+        classica.caricaAnnunciDaFile(file);
+        assertEquals(bacheca.getAnnunci(), classica.getAnnunci());
+
+        BachecaColonnare caricata = new BachecaColonnare();
+        caricata.caricaAnnunciDaFile(file);
+        assertEquals(bacheca.toString(), caricata.toString());
+
+        StringWriter ndjson = new StringWriter();
+        assertEquals(50, bacheca.esportaNdjson(ndjson));
+        BachecaColonnare importata = new BachecaColonnare();
+        RapportoImportazione rapporto = importata.importaNdjson(new StringReader(ndjson + ndjson.toString()));
+        assertEquals(50, rapporto.getAnnunciImportati());
+        assertEquals(50, rapporto.getNumeroErrori());
+        assertEquals(bacheca.toString(), importata.toString());
+    }
+
+    @Test
+    void testTabellaId() {
+        TabellaId tabella = new TabellaId();
+        Map<Integer, Integer> atteso = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(5000) - 2500;
+            if (random.nextInt(3) == 0) {
+                assertEquals(atteso.getOrDefault(id, TabellaId.ASSENTE), tabella.rimuovi(id));
+                atteso.remove(id);
+            } else {
+                tabella.metti(id, i);
+                atteso.put(id, i);
+            }
+        }
+        assertEquals(atteso.size(), tabella.getDimensione());
+        for (int id = -2500; id < 2500; id++) {
+            assertEquals(atteso.getOrDefault(id, TabellaId.ASSENTE), tabella.riga(id));
+        }
+    }
+
+    private static String scriviFile(String... righe) throws Exception {
+        Path file = Files.createTempFile("bacheca-colonnare", ".txt");
+        Files.write(file, List.of(righe));
+        file.toFile().deleteOnExit();
+        return file.toString();
+    }
+
+    private static List<Integer> ids(List<Annuncio> annunci) {
+        List<Integer> ids = new ArrayList<>();
+        annunci.forEach(a -> ids.add(a.getId()));
+        return ids;
+    }
+
+    private static List<Integer> sorted(List<Annuncio> annunci) {
+        List<Integer> ids = ids(annunci);
+        ids.sort(null);
+        return ids;
+    }
+}
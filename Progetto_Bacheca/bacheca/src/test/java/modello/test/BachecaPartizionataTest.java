@@ -0,0 +1,98 @@
+package modello.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import modello.*;
+import modello.exception.*;
+
+class BachecaPartizionataTest {
+
+    private BachecaPartizionata bacheca;
+    private Utente utente;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bacheca = new BachecaPartizionata(4);
+        utente = new Utente("giovanni.neri@example.com", "giovanniNeri");
+    }
+
+    @Test
+    void testAnnunciDistribuitiTraLePartizioni() throws Exception {
+        for (int id = 1; id <= 100; id++) {
+            bacheca.aggiungiAnnuncio(new Annuncio(id, utente, "Articolo " + id, 10, "vendita", "casa", "2099-01-01"));
+        }
+
+        assertEquals(100, bacheca.getNumeroAnnunci());
+        for (Bacheca partizione : bacheca.getPartizioni()) {
+            assertTrue(partizione.getNumeroAnnunci() > 0);
+            for (Annuncio a : partizione) {
+                assertEquals(partizione, bacheca.getPartizioni().get(bacheca.partizione(a.getId())));
+            }
+        }
+        assertEquals("Articolo 42", bacheca.cercaPerId(42).getArticolo());
+        assertEquals(100, bacheca.cercaPerParolaChiave("casa").size());
+
+        assertTrue(bacheca.rimuoviAnnuncio(42, utente));
+        assertNull(bacheca.cercaPerId(42));
+        assertEquals(99, bacheca.getPoolId().size());
+    }
+
+    @Test
+    void testAcquistoTrovaVenditeDiTutteLePartizioni() throws Exception {
+        Set<Integer> vendite = new HashSet<>();
+        for (int id = 1; id <= 20; id++) {
+            bacheca.aggiungiAnnuncio(new Annuncio(id, utente, "Lampada", 15, "vendita", "casa, luce", "2099-01-01"));
+            vendite.add(id);
+        }
+        bacheca.aggiungiAnnuncio(new Annuncio(21, utente, "Sedia", 30, "vendita", "casa", "2099-01-01"));
+
+        ArrayList<Annuncio> corrispondenze = bacheca
+                .aggiungiAnnuncio(new Annuncio(100, utente, "Lampada", 20, "acquisto", "luce", "2099-01-01"));
+
+        Set<Integer> trovate = new HashSet<>();
+        corrispondenze.forEach(a -> trovate.add(a.getId()));
+        assertEquals(vendite, trovate);
+    }
+
+    @Test
+    void testSuggerimentiUnitiDalleParti() throws Exception {
+        for (int id = 1; id <= 12; id++) {
+            String parole = id <= 8 ? "tavolo" : "tavoletta";
+            bacheca.aggiungiAnnuncio(new Annuncio(id, utente, "Articolo", 10, "vendita", parole, "2099-01-01"));
+        }
+        bacheca.aggiungiAnnuncio(new Annuncio(13, utente, "Articolo", 10, "vendita", "tappeto", "2099-01-01"));
+
+        assertEquals(List.of("tavolo", "tavoletta"), bacheca.suggerisciParole("tav", 2));
+    }
+
+    @Test
+    void testSalvaCaricaPerPartizione(@TempDir Path cartella) throws Exception {
+        for (int id = 1; id <= 50; id++) {
+            bacheca.aggiungiAnnuncio(new Annuncio(id, utente, "Articolo " + id, id, "vendita", "casa", "2099-01-01"));
+        }
+        String file = cartella.resolve("annunci.txt").toString();
+        bacheca.salvaAnnunciSuFile(file);
+
+        BachecaPartizionata caricata = new BachecaPartizionata(4);
+        caricata.caricaAnnunciDaFile(file);
+        assertEquals(50, caricata.getNumeroAnnunci());
+        assertEquals(bacheca.getPoolId(), caricata.getPoolId());
+
+        // con un numero di partizioni diverso gli annunci finirebbero nella partizione sbagliata
+        BachecaPartizionata diversa = new BachecaPartizionata(3);
+        assertThrows(BachecaException.class, () -> diversa.caricaAnnunciDaFile(file));
+    }
+
+    @Test
+    void testPartizioniNonValide() {
+        assertThrows(IllegalArgumentException.class, () -> new BachecaPartizionata(0));
+    }
+}
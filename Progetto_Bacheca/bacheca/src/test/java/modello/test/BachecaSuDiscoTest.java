@@ -0,0 +1,189 @@
+package modello.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import modello.*;
+import modello.exception.*;
+
+class BachecaSuDiscoTest {
+
+    @TempDir
+    Path cartella;
+
+    private Utente utente;
+    private Utente altro;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        utente = new Utente("giovanni.neri@example.com", "giovanniNeri");
+        altro = new Utente("anna.rossi@example.com", "annaRossi");
+    }
+
+    @Test
+    void testStessiRisultatiDiBacheca() throws Exception {
+        Bacheca riferimento = new Bacheca();
+        String[] parole = { "elettronica, TV", "casa, Città", "cucina", "elettronica, caffè", "tavolo, tavoletta" };
+        for (int id = 1; id <= 200; id++) {
+            riferimento.aggiungiAnnuncio(new Annuncio(id, id % 2 == 0 ? utente : altro, "Articolo numero " + id, id,
+                    id % 4 == 0 ? "acquisto" : "vendita", parole[id % parole.length], "2099-01-01"));
+        }
+        String file = cartella.resolve("annunci.txt").toString();
+        riferimento.salvaAnnunciSuFile(file);
+
+        BachecaSuDisco bacheca = new BachecaSuDisco();
+        bacheca.caricaAnnunciDaFile(file);
+
+        assertEquals(200, bacheca.getNumeroAnnunci());
+        assertEquals(riferimento.getAnnunci(), bacheca.getAnnunci());
+        assertEquals(ids(riferimento.cercaPerParolaChiave("citta, tv")), ids(bacheca.cercaPerParolaChiave("citta, tv")));
+        assertEquals(sorted(riferimento.cercaPerParolaChiaveFuzzy("tavola", 1)),
+                sorted(bacheca.cercaPerParolaChiaveFuzzy("tavola", 1)));
+        assertEquals(sorted(riferimento.cercaPerPrefisso("num")), sorted(bacheca.cercaPerPrefisso("num")));
+        assertEquals(riferimento.suggerisciParole("ta", 3), bacheca.suggerisciParole("ta", 3));
+        assertEquals(riferimento.cercaPerId(10).toString(), bacheca.cercaPerId(10).toString());
+        assertNull(bacheca.cercaPerId(201));
+
+        // un acquisto trova le vendite del file con parole in comune
+        Annuncio acquisto = new Annuncio(500, utente, "Cerco TV", 100, "acquisto", "tv", null);
+        assertEquals(ids(riferimento.aggiungiAnnuncio(acquisto)), ids(bacheca.aggiungiAnnuncio(acquisto)));
+    }
+
+    @Test
+    void testIndiceRiusatoERicostruito() throws Exception {
+        Path file = cartella.resolve("annunci.txt");
+        Files.write(file, List.of(
+                "1;giovanni.neri@example.com;giovanniNeri;Sedia;10.00;vendita;casa;2099-01-01",
+                "2;giovanni.neri@example.com;giovanniNeri;Tavolo;20.00;vendita;casa;2099-01-01"));
+        BachecaSuDisco bacheca = new BachecaSuDisco();
+        bacheca.caricaAnnunciDaFile(file.toString());
+
+        Path indice = cartella.resolve("annunci.txt" + BachecaSuDisco.SUFFISSO_INDICE);
+        assertTrue(Files.exists(indice));
+        FileTime scritto = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(indice, scritto);
+        bacheca.caricaAnnunciDaFile(file.toString());
+        assertEquals(scritto, Files.getLastModifiedTime(indice)); // riusato, non riscritto
+        assertEquals(2, bacheca.cercaPerParolaChiave("casa").size());
+
+        Files.writeString(file, "3;giovanni.neri@example.com;giovanniNeri;Divano;30.00;acquisto;casa;null\n",
+                StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        bacheca.caricaAnnunciDaFile(file.toString());
+        assertNotEquals(scritto, Files.getLastModifiedTime(indice));
+        assertEquals(3, bacheca.cercaPerParolaChiave("casa").size());
+        assertEquals("Divano", bacheca.cercaPerId(3).getArticolo());
+
+        // stessa dimensione e stesso millisecondo: basta la data al nanosecondo
+        FileTime modifica = Files.getLastModifiedTime(file);
+        Files.writeString(file, Files.readString(file).replace("acquisto;casa", "acquisto;sofa"));
+        Files.setLastModifiedTime(file, FileTime.from(modifica.toInstant().plusNanos(1000)));
+        bacheca.caricaAnnunciDaFile(file.toString());
+        assertEquals(List.of(3), ids(bacheca.cercaPerParolaChiave("sofa")));
+        assertEquals(2, bacheca.cercaPerParolaChiave("casa").size());
+    }
+
+    @Test
+    void testModificheESalvataggio() throws Exception {
+        String ieri = LocalDate.now().minusDays(1).toString();
+        Path file = cartella.resolve("annunci.txt");
+        Files.write(file, List.of(
+                "1;giovanni.neri@example.com;giovanniNeri;Sedia;10.00;vendita;casa;" + ieri,
+                "2;giovanni.neri@example.com;giovanniNeri;Tavolo;20.00;vendita;casa;2099-01-01",
+                "3;anna.rossi@example.com;annaRossi;Lampada;15.00;vendita;luce;2099-01-01"));
+        BachecaSuDisco bacheca = new BachecaSuDisco();
+        bacheca.caricaAnnunciDaFile(file.toString());
+
+        assertThrows(BachecaException.class,
+                () -> bacheca.aggiungiAnnuncio(new Annuncio(2, utente, "Altro", 1, "vendita", "x", "2099-01-01")));
+        bacheca.aggiungiAnnuncio(new Annuncio(4, utente, "Armadio", 80, "vendita", "casa", "2099-01-01"));
+        assertThrows(AutoreNonAutorizzatoException.class, () -> bacheca.rimuoviAnnuncio(3, utente));
+        assertTrue(bacheca.rimuoviAnnuncio(3, altro));
+        assertThrows(BachecaException.class, () -> bacheca.rimuoviAnnuncio(3, altro));
+        assertNull(bacheca.cercaPerId(3));
+
+        assertTrue(bacheca.aggiungiNuovaParolaChiave(2, utente, "Legno"));
+        assertEquals("casa, Legno", bacheca.cercaPerId(2).getParoleChiave());
+        assertEquals(List.of(2), ids(bacheca.cercaPerParolaChiave("legno")));
+        assertEquals(List.of(1, 2, 4), sorted(bacheca.cercaPerParolaChiave("casa")));
+
+        assertTrue(bacheca.pulisciBacheca());
+        assertFalse(bacheca.pulisciBacheca());
+        assertEquals(2, bacheca.getNumeroAnnunci());
+        assertEquals(List.of("legno"), bacheca.suggerisciParole("le", 5));
+        assertTrue(bacheca.suggerisciParole("lu", 5).isEmpty());
+
+        // il file caricato resta mappato: non può essere sostituito
+        List<String> originale = Files.readAllLines(file);
+        assertThrows(IOException.class, () -> bacheca.salvaAnnunciSuFile(file.toString()));
+        assertEquals(originale, Files.readAllLines(file));
+
+        String salvato = cartella.resolve("salvato.txt").toString();
+        bacheca.salvaAnnunciSuFile(salvato);
+        Bacheca classica = new Bacheca();
+        classica.caricaAnnunciDaFile(salvato);
+        assertEquals(bacheca.toString(), classica.toString());
+
+        StringWriter ndjson = new StringWriter();
+        assertEquals(2, bacheca.esportaNdjson(ndjson));
+        BachecaSuDisco importata = new BachecaSuDisco();
+        importata.caricaAnnunciDaFile(salvato);
+        RapportoImportazione rapporto = importata.importaNdjson(new StringReader(ndjson.toString()));
+        assertEquals(0, rapporto.getAnnunciImportati());
+        assertEquals(2, rapporto.getNumeroErrori());
+    }
+
+    @Test
+    void testCacheLimitata() throws Exception {
+        Bacheca riferimento = new Bacheca();
+        for (int id = 1; id <= 50; id++) {
+            riferimento.aggiungiAnnuncio(new Annuncio(id, utente, "Articolo " + id, 1, "vendita", "casa", "2099-01-01"));
+        }
+        String file = cartella.resolve("annunci.txt").toString();
+        riferimento.salvaAnnunciSuFile(file);
+
+        BachecaSuDisco bacheca = new BachecaSuDisco(5);
+        bacheca.caricaAnnunciDaFile(file);
+        assertEquals(0, bacheca.getAnnunciInCache());
+        for (int id = 1; id <= 50; id++) {
+            assertEquals(id, bacheca.cercaPerId(id).getId());
+        }
+        assertEquals(5, bacheca.getAnnunciInCache());
+        assertSame(bacheca.cercaPerId(50), bacheca.cercaPerId(50));
+        assertEquals(50, bacheca.getAnnunci().size());
+        assertEquals(5, bacheca.getAnnunciInCache()); // la scansione completa non passa dalla cache
+    }
+
+    @Test
+    void testIdDuplicati() throws Exception {
+        Path file = cartella.resolve("annunci.txt");
+        Files.write(file, List.of(
+                "1;giovanni.neri@example.com;giovanniNeri;Sedia;10.00;vendita;casa;2099-01-01",
+                "1;giovanni.neri@example.com;giovanniNeri;Tavolo;20.00;vendita;casa;2099-01-01"));
+        assertThrows(BachecaException.class, () -> new BachecaSuDisco().caricaAnnunciDaFile(file.toString()));
+    }
+
+    private static List<Integer> ids(List<Annuncio> annunci) {
+        List<Integer> ids = new ArrayList<>();
+        annunci.forEach(a -> ids.add(a.getId()));
+        return ids;
+    }
+
+    private static List<Integer> sorted(List<Annuncio> annunci) {
+        List<Integer> ids = ids(annunci);
+        ids.sort(null);
+        return ids;
+    }
+}
@@ -0,0 +1,630 @@
+package modello.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import modello.*;
+import modello.exception.*;
+import modello.metriche.MetricheBacheca;
+
+class BachecaTest {
+
+    private Bacheca bacheca;
+    Utente utente;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bacheca = new Bacheca(); // Costruisco un oggetto bacheca
+        utente = new Utente("giovanni.neri@example.com", "giovanniNeri");
+    }
+
+    @AfterEach
+    void tearDown() {
+        bacheca.getAnnunci().clear(); // Svuoto la bacheca dagli annunci
+        bacheca.getPoolId().clear(); // Svuoto la pool degli id presenti in bacheca
+    }
+
+    @Test
+    void testCostruttore() {
+        assertTrue(bacheca.getAnnunci().isEmpty());
+    }
+
+    @Test
+    void testAggiungiAnnuncioVendita() throws AnnuncioException, BachecaException {
+        Annuncio annuncio = new Annuncio(utente, "Smartphone", 279, "vendita", "elettronica, touchscreen",
+                "2026-09-15");
+
+        // Aggiungo l'annuncio di vendita
+        ArrayList<Annuncio> risultati = bacheca.aggiungiAnnuncio(annuncio);
+        assertTrue(risultati.isEmpty()); // Non ci sono articoli di acquisto in vendita da restituire
+        assertEquals(1, bacheca.getAnnunci().size()); // La bacheca contiene un annuncio
+    }
+
+    @Test
+    void testAggiungiAnnuncioDuplicato() throws AnnuncioException, BachecaException {
+        Annuncio annuncio = new Annuncio(utente, "Smartphone", 279, "vendita", "elettronica, touchscreen",
+                "2026-09-15");
+
+        bacheca.aggiungiAnnuncio(annuncio);
+
+        BachecaException e = assertThrows(BachecaException.class, () -> {
+            bacheca.aggiungiAnnuncio(annuncio);
+        });
+        assertEquals("Annuncio già presente", e.getMessage());
+    }
+
+    @Test
+    void testAggiungiAnnuncioStessoID() throws AnnuncioException, BachecaException {
+        // Creo e aggiungo il primo annuncio con id esplicito
+        Annuncio annuncio = new Annuncio(4321, utente, "Smartphone", 279, "vendita", "elettronica, touchscreen",
+                "2026-09-15");
+        bacheca.aggiungiAnnuncio(annuncio);
+
+        // Verifico che la pool degli id contenga l'id e che la bacheca contenga solo
+        // questo annuncio
+        assertTrue(bacheca.getPoolId().contains(4321), "poolId dovrebbe contenere l'id 4321 dopo la prima aggiunta");
+        assertEquals(1, bacheca.getAnnunci().size(), "Deve esserci un solo annuncio dopo il tentativo fallito");
+    }
+
+    @Test
+    void testRimuoviAnnuncio() throws AnnuncioException, BachecaException, AutoreNonAutorizzatoException {
+        Annuncio annuncio = new Annuncio(utente, "Smartphone", 279, "vendita", "elettronica, touchscreen",
+                "2026-09-15");
+
+        bacheca.aggiungiAnnuncio(annuncio);
+
+        assertTrue(bacheca.rimuoviAnnuncio(annuncio.getId(), utente));
+        assertFalse(bacheca.getPoolId().contains(annuncio.getId()));
+        assertEquals(0, bacheca.getAnnunci().size());
+    }
+
+    @Test
+    void testRimuoviAnnuncioAutoreNonAutorizzato() throws AnnuncioException, BachecaException, UtenteException {
+        Utente utente2 = new Utente("carlo.verdi@example.com", "carloVerdi");
+        Annuncio annuncio = new Annuncio(utente, "Smartphone", 279, "vendita", "elettronica, touchscreen",
+                "2026-09-15");
+
+        bacheca.aggiungiAnnuncio(annuncio);
+
+        AutoreNonAutorizzatoException e = assertThrows(AutoreNonAutorizzatoException.class, () -> {
+            bacheca.rimuoviAnnuncio(annuncio.getId(), utente2);
+        });
+        assertEquals("Non sei autorizzato a rimuovere questo annuncio.", e.getMessage());
+    }
+
+    @Test
+    void testRimuoviAnnuncioNonTrovato() throws AnnuncioException, BachecaException {
+        Annuncio annuncio = new Annuncio(4321, utente, "Smartphone", 279, "vendita", "elettronica, touchscreen",
+                "2026-09-15");
+
+        bacheca.aggiungiAnnuncio(annuncio);
+
+        BachecaException e = assertThrows(BachecaException.class, () -> {
+            bacheca.rimuoviAnnuncio(9999, utente);
+        });
+        assertEquals("Annuncio non trovato.", e.getMessage());
+    }
+
+    @Test
+    void testCercaPerParolaChiave() throws AnnuncioException, BachecaException {
+        Annuncio annuncio1 = new Annuncio(utente, "Televisore", 150, "vendita", "elettronica, TV", "2026-01-20");
+        Annuncio annuncio2 = new Annuncio(utente, "Frigorifero", 200, "vendita", "elettronica, cucina", "2026-01-20");
+
+        bacheca.aggiungiAnnuncio(annuncio1);
+        bacheca.aggiungiAnnuncio(annuncio2);
+
+        assertEquals(1, bacheca.cercaPerParolaChiave("TV").size());
+        assertEquals(2, bacheca.cercaPerParolaChiave("elettronica").size());
+        assertEquals(0, bacheca.cercaPerParolaChiave("gaming").size());
+    }
+
+    @Test
+    void testCercaPerParolaChiaveParallela() throws AnnuncioException, BachecaException {
+        for (int i = 0; i < 2000; i++) {
+            String parole = i % 3 == 0 ? "elettronica, tv" : "casa";
+            bacheca.aggiungiAnnuncio(new Annuncio(utente, "Articolo " + i, 10, "vendita", parole, "2099-01-20"));
+        }
+        bacheca.setSogliaScansioneParallela(Integer.MAX_VALUE);
+        ArrayList<Annuncio> sequenziale = bacheca.cercaPerParolaChiave("tv");
+
+        bacheca.setSogliaScansioneParallela(1);
+        ArrayList<Annuncio> parallela = bacheca.cercaPerParolaChiave("tv");
+
+        assertEquals(667, parallela.size());
+        assertEquals(sequenziale, parallela); // stesso ordine di inserimento
+        assertThrows(IllegalArgumentException.class, () -> bacheca.setSogliaScansioneParallela(0));
+    }
+
+    @Test
+    void testCercaPerTipologia() throws AnnuncioException, BachecaException, AutoreNonAutorizzatoException {
+        Annuncio vendita = new Annuncio(utente, "Televisore", 150, "vendita", "elettronica, TV", "2099-01-20");
+        Annuncio acquisto = new Annuncio(utente, "Cerco TV", 100, "Acquisto", "tv", null);
+        Annuncio altraVendita = new Annuncio(utente, "Radio", 30, "vendita", "elettronica", "2099-01-20");
+        bacheca.aggiungiAnnuncio(vendita);
+        bacheca.aggiungiAnnuncio(acquisto);
+        bacheca.aggiungiAnnuncio(altraVendita);
+
+        assertEquals(List.of(vendita, altraVendita), bacheca.getAnnunci(Tipologia.VENDITA));
+        assertEquals(List.of(acquisto), bacheca.getAnnunci(Tipologia.ACQUISTO));
+        assertEquals(List.of(vendita), bacheca.cercaPerParolaChiave("tv", Tipologia.VENDITA));
+        assertEquals(List.of(acquisto), bacheca.cercaPerParolaChiave("tv", Tipologia.ACQUISTO));
+        assertEquals(2, bacheca.cercaPerParolaChiave("elettronica", Tipologia.VENDITA).size());
+
+        bacheca.rimuoviAnnuncio(vendita.getId(), utente);
+        assertEquals(List.of(altraVendita), bacheca.getAnnunci(Tipologia.VENDITA));
+        assertTrue(bacheca.cercaPerParolaChiave("tv", Tipologia.VENDITA).isEmpty());
+    }
+
+    @Test
+    void testCercaPerPrezzo() throws AnnuncioException, BachecaException, AutoreNonAutorizzatoException {
+        Annuncio radio = new Annuncio(utente, "Radio", 30, "vendita", "elettronica", "2099-01-20");
+        Annuncio lampada = new Annuncio(utente, "Lampada", 19.99f, "vendita", "casa", "2099-01-20");
+        Annuncio televisore = new Annuncio(utente, "Televisore", 150, "vendita", "elettronica, TV", "2099-01-20");
+        Annuncio cuffie = new Annuncio(utente, "Cuffie", 30, "vendita", "elettronica", "2099-01-20");
+        for (Annuncio a : List.of(radio, lampada, televisore, cuffie)) {
+            bacheca.aggiungiAnnuncio(a);
+        }
+
+        assertEquals(1999, lampada.getPrezzoCentesimi());
+        ArrayList<Annuncio> intervallo = bacheca.cercaPerPrezzo(1999, 3000);
+        assertEquals(3, intervallo.size());
+        assertEquals(lampada, intervallo.get(0)); // dal più economico
+        assertFalse(intervallo.contains(televisore));
+        assertTrue(bacheca.cercaPerPrezzo(3001, 14999).isEmpty());
+        assertTrue(bacheca.cercaPerPrezzo(5000, 100).isEmpty());
+
+        assertEquals(List.of(lampada, intervallo.get(1)), bacheca.cercaPiuEconomici(null, 2));
+        ArrayList<Annuncio> elettronica = bacheca.cercaPiuEconomici("Elettronica", 10);
+        assertEquals(3, elettronica.size());
+        assertEquals(televisore, elettronica.get(2));
+        assertEquals(List.of(televisore), bacheca.cercaPiuEconomici("tv", 1));
+        assertTrue(bacheca.cercaPiuEconomici("tv", 0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> bacheca.cercaPiuEconomici("tv", -1));
+
+        bacheca.rimuoviAnnuncio(lampada.getId(), utente);
+        assertEquals(2, bacheca.cercaPerPrezzo(0, 3000).size());
+    }
+
+    @Test
+    void testPrezzoEsattoInCentesimi(@TempDir Path cartella) throws Exception {
+        // oltre 2^24 centesimi un float non distingue più i centesimi
+        Annuncio caro = Annuncio.conPrezzoInCentesimi(1, utente, "Appartamento", 123_456_789_01L, "vendita", "casa",
+                "2099-01-20");
+        bacheca.aggiungiAnnuncio(caro);
+
+        String file = cartella.resolve("annunci.txt").toString();
+        bacheca.salvaAnnunciSuFile(file);
+        assertTrue(Files.readString(Path.of(file)).contains(";123456789.01;"));
+        Bacheca caricata = new Bacheca();
+        caricata.caricaAnnunciDaFile(file);
+        assertEquals(123_456_789_01L, caricata.cercaPerId(1).getPrezzoCentesimi());
+
+        StringWriter esportazione = new StringWriter();
+        bacheca.esportaNdjson(esportazione);
+        Bacheca importata = new Bacheca();
+        importata.importaNdjson(new StringReader(esportazione.toString()));
+        assertEquals(123_456_789_01L, importata.cercaPerId(1).getPrezzoCentesimi());
+
+        assertThrows(AnnuncioException.class,
+                () -> Annuncio.conPrezzoInCentesimi(utente, "Regalo", 0, "vendita", "casa", "2099-01-20"));
+    }
+
+    @Test
+    void testCercaPerParolaChiaveAccenti() throws AnnuncioException, BachecaException {
+        Annuncio annuncio = new Annuncio(utente, "Macchina espresso", 70, "vendita", "caffè, Città", "2026-01-20");
+        bacheca.aggiungiAnnuncio(annuncio);
+
+        assertEquals(1, bacheca.cercaPerParolaChiave("CAFFE").size());
+        assertEquals(1, bacheca.cercaPerParolaChiave("citta").size());
+        assertEquals(1, bacheca.cercaPerPrefisso("caf").size());
+    }
+
+    @Test
+    void testCercaPerPrefisso() throws AnnuncioException, BachecaException {
+        Annuncio annuncio1 = new Annuncio(utente, "Televisore", 150, "vendita", "elettronica, TV", "2026-01-20");
+        Annuncio annuncio2 = new Annuncio(utente, "Frigorifero", 200, "vendita", "elettrodomestici, cucina",
+                "2026-01-20");
+
+        bacheca.aggiungiAnnuncio(annuncio1);
+        bacheca.aggiungiAnnuncio(annuncio2);
+
+        assertEquals(2, bacheca.cercaPerPrefisso("elettr").size()); // parole chiave
+        assertEquals(1, bacheca.cercaPerPrefisso("FRIGO").size()); // titolo, case-insensitive
+        assertEquals(0, bacheca.cercaPerPrefisso("gam").size());
+        assertTrue(bacheca.cercaPerPrefisso("").isEmpty());
+
+        // prefisso che termina con Character.MAX_VALUE: non include i termini
+        // successivi ("ωmega" viene dopo "z\uffff" ma non inizia con esso)
+        bacheca.aggiungiAnnuncio(new Annuncio(utente, "ωmega", 1, "vendita", "greco", "2099-01-20"));
+        assertTrue(bacheca.cercaPerPrefisso("z\uffff").isEmpty());
+        assertEquals(1, bacheca.cercaPerPrefisso("ω").size());
+    }
+
+    @Test
+    void testSuggerisciParole() throws AnnuncioException, BachecaException, AutoreNonAutorizzatoException {
+        Annuncio annuncio1 = new Annuncio(4321, utente, "Televisore", 150, "vendita", "elettronica, TV",
+                "2026-01-20");
+        Annuncio annuncio2 = new Annuncio(utente, "Frigorifero", 200, "vendita", "elettronica, elettrodomestici",
+                "2026-01-20");
+
+        bacheca.aggiungiAnnuncio(annuncio1);
+        bacheca.aggiungiAnnuncio(annuncio2);
+
+        // "elettronica" compare in due annunci, quindi viene suggerita per prima
+        assertEquals(List.of("elettronica", "elettrodomestici"), bacheca.suggerisciParole("elet", 5));
+        assertEquals(List.of("elettronica"), bacheca.suggerisciParole("elet", 1));
+
+        // dopo la rimozione l'indice non contiene più i termini dell'annuncio
+        bacheca.rimuoviAnnuncio(4321, utente);
+        assertTrue(bacheca.suggerisciParole("tv", 5).isEmpty());
+    }
+
+    @Test
+    void testCercaPerParolaChiaveFuzzy() throws AnnuncioException, BachecaException {
+        Annuncio annuncio1 = new Annuncio(utente, "iphone 14", 700, "vendita", "iphone, apple", "2026-01-20");
+        Annuncio annuncio2 = new Annuncio(utente, "Console", 100, "vendita", "playstation, console", "2026-01-20");
+
+        bacheca.aggiungiAnnuncio(annuncio1);
+        bacheca.aggiungiAnnuncio(annuncio2);
+
+        assertEquals(0, bacheca.cercaPerParolaChiave("playstaton").size()); // ricerca esatta
+        assertEquals(1, bacheca.cercaPerParolaChiaveFuzzy("playstaton", 1).size());
+        assertEquals(0, bacheca.cercaPerParolaChiaveFuzzy("iphnoe", 1).size());
+        assertEquals(1, bacheca.cercaPerParolaChiaveFuzzy("iphnoe", 2).size());
+        assertEquals(2, bacheca.cercaPerParolaChiaveFuzzy("iphnoe, playstaton", 2).size());
+        assertEquals(0, bacheca.cercaPerParolaChiaveFuzzy("frigorifero", 2).size());
+    }
+
+    @Test
+    void testPulisciBacheca() throws AnnuncioException, BachecaException {
+        Annuncio annuncio1 = new Annuncio(utente, "Smartphone", 279, "vendita", "elettronica, touchscreen",
+                "2025-05-01");
+        Annuncio annuncio2 = new Annuncio(utente, "Frigorifero", 320, "vendita", "elettrodomestici, cucina",
+                "2025-05-01");
+        Annuncio annuncio3 = new Annuncio(utente, "Laptop", 850, "vendita", "elettronica, informatica", "2099-05-01");
+
+        bacheca.aggiungiAnnuncio(annuncio1);
+        bacheca.aggiungiAnnuncio(annuncio2);
+        bacheca.aggiungiAnnuncio(annuncio3);
+
+        assertEquals(3, bacheca.getAnnunci().size());
+
+        bacheca.pulisciBacheca();
+
+        // Dopo la pulizia, solo il miglior annuncio (l'ultimo) dovrebbe rimanere
+        assertEquals(1, bacheca.getAnnunci().size());
+        assertTrue(bacheca.getAnnunci().contains(annuncio3));
+        assertFalse(bacheca.getAnnunci().contains(annuncio1));
+        assertFalse(bacheca.getAnnunci().contains(annuncio2));
+    }
+
+    @Test
+    void testAggiungiNuovaParolaChiave()
+            throws AnnuncioException, BachecaException, AutoreNonAutorizzatoException, UtenteException {
+        Annuncio annuncio = new Annuncio(4321, utente, "Smartphone", 279, "vendita", "elettronica, touchscreen",
+                "2025-05-01");
+        bacheca.aggiungiAnnuncio(annuncio);
+
+        assertEquals("elettronica, touchscreen", annuncio.getParoleChiave()); // prima dell'aggiunta
+        bacheca.aggiungiNuovaParolaChiave(4321, utente, "ricondizionato");
+        assertEquals("elettronica, touchscreen, ricondizionato", annuncio.getParoleChiave()); // dopo l'aggiunta
+
+        // Caso non valido: utente non autorizzato
+        Utente utente2 = new Utente("marco.ferri@example.com", "marcoFerri");
+        assertThrows(AutoreNonAutorizzatoException.class, () -> {
+            bacheca.aggiungiNuovaParolaChiave(4321, utente2, "Premium");
+        });
+    }
+
+    @Test
+    void testCaricaSalvaDaFile() throws AnnuncioException, BachecaException, IOException, UtenteException {
+
+        Annuncio annuncio1 = new Annuncio(utente, "Smartphone", 279, "vendita", "elettronica, touchscreen",
+                "2026-09-15");
+        Annuncio annuncio2 = new Annuncio(utente, "Frigorifero", 320, "vendita", "elettrodomestici, cucina",
+                "2026-09-15");
+
+        bacheca.aggiungiAnnuncio(annuncio1);
+        bacheca.aggiungiAnnuncio(annuncio2);
+
+        bacheca.salvaAnnunciSuFile("src/test/resources/test.txt"); // salvo su file
+        bacheca.getAnnunci().clear(); // svuoto la bacheca
+        bacheca.getPoolId().clear(); // svuoto la pool degli id
+        bacheca.caricaAnnunciDaFile("src/test/resources/test.txt"); // carico da file
+
+        assertEquals(2, bacheca.getAnnunci().size()); // verifico che ci siano due annunci
+        assertTrue(bacheca.getAnnunci().contains(annuncio1)); // controllo che annuncio1 sia presente
+        assertTrue(bacheca.getAnnunci().contains(annuncio2));
+    }
+
+    @Test
+    void testEsportaImportaNdjson() throws Exception {
+        Annuncio annuncio1 = new Annuncio(1, utente, "Smartphone", 279.5f, "vendita", "elettronica, touchscreen",
+                "2099-09-15");
+        Annuncio annuncio2 = new Annuncio(2, utente, "Frigorifero", 320, "acquisto", "cucina", "2099-09-15");
+        bacheca.aggiungiAnnuncio(annuncio1);
+        bacheca.aggiungiAnnuncio(annuncio2);
+
+        StringWriter esportazione = new StringWriter();
+        assertEquals(2, bacheca.esportaNdjson(esportazione));
+        assertEquals(2, esportazione.toString().lines().count());
+
+        // righe errate in mezzo: vengono saltate senza interrompere l'importazione
+        String righe = esportazione.toString().replace("\"id\":2", "\"id\":3")
+                + "\n"
+                + "{non json\n"
+                + "{\"id\":4,\"email\":\"non-valida\",\"nome\":\"x\",\"articolo\":\"A\",\"prezzo\":1,"
+                + "\"tipologia\":\"vendita\",\"dataScadenza\":\"2099-01-01\"}\n"
+                + "{\"id\":5,\"email\":\"a@b.it\",\"nome\":\"Anna\",\"articolo\":\"Bici\",\"prezzo\":-1,"
+                + "\"tipologia\":\"vendita\",\"dataScadenza\":\"2099-01-01\"}\n";
+        RapportoImportazione rapporto = bacheca.importaNdjson(new StringReader(righe));
+
+        assertEquals(5, rapporto.getRigheLette());
+        assertEquals(1, rapporto.getAnnunciImportati()); // solo l'id 3, l'id 1 è già presente
+        assertEquals(4, rapporto.getNumeroErrori());
+        assertEquals(List.of(1L, 4L, 5L, 6L),
+                rapporto.getErrori().stream().map(RapportoImportazione.ErroreRiga::riga).sorted().toList());
+
+        Annuncio importato = bacheca.cercaPerId(3);
+        assertEquals("Frigorifero", importato.getArticolo());
+        assertEquals(320, importato.getPrezzo());
+        assertEquals("acquisto", importato.getTipologia());
+        assertEquals(List.of("cucina"), importato.getListaParoleChiave());
+        assertEquals(3, bacheca.getNumeroAnnunci());
+        assertEquals(List.of(importato, annuncio2),
+                bacheca.cercaPerParolaChiave("cucina").stream().sorted((x, y) -> y.getId() - x.getId()).toList());
+    }
+
+    @Test
+    void testSalvaSegmentiSoloModificati(@TempDir Path cartella) throws Exception {
+        int dimensione = Bacheca.DIMENSIONE_SEGMENTO;
+        for (int id = 1; id < 3 * dimensione; id++) { // segmenti 0, 1 e 2
+            bacheca.aggiungiAnnuncio(new Annuncio(id, utente, "Articolo " + id, 10, "vendita", "parola" + id,
+                    "2099-01-01"));
+        }
+        String prima = cartella.resolve("prima").toString();
+        assertEquals(3, bacheca.salvaSegmenti(prima));
+        assertEquals(0, bacheca.salvaSegmenti(prima)); // nessuna modifica
+
+        Path segmento1 = cartella.resolve("prima").resolve("segmento-1.txt");
+        List<String> contenuto1 = Files.readAllLines(segmento1);
+        bacheca.rimuoviAnnuncio(5, utente);
+        bacheca.aggiungiNuovaParolaChiave(2 * dimensione + 1, utente, "nuova");
+        assertEquals(2, bacheca.getNumeroSegmentiModificati());
+        assertEquals(2, bacheca.salvaSegmenti(prima));
+        assertEquals(contenuto1, Files.readAllLines(segmento1));
+
+        // segmento svuotato: il file viene cancellato
+        for (int id = 2 * dimensione; id < 3 * dimensione; id++) {
+            bacheca.rimuoviAnnuncio(id, utente);
+        }
+        assertEquals(1, bacheca.salvaSegmenti(prima));
+        assertFalse(Files.exists(cartella.resolve("prima").resolve("segmento-2.txt")));
+
+        Bacheca caricata = new Bacheca();
+        caricata.caricaSegmenti(prima);
+        assertEquals(bacheca.getNumeroAnnunci(), caricata.getNumeroAnnunci());
+        assertNull(caricata.cercaPerId(5));
+        assertEquals("Articolo 1500", caricata.cercaPerId(1500).getArticolo());
+        assertEquals(0, caricata.getNumeroSegmentiModificati());
+
+        // altra cartella: salvataggio completo
+        assertEquals(2, bacheca.salvaSegmenti(cartella.resolve("seconda").toString()));
+    }
+
+    @Test
+    void testRimuoviAnnuncioConIteratore() throws AnnuncioException, BachecaException, IOException, UtenteException {
+
+        UnsupportedOperationException e = assertThrows(UnsupportedOperationException.class, () -> {
+            Annuncio annuncio = new Annuncio(utente, "Smartphone", 279, "vendita", "elettronica, touchscreen",
+                    "2026-09-15");
+            bacheca.aggiungiAnnuncio(annuncio);
+            Iterator<Annuncio> iteratore = bacheca.iterator();
+            iteratore.remove(); // dovrebbe lanciare UnsupportedOperationException
+        });
+
+        // Verifica che sia stata lanciata UnsupportedOperationException
+        assertEquals(UnsupportedOperationException.class, e.getClass());
+        assertTrue(e.getMessage() == null || "remove".equals(e.getMessage()));
+    }
+
+    @Test
+    void testAccessoConcorrente() throws Exception {
+        int numeroThread = 8;
+        int perThread = 200;
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> errori = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < numeroThread; t++) {
+            int base = t * perThread;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 1; i <= perThread; i++) {
+                        bacheca.aggiungiAnnuncio(new Annuncio(base + i, utente, "Articolo " + i, 10, "vendita",
+                                "comune, parola" + i, "2099-01-01"));
+                        bacheca.cercaPerParolaChiave("comune");
+                        bacheca.cercaPerPrefisso("par");
+                        if (i % 2 == 0) {
+                            bacheca.rimuoviAnnuncio(base + i, utente);
+                        }
+                    }
+                } catch (Throwable ex) {
+                    errori.add(ex);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(List.of(), errori);
+        assertEquals(numeroThread * perThread / 2, bacheca.getNumeroAnnunci());
+        assertEquals(numeroThread * perThread / 2, bacheca.cercaPerParolaChiave("comune").size());
+        assertEquals(numeroThread * perThread / 2, bacheca.getPoolId().size());
+    }
+
+    @Test
+    void testCacheRicerche() throws Exception {
+        MetricheBacheca metriche = bacheca.getMetriche();
+        metriche.setAbilitate(true);
+        String ieri = LocalDate.now().minusDays(1).toString();
+        bacheca.aggiungiAnnuncio(new Annuncio(1, utente, "Bici", 100, "vendita", "bici, sport", "2099-01-01"));
+        bacheca.aggiungiAnnuncio(new Annuncio(2, utente, "Pallone", 10, "vendita", "sport", ieri));
+        bacheca.aggiungiAnnuncio(new Annuncio(3, utente, "Libro", 5, "vendita", "libro", "2099-01-01"));
+
+        assertEquals(List.of(1, 2), ids(bacheca.cercaPerParolaChiave("Sport, BICI")));
+        assertEquals(List.of(1, 2), ids(bacheca.cercaPerParolaChiave("bici,sport")));
+        assertEquals(1, metriche.getRicercheInCache());
+        assertEquals(1, metriche.getRicercheFuoriCache());
+        assertEquals(50.0, metriche.getPercentualeCacheRicerche());
+        bacheca.cercaPerParolaChiave("bici, sport").clear(); // la lista restituita è una copia
+        assertEquals(List.of(1, 2), ids(bacheca.cercaPerParolaChiave("sport, bici")));
+
+        // modifiche che non toccano le parole cercate lasciano valida la voce
+        bacheca.aggiungiAnnuncio(new Annuncio(4, utente, "Tavolo", 50, "vendita", "casa", "2099-01-01"));
+        bacheca.aggiungiNuovaParolaChiave(3, utente, "romanzo");
+        long inCache = metriche.getRicercheInCache();
+        assertEquals(List.of(1, 2), ids(bacheca.cercaPerParolaChiave("bici, sport")));
+        assertEquals(inCache + 1, metriche.getRicercheInCache());
+
+        // le altre la invalidano
+        bacheca.aggiungiNuovaParolaChiave(4, utente, "Sport");
+        assertEquals(List.of(1, 2, 4), ids(bacheca.cercaPerParolaChiave("bici, sport")));
+        bacheca.aggiungiAnnuncio(new Annuncio(5, utente, "Casco", 30, "vendita", "bici", "2099-01-01"));
+        assertEquals(List.of(1, 2, 4, 5), ids(bacheca.cercaPerParolaChiave("bici, sport")));
+        bacheca.rimuoviAnnuncio(1, utente);
+        assertEquals(List.of(2, 4, 5), ids(bacheca.cercaPerParolaChiave("bici, sport")));
+        bacheca.pulisciBacheca();
+        assertEquals(List.of(4, 5), ids(bacheca.cercaPerParolaChiave("bici, sport")));
+        assertEquals(inCache + 1, metriche.getRicercheInCache());
+
+        bacheca.setDimensioneCacheRicerche(1, 100);
+        bacheca.cercaPerParolaChiave("libro");
+        assertEquals(1, bacheca.getRicercheInCache());
+        bacheca.setDimensioneCacheRicerche(0, 0);
+        assertEquals(0, bacheca.getRicercheInCache());
+        assertEquals(List.of(3), ids(bacheca.cercaPerParolaChiave("romanzo")));
+        assertEquals(0, bacheca.getRicercheInCache());
+        assertThrows(IllegalArgumentException.class, () -> bacheca.setDimensioneCacheRicerche(-1, 10));
+    }
+
+    @Test
+    void testParoleAssenti() throws Exception {
+        MetricheBacheca metriche = bacheca.getMetriche();
+        metriche.setAbilitate(true);
+        for (int id = 1; id <= 3000; id++) { // oltre la capacità iniziale del filtro
+            bacheca.aggiungiAnnuncio(new Annuncio(id, utente, "Articolo", 10, "vendita", "parola" + id, "2099-01-01"));
+        }
+        bacheca.aggiungiAnnuncio(new Annuncio(3001, utente, "Casa", 10, "vendita", "Città", "2099-01-01"));
+
+        assertTrue(bacheca.cercaPerParolaChiave("inesistente, , altra").isEmpty());
+        assertTrue(bacheca.cercaPerParolaChiave("inesistente", Tipologia.VENDITA).isEmpty());
+        assertTrue(bacheca.cercaPiuEconomici("inesistente", 5).isEmpty());
+        assertEquals(0, metriche.getRicercheFuoriCache()); // scartate prima della cache
+        for (int id = 1; id <= 3000; id += 499) {
+            assertEquals(List.of(id), ids(bacheca.cercaPerParolaChiave(" PAROLA" + id + " , inesistente")));
+        }
+        assertEquals(List.of(3001), ids(bacheca.cercaPerParolaChiave("CITTÀ")));
+        assertEquals(List.of(3001), ids(bacheca.cercaPerParolaChiave("citta")));
+
+        // un acquisto senza parole in comune non trova vendite
+        assertTrue(bacheca.aggiungiAnnuncio(new Annuncio(4000, utente, "Cerco", 1, "acquisto", "nuova", null)).isEmpty());
+        assertEquals(List.of(3001),
+                ids(bacheca.aggiungiAnnuncio(new Annuncio(4001, utente, "Cerco", 1, "acquisto", "citta", null))));
+
+        // la parola esce dal filtro con l'ultimo annuncio che la contiene
+        bacheca.rimuoviAnnuncio(3001, utente);
+        assertEquals(List.of(4001), ids(bacheca.cercaPerParolaChiave("citta")));
+        bacheca.rimuoviAnnuncio(4001, utente);
+        assertTrue(bacheca.cercaPerParolaChiave("citta").isEmpty());
+        bacheca.aggiungiNuovaParolaChiave(1, utente, "Citta");
+        assertEquals(List.of(1), ids(bacheca.cercaPerParolaChiave("città")));
+    }
+
+    @Test
+    void testCaricamentoIncrementale(@TempDir Path cartella) throws Exception {
+        List<String> righe = new ArrayList<>();
+        for (int id = 1; id <= 2500; id++) {
+            righe.add(id + ";giovanni.neri@example.com;giovanniNeri;Articolo " + id + ";10.00;vendita;casa;2099-01-01");
+        }
+        righe.add(10, "9999;giovanni.neri@example.com;giovanniNeri;Sedia");
+        righe.add(20, "9998;giovanni.neri@example.com;giovanniNeri;Sedia;dieci;vendita;casa;2099-01-01");
+        righe.add(30, "9997;giovanni.neri@example.com;giovanniNeri;Sedia;10.00;vendita;casa;2099-13-45");
+        righe.add(40, "5;giovanni.neri@example.com;giovanniNeri;Doppione;10.00;vendita;casa;2099-01-01");
+        righe.add(50, "");
+        Path file = cartella.resolve("annunci.txt");
+        Files.write(file, righe);
+
+        List<long[]> avanzamenti = new ArrayList<>();
+        RapportoImportazione rapporto = bacheca.caricaAnnunciDaFile(file.toString(), (letti, totali, annunci) -> {
+            // gli annunci già caricati sono subito consultabili
+            assertEquals(annunci, bacheca.getNumeroAnnunci());
+            assertEquals(annunci, bacheca.cercaPerParolaChiave("casa").size());
+            avanzamenti.add(new long[] { letti, totali, annunci });
+        });
+
+        assertEquals(2500, rapporto.getAnnunciImportati());
+        assertEquals(2504, rapporto.getRigheLette());
+        assertEquals(4, rapporto.getNumeroErrori());
+        assertEquals(List.of(11L, 21L, 31L, 41L), rapporto.getErrori().stream().map(e -> e.riga()).toList());
+        assertEquals("Articolo 5", bacheca.cercaPerId(5).getArticolo());
+        assertEquals(2500, bacheca.getNumeroAnnunci());
+
+        assertTrue(avanzamenti.size() >= 3);
+        assertTrue(avanzamenti.get(0)[2] > 0 && avanzamenti.get(0)[2] < 2500);
+        long[] ultimo = avanzamenti.get(avanzamenti.size() - 1);
+        assertEquals(Files.size(file), ultimo[0]);
+        assertEquals(ultimo[0], ultimo[1]);
+        assertEquals(2500, ultimo[2]);
+
+        // senza avanzamento (interfacce senza GUI)
+        assertEquals(2500, bacheca.caricaAnnunciDaFile(file.toString(), null).getAnnunciImportati());
+        assertEquals(2500, bacheca.getNumeroAnnunci());
+
+        assertThrows(IOException.class,
+                () -> bacheca.caricaAnnunciDaFile(cartella.resolve("assente.txt").toString(), (l, t, a) -> {
+                }));
+    }
+
+    @Test
+    void testCaricamentoConByteNonUtf8(@TempDir Path cartella) throws Exception {
+        Path file = cartella.resolve("annunci.txt");
+        byte[] prima = "1;giovanni.neri@example.com;giovanniNeri;Sedia;10.00;vendita;casa;2099-01-01\n"
+                .getBytes(StandardCharsets.UTF_8);
+        // "Città" scritta in Cp1252 da una vecchia versione: 0xE0 non è UTF-8 valido
+        byte[] vecchia = "2;giovanni.neri@example.com;giovanniNeri;Citt\u00e0;20.00;vendita;casa;2099-01-01\n"
+                .getBytes("Cp1252");
+        byte[] dopo = "3;giovanni.neri@example.com;giovanniNeri;Caff\u00e8;30.00;vendita;casa;2099-01-01\n"
+                .getBytes(StandardCharsets.UTF_8);
+        try (var output = Files.newOutputStream(file)) {
+            output.write(prima);
+            output.write(vecchia);
+            output.write(dopo);
+        }
+
+        RapportoImportazione rapporto = bacheca.caricaAnnunciDaFile(file.toString(), null);
+        assertEquals(3, rapporto.getRigheLette());
+        assertEquals(2, rapporto.getAnnunciImportati());
+        assertEquals(List.of(2L), rapporto.getErrori().stream().map(e -> e.riga()).toList());
+        assertNull(bacheca.cercaPerId(2));
+        assertEquals("Caffè", bacheca.cercaPerId(3).getArticolo());
+    }
+
+    private static List<Integer> ids(List<Annuncio> annunci) {
+        return annunci.stream().map(Annuncio::getId).toList();
+    }
+
+}
@@ -0,0 +1,78 @@
+package modello.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import modello.persistenza.CommitDiGruppo;
+
+class CommitDiGruppoTest {
+
+    @Test
+    void testRichiesteRaggruppate() throws Exception {
+        AtomicInteger salvataggi = new AtomicInteger();
+        List<CompletableFuture<Void>> futuri = new ArrayList<>();
+        try (CommitDiGruppo persistenza = new CommitDiGruppo(() -> {
+            salvataggi.incrementAndGet();
+            pausa(20); // simula l'fsync
+        }, 50, TimeUnit.MILLISECONDS, 1000)) {
+            for (int i = 0; i < 100; i++) {
+                futuri.add(persistenza.richiedi());
+            }
+            CompletableFuture.allOf(futuri.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+            assertEquals(100, persistenza.getNumeroRichieste());
+            assertEquals(salvataggi.get(), persistenza.getNumeroCommit());
+            assertTrue(salvataggi.get() < 10, "salvataggi: " + salvataggi.get());
+        }
+    }
+
+    @Test
+    void testErroreSegnalatoAlGruppo() throws Exception {
+        AtomicBoolean guasto = new AtomicBoolean(true);
+        try (CommitDiGruppo persistenza = new CommitDiGruppo(() -> {
+            if (guasto.get()) {
+                throw new IOException("disco pieno");
+            }
+        }, 0, TimeUnit.MILLISECONDS, 1)) {
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> persistenza.richiedi().get(10, TimeUnit.SECONDS));
+            assertEquals("disco pieno", e.getCause().getMessage());
+
+            // lo scrittore resta attivo dopo un errore
+            guasto.set(false);
+            assertNull(persistenza.richiedi().get(10, TimeUnit.SECONDS));
+            assertEquals(1, persistenza.getNumeroCommit());
+        }
+    }
+
+    @Test
+    void testChiusuraSalvaLeRichiesteInAttesa() {
+        AtomicInteger salvataggi = new AtomicInteger();
+        CommitDiGruppo persistenza = new CommitDiGruppo(salvataggi::incrementAndGet, 10, TimeUnit.SECONDS, 1000);
+        CompletableFuture<Void> futuro = persistenza.richiedi();
+        persistenza.close(); // non aspetta i 10 secondi
+
+        assertTrue(futuro.isDone());
+        assertFalse(futuro.isCompletedExceptionally());
+        assertEquals(1, salvataggi.get());
+        assertThrows(IllegalStateException.class, persistenza::richiedi);
+    }
+
+    private static void pausa(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
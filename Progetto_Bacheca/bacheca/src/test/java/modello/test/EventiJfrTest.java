@@ -0,0 +1,78 @@
+package modello.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import modello.Annuncio;
+import modello.Bacheca;
+import modello.Utente;
+
+class EventiJfrTest {
+
+    @Test
+    void testEventiRegistrati(@TempDir Path cartella) throws Exception {
+        Bacheca bacheca = new Bacheca();
+        Utente utente = new Utente("mario@gmail.com", "Mario");
+        Path file = cartella.resolve("annunci.txt");
+        Path registrazione = cartella.resolve("bacheca.jfr");
+
+        try (Recording recording = new Recording()) {
+            for (String evento : List.of("modello.Ricerca", "modello.Persistenza", "modello.Pulizia",
+                    "modello.Modifica")) {
+                recording.enable(evento).withoutThreshold();
+            }
+            recording.start();
+
+            bacheca.aggiungiAnnuncio(new Annuncio(1, utente, "Bici", 100f, "vendita", "bici,sport", "2099-01-01"));
+            bacheca.cercaPerParolaChiave("bici");
+            bacheca.salvaAnnunciSuFile(file.toString());
+            Files.writeString(file, "riga malformata\n", StandardOpenOption.APPEND);
+            bacheca.caricaAnnunciDaFile(file.toString());
+            bacheca.pulisciBacheca();
+
+            recording.stop();
+            recording.dump(registrazione);
+        }
+
+        List<RecordedEvent> eventi = RecordingFile.readAllEvents(registrazione);
+
+        RecordedEvent ricerca = unico(eventi, "modello.Ricerca");
+        assertEquals("parola chiave", ricerca.getString("tipo"));
+        assertEquals("bici", ricerca.getString("paroleChiave"));
+        assertEquals(1, ricerca.getInt("risultati"));
+
+        RecordedEvent modifica = unico(eventi, "modello.Modifica");
+        assertEquals("aggiunta", modifica.getString("operazione"));
+        assertEquals(1, modifica.getInt("idAnnuncio"));
+        assertTrue(modifica.getBoolean("riuscita"));
+
+        List<RecordedEvent> persistenza = eventi.stream()
+                .filter(e -> e.getEventType().getName().equals("modello.Persistenza")).toList();
+        assertEquals(2, persistenza.size());
+        RecordedEvent caricamento = persistenza.stream()
+                .filter(e -> e.getString("operazione").equals("caricamento")).findFirst().orElseThrow();
+        assertEquals(2, caricamento.getInt("righe"));
+        assertEquals(1, caricamento.getInt("righeScartate"));
+        assertEquals(Files.size(file), caricamento.getLong("numeroByte"));
+
+        RecordedEvent pulizia = unico(eventi, "modello.Pulizia");
+        assertEquals(1, pulizia.getInt("annunciEsaminati"));
+        assertEquals(0, pulizia.getInt("annunciRimossi"));
+    }
+
+    private static RecordedEvent unico(List<RecordedEvent> eventi, String nome) {
+        List<RecordedEvent> trovati = eventi.stream().filter(e -> e.getEventType().getName().equals(nome)).toList();
+        assertEquals(1, trovati.size(), nome);
+        return trovati.get(0);
+    }
+}
@@ -0,0 +1,137 @@
+package modello.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import interfaccia.http.InterfacciaHttp;
+import modello.Bacheca;
+import modello.json.Json;
+
+class InterfacciaHttpTest {
+
+    private static final String MARIO = "\"email\":\"mario@gmail.com\",\"nome\":\"Mario\"";
+
+    private Bacheca bacheca;
+    private InterfacciaHttp server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bacheca = new Bacheca();
+        server = new InterfacciaHttp(bacheca, 0);
+        server.avvia();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.ferma();
+    }
+
+    @Test
+    void testAggiuntaRicercaRimozione() throws Exception {
+        HttpResponse<String> risposta = invia("POST", "/annunci", "{\"id\":10," + MARIO
+                + ",\"articolo\":\"Bici da corsa\",\"prezzo\":250.5,\"tipologia\":\"vendita\","
+                + "\"paroleChiave\":[\"bici\",\"sport\"],\"dataScadenza\":\"2099-01-01\"}");
+        assertEquals(201, risposta.statusCode());
+        assertEquals(1, bacheca.getNumeroAnnunci());
+
+        // stesso id: conflitto
+        assertEquals(409, invia("POST", "/annunci", "{\"id\":10," + MARIO
+                + ",\"articolo\":\"Bici\",\"prezzo\":1,\"tipologia\":\"vendita\",\"dataScadenza\":\"2099-01-01\"}")
+                .statusCode());
+
+        Map<String, Object> trovati = Json.leggiOggetto(invia("GET", "/ricerca?parole=Sport", null).body());
+        List<?> annunci = (List<?>) trovati.get("annunci");
+        assertEquals(1, annunci.size());
+        Map<?, ?> annuncio = (Map<?, ?>) annunci.get(0);
+        assertEquals(10L, annuncio.get("id"));
+        assertEquals(250.5, annuncio.get("prezzo"));
+        assertEquals(List.of("bici", "sport"), annuncio.get("paroleChiave"));
+
+        assertEquals(1, ((List<?>) Json.leggiOggetto(invia("GET", "/ricerca?prefisso=cor", null).body())
+                .get("annunci")).size());
+        Map<String, Object> pagina = Json.leggiOggetto(invia("GET", "/ricerca?parole=bici&limite=0", null).body());
+        assertEquals(1L, pagina.get("totale"));
+        assertEquals(List.of(), pagina.get("annunci"));
+
+        // solo l'autore può aggiungere parole e rimuovere
+        assertEquals(403, invia("DELETE", "/annunci/10", "{\"email\":\"luigi@gmail.com\",\"nome\":\"Luigi\"}")
+                .statusCode());
+        assertEquals(200, invia("POST", "/annunci/10/parole", "{" + MARIO + ",\"parola\":\"strada\"}").statusCode());
+        assertTrue(bacheca.cercaPerId(10).haParolaChiave("strada"));
+        assertEquals(200, invia("DELETE", "/annunci/10", "{" + MARIO + "}").statusCode());
+        assertEquals(404, invia("DELETE", "/annunci/10", "{" + MARIO + "}").statusCode());
+        assertEquals(0, bacheca.getNumeroAnnunci());
+    }
+
+    @Test
+    void testRichiesteNonValide() throws Exception {
+        assertEquals(400, invia("POST", "/annunci", "{non json").statusCode());
+        assertEquals(400, invia("POST", "/annunci", "{" + MARIO + ",\"articolo\":\"Bici\"}").statusCode());
+        assertEquals(400, invia("POST", "/annunci", "{" + MARIO
+                + ",\"articolo\":\"Bici\",\"prezzo\":-1,\"tipologia\":\"vendita\",\"dataScadenza\":\"2099-01-01\"}")
+                .statusCode());
+        assertEquals(400, invia("GET", "/ricerca", null).statusCode());
+        assertEquals(405, invia("DELETE", "/pulizia", null).statusCode());
+        assertEquals(404, invia("GET", "/annunci/99", null).statusCode());
+
+        HttpResponse<String> salute = invia("GET", "/salute", null);
+        assertEquals(200, salute.statusCode());
+        assertEquals("ok", Json.leggiOggetto(salute.body()).get("stato"));
+    }
+
+    @Test
+    void testEsportazioneImportazione() throws Exception {
+        String annuncio = "{\"id\":7," + MARIO
+                + ",\"articolo\":\"Tavolo\",\"prezzo\":40,\"tipologia\":\"vendita\",\"dataScadenza\":\"2099-01-01\"}";
+        HttpResponse<String> risposta = invia("POST", "/importazione", annuncio + "\n{non json\n" + annuncio + "\n");
+        assertEquals(200, risposta.statusCode());
+        Map<String, Object> rapporto = Json.leggiOggetto(risposta.body());
+        assertEquals(1L, rapporto.get("importati"));
+        assertEquals(2L, rapporto.get("numeroErrori"));
+
+        HttpResponse<String> esportazione = invia("GET", "/esportazione", null);
+        assertEquals(200, esportazione.statusCode());
+        List<String> righe = esportazione.body().lines().toList();
+        assertEquals(1, righe.size());
+        assertEquals(7L, Json.leggiOggetto(righe.get(0)).get("id"));
+
+        // stessa forma in GET /annunci/{id}: la risposta si può reinviare così com'è
+        String letto = invia("GET", "/annunci/7", null).body();
+        assertEquals(Json.leggiOggetto(righe.get(0)), Json.leggiOggetto(letto));
+        assertEquals(200, invia("DELETE", "/annunci/7", "{" + MARIO + "}").statusCode());
+        assertEquals(201, invia("POST", "/annunci", letto).statusCode());
+        assertEquals("Tavolo", bacheca.cercaPerId(7).getArticolo());
+    }
+
+    @Test
+    void testJson() {
+        String testo = "{\"a\":[1,2.5,true,null],\"b\":\"x\\\"\\u00e8\\n\",\"c\":{}}";
+        Map<String, Object> oggetto = Json.leggiOggetto(testo);
+        assertEquals(List.of(1L, 2.5, true), ((List<?>) oggetto.get("a")).subList(0, 3));
+        assertEquals("x\"è\n", oggetto.get("b"));
+        assertEquals(oggetto, Json.leggiOggetto(Json.scrivi(oggetto)));
+        assertThrows(IllegalArgumentException.class, () -> Json.leggi("[1,]"));
+        assertThrows(IllegalArgumentException.class, () -> Json.leggi("[".repeat(1000)));
+    }
+
+    private HttpResponse<String> invia(String metodo, String percorso, String corpo) throws Exception {
+        HttpRequest richiesta = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPorta() + percorso))
+                .method(metodo, corpo == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(corpo))
+                .header("Content-Type", "application/json")
+                .build();
+        return client.send(richiesta, HttpResponse.BodyHandlers.ofString());
+    }
+}
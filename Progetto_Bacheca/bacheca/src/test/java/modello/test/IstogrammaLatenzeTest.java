@@ -0,0 +1,52 @@
+package modello.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import modello.metriche.IstogrammaLatenze;
+
+class IstogrammaLatenzeTest {
+
+    @Test
+    void testIstogrammaVuoto() {
+        IstogrammaLatenze istogramma = new IstogrammaLatenze();
+        assertEquals(0, istogramma.getConteggio());
+        assertEquals(0, istogramma.percentile(99));
+        assertEquals(0.0, istogramma.getMedia());
+    }
+
+    @Test
+    void testPercentili() {
+        IstogrammaLatenze istogramma = new IstogrammaLatenze();
+        for (long v = 1; v <= 100_000; v++) {
+            istogramma.registra(v);
+        }
+
+        assertEquals(100_000, istogramma.getConteggio());
+        assertEquals(100_000, istogramma.getMassimo());
+        // errore relativo entro il 2% dovuto ai bucket log-lineari
+        assertEquals(50_000, istogramma.percentile(50), 50_000 * 0.02);
+        assertEquals(99_000, istogramma.percentile(99), 99_000 * 0.02);
+        assertEquals(100_000, istogramma.percentile(100));
+
+        // i valori piccoli sono esatti
+        IstogrammaLatenze piccoli = new IstogrammaLatenze();
+        piccoli.registra(3);
+        piccoli.registra(7);
+        assertEquals(3, piccoli.percentile(50));
+        assertEquals(7, piccoli.percentile(100));
+    }
+
+    @Test
+    void testAzzera() {
+        IstogrammaLatenze istogramma = new IstogrammaLatenze();
+        istogramma.registra(Long.MAX_VALUE);
+        istogramma.registra(-5); // trattato come zero
+        assertEquals(2, istogramma.getConteggio());
+        assertEquals(Long.MAX_VALUE, istogramma.percentile(100));
+
+        istogramma.azzera();
+        assertEquals(0, istogramma.getConteggio());
+        assertEquals(0, istogramma.getMassimo());
+    }
+}
@@ -0,0 +1,118 @@
+package modello.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import modello.Annuncio;
+import modello.Bacheca;
+import modello.Utente;
+import modello.exception.AnnuncioException;
+import modello.exception.BachecaException;
+import modello.exception.UtenteException;
+import modello.metriche.MetricheBacheca;
+import modello.metriche.MetricheBacheca.Operazione;
+
+class MetricheBachecaTest {
+
+    private Bacheca bacheca;
+    private MetricheBacheca metriche;
+    private Utente utente;
+
+    @BeforeEach
+    void setUp() throws UtenteException {
+        bacheca = new Bacheca();
+        metriche = bacheca.getMetriche();
+        metriche.setAbilitate(true);
+        utente = new Utente("mario@gmail.com", "Mario");
+    }
+
+    @Test
+    void testMetricheDisattivate() throws AnnuncioException, BachecaException {
+        metriche.setAbilitate(false);
+        bacheca.aggiungiAnnuncio(new Annuncio(1, utente, "Bici", 100f, "vendita", "bici", "2099-01-01"));
+        bacheca.cercaPerParolaChiave("bici");
+
+        assertEquals(0, metriche.getAggiunte());
+        assertEquals(0, metriche.getRicerche());
+        assertEquals(0, metriche.getLatenze(Operazione.RICERCA).getConteggio());
+        // le dimensioni sono lette dalla bacheca anche a metriche spente
+        assertEquals(1, metriche.getNumeroAnnunci());
+    }
+
+    @Test
+    void testContatoriOperazioni() throws Exception {
+        bacheca.aggiungiAnnuncio(new Annuncio(1, utente, "Bici", 100f, "vendita", "bici,sport", "2099-01-01"));
+        bacheca.aggiungiAnnuncio(new Annuncio(2, utente, "Libro", 10f, "vendita", "libro", "2099-01-01"));
+        assertThrows(BachecaException.class, () -> bacheca
+                .aggiungiAnnuncio(new Annuncio(2, utente, "Libro", 10f, "vendita", "libro", "2099-01-01")));
+
+        bacheca.cercaPerParolaChiave("bici, libro");
+        bacheca.cercaPerParolaChiave("tavolo");
+        bacheca.cercaPerPrefisso("spo");
+        bacheca.rimuoviAnnuncio(2, utente);
+        bacheca.pulisciBacheca();
+
+        assertEquals(2, metriche.getAggiunte());
+        assertEquals(1, metriche.getErrori(Operazione.AGGIUNTA));
+        assertEquals(3, metriche.getRicerche());
+        assertEquals(2, metriche.getRicercheConRisultati());
+        assertEquals(3, metriche.getRisultatiRestituiti());
+        assertEquals(1, metriche.getRimozioni());
+        assertEquals(1, metriche.getPulizie());
+        assertEquals(0, metriche.getAnnunciScaduti());
+        assertEquals(3, metriche.getLatenze(Operazione.AGGIUNTA).getConteggio());
+
+        assertEquals(1, metriche.getNumeroAnnunci());
+        assertTrue(metriche.getTerminiIndice() >= 2);
+        // il dizionario fuzzy non rimuove le parole
+        assertEquals(3, metriche.getParoleDizionario());
+
+        metriche.azzera();
+        assertEquals(0, metriche.getAggiunte());
+        assertEquals(0, metriche.getErrori());
+    }
+
+    @Test
+    void testMetrichePersistenza(@TempDir Path cartella) throws Exception {
+        bacheca.aggiungiAnnuncio(new Annuncio(1, utente, "Bici", 100f, "vendita", "bici", "2099-01-01"));
+        Path file = cartella.resolve("annunci.txt");
+
+        bacheca.salvaAnnunciSuFile(file.toString());
+        bacheca.caricaAnnunciDaFile(file.toString());
+        assertThrows(IOException.class, () -> bacheca.caricaAnnunciDaFile(cartella.resolve("assente.txt").toString()));
+
+        assertEquals(1, metriche.getSalvataggi());
+        assertEquals(1, metriche.getCaricamenti());
+        assertEquals(1, metriche.getErrori(Operazione.CARICAMENTO));
+        assertEquals(Files.size(file), metriche.getByteScritti());
+        assertEquals(Files.size(file), metriche.getByteLetti());
+        assertTrue(metriche.getDurataUltimoSalvataggioMs() > 0);
+    }
+
+    @Test
+    void testPubblicazioneJmxEFile(@TempDir Path cartella) throws Exception {
+        ObjectName nome = metriche.registraMBean("test");
+        try {
+            bacheca.cercaPerParolaChiave("bici");
+            assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(nome, "Ricerche"));
+        } finally {
+            metriche.annullaRegistrazioneMBean();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(nome));
+
+        Path log = cartella.resolve("metriche.log");
+        assertTrue(metriche.scriviResoconto(log));
+        String contenuto = Files.readString(log);
+        assertTrue(contenuto.contains("ricerche=1"));
+        assertTrue(contenuto.contains("ricerca "));
+    }
+}
@@ -0,0 +1,54 @@
+package modello.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import modello.Prezzo;
+
+class PrezzoTest {
+
+    @Test
+    void testFormatta() {
+        assertEquals("0.05", Prezzo.formatta(5));
+        assertEquals("0.00", Prezzo.formatta(0));
+        assertEquals("12.50", Prezzo.formatta(1250));
+        assertEquals("-3.07", Prezzo.formatta(-307));
+        assertEquals("-92233720368547758.08", Prezzo.formatta(Long.MIN_VALUE));
+        assertEquals("92233720368547758.07", Prezzo.formatta(Long.MAX_VALUE));
+
+        char[] buffer = new char[3 + Prezzo.LUNGHEZZA_MASSIMA];
+        buffer[0] = 'x';
+        int fine = Prezzo.scrivi(27999, buffer, 1);
+        assertEquals("x279.99", new String(buffer, 0, fine));
+    }
+
+    @Test
+    void testLeggi() {
+        assertEquals(1250, Prezzo.leggi("12.50"));
+        assertEquals(1250, Prezzo.leggi(" 12,5 "));
+        assertEquals(1200, Prezzo.leggi("12"));
+        assertEquals(50, Prezzo.leggi(".5"));
+        assertEquals(1235, Prezzo.leggi("12.345")); // arrotondato per eccesso
+        assertEquals(1234, Prezzo.leggi("12.3449"));
+        assertEquals(-307, Prezzo.leggi("-3.07"));
+        assertEquals(1250, Prezzo.leggi("a12.50b", 1, 6));
+
+        for (String testo : new String[] { "", " ", ".", "-", "12.5.0", "1e3", "12 50", "92233720368547758.08" }) {
+            assertThrows(NumberFormatException.class, () -> Prezzo.leggi(testo), testo);
+        }
+    }
+
+    @Test
+    void testAndataERitorno() {
+        Random random = new Random(11);
+        for (int i = 0; i < 10_000; i++) {
+            long centesimi = random.nextLong();
+            assertEquals(centesimi, Prezzo.leggi(Prezzo.formatta(centesimi)));
+        }
+        assertEquals(27999, Prezzo.centesimi(279.99f));
+        assertEquals(1_000_000_001L, Prezzo.centesimi(10_000_000.01));
+        assertEquals(279.99, Prezzo.inEuro(27999));
+    }
+}
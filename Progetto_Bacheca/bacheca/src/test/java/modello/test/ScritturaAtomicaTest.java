@@ -0,0 +1,63 @@
+package modello.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import modello.Annuncio;
+import modello.Bacheca;
+import modello.Utente;
+import modello.persistenza.ScritturaAtomica;
+
+class ScritturaAtomicaTest {
+
+    @TempDir
+    Path cartella;
+
+    @Test
+    void testSostituzioneConGenerazionePrecedente() throws IOException {
+        Path file = cartella.resolve("annunci.txt");
+        ScritturaAtomica.scrivi(file, output -> output.write("prima\n"));
+        assertFalse(Files.exists(ScritturaAtomica.precedente(file)));
+
+        ScritturaAtomica.scrivi(file, output -> output.write("seconda\n"));
+        assertEquals("seconda\n", Files.readString(file));
+        assertEquals("prima\n", Files.readString(ScritturaAtomica.precedente(file)));
+
+        // nessun temporaneo rimasto
+        try (var elenco = Files.list(cartella)) {
+            assertEquals(2, elenco.count());
+        }
+    }
+
+    @Test
+    void testErroreLasciaIntattoIlFile() throws Exception {
+        Path file = cartella.resolve("annunci.txt");
+        Bacheca bacheca = new Bacheca();
+        bacheca.aggiungiAnnuncio(new Annuncio(1, new Utente("mario@gmail.com", "Mario"), "Bici", 100, "vendita",
+                "sport", "2099-01-01"));
+        bacheca.salvaAnnunciSuFile(file.toString());
+        List<String> salvato = Files.readAllLines(file);
+        assertEquals(1, salvato.size());
+
+        // scrittura interrotta a metà: il file resta quello di prima
+        assertThrows(IOException.class, () -> ScritturaAtomica.scrivi(file, output -> {
+            output.write("riga parziale");
+            throw new IOException("disco pieno");
+        }));
+        assertEquals(salvato, Files.readAllLines(file));
+        try (var elenco = Files.list(cartella)) {
+            assertEquals(1, elenco.count());
+        }
+
+        Bacheca caricata = new Bacheca();
+        caricata.caricaAnnunciDaFile(file.toString());
+        assertEquals(1, caricata.getNumeroAnnunci());
+    }
+}
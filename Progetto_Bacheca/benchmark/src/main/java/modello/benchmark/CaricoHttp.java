@@ -0,0 +1,243 @@
+package modello.benchmark;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import interfaccia.http.InterfacciaHttp;
+import modello.Annuncio;
+import modello.Bacheca;
+import modello.Utente;
+import modello.json.CodificaAnnuncio;
+import modello.json.Json;
+import modello.metriche.IstogrammaLatenze;
+
+/**
+ * Misura le richieste al secondo dell'interfaccia HTTP: avvia in locale un
+ * {@link InterfacciaHttp} su una bacheca generata da {@link GeneratoreCarico}
+ * (oppure usa un server già avviato con {@code --url}) e lo sollecita da
+ * {@code connessioni} client concorrenti, ognuno su un thread virtuale, con un
+ * mix di ricerche, aggiunte e rimozioni.
+ *
+ * <p>
+ * Uso (opzioni nella forma {@code --nome=valore}, tutte facoltative):
+ * </p>
+ *
+ * <pre>
+ * java -cp benchmark/target/benchmarks.jar modello.benchmark.CaricoHttp \
+ *      --annunci=100000 --connessioni=64 --durata=30 --riscaldamento=5 \
+ *      --mix=cerca:80,aggiungi:15,rimuovi:5
+ * </pre>
+ */
+public class CaricoHttp {
+
+    private static final String[] OPERAZIONI = { "cerca", "aggiungi", "rimuovi" };
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opzioni = ReplayCarico.leggiOpzioni(args);
+        int numeroAnnunci = Integer.parseInt(opzioni.getOrDefault("annunci", "100000"));
+        int numeroUtenti = Integer.parseInt(opzioni.getOrDefault("utenti", "10000"));
+        int connessioni = Integer.parseInt(opzioni.getOrDefault("connessioni", "64"));
+        int durata = Integer.parseInt(opzioni.getOrDefault("durata", "30"));
+        int riscaldamento = Integer.parseInt(opzioni.getOrDefault("riscaldamento", "5"));
+        int vocabolario = Integer.parseInt(opzioni.getOrDefault("vocabolario", "50000"));
+        double zipf = Double.parseDouble(opzioni.getOrDefault("zipf", "1.0"));
+        long seme = Long.parseLong(opzioni.getOrDefault("seme", "42"));
+        int[] mix = leggiMix(opzioni.getOrDefault("mix", "cerca:80,aggiungi:15,rimuovi:5"));
+
+        Utente[] utenti = GeneratoreCarico.creaUtenti(numeroUtenti);
+        AtomicInteger prossimoId = new AtomicInteger(1);
+        InterfacciaHttp server = null;
+        String url = opzioni.get("url");
+        if (url == null) {
+            System.out.printf(Locale.ROOT, "Generazione di %d annunci e avvio del server locale...%n", numeroAnnunci);
+            List<Annuncio> iniziali = new GeneratoreCarico(seme, utenti, vocabolario, zipf, 0.66, 0.0, prossimoId)
+                    .genera(numeroAnnunci);
+            Bacheca bacheca = GeneratoreAnnunci.bachecaCon(iniziali);
+            server = new InterfacciaHttp(bacheca, 0);
+            server.avvia();
+            url = "http://localhost:" + server.getPorta();
+        } else {
+            // id alti per non collidere con quelli già presenti sul server
+            prossimoId.set(1_000_000_000);
+        }
+
+        Map<String, IstogrammaLatenze> latenze = new LinkedHashMap<>();
+        for (String op : OPERAZIONI) {
+            latenze.put(op, new IstogrammaLatenze());
+        }
+        LongAdder errori = new LongAdder();
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        List<Client> clienti = new ArrayList<>();
+        for (int c = 0; c < connessioni; c++) {
+            GeneratoreCarico generatore = new GeneratoreCarico(seme + c + 1, utenti, vocabolario, zipf, 0.66, 0.0,
+                    prossimoId);
+            clienti.add(new Client(client, url, generatore, mix, latenze, errori));
+        }
+
+        System.out.printf(Locale.ROOT, "Riscaldamento: %d s, misura: %d s, %d connessioni verso %s%n",
+                riscaldamento, durata, connessioni, url);
+        esegui(clienti, riscaldamento);
+        latenze.values().forEach(IstogrammaLatenze::azzera);
+        errori.reset();
+        long inizio = System.nanoTime();
+        esegui(clienti, durata);
+        double secondi = (System.nanoTime() - inizio) / 1e9;
+
+        long totale = latenze.values().stream().mapToLong(IstogrammaLatenze::getConteggio).sum();
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Richieste: %d in %.1f s -> %.0f req/s (errori: %d)%n", totale, secondi,
+                totale / secondi, errori.sum());
+        System.out.println(IstogrammaLatenze.intestazioneTabella());
+        for (Map.Entry<String, IstogrammaLatenze> e : latenze.entrySet()) {
+            System.out.println(e.getValue().tabellaPercentili(e.getKey()));
+        }
+
+        if (server != null) {
+            server.ferma();
+        }
+    }
+
+    /**
+     * Esegue tutti i client in parallelo, ognuno su un thread virtuale, per la
+     * durata indicata.
+     */
+    private static void esegui(List<Client> clienti, int secondi) {
+        long fine = System.nanoTime() + secondi * 1_000_000_000L;
+        try (ExecutorService esecutore = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Client c : clienti) {
+                esecutore.submit(() -> c.esegui(fine));
+            }
+        }
+    }
+
+    /**
+     * Un client: invia una richiesta alla volta e ne registra la latenza.
+     */
+    private static final class Client {
+        private final HttpClient client;
+        private final String url;
+        private final GeneratoreCarico generatore;
+        private final int[] mix;
+        private final int pesoTotale;
+        private final IstogrammaLatenze[] latenze;
+        private final LongAdder errori;
+        private final ArrayDeque<Annuncio> propri = new ArrayDeque<>();
+
+        Client(HttpClient client, String url, GeneratoreCarico generatore, int[] mix,
+                Map<String, IstogrammaLatenze> latenze, LongAdder errori) {
+            this.client = client;
+            this.url = url;
+            this.generatore = generatore;
+            this.mix = mix;
+            int somma = 0;
+            for (int peso : mix) {
+                somma += peso;
+            }
+            this.pesoTotale = somma;
+            this.latenze = new IstogrammaLatenze[OPERAZIONI.length];
+            for (int i = 0; i < OPERAZIONI.length; i++) {
+                this.latenze[i] = latenze.get(OPERAZIONI[i]);
+            }
+            this.errori = errori;
+        }
+
+        void esegui(long fine) {
+            while (System.nanoTime() < fine) {
+                int op = scegli();
+                Annuncio nuovo = null;
+                Annuncio daRimuovere = null;
+                HttpRequest richiesta;
+                // la richiesta è preparata fuori dalla misura
+                switch (op) {
+                    case 0:
+                        richiesta = HttpRequest.newBuilder(URI.create(url + "/ricerca?parole="
+                                + URLEncoder.encode(generatore.ricercaCasuale(), StandardCharsets.UTF_8))).GET()
+                                .build();
+                        break;
+                    case 1:
+                        nuovo = generatore.prossimo();
+                        richiesta = HttpRequest.newBuilder(URI.create(url + "/annunci"))
+                                .POST(HttpRequest.BodyPublishers.ofString(json(nuovo))).build();
+                        break;
+                    default:
+                        daRimuovere = propri.pollFirst();
+                        if (daRimuovere == null) {
+                            continue; // niente da rimuovere per questo client
+                        }
+                        richiesta = HttpRequest.newBuilder(URI.create(url + "/annunci/" + daRimuovere.getId()))
+                                .method("DELETE", HttpRequest.BodyPublishers.ofString(Json.scrivi(Map.of(
+                                        "email", daRimuovere.getAutore().getEmail(),
+                                        "nome", daRimuovere.getAutore().getNome()))))
+                                .build();
+                        break;
+                }
+
+                long inizio = System.nanoTime();
+                try {
+                    HttpResponse<byte[]> risposta = client.send(richiesta, HttpResponse.BodyHandlers.ofByteArray());
+                    if (risposta.statusCode() >= 400) {
+                        errori.increment();
+                    } else if (nuovo != null) {
+                        propri.addLast(nuovo);
+                    }
+                } catch (Exception e) {
+                    errori.increment();
+                }
+                latenze[op].registra(System.nanoTime() - inizio);
+            }
+        }
+
+        private int scegli() {
+            int r = generatore.intero(pesoTotale);
+            for (int i = 0; i < mix.length; i++) {
+                r -= mix[i];
+                if (r < 0) {
+                    return i;
+                }
+            }
+            return mix.length - 1;
+        }
+    }
+
+    /**
+     * Corpo JSON di {@code POST /annunci} per l'annuncio dato.
+     */
+    private static String json(Annuncio a) {
+        return Json.scrivi(CodificaAnnuncio.inMappa(a));
+    }
+
+    /**
+     * Legge il mix nella forma {@code cerca:80,aggiungi:15,rimuovi:5}.
+     */
+    private static int[] leggiMix(String testo) {
+        int[] pesi = new int[OPERAZIONI.length];
+        for (String parte : testo.split(",")) {
+            String[] kv = parte.trim().split(":");
+            int i = List.of(OPERAZIONI).indexOf(kv[0].trim());
+            if (kv.length != 2 || i < 0) {
+                throw new IllegalArgumentException("Voce del mix non valida: " + parte);
+            }
+            pesi[i] = Integer.parseInt(kv[1].trim());
+        }
+        if (pesi[0] + pesi[1] + pesi[2] <= 0) {
+            throw new IllegalArgumentException("Il mix deve contenere almeno un'operazione con peso positivo");
+        }
+        return pesi;
+    }
+}
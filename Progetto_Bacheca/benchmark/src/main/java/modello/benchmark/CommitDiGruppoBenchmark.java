@@ -0,0 +1,70 @@
+package modello.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import modello.persistenza.CommitDiGruppo;
+import modello.persistenza.ScritturaAtomica;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Richieste di salvataggio durevole al secondo da {@code 16} thread: ognuno
+ * salva da sé (serializzato, come facevano GUI e CLI dopo ogni modifica)
+ * oppure passa dal {@link CommitDiGruppo}, che soddisfa con un salvataggio
+ * tutte le richieste arrivate insieme.
+ *
+ * <pre>
+ * java -jar benchmark/target/benchmarks.jar CommitDiGruppoBenchmark -p dimensione=1000
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx16g" })
+@State(Scope.Benchmark)
+public class CommitDiGruppoBenchmark {
+
+    private Path file;
+    private CommitDiGruppo persistenza;
+    private final Object lockSincrono = new Object();
+
+    @Setup(Level.Trial)
+    public void prepara(StatoBacheca stato) throws IOException {
+        file = Files.createTempFile("bacheca-gruppo", ".txt");
+        persistenza = new CommitDiGruppo(() -> stato.bacheca.salvaAnnunciSuFile(file.toString()));
+    }
+
+    @TearDown(Level.Trial)
+    public void pulisci() throws IOException {
+        persistenza.close();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(ScritturaAtomica.precedente(file));
+    }
+
+    @Benchmark
+    public void salvataggioSincrono(StatoBacheca stato) throws IOException {
+        synchronized (lockSincrono) {
+            stato.bacheca.salvaAnnunciSuFile(file.toString());
+        }
+    }
+
+    @Benchmark
+    public void commitDiGruppo() {
+        persistenza.richiedi().join();
+    }
+}
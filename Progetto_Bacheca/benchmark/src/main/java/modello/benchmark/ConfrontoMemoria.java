@@ -0,0 +1,82 @@
+package modello.benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import modello.Bacheca;
+import modello.BachecaColonnare;
+import modello.OperazioniBacheca;
+
+/**
+ * Confronta il peso sul garbage collector di {@link Bacheca} (un grafo di
+ * oggetti per annuncio) e di {@link BachecaColonnare} (colonne fuori dallo
+ * heap) al crescere della bacheca: per ogni dimensione stampa lo heap occupato,
+ * i byte fuori dallo heap, la durata di una raccolta completa e il tempo di GC
+ * durante una serie di ricerche.
+ *
+ * <pre>
+ * java -Xmx8g -cp benchmark/target/benchmarks.jar modello.benchmark.ConfrontoMemoria \
+ *      --dimensioni=250000,1000000,4000000 --motore=colonnare
+ * </pre>
+ *
+ * <p>
+ * Conviene eseguire un motore per JVM, così le misure dell'uno non risentono
+ * dello heap lasciato dall'altro.
+ * </p>
+ */
+public class ConfrontoMemoria {
+
+    private static final int RICERCHE = 50;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opzioni = ReplayCarico.leggiOpzioni(args);
+        String motore = opzioni.getOrDefault("motore", "colonnare");
+        String[] dimensioni = opzioni.getOrDefault("dimensioni", "250000,1000000").split(",");
+
+        System.out.printf(Locale.ROOT, "%-10s %10s %10s %16s %17s %17s%n", "motore", "annunci", "heap (MB)",
+                "fuori heap (MB)", "GC completo (ms)", "GC ricerche (ms)");
+        for (String d : dimensioni) {
+            int dimensione = Integer.parseInt(d.trim());
+            Path file = GeneratoreAnnunci.scriviFile(
+                    new GeneratoreAnnunci(StatoBacheca.SEME, 0.0).genera(dimensione));
+            OperazioniBacheca bacheca = "oggetti".equals(motore) ? new Bacheca() : new BachecaColonnare();
+            bacheca.caricaAnnunciDaFile(file.toString());
+            Files.delete(file);
+
+            double gcCompleto = raccoltaCompleta();
+            long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            long fuoriHeap = bacheca instanceof BachecaColonnare c ? c.getByteFuoriHeap() : 0;
+
+            long gcPrima = tempoGc();
+            for (int i = 0; i < RICERCHE; i++) {
+                bacheca.cercaPerParolaChiave(GeneratoreAnnunci.parolePer("media"));
+            }
+            long gcRicerche = tempoGc() - gcPrima;
+
+            System.out.printf(Locale.ROOT, "%-10s %10d %10.1f %16.1f %17.1f %17d%n", motore, dimensione,
+                    heap / 1e6, fuoriHeap / 1e6, gcCompleto, gcRicerche);
+            raccoltaCompleta();
+        }
+    }
+
+    /** Durata media in millisecondi di tre {@code System.gc()}. */
+    private static double raccoltaCompleta() {
+        long inizio = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return (System.nanoTime() - inizio) / 3e6;
+    }
+
+    /** Tempo di GC accumulato da tutti i collector, in millisecondi. */
+    private static long tempoGc() {
+        long totale = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            totale += Math.max(0, gc.getCollectionTime());
+        }
+        return totale;
+    }
+}
@@ -0,0 +1,54 @@
+package modello.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import modello.Annuncio;
+import modello.Utente;
+import modello.exception.AnnuncioException;
+import modello.exception.UtenteException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark della costruzione (con validazione) di {@link Utente} e
+ * {@link Annuncio}. Non dipende dalla dimensione della bacheca.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CostruzioneBenchmark {
+
+    private final Utente autore;
+
+    public CostruzioneBenchmark() {
+        try {
+            autore = new Utente("mario@gmail.com", "mario123");
+        } catch (UtenteException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public Utente nuovoUtente() throws UtenteException {
+        return new Utente("laura.martinelli@libero.it", "lauraM");
+    }
+
+    @Benchmark
+    public Annuncio nuovoAnnuncioVendita() throws AnnuncioException {
+        return new Annuncio(845, autore, "stampante", 24.98f, "vendita", "canon, stampante, usato", "2027-09-01");
+    }
+
+    @Benchmark
+    public Annuncio nuovoAnnuncioAcquisto() throws AnnuncioException {
+        return new Annuncio(6604, autore, "playstation", 100f, "acquisto", "sony, console, ps4", null);
+    }
+}
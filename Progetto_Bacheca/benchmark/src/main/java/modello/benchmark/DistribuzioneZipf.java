@@ -0,0 +1,52 @@
+package modello.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Distribuzione di Zipf sui ranghi {@code 0..n-1}: il rango {@code k} ha
+ * probabilità proporzionale a {@code 1 / (k + 1)^s}. Il campionamento usa la
+ * funzione di ripartizione precalcolata e una ricerca binaria, O(log n).
+ */
+public class DistribuzioneZipf {
+
+    private final double[] ripartizione;
+
+    /**
+     * @param n         numero di ranghi (> 0)
+     * @param esponente esponente s (tipicamente intorno a 1)
+     */
+    public DistribuzioneZipf(int n, double esponente) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Il numero di ranghi deve essere positivo");
+        }
+        ripartizione = new double[n];
+        double somma = 0.0;
+        for (int k = 0; k < n; k++) {
+            somma += 1.0 / Math.pow(k + 1, esponente);
+            ripartizione[k] = somma;
+        }
+        for (int k = 0; k < n; k++) {
+            ripartizione[k] /= somma;
+        }
+    }
+
+    /**
+     * Estrae un rango.
+     *
+     * @param random sorgente di casualità (non condivisa tra thread)
+     * @return rango in {@code [0, n)}
+     */
+    public int campiona(SplittableRandom random) {
+        int pos = Arrays.binarySearch(ripartizione, random.nextDouble());
+        int rango = pos >= 0 ? pos : -pos - 1;
+        return Math.min(rango, ripartizione.length - 1);
+    }
+
+    /**
+     * Restituisce il numero di ranghi.
+     */
+    public int getDimensione() {
+        return ripartizione.length;
+    }
+}
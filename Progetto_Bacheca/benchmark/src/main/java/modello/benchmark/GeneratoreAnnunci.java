@@ -0,0 +1,217 @@
+package modello.benchmark;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import modello.Annuncio;
+import modello.Bacheca;
+import modello.BachecaPartizionata;
+import modello.Utente;
+import modello.exception.AnnuncioException;
+import modello.exception.BachecaException;
+import modello.exception.UtenteException;
+
+/**
+ * Generatore di annunci sintetici per i benchmark, modellato sulle righe di
+ * {@code annunci.txt}: articoli di elettronica e casa, poche parole chiave per
+ * annuncio, circa un terzo di annunci di acquisto.
+ *
+ * <p>
+ * Le parole chiave sono scelte in modo da avere selettività note:
+ * </p>
+ * <ul>
+ * <li>{@link #PAROLA_COMUNE} compare in circa metà degli annunci;</li>
+ * <li>ogni parola di {@link #CATEGORIE} in circa il 10%;</li>
+ * <li>ogni parola "modelloN" (N &lt; {@link #NUMERO_MODELLI}) in circa lo
+ * 0,1%;</li>
+ * <li>{@link #PAROLA_ASSENTE} in nessuno.</li>
+ * </ul>
+ * Il generatore è deterministico a parità di seme.
+ */
+public class GeneratoreAnnunci {
+
+    public static final String PAROLA_COMUNE = "usato";
+    public static final String PAROLA_ASSENTE = "introvabile";
+    public static final String[] CATEGORIE = { "elettronica", "informatica", "telefonia", "console", "casa",
+            "cucina", "sport", "bicicletta", "audio", "fotografia" };
+    public static final int NUMERO_MODELLI = 1000;
+
+    private static final String[] ARTICOLI = { "smartphone", "stampante epson", "playstation", "iphone 14",
+            "monitor 27 pollici", "tastiera meccanica RGB", "smart TV 43 pollici", "bicicletta da corsa",
+            "tablet 10 pollici", "set cuffie wireless", "macbook pro 13", "macchina per il caffè",
+            "drone con fotocamera", "smartwatch samsung", "frigorifero" };
+
+    private static final int NUMERO_UTENTI = 1000;
+    private static final LocalDate OGGI = LocalDate.now();
+
+    private final SplittableRandom random;
+    private final Utente[] utenti;
+    private final double frazioneScaduti;
+    private int prossimoId;
+
+    /**
+     * @param seme             seme del generatore pseudo-casuale
+     * @param frazioneScaduti  frazione di annunci di vendita già scaduti (0..1)
+     */
+    public GeneratoreAnnunci(long seme, double frazioneScaduti) {
+        this.random = new SplittableRandom(seme);
+        this.frazioneScaduti = frazioneScaduti;
+        this.prossimoId = 1;
+        this.utenti = new Utente[NUMERO_UTENTI];
+        try {
+            for (int i = 0; i < NUMERO_UTENTI; i++) {
+                utenti[i] = new Utente("utente" + i + "@example.com", "utente" + i);
+            }
+        } catch (UtenteException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Genera il prossimo annuncio (id progressivi a partire da 1).
+     */
+    public Annuncio prossimo() {
+        boolean vendita = random.nextInt(3) != 0;
+        return crea(vendita);
+    }
+
+    /**
+     * Genera il prossimo annuncio della tipologia indicata.
+     *
+     * @param vendita true per "vendita", false per "acquisto"
+     */
+    public Annuncio crea(boolean vendita) {
+        Utente autore = utenti[random.nextInt(utenti.length)];
+        String articolo = ARTICOLI[random.nextInt(ARTICOLI.length)];
+        float prezzo = 1 + random.nextInt(200_000) / 100f;
+
+        StringBuilder parole = new StringBuilder(CATEGORIE[random.nextInt(CATEGORIE.length)]);
+        parole.append(", modello").append(random.nextInt(NUMERO_MODELLI));
+        if (random.nextBoolean()) {
+            parole.append(", ").append(PAROLA_COMUNE);
+        }
+
+        String scadenza = null;
+        if (vendita) {
+            scadenza = random.nextDouble() < frazioneScaduti
+                    ? OGGI.minusDays(1 + random.nextInt(365)).toString()
+                    : OGGI.plusDays(1 + random.nextInt(4 * 365)).toString();
+        }
+        try {
+            return new Annuncio(prossimoId++, autore, articolo, prezzo, vendita ? "vendita" : "acquisto",
+                    parole.toString(), scadenza);
+        } catch (AnnuncioException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Genera {@code n} annunci.
+     */
+    public List<Annuncio> genera(int n) {
+        List<Annuncio> annunci = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            annunci.add(prossimo());
+        }
+        return annunci;
+    }
+
+    /**
+     * Crea una bacheca contenente gli annunci dati. Gli annunci vengono scritti su
+     * un file temporaneo e caricati con {@link Bacheca#caricaAnnunciDaFile(String)}:
+     * inserirli uno a uno con {@code aggiungiAnnuncio} costerebbe O(n^2), perché
+     * ogni annuncio di acquisto avvia una ricerca sull'intera bacheca.
+     */
+    public static Bacheca bachecaCon(List<Annuncio> annunci) {
+        try {
+            Path file = scriviFile(annunci);
+            Bacheca bacheca = new Bacheca();
+            bacheca.caricaAnnunciDaFile(file.toString());
+            Files.delete(file);
+            return bacheca;
+        } catch (IOException | AnnuncioException | UtenteException | BachecaException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Crea una {@link BachecaPartizionata} con gli annunci dati, caricandoli dai
+     * file delle partizioni (come {@link #bachecaCon(List)}, senza i controlli di
+     * aggiunta).
+     */
+    public static BachecaPartizionata bachecaPartizionataCon(List<Annuncio> annunci, int numeroPartizioni) {
+        BachecaPartizionata bacheca = new BachecaPartizionata(numeroPartizioni);
+        List<List<Annuncio>> perPartizione = new ArrayList<>();
+        for (int i = 0; i < numeroPartizioni; i++) {
+            perPartizione.add(new ArrayList<>());
+        }
+        for (Annuncio a : annunci) {
+            perPartizione.get(bacheca.partizione(a.getId())).add(a);
+        }
+        try {
+            Path base = Files.createTempFile("bacheca-benchmark", ".txt");
+            for (int i = 0; i < numeroPartizioni; i++) {
+                Files.move(scriviFile(perPartizione.get(i)),
+                        Path.of(BachecaPartizionata.filePartizione(base.toString(), i)));
+            }
+            bacheca.caricaAnnunciDaFile(base.toString());
+            for (int i = 0; i < numeroPartizioni; i++) {
+                Files.delete(Path.of(BachecaPartizionata.filePartizione(base.toString(), i)));
+            }
+            Files.delete(base);
+            return bacheca;
+        } catch (IOException | AnnuncioException | UtenteException | BachecaException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Scrive gli annunci su un file temporaneo nel formato di
+     * {@link Bacheca#salvaAnnunciSuFile(String)}.
+     *
+     * @return percorso del file creato
+     */
+    public static Path scriviFile(List<Annuncio> annunci) throws IOException {
+        Path file = Files.createTempFile("bacheca-benchmark", ".txt");
+        try (PrintWriter output = new PrintWriter(Files.newBufferedWriter(file))) {
+            for (Annuncio a : annunci) {
+                output.printf(Locale.ROOT, "%d;%s;%s;%s;%.2f;%s;%s;%s%n",
+                        a.getId(),
+                        a.getAutore().getEmail(),
+                        a.getAutore().getNome(),
+                        a.getArticolo(),
+                        a.getPrezzo(),
+                        a.getTipologia(),
+                        a.getParoleChiave(),
+                        a.getDataScadenza() != null ? a.getDataScadenza().toString() : "null");
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Parole di ricerca per ciascun livello di selettività usato dai benchmark.
+     *
+     * @param selettivita "nessuna", "alta" (~0,1%), "media" (~10%), "bassa" (~50%)
+     */
+    public static String parolePer(String selettivita) {
+        switch (selettivita) {
+            case "nessuna":
+                return PAROLA_ASSENTE;
+            case "alta":
+                return "modello42";
+            case "media":
+                return CATEGORIE[0];
+            case "bassa":
+                return PAROLA_COMUNE;
+            default:
+                throw new IllegalArgumentException("Selettività sconosciuta: " + selettivita);
+        }
+    }
+}
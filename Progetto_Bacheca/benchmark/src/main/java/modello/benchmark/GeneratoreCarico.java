@@ -0,0 +1,152 @@
+package modello.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import modello.Annuncio;
+import modello.Utente;
+import modello.exception.AnnuncioException;
+import modello.exception.UtenteException;
+
+/**
+ * Generatore di carico realistico per dimensionare l'hardware: {@code N}
+ * utenti, parole chiave con distribuzione di Zipf (poche parole molto comuni,
+ * una lunga coda di parole rare), scadenze a breve termine e un rapporto
+ * configurabile tra annunci di acquisto e di vendita.
+ *
+ * <p>
+ * Le prime parole del vocabolario sono quelle più frequenti in
+ * {@code annunci.txt}; le successive sono sintetiche ("termine123"). Gli id
+ * vengono da un contatore condiviso, quindi più generatori (uno per thread,
+ * con semi diversi) non producono mai id duplicati.
+ * </p>
+ */
+public class GeneratoreCarico {
+
+    private static final String[] PAROLE_COMUNI = { "usato", "elettronica", "apple", "console", "smart", "led",
+            "cucina", "bicicletta", "stampante", "wireless", "samsung", "iphone", "tv", "ps4", "monitor", "tablet",
+            "android", "gaming", "tastiera", "cuffie", "drone", "fotocamera", "caffè", "macbook" };
+
+    private static final String[] ARTICOLI = { "smartphone", "stampante epson", "playstation", "iphone 14",
+            "monitor 27 pollici", "tastiera meccanica RGB", "smart TV 43 pollici", "bicicletta da corsa",
+            "tablet 10 pollici", "set cuffie wireless", "macbook pro 13", "macchina per il caffè",
+            "drone con fotocamera", "smartwatch samsung", "frigorifero", "applewatch" };
+
+    private final SplittableRandom random;
+    private final Utente[] utenti;
+    private final DistribuzioneZipf zipf;
+    private final double frazioneVendita;
+    private final double frazioneScaduti;
+    private final AtomicInteger prossimoId;
+    private final LocalDate oggi;
+
+    /**
+     * @param seme            seme del generatore
+     * @param utenti          utenti tra cui scegliere gli autori
+     * @param vocabolario     numero di parole chiave distinte
+     * @param esponenteZipf   esponente della distribuzione delle parole
+     * @param frazioneVendita frazione di annunci di vendita (0..1)
+     * @param frazioneScaduti frazione di vendite già scadute (0..1)
+     * @param prossimoId      contatore condiviso degli id
+     */
+    public GeneratoreCarico(long seme, Utente[] utenti, int vocabolario, double esponenteZipf,
+            double frazioneVendita, double frazioneScaduti, AtomicInteger prossimoId) {
+        this.random = new SplittableRandom(seme);
+        this.utenti = utenti;
+        this.zipf = new DistribuzioneZipf(vocabolario, esponenteZipf);
+        this.frazioneVendita = frazioneVendita;
+        this.frazioneScaduti = frazioneScaduti;
+        this.prossimoId = prossimoId;
+        this.oggi = LocalDate.now();
+    }
+
+    /**
+     * Crea {@code n} utenti validi ("utente{i}@example.com").
+     */
+    public static Utente[] creaUtenti(int n) {
+        Utente[] utenti = new Utente[n];
+        try {
+            for (int i = 0; i < n; i++) {
+                utenti[i] = new Utente("utente" + i + "@example.com", "utente" + i);
+            }
+        } catch (UtenteException e) {
+            throw new IllegalStateException(e);
+        }
+        return utenti;
+    }
+
+    /**
+     * Parola chiave di un rango del vocabolario.
+     */
+    public static String parola(int rango) {
+        return rango < PAROLE_COMUNI.length ? PAROLE_COMUNI[rango] : "termine" + rango;
+    }
+
+    /**
+     * Estrae una parola chiave secondo la distribuzione di Zipf.
+     */
+    public String parolaCasuale() {
+        return parola(zipf.campiona(random));
+    }
+
+    /**
+     * Genera una richiesta di ricerca con 1 o 2 parole chiave.
+     */
+    public String ricercaCasuale() {
+        return random.nextInt(4) == 0 ? parolaCasuale() + ", " + parolaCasuale() : parolaCasuale();
+    }
+
+    /**
+     * Restituisce un intero casuale in {@code [0, limite)}.
+     */
+    public int intero(int limite) {
+        return random.nextInt(limite);
+    }
+
+    /**
+     * Genera un nuovo annuncio.
+     */
+    public Annuncio prossimo() {
+        boolean vendita = random.nextDouble() < frazioneVendita;
+        Utente autore = utenti[random.nextInt(utenti.length)];
+        String articolo = ARTICOLI[random.nextInt(ARTICOLI.length)];
+        // prezzi log-uniformi tra 1 e 2000 euro
+        float prezzo = Math.round(Math.exp(random.nextDouble() * Math.log(2000.0)) * 100) / 100f;
+
+        int numeroParole = 1 + random.nextInt(4);
+        StringBuilder parole = new StringBuilder();
+        for (int i = 0; i < numeroParole; i++) {
+            if (i > 0) {
+                parole.append(", ");
+            }
+            parole.append(parolaCasuale());
+        }
+
+        String scadenza = null;
+        if (vendita) {
+            // la maggior parte degli annunci scade entro tre mesi
+            scadenza = random.nextDouble() < frazioneScaduti
+                    ? oggi.minusDays(1 + random.nextInt(30)).toString()
+                    : oggi.plusDays(1 + random.nextInt(90)).toString();
+        }
+        try {
+            return new Annuncio(prossimoId.getAndIncrement(), autore, articolo, Math.max(prezzo, 0.01f),
+                    vendita ? "vendita" : "acquisto", parole.toString(), scadenza);
+        } catch (AnnuncioException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Genera {@code n} annunci.
+     */
+    public List<Annuncio> genera(int n) {
+        List<Annuncio> annunci = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            annunci.add(prossimo());
+        }
+        return annunci;
+    }
+}
@@ -0,0 +1,90 @@
+package modello.benchmark;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import modello.Annuncio;
+import modello.exception.AutoreNonAutorizzatoException;
+import modello.exception.BachecaException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark di {@code aggiungiAnnuncio} (vendita e acquisto) e
+ * {@code rimuoviAnnuncio}. Ogni invocazione lascia la bacheca com'era: l'annuncio
+ * aggiunto viene rimosso (e quello rimosso viene reinserito) fuori dalla misura.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx16g" })
+public class MutazioniBenchmark {
+
+    /** Annuncio nuovo da inserire, creato prima di ogni invocazione. */
+    @State(Scope.Thread)
+    public static class Inserimento {
+        Annuncio vendita;
+        Annuncio acquisto;
+
+        @Setup(Level.Invocation)
+        public void crea(StatoBacheca stato) {
+            vendita = stato.generatore.crea(true);
+            acquisto = stato.generatore.crea(false);
+        }
+
+        @TearDown(Level.Invocation)
+        public void ripristina(StatoBacheca stato) throws BachecaException, AutoreNonAutorizzatoException {
+            for (Annuncio a : new Annuncio[] { vendita, acquisto }) {
+                if (stato.bacheca.getPoolId().contains(a.getId())) {
+                    stato.bacheca.rimuoviAnnuncio(a.getId(), a.getAutore());
+                }
+            }
+        }
+    }
+
+    /** Annuncio esistente da rimuovere, scelto a caso prima di ogni invocazione. */
+    @State(Scope.Thread)
+    public static class Rimozione {
+        Annuncio bersaglio;
+        private int prossimo;
+
+        @Setup(Level.Invocation)
+        public void scegli(StatoBacheca stato) {
+            prossimo = (prossimo + 7919) % stato.annunci.size();
+            bersaglio = stato.annunci.get(prossimo);
+        }
+
+        @TearDown(Level.Invocation)
+        public void ripristina(StatoBacheca stato) throws BachecaException {
+            if (!stato.bacheca.getPoolId().contains(bersaglio.getId())) {
+                stato.bacheca.aggiungiAnnuncio(bersaglio);
+            }
+        }
+    }
+
+    @Benchmark
+    public ArrayList<Annuncio> aggiungiAnnuncioVendita(StatoBacheca stato, Inserimento i) throws BachecaException {
+        return stato.bacheca.aggiungiAnnuncio(i.vendita);
+    }
+
+    @Benchmark
+    public ArrayList<Annuncio> aggiungiAnnuncioAcquisto(StatoBacheca stato, Inserimento i) throws BachecaException {
+        return stato.bacheca.aggiungiAnnuncio(i.acquisto);
+    }
+
+    @Benchmark
+    public boolean rimuoviAnnuncio(StatoBacheca stato, Rimozione r)
+            throws BachecaException, AutoreNonAutorizzatoException {
+        return stato.bacheca.rimuoviAnnuncio(r.bersaglio.getId(), r.bersaglio.getAutore());
+    }
+}
@@ -0,0 +1,92 @@
+package modello.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import modello.Annuncio;
+import modello.Bacheca;
+import modello.persistenza.ScritturaAtomica;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark di {@code salvaAnnunciSuFile} e {@code caricaAnnunciDaFile} su un
+ * file temporaneo. Il salvataggio è misurato sia atomico (file temporaneo,
+ * force e rinomina, il default) sia riscrivendo il file sul posto, per
+ * confrontare il costo della durabilità, e a segmenti dopo la modifica di un
+ * solo annuncio, dove viene riscritto solo il segmento che lo contiene.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx16g" })
+@State(Scope.Benchmark)
+public class PersistenzaBenchmark {
+
+    private Path salvataggio;
+    private Path caricamento;
+    private Path segmenti;
+    private int prossimo;
+
+    @Setup(Level.Trial)
+    public void prepara(StatoBacheca stato) throws IOException {
+        salvataggio = Files.createTempFile("bacheca-salva", ".txt");
+        caricamento = GeneratoreAnnunci.scriviFile(stato.annunci);
+        segmenti = Files.createTempDirectory("bacheca-segmenti");
+        stato.bacheca.salvaSegmenti(segmenti.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void pulisci() throws IOException {
+        Files.deleteIfExists(salvataggio);
+        Files.deleteIfExists(ScritturaAtomica.precedente(salvataggio));
+        Files.deleteIfExists(caricamento);
+        try (Stream<Path> file = Files.list(segmenti)) {
+            for (Path f : (Iterable<Path>) file::iterator) {
+                Files.delete(f);
+            }
+        }
+        Files.delete(segmenti);
+    }
+
+    @Benchmark
+    public void salvaAnnunciSuFile(StatoBacheca stato) throws IOException {
+        stato.bacheca.setSalvataggioAtomico(true);
+        stato.bacheca.salvaAnnunciSuFile(salvataggio.toString());
+    }
+
+    @Benchmark
+    public void salvaAnnunciSuFileSulPosto(StatoBacheca stato) throws IOException {
+        stato.bacheca.setSalvataggioAtomico(false);
+        stato.bacheca.salvaAnnunciSuFile(salvataggio.toString());
+    }
+
+    @Benchmark
+    public int salvaSegmentiDopoUnaModifica(StatoBacheca stato) throws Exception {
+        // toglie e rimette un annuncio: un solo segmento da riscrivere
+        Annuncio annuncio = stato.annunci.get(prossimo++ % stato.annunci.size());
+        stato.bacheca.rimuoviAnnuncio(annuncio.getId(), annuncio.getAutore());
+        stato.bacheca.aggiungiAnnuncio(annuncio);
+        return stato.bacheca.salvaSegmenti(segmenti.toString());
+    }
+
+    @Benchmark
+    public Bacheca caricaAnnunciDaFile() throws Exception {
+        Bacheca bacheca = new Bacheca();
+        bacheca.caricaAnnunciDaFile(caricamento.toString());
+        return bacheca;
+    }
+}
@@ -0,0 +1,61 @@
+package modello.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import modello.Bacheca;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark di {@code pulisciBacheca}. La pulizia modifica la bacheca, quindi
+ * ogni misura parte da una bacheca appena ricaricata (10% di vendite scadute) e
+ * si misura una singola esecuzione.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx16g" })
+@State(Scope.Benchmark)
+public class PulisciBenchmark {
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    public int dimensione;
+
+    private Path file;
+    private Bacheca bacheca;
+
+    @Setup(Level.Trial)
+    public void scriviDati() throws IOException {
+        file = GeneratoreAnnunci.scriviFile(new GeneratoreAnnunci(StatoBacheca.SEME, 0.1).genera(dimensione));
+    }
+
+    @Setup(Level.Iteration)
+    public void ricarica() throws Exception {
+        bacheca = new Bacheca();
+        bacheca.caricaAnnunciDaFile(file.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void cancellaDati() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public boolean pulisciBacheca() {
+        return bacheca.pulisciBacheca();
+    }
+}
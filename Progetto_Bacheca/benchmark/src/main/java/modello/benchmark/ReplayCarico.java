@@ -0,0 +1,243 @@
+package modello.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import modello.Annuncio;
+import modello.OperazioniBacheca;
+import modello.Utente;
+import modello.metriche.IstogrammaLatenze;
+
+/**
+ * Strumento di replay del carico: crea una bacheca con {@code M} annunci
+ * generati da {@link GeneratoreCarico} e la sollecita da più thread con un mix
+ * di operazioni (aggiunta, rimozione, ricerca, pulizia). Al termine stampa il
+ * throughput e una tabella dei percentili di latenza per operazione.
+ *
+ * <p>
+ * Uso (opzioni nella forma {@code --nome=valore}, tutte facoltative):
+ * </p>
+ *
+ * <pre>
+ * java -cp benchmark/target/benchmarks.jar modello.benchmark.ReplayCarico \
+ *      --utenti=10000 --annunci=100000 --thread=8 --durata=30 --riscaldamento=5 \
+ *      --mix=aggiungi:20,rimuovi:10,cerca:69,pulisci:1 --vendita=0.66 --zipf=1.0 \
+ *      --partizioni=1
+ * </pre>
+ *
+ * <p>
+ * I thread chiamano la bacheca direttamente: le latenze misurate
+ * comprendono l'attesa del suo lock lettura/scrittura. Con
+ * {@code --partizioni=N} (N &gt; 1) la bacheca è una
+ * {@link modello.BachecaPartizionata} con N partizioni.
+ * </p>
+ */
+public class ReplayCarico {
+
+    private static final String[] OPERAZIONI = { "aggiungi", "rimuovi", "cerca", "pulisci" };
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opzioni = leggiOpzioni(args);
+        int numeroUtenti = Integer.parseInt(opzioni.getOrDefault("utenti", "10000"));
+        int numeroAnnunci = Integer.parseInt(opzioni.getOrDefault("annunci", "100000"));
+        int numeroThread = Integer.parseInt(
+                opzioni.getOrDefault("thread", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int durata = Integer.parseInt(opzioni.getOrDefault("durata", "30"));
+        int riscaldamento = Integer.parseInt(opzioni.getOrDefault("riscaldamento", "5"));
+        int vocabolario = Integer.parseInt(opzioni.getOrDefault("vocabolario", "50000"));
+        double zipf = Double.parseDouble(opzioni.getOrDefault("zipf", "1.0"));
+        double vendita = Double.parseDouble(opzioni.getOrDefault("vendita", "0.66"));
+        double scaduti = Double.parseDouble(opzioni.getOrDefault("scaduti", "0.05"));
+        long seme = Long.parseLong(opzioni.getOrDefault("seme", "42"));
+        int partizioni = Integer.parseInt(opzioni.getOrDefault("partizioni", "1"));
+        int[] mix = leggiMix(opzioni.getOrDefault("mix", "aggiungi:20,rimuovi:10,cerca:69,pulisci:1"));
+
+        System.out.printf(Locale.ROOT, "Generazione di %d annunci (%d utenti, vocabolario %d, zipf %.2f)...%n",
+                numeroAnnunci, numeroUtenti, vocabolario, zipf);
+        Utente[] utenti = GeneratoreCarico.creaUtenti(numeroUtenti);
+        AtomicInteger prossimoId = new AtomicInteger(1);
+        List<Annuncio> iniziali = new GeneratoreCarico(seme, utenti, vocabolario, zipf, vendita, scaduti, prossimoId)
+                .genera(numeroAnnunci);
+        OperazioniBacheca bacheca = partizioni > 1
+                ? GeneratoreAnnunci.bachecaPartizionataCon(iniziali, partizioni)
+                : GeneratoreAnnunci.bachecaCon(iniziali);
+
+        Map<String, IstogrammaLatenze> latenze = new LinkedHashMap<>();
+        for (String op : OPERAZIONI) {
+            latenze.put(op, new IstogrammaLatenze());
+        }
+        LongAdder errori = new LongAdder();
+
+        // ogni thread può rimuovere gli annunci iniziali che gli spettano e quelli che aggiunge
+        List<Esecutore> esecutori = new ArrayList<>();
+        for (int t = 0; t < numeroThread; t++) {
+            ArrayDeque<Annuncio> propri = new ArrayDeque<>();
+            for (int i = t; i < iniziali.size(); i += numeroThread) {
+                propri.add(iniziali.get(i));
+            }
+            GeneratoreCarico generatore = new GeneratoreCarico(seme + t + 1, utenti, vocabolario, zipf, vendita,
+                    scaduti, prossimoId);
+            esecutori.add(new Esecutore(bacheca, generatore, propri, mix, latenze, errori));
+        }
+
+        System.out.printf(Locale.ROOT, "Riscaldamento: %d s, misura: %d s, %d thread%n", riscaldamento, durata,
+                numeroThread);
+        esegui(esecutori, riscaldamento);
+        latenze.values().forEach(IstogrammaLatenze::azzera);
+        errori.reset();
+        long inizio = System.nanoTime();
+        esegui(esecutori, durata);
+        double secondi = (System.nanoTime() - inizio) / 1e9;
+
+        long totale = latenze.values().stream().mapToLong(IstogrammaLatenze::getConteggio).sum();
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Operazioni: %d in %.1f s -> %.0f op/s (errori: %d, annunci finali: %d)%n",
+                totale, secondi, totale / secondi, errori.sum(), bacheca.getNumeroAnnunci());
+        System.out.println(IstogrammaLatenze.intestazioneTabella());
+        for (Map.Entry<String, IstogrammaLatenze> e : latenze.entrySet()) {
+            System.out.println(e.getValue().tabellaPercentili(e.getKey()));
+        }
+    }
+
+    /**
+     * Avvia tutti gli esecutori per la durata indicata e attende che terminino.
+     */
+    private static void esegui(List<Esecutore> esecutori, int secondi) throws InterruptedException {
+        long fine = System.nanoTime() + secondi * 1_000_000_000L;
+        CountDownLatch terminati = new CountDownLatch(esecutori.size());
+        for (Esecutore e : esecutori) {
+            Thread thread = new Thread(() -> {
+                try {
+                    e.esegui(fine);
+                } finally {
+                    terminati.countDown();
+                }
+            }, "replay-" + esecutori.indexOf(e));
+            thread.start();
+        }
+        terminati.await();
+    }
+
+    /**
+     * Ciclo di un singolo thread: sceglie le operazioni secondo il mix e ne
+     * registra la latenza.
+     */
+    private static final class Esecutore {
+        private final OperazioniBacheca bacheca;
+        private final GeneratoreCarico generatore;
+        private final ArrayDeque<Annuncio> propri;
+        private final int[] mix;
+        private final int pesoTotale;
+        private final IstogrammaLatenze[] latenze;
+        private final LongAdder errori;
+
+        Esecutore(OperazioniBacheca bacheca, GeneratoreCarico generatore, ArrayDeque<Annuncio> propri, int[] mix,
+                Map<String, IstogrammaLatenze> latenze, LongAdder errori) {
+            this.bacheca = bacheca;
+            this.generatore = generatore;
+            this.propri = propri;
+            this.mix = mix;
+            int somma = 0;
+            for (int peso : mix) {
+                somma += peso;
+            }
+            this.pesoTotale = somma;
+            this.latenze = new IstogrammaLatenze[OPERAZIONI.length];
+            for (int i = 0; i < OPERAZIONI.length; i++) {
+                this.latenze[i] = latenze.get(OPERAZIONI[i]);
+            }
+            this.errori = errori;
+        }
+
+        void esegui(long fine) {
+            while (System.nanoTime() < fine) {
+                int op = scegli();
+                // gli input sono preparati fuori dalla misura
+                Annuncio nuovo = op == 0 ? generatore.prossimo() : null;
+                Annuncio daRimuovere = op == 1 ? propri.pollFirst() : null;
+                String ricerca = op == 2 ? generatore.ricercaCasuale() : null;
+                if (op == 1 && daRimuovere == null) {
+                    continue; // niente da rimuovere per questo thread
+                }
+
+                long inizio = System.nanoTime();
+                try {
+                    switch (op) {
+                        case 0:
+                            bacheca.aggiungiAnnuncio(nuovo);
+                            break;
+                        case 1:
+                            bacheca.rimuoviAnnuncio(daRimuovere.getId(), daRimuovere.getAutore());
+                            break;
+                        case 2:
+                            bacheca.cercaPerParolaChiave(ricerca);
+                            break;
+                        default:
+                            bacheca.pulisciBacheca();
+                            break;
+                    }
+                } catch (Exception e) {
+                    // es. annuncio già rimosso dalla pulizia
+                    errori.increment();
+                }
+                latenze[op].registra(System.nanoTime() - inizio);
+                if (op == 0) {
+                    propri.addLast(nuovo);
+                }
+            }
+        }
+
+        private int scegli() {
+            int r = generatore.intero(pesoTotale);
+            for (int i = 0; i < mix.length; i++) {
+                r -= mix[i];
+                if (r < 0) {
+                    return i;
+                }
+            }
+            return mix.length - 1;
+        }
+    }
+
+    /**
+     * Legge le opzioni nella forma {@code --nome=valore}.
+     */
+    static Map<String, String> leggiOpzioni(String[] args) {
+        Map<String, String> opzioni = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Opzione non valida (usare --nome=valore): " + arg);
+            }
+            int uguale = arg.indexOf('=');
+            opzioni.put(arg.substring(2, uguale), arg.substring(uguale + 1));
+        }
+        return opzioni;
+    }
+
+    /**
+     * Legge il mix nella forma {@code aggiungi:20,rimuovi:10,cerca:69,pulisci:1}.
+     */
+    private static int[] leggiMix(String testo) {
+        int[] pesi = new int[OPERAZIONI.length];
+        for (String parte : testo.split(",")) {
+            String[] kv = parte.trim().split(":");
+            int i = List.of(OPERAZIONI).indexOf(kv[0].trim());
+            if (kv.length != 2 || i < 0) {
+                throw new IllegalArgumentException("Voce del mix non valida: " + parte);
+            }
+            pesi[i] = Integer.parseInt(kv[1].trim());
+        }
+        if (Arrays.stream(pesi).sum() <= 0) {
+            throw new IllegalArgumentException("Il mix deve contenere almeno un'operazione con peso positivo");
+        }
+        return pesi;
+    }
+}
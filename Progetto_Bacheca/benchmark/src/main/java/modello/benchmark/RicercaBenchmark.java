@@ -0,0 +1,67 @@
+package modello.benchmark;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import modello.Annuncio;
+import modello.Bacheca;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark di {@code cercaPerParolaChiave} con selettività diverse (vedi
+ * {@link GeneratoreAnnunci#parolePer(String)}), con la scansione sempre
+ * sequenziale o parallela oltre la soglia predefinita, con o senza la cache dei
+ * risultati (la stessa ricerca ripetuta su una bacheca che non cambia è sempre
+ * servita dalla cache: senza, si misura la scansione). Per confrontare numeri di
+ * core diversi si limita il pool comune:
+ *
+ * <pre>
+ * java -jar benchmark/target/benchmarks.jar RicercaBenchmark -p dimensione=1000000 \
+ *      -jvmArgsAppend -Djava.util.concurrent.ForkJoinPool.common.parallelism=4
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx16g" })
+@State(Scope.Benchmark)
+public class RicercaBenchmark {
+
+    @Param({ "nessuna", "alta", "media", "bassa" })
+    public String selettivita;
+
+    @Param({ "sequenziale", "parallela" })
+    public String scansione;
+
+    @Param({ "senza", "con" })
+    public String cache;
+
+    private String parole;
+
+    @Setup(Level.Trial)
+    public void prepara(StatoBacheca stato) {
+        parole = GeneratoreAnnunci.parolePer(selettivita);
+        stato.bacheca.setSogliaScansioneParallela("parallela".equals(scansione)
+                ? Bacheca.SOGLIA_SCANSIONE_PARALLELA_PREDEFINITA
+                : Integer.MAX_VALUE);
+        if ("senza".equals(cache)) {
+            stato.bacheca.setDimensioneCacheRicerche(0, 0);
+        }
+    }
+
+    @Benchmark
+    public ArrayList<Annuncio> cercaPerParolaChiave(StatoBacheca stato) {
+        return stato.bacheca.cercaPerParolaChiave(parole);
+    }
+}
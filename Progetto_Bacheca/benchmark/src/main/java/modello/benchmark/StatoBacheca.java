@@ -0,0 +1,40 @@
+package modello.benchmark;
+
+import java.util.List;
+import modello.Annuncio;
+import modello.Bacheca;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Stato condiviso dai benchmark: una bacheca riempita con {@code dimensione}
+ * annunci sintetici (vedi {@link GeneratoreAnnunci}), costruita una volta per
+ * trial.
+ */
+@State(Scope.Benchmark)
+public class StatoBacheca {
+
+    /** Numero di annunci in bacheca. */
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    public int dimensione;
+
+    /** Seme del generatore: stessi dati a ogni esecuzione. */
+    public static final long SEME = 42L;
+
+    public Bacheca bacheca;
+    public List<Annuncio> annunci;
+
+    /** Generatore per gli annunci creati durante la misura (id oltre la bacheca). */
+    public GeneratoreAnnunci generatore;
+
+    @Setup(Level.Trial)
+    public void prepara() {
+        GeneratoreAnnunci iniziale = new GeneratoreAnnunci(SEME, 0.0);
+        annunci = iniziale.genera(dimensione);
+        bacheca = GeneratoreAnnunci.bachecaCon(annunci);
+        generatore = iniziale;
+    }
+}